@@ -0,0 +1,46 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.io.IOException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Entry point of the benchmarks jar. It takes the usual JMH command line
+ * options, and always adds the GC profiler so that allocation rates
+ * (gc.alloc.rate.norm: bytes per operation) are reported with the
+ * throughput.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class BenchmarkRunner {
+	private BenchmarkRunner() {
+	}
+
+	/**
+	 * @param args
+	 *            JMH options, e.g. "QueryBenchmark -p latencyNanos=0"
+	 * @throws RunnerException
+	 * @throws CommandLineOptionException
+	 * @throws IOException
+	 */
+	public static void main(String[] args) throws RunnerException,
+			CommandLineOptionException, IOException {
+		final CommandLineOptions commandLine = new CommandLineOptions(args);
+		if (commandLine.shouldHelp() || commandLine.shouldList()
+				|| commandLine.shouldListProfilers()) {
+			org.openjdk.jmh.Main.main(args);
+			return;
+		}
+		new Runner(new OptionsBuilder().parent(commandLine)
+				.addProfiler(GCProfiler.class).build()).run();
+	}
+}
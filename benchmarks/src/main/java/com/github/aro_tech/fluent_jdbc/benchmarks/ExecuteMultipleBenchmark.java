@@ -0,0 +1,136 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.aro_tech.fluent_jdbc.benchmarks.stub.StubDatabase;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.RequestTemplate;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+
+/**
+ * Cost of running a write request with many parameter sets: one execution
+ * per set, JDBC batches or multi-row inserts, compared with a plain JDBC
+ * batch. Building the parameter sets is part of the measure.
+ * 
+ * @author aro_tech
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ExecuteMultipleBenchmark {
+	static final String SQL = "INSERT INTO stub (id, name, amount, created) VALUES (?, ?, ?, ?)";
+
+	private static final ILogger LOGGER = new SQLLogger();
+	private static final Timestamp CREATED = Timestamp
+			.valueOf("2016-01-01 00:00:00");
+
+	/**
+	 * Number of parameter sets per request
+	 */
+	@Param({ "10", "1000" })
+	public int parameterSets;
+
+	/**
+	 * Time spent by the stub database in each execution, in nanoseconds
+	 */
+	@Param({ "0", "50000" })
+	public long latencyNanos;
+
+	private StubDatabase database;
+	private String[] names;
+	private RequestTemplate<Void> template;
+
+	@Setup
+	public void setUp() {
+		database = new StubDatabase(0, latencyNanos);
+		names = new String[parameterSets];
+		for (int i = 0; i < parameterSets; i++) {
+			names[i] = "name " + i;
+		}
+		template = RequestBuilder.returningVoid()
+				.withConnectionProvider(database).withSQL(SQL)
+				.compile(Long.class, String.class, Double.class, Timestamp.class);
+	}
+
+	private JDBCArgumentSetter[] argumentSetters() {
+		final JDBCArgumentSetter[] setters = new JDBCArgumentSetter[parameterSets];
+		for (int i = 0; i < parameterSets; i++) {
+			setters[i] = ArgumentSetterBuilder.withLogging(LOGGER).add((long) i)
+					.add(names[i]).add(i * 0.5).add(CREATED).build();
+		}
+		return setters;
+	}
+
+	@Benchmark
+	public int[] plainJdbcBatch() throws SQLException {
+		try (Connection c = database.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(SQL)) {
+			for (int i = 0; i < parameterSets; i++) {
+				stmnt.setLong(1, i);
+				stmnt.setString(2, names[i]);
+				stmnt.setDouble(3, i * 0.5);
+				stmnt.setTimestamp(4, CREATED);
+				stmnt.addBatch();
+			}
+			return stmnt.executeBatch();
+		}
+	}
+
+	@Benchmark
+	public List<Void> executeMultiple() {
+		return RequestBuilder.returningVoid().withConnectionProvider(database)
+				.withSQL(SQL).withArgumentSetters(argumentSetters())
+				.executeMultiple();
+	}
+
+	@Benchmark
+	public int[] executeBatch() {
+		return RequestBuilder.returningVoid().withConnectionProvider(database)
+				.withSQL(SQL).withArgumentSetters(argumentSetters())
+				.executeBatch();
+	}
+
+	@Benchmark
+	public List<Void> executeMultipleWithMultiRowInserts() {
+		return RequestBuilder.returningVoid().withConnectionProvider(database)
+				.withSQL(SQL).withMultiRowInserts(256)
+				.withArgumentSetters(argumentSetters()).executeMultiple();
+	}
+
+	@Benchmark
+	public List<Void> requestTemplateExecuteMultiple() {
+		final List<Object[]> sets = new ArrayList<Object[]>(parameterSets);
+		for (int i = 0; i < parameterSets; i++) {
+			sets.add(new Object[] { (long) i, names[i], i * 0.5, CREATED });
+		}
+		return template.executeMultiple(sets);
+	}
+}
@@ -0,0 +1,163 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.aro_tech.fluent_jdbc.benchmarks.stub.StubDatabase;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+
+/**
+ * Cost of collecting one parameter of each type with ArgumentSetterBuilder
+ * and binding it to a statement, compared with a ParameterBuffer reused
+ * across calls and with setting the parameter directly
+ * 
+ * @author aro_tech
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParameterBindingBenchmark {
+	private static final ILogger LOGGER = new SQLLogger();
+
+	private final String text = "some text";
+	private final Timestamp timestamp = Timestamp
+			.valueOf("2016-01-01 00:00:00");
+	private final LocalDateTime localDateTime = LocalDateTime.of(2016, 1, 1,
+			0, 0);
+	private final BigDecimal decimal = new BigDecimal("12.50");
+	private final List<Long> ids = Arrays.asList(1L, 2L, 3L, 4L, 5L);
+	private PreparedStatement stmnt;
+	private ParameterBuffer buffer;
+
+	@Setup
+	public void setUp() throws SQLException {
+		stmnt = new StubDatabase(0, 0).getConnection().prepareStatement(
+				"UPDATE stub SET name = ? WHERE id = ?");
+		buffer = new ParameterBuffer(LOGGER);
+	}
+
+	@TearDown
+	public void tearDown() throws SQLException {
+		stmnt.close();
+	}
+
+	private PreparedStatement bind(ArgumentSetterBuilder builder)
+			throws SQLException {
+		builder.build().setArguments(stmnt);
+		return stmnt;
+	}
+
+	private PreparedStatement bind(ParameterBuffer parameters)
+			throws SQLException {
+		parameters.setArguments(stmnt);
+		parameters.reset();
+		return stmnt;
+	}
+
+	@Benchmark
+	public PreparedStatement plainJdbcLongAndString() throws SQLException {
+		stmnt.setLong(1, 42L);
+		stmnt.setString(2, text);
+		return stmnt;
+	}
+
+	@Benchmark
+	public PreparedStatement builderLongAndString() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(42L)
+				.add(text));
+	}
+
+	@Benchmark
+	public PreparedStatement bufferLongAndString() throws SQLException {
+		return bind(buffer.addLong(42L).addString(text));
+	}
+
+	@Benchmark
+	public PreparedStatement builderInt() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(42));
+	}
+
+	@Benchmark
+	public PreparedStatement builderLong() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(42L));
+	}
+
+	@Benchmark
+	public PreparedStatement builderDouble() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(4.2));
+	}
+
+	@Benchmark
+	public PreparedStatement builderFloat() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(4.2f));
+	}
+
+	@Benchmark
+	public PreparedStatement builderBoolean() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(true));
+	}
+
+	@Benchmark
+	public PreparedStatement builderString() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(text));
+	}
+
+	@Benchmark
+	public PreparedStatement builderTimestamp() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(timestamp));
+	}
+
+	@Benchmark
+	public PreparedStatement builderLocalDateTime() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(
+				localDateTime));
+	}
+
+	@Benchmark
+	public PreparedStatement builderObjectWithSqlType() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(decimal,
+				Types.NUMERIC));
+	}
+
+	@Benchmark
+	public PreparedStatement builderNull() throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(
+				(String) null));
+	}
+
+	@Benchmark
+	public PreparedStatement builderCollectionExpandedInList()
+			throws SQLException {
+		return bind(ArgumentSetterBuilder.withLogging(LOGGER).add(ids)
+				.fill(new ParameterBuffer(LOGGER)).expandArrays(new int[] { 8 }));
+	}
+}
@@ -0,0 +1,110 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.aro_tech.fluent_jdbc.benchmarks.stub.StubDatabase;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.RequestTemplate;
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
+
+/**
+ * Cost of building and executing a single one-row query, compared with the
+ * same query in plain JDBC
+ * 
+ * @author aro_tech
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class QueryBenchmark {
+	static final String SQL = "SELECT id, name, amount, created FROM stub WHERE id = ?";
+
+	static final RowMapper<Row> ROW_MAPPER = rs -> new Row(rs.getLong(1),
+			rs.getString(2), rs.getDouble(3), rs.getTimestamp(4));
+
+	static final ResultSetReader<Row> FIRST_ROW_READER = rs -> rs.next() ? ROW_MAPPER
+			.mapRow(rs) : null;
+
+	/**
+	 * Time spent by the stub database in each execution, in nanoseconds
+	 */
+	@Param({ "0", "50000" })
+	public long latencyNanos;
+
+	private StubDatabase database;
+	private RequestTemplate<Row> template;
+
+	@Setup
+	public void setUp() {
+		database = new StubDatabase(1, latencyNanos);
+		template = RequestBuilder.returning(Row.class)
+				.withConnectionProvider(database).withSQL(SQL)
+				.withResultReader(FIRST_ROW_READER).compile(Long.class);
+	}
+
+	@Benchmark
+	public Row plainJdbc() throws SQLException {
+		try (Connection c = database.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(SQL)) {
+			stmnt.setLong(1, 42L);
+			try (ResultSet rs = stmnt.executeQuery()) {
+				return FIRST_ROW_READER.handleResults(rs);
+			}
+		}
+	}
+
+	@Benchmark
+	public Row requestBuilder() {
+		return RequestBuilder.returning(Row.class)
+				.withConnectionProvider(database).withSQL(SQL).addParam(42L)
+				.withResultReader(FIRST_ROW_READER).execute();
+	}
+
+	@Benchmark
+	public List<Row> requestBuilderWithAutomaticMapping() {
+		return RequestBuilder.returningListOf(Row.class)
+				.withConnectionProvider(database).withSQL(SQL).addParam(42L)
+				.execute();
+	}
+
+	@Benchmark
+	public List<Row> requestBuilderStream() {
+		try (Stream<Row> rows = RequestBuilder.returning(Row.class)
+				.withConnectionProvider(database).withSQL(SQL).addParam(42L)
+				.stream(ROW_MAPPER)) {
+			return rows.collect(Collectors.toList());
+		}
+	}
+
+	@Benchmark
+	public Row requestTemplate() {
+		return template.execute(42L);
+	}
+}
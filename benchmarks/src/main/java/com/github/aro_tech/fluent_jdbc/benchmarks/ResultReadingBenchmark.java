@@ -0,0 +1,108 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.aro_tech.fluent_jdbc.benchmarks.stub.StubDatabase;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
+
+/**
+ * Cost of reading and converting the rows of a query result: hand-written
+ * reader, streamed rows and automatic mapping, compared with plain JDBC
+ * 
+ * @author aro_tech
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResultReadingBenchmark {
+	static final String SQL = "SELECT id, name, amount, created FROM stub";
+
+	static final ResultSetReader<List<Row>> LIST_READER = rs -> {
+		final List<Row> rows = new ArrayList<Row>();
+		while (rs.next()) {
+			rows.add(QueryBenchmark.ROW_MAPPER.mapRow(rs));
+		}
+		return rows;
+	};
+
+	/**
+	 * Number of rows of the result
+	 */
+	@Param({ "10", "1000", "100000" })
+	public int rows;
+
+	private StubDatabase database;
+
+	@Setup
+	public void setUp() {
+		database = new StubDatabase(rows, 0);
+	}
+
+	@Benchmark
+	public List<Row> plainJdbc() throws SQLException {
+		try (Connection c = database.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(SQL);
+				ResultSet rs = stmnt.executeQuery()) {
+			return LIST_READER.handleResults(rs);
+		}
+	}
+
+	@Benchmark
+	public List<Row> resultReader() {
+		return RequestBuilder.returningListOf(Row.class)
+				.withConnectionProvider(database).withSQL(SQL)
+				.withResultReader(LIST_READER).execute();
+	}
+
+	@Benchmark
+	public List<Row> automaticMapping() {
+		return RequestBuilder.returningListOf(Row.class)
+				.withConnectionProvider(database).withSQL(SQL).execute();
+	}
+
+	@Benchmark
+	public List<Row> stream() {
+		try (Stream<Row> stream = RequestBuilder.returning(Row.class)
+				.withConnectionProvider(database).withSQL(SQL)
+				.stream(QueryBenchmark.ROW_MAPPER)) {
+			return stream.collect(Collectors.toList());
+		}
+	}
+
+	@Benchmark
+	public long streamWithoutCollecting() {
+		try (Stream<Row> stream = RequestBuilder.returning(Row.class)
+				.withConnectionProvider(database).withSQL(SQL)
+				.stream(QueryBenchmark.ROW_MAPPER)) {
+			return stream.mapToLong(Row::getId).sum();
+		}
+	}
+}
@@ -0,0 +1,74 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks;
+
+import java.sql.Timestamp;
+
+/**
+ * Bean for the rows of the stub database
+ * 
+ * @author aro_tech
+ *
+ */
+public class Row {
+	private long id;
+	private String name;
+	private double amount;
+	private Timestamp created;
+
+	/**
+	 * Constructor for automatic row mapping
+	 */
+	public Row() {
+		super();
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param id
+	 * @param name
+	 * @param amount
+	 * @param created
+	 */
+	public Row(long id, String name, double amount, Timestamp created) {
+		super();
+		this.id = id;
+		this.name = name;
+		this.amount = amount;
+		this.created = created;
+	}
+
+	public long getId() {
+		return id;
+	}
+
+	public void setId(long id) {
+		this.id = id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public void setName(String name) {
+		this.name = name;
+	}
+
+	public double getAmount() {
+		return amount;
+	}
+
+	public void setAmount(double amount) {
+		this.amount = amount;
+	}
+
+	public Timestamp getCreated() {
+		return created;
+	}
+
+	public void setCreated(Timestamp created) {
+		this.created = created;
+	}
+}
@@ -0,0 +1,535 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.math.BigDecimal;
+import java.net.URL;
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.NClob;
+import java.sql.ParameterMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Ref;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.RowId;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Calendar;
+
+/**
+ * PreparedStatement whose methods all throw: the stubs extend it and implement only
+ * the calls made by the library, so that any other call shows up in the
+ * benchmarks instead of silently doing nothing
+ * 
+ * @author aro_tech
+ *
+ */
+abstract class AbstractStubPreparedStatement implements PreparedStatement {
+
+	@Override
+	public void addBatch() throws SQLException {
+		throw new SQLFeatureNotSupportedException("addBatch");
+	}
+
+	@Override
+	public void addBatch(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException("addBatch");
+	}
+
+	@Override
+	public void cancel() throws SQLException {
+		throw new SQLFeatureNotSupportedException("cancel");
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		throw new SQLFeatureNotSupportedException("clearBatch");
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		throw new SQLFeatureNotSupportedException("clearParameters");
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		throw new SQLFeatureNotSupportedException("clearWarnings");
+	}
+
+	@Override
+	public void close() throws SQLException {
+		throw new SQLFeatureNotSupportedException("close");
+	}
+
+	@Override
+	public void closeOnCompletion() throws SQLException {
+		throw new SQLFeatureNotSupportedException("closeOnCompletion");
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		throw new SQLFeatureNotSupportedException("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, int[] columnIndexes) throws SQLException {
+		throw new SQLFeatureNotSupportedException("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, String[] columnNames) throws SQLException {
+		throw new SQLFeatureNotSupportedException("execute");
+	}
+
+	@Override
+	public boolean execute(String sql, int autoGeneratedKeys) throws SQLException {
+		throw new SQLFeatureNotSupportedException("execute");
+	}
+
+	@Override
+	public boolean execute(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException("execute");
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeBatch");
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeQuery");
+	}
+
+	@Override
+	public ResultSet executeQuery(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeQuery");
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, int[] columnIndexes) throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, String[] columnNames) throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql, int autoGeneratedKeys) throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeUpdate");
+	}
+
+	@Override
+	public int executeUpdate(String sql) throws SQLException {
+		throw new SQLFeatureNotSupportedException("executeUpdate");
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getConnection");
+	}
+
+	@Override
+	public int getFetchDirection() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getFetchDirection");
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getFetchSize");
+	}
+
+	@Override
+	public ResultSet getGeneratedKeys() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getGeneratedKeys");
+	}
+
+	@Override
+	public int getMaxFieldSize() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getMaxFieldSize");
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getMaxRows");
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getMetaData");
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getMoreResults");
+	}
+
+	@Override
+	public boolean getMoreResults(int current) throws SQLException {
+		throw new SQLFeatureNotSupportedException("getMoreResults");
+	}
+
+	@Override
+	public ParameterMetaData getParameterMetaData() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getParameterMetaData");
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getQueryTimeout");
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getResultSet");
+	}
+
+	@Override
+	public int getResultSetConcurrency() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getResultSetConcurrency");
+	}
+
+	@Override
+	public int getResultSetHoldability() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getResultSetHoldability");
+	}
+
+	@Override
+	public int getResultSetType() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getResultSetType");
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getUpdateCount");
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		throw new SQLFeatureNotSupportedException("getWarnings");
+	}
+
+	@Override
+	public boolean isCloseOnCompletion() throws SQLException {
+		throw new SQLFeatureNotSupportedException("isCloseOnCompletion");
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		throw new SQLFeatureNotSupportedException("isClosed");
+	}
+
+	@Override
+	public boolean isPoolable() throws SQLException {
+		throw new SQLFeatureNotSupportedException("isPoolable");
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		throw new SQLFeatureNotSupportedException("isWrapperFor");
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setArray");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setAsciiStream");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setAsciiStream");
+	}
+
+	@Override
+	public void setAsciiStream(int parameterIndex, InputStream x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setAsciiStream");
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBigDecimal");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBinaryStream");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBinaryStream");
+	}
+
+	@Override
+	public void setBinaryStream(int parameterIndex, InputStream x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBinaryStream");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream inputStream, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBlob");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, InputStream inputStream) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBlob");
+	}
+
+	@Override
+	public void setBlob(int parameterIndex, Blob x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBlob");
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBoolean");
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setByte");
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setBytes");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, int length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setCharacterStream");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setCharacterStream");
+	}
+
+	@Override
+	public void setCharacterStream(int parameterIndex, Reader reader) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setCharacterStream");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setClob");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Reader reader) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setClob");
+	}
+
+	@Override
+	public void setClob(int parameterIndex, Clob x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setClob");
+	}
+
+	@Override
+	public void setCursorName(String name) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setCursorName");
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x, Calendar cal) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setDate");
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setDate");
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setDouble");
+	}
+
+	@Override
+	public void setEscapeProcessing(boolean enable) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setEscapeProcessing");
+	}
+
+	@Override
+	public void setFetchDirection(int direction) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setFetchDirection");
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setFetchSize");
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setFloat");
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setInt");
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setLong");
+	}
+
+	@Override
+	public void setMaxFieldSize(int max) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setMaxFieldSize");
+	}
+
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setMaxRows");
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNCharacterStream");
+	}
+
+	@Override
+	public void setNCharacterStream(int parameterIndex, Reader value) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNCharacterStream");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader reader, long length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNClob");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, Reader reader) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNClob");
+	}
+
+	@Override
+	public void setNClob(int parameterIndex, NClob value) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNClob");
+	}
+
+	@Override
+	public void setNString(int parameterIndex, String value) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNString");
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNull");
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setNull");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType, int scaleOrLength) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setObject");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setObject");
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setObject");
+	}
+
+	@Override
+	public void setPoolable(boolean poolable) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setPoolable");
+	}
+
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setQueryTimeout");
+	}
+
+	@Override
+	public void setRef(int parameterIndex, Ref x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setRef");
+	}
+
+	@Override
+	public void setRowId(int parameterIndex, RowId x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setRowId");
+	}
+
+	@Override
+	public void setSQLXML(int parameterIndex, SQLXML xmlObject) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setSQLXML");
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setShort");
+	}
+
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setString");
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x, Calendar cal) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setTime");
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setTime");
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x, Calendar cal) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setTimestamp");
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setTimestamp");
+	}
+
+	@Override
+	public void setURL(int parameterIndex, URL x) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setURL");
+	}
+
+	@Override
+	@Deprecated
+	public void setUnicodeStream(int parameterIndex, InputStream x, int length) throws SQLException {
+		throw new SQLFeatureNotSupportedException("setUnicodeStream");
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		throw new SQLFeatureNotSupportedException("unwrap");
+	}
+}
@@ -0,0 +1,93 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+
+/**
+ * Connection to a StubDatabase
+ * 
+ * @author aro_tech
+ *
+ */
+final class StubConnection extends AbstractStubConnection {
+	private final StubDatabase database;
+	private boolean autoCommit = true;
+	private boolean closed = false;
+
+	StubConnection(StubDatabase database) {
+		super();
+		this.database = database;
+	}
+
+	StubDatabase getDatabase() {
+		return database;
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return new StubPreparedStatement(this, sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType,
+			int resultSetConcurrency) throws SQLException {
+		return new StubPreparedStatement(this, sql);
+	}
+
+	/**
+	 * @return null: the library then applies no database-specific behaviour
+	 */
+	@Override
+	public DatabaseMetaData getMetaData() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public boolean getAutoCommit() throws SQLException {
+		return autoCommit;
+	}
+
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		this.autoCommit = autoCommit;
+	}
+
+	@Override
+	public void commit() throws SQLException {
+		database.simulateLatency();
+	}
+
+	@Override
+	public void rollback() throws SQLException {
+		database.simulateLatency();
+	}
+
+	@Override
+	public boolean isValid(int timeout) throws SQLException {
+		return !closed;
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+}
@@ -0,0 +1,96 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.sql.Connection;
+import java.sql.Timestamp;
+
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+
+/**
+ * In-memory stand-in for a database, so benchmarks measure the library and
+ * not a driver or a network. Every query returns the same number of rows of
+ * 4 columns:
+ * 
+ * <pre>
+ * id (BIGINT), name (VARCHAR), amount (DOUBLE), created (TIMESTAMP)
+ * </pre>
+ * 
+ * Every statement execution waits for a fixed simulated latency, and each
+ * write affects one row. Row values are prepared once, so reading them
+ * allocates nothing in the stubs.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class StubDatabase implements IJDBCConnectionProvider {
+	/**
+	 * Labels of the columns of every result
+	 */
+	static final String[] COLUMN_LABELS = { "id", "name", "amount", "created" };
+
+	private static final int DISTINCT_NAMES = 1024;
+
+	private final int rowCount;
+	private final long latencyNanos;
+	private final String[] names = new String[DISTINCT_NAMES];
+	private final Timestamp created = Timestamp.valueOf("2016-01-01 00:00:00");
+
+	/**
+	 * Constructor
+	 * 
+	 * @param rowCount
+	 *            number of rows returned by every query
+	 * @param latencyNanos
+	 *            time spent (busy-waiting) by every statement execution, in
+	 *            nanoseconds (0 for none)
+	 */
+	public StubDatabase(int rowCount, long latencyNanos) {
+		super();
+		this.rowCount = rowCount;
+		this.latencyNanos = latencyNanos;
+		for (int i = 0; i < DISTINCT_NAMES; i++) {
+			names[i] = "name " + i;
+		}
+	}
+
+	@Override
+	public Connection getConnection() {
+		return new StubConnection(this);
+	}
+
+	int getRowCount() {
+		return rowCount;
+	}
+
+	long idOf(int row) {
+		return row + 1;
+	}
+
+	String nameOf(int row) {
+		return names[row & (DISTINCT_NAMES - 1)];
+	}
+
+	double amountOf(int row) {
+		return row * 0.5;
+	}
+
+	Timestamp createdOf(int row) {
+		return created;
+	}
+
+	/**
+	 * Busy-wait rather than sleep, since sleeping is far less precise than
+	 * the latencies simulated
+	 */
+	void simulateLatency() {
+		if (latencyNanos <= 0) {
+			return;
+		}
+		final long end = System.nanoTime() + latencyNanos;
+		while (System.nanoTime() - end < 0) {
+			// spin
+		}
+	}
+}
@@ -0,0 +1,273 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.math.BigDecimal;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Statement of a StubConnection. Parameter values are only folded into a
+ * checksum (so that setting them is not optimized away), queries return the
+ * rows of the database and writes update one row.
+ * 
+ * @author aro_tech
+ *
+ */
+final class StubPreparedStatement extends AbstractStubPreparedStatement {
+	private final StubConnection connection;
+	private final boolean query;
+	private long checksum = 0;
+	private int batchCount = 0;
+	private int fetchSize = 0;
+	private int maxRows = 0;
+	private int queryTimeout = 0;
+	private StubResultSet resultSet;
+	private int updateCount = -1;
+	private boolean closed = false;
+
+	StubPreparedStatement(StubConnection connection, String sql) {
+		super();
+		this.connection = connection;
+		final String start = sql.trim().toUpperCase(Locale.ROOT);
+		this.query = start.startsWith("SELECT") || start.startsWith("WITH");
+	}
+
+	/**
+	 * @return checksum of the parameter values set so far
+	 */
+	long getChecksum() {
+		return checksum;
+	}
+
+	private void bound(int parameterIndex, long value) {
+		checksum = 31 * checksum + parameterIndex + value;
+	}
+
+	private void bound(int parameterIndex, Object value) {
+		bound(parameterIndex, null == value ? 0 : value.hashCode());
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType) throws SQLException {
+		bound(parameterIndex, sqlType);
+	}
+
+	@Override
+	public void setNull(int parameterIndex, int sqlType, String typeName)
+			throws SQLException {
+		bound(parameterIndex, sqlType);
+	}
+
+	@Override
+	public void setBoolean(int parameterIndex, boolean x) throws SQLException {
+		bound(parameterIndex, x ? 1 : 0);
+	}
+
+	@Override
+	public void setByte(int parameterIndex, byte x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setShort(int parameterIndex, short x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setInt(int parameterIndex, int x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setLong(int parameterIndex, long x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setFloat(int parameterIndex, float x) throws SQLException {
+		bound(parameterIndex, Float.floatToIntBits(x));
+	}
+
+	@Override
+	public void setDouble(int parameterIndex, double x) throws SQLException {
+		bound(parameterIndex, Double.doubleToLongBits(x));
+	}
+
+	@Override
+	public void setBigDecimal(int parameterIndex, BigDecimal x)
+			throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setString(int parameterIndex, String x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setBytes(int parameterIndex, byte[] x) throws SQLException {
+		bound(parameterIndex, Arrays.hashCode(x));
+	}
+
+	@Override
+	public void setDate(int parameterIndex, Date x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setTime(int parameterIndex, Time x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setTimestamp(int parameterIndex, Timestamp x)
+			throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setObject(int parameterIndex, Object x, int targetSqlType)
+			throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void setArray(int parameterIndex, Array x) throws SQLException {
+		bound(parameterIndex, x);
+	}
+
+	@Override
+	public void clearParameters() throws SQLException {
+		checksum = 0;
+	}
+
+	@Override
+	public void addBatch() throws SQLException {
+		batchCount++;
+	}
+
+	@Override
+	public void clearBatch() throws SQLException {
+		batchCount = 0;
+	}
+
+	@Override
+	public int[] executeBatch() throws SQLException {
+		connection.getDatabase().simulateLatency();
+		final int[] counts = new int[batchCount];
+		Arrays.fill(counts, 1);
+		batchCount = 0;
+		return counts;
+	}
+
+	@Override
+	public boolean execute() throws SQLException {
+		connection.getDatabase().simulateLatency();
+		if (query) {
+			resultSet = new StubResultSet(this, connection.getDatabase());
+			updateCount = -1;
+			return true;
+		}
+		resultSet = null;
+		updateCount = 1;
+		return false;
+	}
+
+	@Override
+	public ResultSet executeQuery() throws SQLException {
+		execute();
+		return resultSet;
+	}
+
+	@Override
+	public int executeUpdate() throws SQLException {
+		execute();
+		return Math.max(0, updateCount);
+	}
+
+	@Override
+	public ResultSet getResultSet() throws SQLException {
+		return resultSet;
+	}
+
+	@Override
+	public int getUpdateCount() throws SQLException {
+		return updateCount;
+	}
+
+	@Override
+	public boolean getMoreResults() throws SQLException {
+		resultSet = null;
+		updateCount = -1;
+		return false;
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		this.fetchSize = rows;
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return fetchSize;
+	}
+
+	@Override
+	public void setMaxRows(int max) throws SQLException {
+		this.maxRows = max;
+	}
+
+	@Override
+	public int getMaxRows() throws SQLException {
+		return maxRows;
+	}
+
+	@Override
+	public void setQueryTimeout(int seconds) throws SQLException {
+		this.queryTimeout = seconds;
+	}
+
+	@Override
+	public int getQueryTimeout() throws SQLException {
+		return queryTimeout;
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return connection;
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+}
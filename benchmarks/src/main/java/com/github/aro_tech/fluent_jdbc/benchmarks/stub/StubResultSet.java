@@ -0,0 +1,219 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.Statement;
+import java.sql.Timestamp;
+
+/**
+ * Rows of a StubDatabase, read forward only
+ * 
+ * @author aro_tech
+ *
+ */
+final class StubResultSet extends AbstractStubResultSet {
+	private static final ResultSetMetaData META_DATA = new StubResultSetMetaData();
+
+	private final Statement statement;
+	private final StubDatabase database;
+	private final int rowCount;
+	private int row = -1;
+	private int fetchSize = 0;
+	private boolean closed = false;
+
+	StubResultSet(Statement statement, StubDatabase database) {
+		super();
+		this.statement = statement;
+		this.database = database;
+		this.rowCount = database.getRowCount();
+	}
+
+	@Override
+	public boolean next() throws SQLException {
+		if (row < rowCount) {
+			row++;
+		}
+		return row < rowCount;
+	}
+
+	private void checkRow(int columnIndex) throws SQLException {
+		if (row < 0 || row >= rowCount) {
+			throw new SQLException("No current row");
+		}
+		if (columnIndex < 1 || columnIndex > StubDatabase.COLUMN_LABELS.length) {
+			throw new SQLException("No column " + columnIndex);
+		}
+	}
+
+	@Override
+	public int findColumn(String columnLabel) throws SQLException {
+		for (int i = 0; i < StubDatabase.COLUMN_LABELS.length; i++) {
+			if (StubDatabase.COLUMN_LABELS[i].equalsIgnoreCase(columnLabel)) {
+				return i + 1;
+			}
+		}
+		throw new SQLException("No column " + columnLabel);
+	}
+
+	@Override
+	public Object getObject(int columnIndex) throws SQLException {
+		checkRow(columnIndex);
+		switch (columnIndex) {
+		case 1:
+			return database.idOf(row);
+		case 2:
+			return database.nameOf(row);
+		case 3:
+			return database.amountOf(row);
+		default:
+			return database.createdOf(row);
+		}
+	}
+
+	@Override
+	public long getLong(int columnIndex) throws SQLException {
+		checkRow(columnIndex);
+		switch (columnIndex) {
+		case 1:
+			return database.idOf(row);
+		case 3:
+			return (long) database.amountOf(row);
+		default:
+			throw new SQLException("Column " + columnIndex + " is not numeric");
+		}
+	}
+
+	@Override
+	public int getInt(int columnIndex) throws SQLException {
+		return (int) getLong(columnIndex);
+	}
+
+	@Override
+	public double getDouble(int columnIndex) throws SQLException {
+		checkRow(columnIndex);
+		switch (columnIndex) {
+		case 1:
+			return database.idOf(row);
+		case 3:
+			return database.amountOf(row);
+		default:
+			throw new SQLException("Column " + columnIndex + " is not numeric");
+		}
+	}
+
+	@Override
+	public float getFloat(int columnIndex) throws SQLException {
+		return (float) getDouble(columnIndex);
+	}
+
+	@Override
+	public boolean getBoolean(int columnIndex) throws SQLException {
+		return getLong(columnIndex) != 0;
+	}
+
+	@Override
+	public String getString(int columnIndex) throws SQLException {
+		checkRow(columnIndex);
+		return 2 == columnIndex ? database.nameOf(row) : String
+				.valueOf(getObject(columnIndex));
+	}
+
+	@Override
+	public Timestamp getTimestamp(int columnIndex) throws SQLException {
+		checkRow(columnIndex);
+		if (4 != columnIndex) {
+			throw new SQLException("Column " + columnIndex
+					+ " is not a timestamp");
+		}
+		return database.createdOf(row);
+	}
+
+	@Override
+	public Object getObject(String columnLabel) throws SQLException {
+		return getObject(findColumn(columnLabel));
+	}
+
+	@Override
+	public long getLong(String columnLabel) throws SQLException {
+		return getLong(findColumn(columnLabel));
+	}
+
+	@Override
+	public int getInt(String columnLabel) throws SQLException {
+		return getInt(findColumn(columnLabel));
+	}
+
+	@Override
+	public double getDouble(String columnLabel) throws SQLException {
+		return getDouble(findColumn(columnLabel));
+	}
+
+	@Override
+	public String getString(String columnLabel) throws SQLException {
+		return getString(findColumn(columnLabel));
+	}
+
+	@Override
+	public Timestamp getTimestamp(String columnLabel) throws SQLException {
+		return getTimestamp(findColumn(columnLabel));
+	}
+
+	@Override
+	public boolean wasNull() throws SQLException {
+		return false;
+	}
+
+	@Override
+	public ResultSetMetaData getMetaData() throws SQLException {
+		return META_DATA;
+	}
+
+	@Override
+	public Statement getStatement() throws SQLException {
+		return statement;
+	}
+
+	@Override
+	public int getType() throws SQLException {
+		return ResultSet.TYPE_FORWARD_ONLY;
+	}
+
+	@Override
+	public int getConcurrency() throws SQLException {
+		return ResultSet.CONCUR_READ_ONLY;
+	}
+
+	@Override
+	public void setFetchSize(int rows) throws SQLException {
+		this.fetchSize = rows;
+	}
+
+	@Override
+	public int getFetchSize() throws SQLException {
+		return fetchSize;
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return null;
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return closed;
+	}
+
+	@Override
+	public void close() throws SQLException {
+		closed = true;
+	}
+}
@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.benchmarks.stub;
+
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+
+/**
+ * Description of the columns of the results of a StubDatabase
+ * 
+ * @author aro_tech
+ *
+ */
+final class StubResultSetMetaData implements ResultSetMetaData {
+	private static final int[] TYPES = { Types.BIGINT, Types.VARCHAR,
+			Types.DOUBLE, Types.TIMESTAMP };
+	private static final String[] TYPE_NAMES = { "bigint", "varchar",
+			"float8", "timestamp" };
+	private static final String[] CLASS_NAMES = { Long.class.getName(),
+			String.class.getName(), Double.class.getName(),
+			java.sql.Timestamp.class.getName() };
+
+	private static int index(int column) throws SQLException {
+		if (column < 1 || column > TYPES.length) {
+			throw new SQLException("No column " + column);
+		}
+		return column - 1;
+	}
+
+	@Override
+	public int getColumnCount() throws SQLException {
+		return TYPES.length;
+	}
+
+	@Override
+	public String getColumnLabel(int column) throws SQLException {
+		return StubDatabase.COLUMN_LABELS[index(column)];
+	}
+
+	@Override
+	public String getColumnName(int column) throws SQLException {
+		return getColumnLabel(column);
+	}
+
+	@Override
+	public int getColumnType(int column) throws SQLException {
+		return TYPES[index(column)];
+	}
+
+	@Override
+	public String getColumnTypeName(int column) throws SQLException {
+		return TYPE_NAMES[index(column)];
+	}
+
+	@Override
+	public String getColumnClassName(int column) throws SQLException {
+		return CLASS_NAMES[index(column)];
+	}
+
+	@Override
+	public boolean isAutoIncrement(int column) throws SQLException {
+		return 1 == column;
+	}
+
+	@Override
+	public boolean isCaseSensitive(int column) throws SQLException {
+		return 2 == column;
+	}
+
+	@Override
+	public boolean isSearchable(int column) throws SQLException {
+		return true;
+	}
+
+	@Override
+	public boolean isCurrency(int column) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public int isNullable(int column) throws SQLException {
+		return 1 == column ? columnNoNulls : columnNullable;
+	}
+
+	@Override
+	public boolean isSigned(int column) throws SQLException {
+		return 1 == column || 3 == column;
+	}
+
+	@Override
+	public int getColumnDisplaySize(int column) throws SQLException {
+		return 2 == column ? 255 : 20;
+	}
+
+	@Override
+	public String getSchemaName(int column) throws SQLException {
+		return "";
+	}
+
+	@Override
+	public int getPrecision(int column) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public int getScale(int column) throws SQLException {
+		return 0;
+	}
+
+	@Override
+	public String getTableName(int column) throws SQLException {
+		return "stub";
+	}
+
+	@Override
+	public String getCatalogName(int column) throws SQLException {
+		return "";
+	}
+
+	@Override
+	public boolean isReadOnly(int column) throws SQLException {
+		return true;
+	}
+
+	@Override
+	public boolean isWritable(int column) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public boolean isDefinitelyWritable(int column) throws SQLException {
+		return false;
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		throw new SQLException("Not a wrapper of " + iface.getName());
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this);
+	}
+}
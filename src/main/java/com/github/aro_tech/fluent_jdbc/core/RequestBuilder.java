@@ -3,24 +3,54 @@
  */
 package com.github.aro_tech.fluent_jdbc.core;
 
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
 import java.sql.Connection;
 import java.sql.SQLException;
 import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.BaseStream;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
 
 import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArrayParameter;
 import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.JsonParameter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
 import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.Transaction;
+import com.github.aro_tech.fluent_jdbc.core.impl.AsyncDispatcher;
+import com.github.aro_tech.fluent_jdbc.core.impl.ExecutionSettings;
+import com.github.aro_tech.fluent_jdbc.core.impl.InListExpansion;
 import com.github.aro_tech.fluent_jdbc.core.impl.SQLExecutor;
+import com.github.aro_tech.fluent_jdbc.core.impl.SqlScanner;
 import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
 import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionListener;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
+import com.github.aro_tech.fluent_jdbc.core.results.QueryResultCache;
 import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
 import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReaderReusingConnection;
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.ColumnarResult;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.DoubleColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.IntColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.LongColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.mapping.AutoRowMapper;
 
 /**
  * Fluid JDBC request executor
@@ -39,6 +69,7 @@ public class RequestBuilder<T> {
 	private final Connection jdbcConnection;
 	private final String sql;
 	private final List<SQLException> errorsCaught;
+	private final ExecutionSettings settings;
 
 	private RequestBuilder(ILogger logger,
 			ArgumentSetterBuilder currentArgSetter, Class<T> returnType,
@@ -46,7 +77,7 @@ public class RequestBuilder<T> {
 			ResultSetReaderReusingConnection<T> handlerForFollowUp,
 			IJDBCConnectionProvider connectionProvider,
 			Connection jdbcConnection, String sql,
-			List<SQLException> errorCatcher) {
+			List<SQLException> errorCatcher, ExecutionSettings settings) {
 		super();
 		if (null != logger) {
 			this.logger = logger;
@@ -56,6 +87,12 @@ public class RequestBuilder<T> {
 
 		this.errorsCaught = errorCatcher;
 
+		if (null != settings) {
+			this.settings = settings;
+		} else {
+			this.settings = ExecutionSettings.defaults();
+		}
+
 		this.sql = sql;
 
 		this.currentArgSetter = currentArgSetter;
@@ -83,14 +120,15 @@ public class RequestBuilder<T> {
 	 */
 	public static <T> RequestBuilder<T> returning(final Class<T> returnTypeClass) {
 		return new RequestBuilder<T>(null, null, returnTypeClass, null, null,
-				null, null, null, null, null);
+				null, null, null, null, null, null);
 	}
 
 	/**
-	 * Factory method for lists
+	 * Factory method for lists - generates default ResultSetReader converting
+	 * each row to an element (see AutoRowMapper)
 	 * 
-	 * @param returnTypeClass
-	 *            Type of object returned by the request
+	 * @param returnTypeListElementClass
+	 *            Type of the list elements
 	 * @return RequestBuilder for the given return type
 	 */
 	@SuppressWarnings("unchecked")
@@ -98,14 +136,16 @@ public class RequestBuilder<T> {
 			final Class<U> returnTypeListElementClass) {
 		return new RequestBuilder<List<U>>(null, null,
 				(Class<List<U>>) new ArrayList<U>().getClass().getSuperclass(),
-				null, null, null, null, null, null, null);
+				null, AutoRowMapper.listReader(returnTypeListElementClass),
+				null, null, null, null, null, null);
 	}
 
 	/**
-	 * Factory method for sets
+	 * Factory method for sets - generates default ResultSetReader converting
+	 * each row to an element (see AutoRowMapper)
 	 * 
-	 * @param returnTypeClass
-	 *            Type of object returned by the request
+	 * @param returnTypeListElementClass
+	 *            Type of the set elements
 	 * @return RequestBuilder for the given return type
 	 */
 	@SuppressWarnings("unchecked")
@@ -113,7 +153,8 @@ public class RequestBuilder<T> {
 			final Class<U> returnTypeListElementClass) {
 		return new RequestBuilder<Set<U>>(null, null,
 				(Class<Set<U>>) new HashSet<U>().getClass().getSuperclass(),
-				null, null, null, null, null, null, null);
+				null, AutoRowMapper.setReader(returnTypeListElementClass),
+				null, null, null, null, null, null);
 	}
 	
 	/**
@@ -171,6 +212,145 @@ public class RequestBuilder<T> {
 		});
 	}
 
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as a long array, without boxing
+	 * 
+	 * @return RequestBuilder which returns a long[] (NULLs as 0)
+	 */
+	public static RequestBuilder<long[]> returningLongArray() {
+		return returning(long[].class).withResultReader(
+				rs -> LongColumn.read(rs, 1).toArray());
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as a long array, without boxing
+	 * 
+	 * @param nullValue
+	 *            sentinel stored for NULLs
+	 * @return RequestBuilder which returns a long[]
+	 */
+	public static RequestBuilder<long[]> returningLongArray(long nullValue) {
+		return returning(long[].class).withResultReader(
+				rs -> LongColumn.read(rs, 1).toArray(nullValue));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows in a long array with a null bitmap
+	 * 
+	 * @return RequestBuilder which returns a LongColumn
+	 */
+	public static RequestBuilder<LongColumn> returningLongColumn() {
+		return returning(LongColumn.class).withResultReader(
+				rs -> LongColumn.read(rs, 1));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as a LongStream, read into a long array beforehand
+	 * 
+	 * @return RequestBuilder which returns a LongStream (NULLs as 0)
+	 */
+	public static RequestBuilder<LongStream> returningLongStream() {
+		return returning(LongStream.class).withResultReader(
+				rs -> LongColumn.read(rs, 1).stream());
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as an int array, without boxing
+	 * 
+	 * @return RequestBuilder which returns an int[] (NULLs as 0)
+	 */
+	public static RequestBuilder<int[]> returningIntArray() {
+		return returning(int[].class).withResultReader(
+				rs -> IntColumn.read(rs, 1).toArray());
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as an int array, without boxing
+	 * 
+	 * @param nullValue
+	 *            sentinel stored for NULLs
+	 * @return RequestBuilder which returns an int[]
+	 */
+	public static RequestBuilder<int[]> returningIntArray(int nullValue) {
+		return returning(int[].class).withResultReader(
+				rs -> IntColumn.read(rs, 1).toArray(nullValue));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows in an int array with a null bitmap
+	 * 
+	 * @return RequestBuilder which returns an IntColumn
+	 */
+	public static RequestBuilder<IntColumn> returningIntColumn() {
+		return returning(IntColumn.class).withResultReader(
+				rs -> IntColumn.read(rs, 1));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as an IntStream, read into an int array beforehand
+	 * 
+	 * @return RequestBuilder which returns an IntStream (NULLs as 0)
+	 */
+	public static RequestBuilder<IntStream> returningIntStream() {
+		return returning(IntStream.class).withResultReader(
+				rs -> IntColumn.read(rs, 1).stream());
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as a double array, without boxing
+	 * 
+	 * @return RequestBuilder which returns a double[] (NULLs as 0)
+	 */
+	public static RequestBuilder<double[]> returningDoubleArray() {
+		return returning(double[].class).withResultReader(
+				rs -> DoubleColumn.read(rs, 1).toArray());
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows as a double array, without boxing
+	 * 
+	 * @param nullValue
+	 *            sentinel stored for NULLs
+	 * @return RequestBuilder which returns a double[]
+	 */
+	public static RequestBuilder<double[]> returningDoubleArray(double nullValue) {
+		return returning(double[].class).withResultReader(
+				rs -> DoubleColumn.read(rs, 1).toArray(nullValue));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning the first
+	 * column of all rows in a double array with a null bitmap
+	 * 
+	 * @return RequestBuilder which returns a DoubleColumn
+	 */
+	public static RequestBuilder<DoubleColumn> returningDoubleColumn() {
+		return returning(DoubleColumn.class).withResultReader(
+				rs -> DoubleColumn.read(rs, 1));
+	}
+
+	/**
+	 * Factory method - generates default ResultSetReader returning all the
+	 * rows in one primitive array per column, typed from the result set
+	 * metadata
+	 * 
+	 * @return RequestBuilder which returns a ColumnarResult
+	 */
+	public static RequestBuilder<ColumnarResult> returningColumnar() {
+		return returning(ColumnarResult.class).withResultReader(
+				ColumnarResult::read);
+	}
+
 	/**
 	 * Specify the logger to use
 	 * 
@@ -180,7 +360,7 @@ public class RequestBuilder<T> {
 	public RequestBuilder<T> withLogger(ILogger loggerToUse) {
 		return new RequestBuilder<T>(loggerToUse, currentArgSetter, returnType,
 				setters, reader, readerForFollowUp, connectionProvider,
-				jdbcConnection, sql, errorsCaught);
+				jdbcConnection, sql, errorsCaught, settings);
 	}
 
 	/**
@@ -191,7 +371,7 @@ public class RequestBuilder<T> {
 	public RequestBuilder<T> withSQL(String sql) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, reader, readerForFollowUp, connectionProvider,
-				jdbcConnection, sql, errorsCaught);
+				jdbcConnection, sql, errorsCaught, settings);
 	}
 
 	/**
@@ -204,7 +384,7 @@ public class RequestBuilder<T> {
 			IJDBCConnectionProvider provider) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, reader, readerForFollowUp, provider, jdbcConnection,
-				sql, errorsCaught);
+				sql, errorsCaught, settings);
 	}
 
 	/**
@@ -216,7 +396,7 @@ public class RequestBuilder<T> {
 	public RequestBuilder<T> withConnection(Connection connection) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, reader, readerForFollowUp, connectionProvider,
-				connection, sql, errorsCaught);
+				connection, sql, errorsCaught, settings);
 	}
 
 	/**
@@ -230,7 +410,8 @@ public class RequestBuilder<T> {
 
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				Arrays.asList(setters), reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -244,7 +425,7 @@ public class RequestBuilder<T> {
 	public RequestBuilder<T> withResultReader(ResultSetReader<T> reader) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, reader, null, connectionProvider, jdbcConnection, sql,
-				errorsCaught);
+				errorsCaught, settings);
 	}
 
 	/**
@@ -262,7 +443,7 @@ public class RequestBuilder<T> {
 			ResultSetReaderReusingConnection<T> handler) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, null, handler, connectionProvider, jdbcConnection,
-				sql, errorsCaught);
+				sql, errorsCaught, settings);
 	}
 
 	/**
@@ -276,7 +457,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -290,7 +472,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -304,7 +487,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -318,7 +502,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -332,7 +517,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -346,7 +532,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -360,7 +547,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -374,7 +562,8 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
 				returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -390,7 +579,150 @@ public class RequestBuilder<T> {
 		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
 		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param,
 				sqlType), returnType, setters, reader, readerForFollowUp,
-				connectionProvider, jdbcConnection, sql, errorsCaught);
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
+	}
+
+	/**
+	 * Add a binary SQL parameter (corresponding to a "?" in the SQL), e.g.
+	 * for a PostgreSQL bytea column, read from the stream while the request
+	 * is executed instead of being held in memory. The stream is read once:
+	 * the request must only be executed once.
+	 * 
+	 * @param param
+	 *            data to send
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return builder
+	 */
+	public RequestBuilder<T> addParam(InputStream param, long length) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param,
+				length), returnType, setters, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
+	}
+
+	/**
+	 * Add a binary SQL parameter (corresponding to a "?" in the SQL) read
+	 * from a channel, e.g. a FileChannel (see addParam(InputStream, long))
+	 * 
+	 * @param param
+	 *            data to send
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return builder
+	 */
+	public RequestBuilder<T> addParam(ReadableByteChannel param, long length) {
+		return addParam(null == param ? null : Channels.newInputStream(param),
+				length);
+	}
+
+	/**
+	 * Add a BLOB SQL parameter (corresponding to a "?" in the SQL) read from
+	 * the stream while the request is executed. With PostgreSQL, the data is
+	 * written to a new large object and its oid is bound, which requires a
+	 * transaction (see Transaction).
+	 * 
+	 * @param param
+	 *            data to send
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return builder
+	 */
+	public RequestBuilder<T> addBlobParam(InputStream param, long length) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger, currentArgSetterToUse.addBlob(
+				param, length), returnType, setters, reader,
+				readerForFollowUp, connectionProvider, jdbcConnection, sql,
+				errorsCaught, settings);
+	}
+
+	/**
+	 * Add a BLOB SQL parameter (corresponding to a "?" in the SQL) read from
+	 * a channel (see addBlobParam(InputStream, long))
+	 * 
+	 * @param param
+	 *            data to send
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return builder
+	 */
+	public RequestBuilder<T> addBlobParam(ReadableByteChannel param,
+			long length) {
+		return addBlobParam(
+				null == param ? null : Channels.newInputStream(param), length);
+	}
+
+	/**
+	 * Add an SQL array parameter holding the elements, for "= ANY(?)" in
+	 * PostgreSQL. A parameter alone in an IN list, as in "id IN (?)", is
+	 * expanded instead to one parameter per element by execute() and
+	 * stream(): the number of parameters is rounded up to a power of two, so
+	 * lists of any length only use a few statement shapes.
+	 * 
+	 * @param param
+	 *            elements of a common type (Long, Integer, String, UUID,
+	 *            etc.; see ArrayParameter.typeNameOf())
+	 * @return builder
+	 */
+	public RequestBuilder<T> addParam(Collection<?> param) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
+				returnType, setters, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
+	}
+
+	/**
+	 * Add an SQL bigint array parameter (see addParam(Collection))
+	 * 
+	 * @param param
+	 *            parameter to add
+	 * @return builder
+	 */
+	public RequestBuilder<T> addParam(long[] param) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
+				returnType, setters, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
+	}
+
+	/**
+	 * Add an SQL integer array parameter (see addParam(Collection))
+	 * 
+	 * @param param
+	 *            parameter to add
+	 * @return builder
+	 */
+	public RequestBuilder<T> addParam(int[] param) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger, currentArgSetterToUse.add(param),
+				returnType, setters, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
+	}
+
+	/**
+	 * Add an SQL array parameter with an explicit SQL type name (see
+	 * addParam(Collection))
+	 * 
+	 * @param sqlTypeName
+	 *            SQL type name of the elements, e.g. "uuid"
+	 * @param elements
+	 *            array elements
+	 * @return builder
+	 */
+	public RequestBuilder<T> addArrayParam(String sqlTypeName,
+			Object[] elements) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger,
+				currentArgSetterToUse.addArray(null == elements ? null
+						: ArrayParameter.of(sqlTypeName, elements)),
+				returnType, setters, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, sql, errorsCaught,
+				settings);
 	}
 
 	/**
@@ -406,7 +738,36 @@ public class RequestBuilder<T> {
 		return new RequestBuilder<T>(logger,
 				currentArgSetterToUse.addPGjson(param), returnType, setters,
 				reader, readerForFollowUp, connectionProvider, jdbcConnection,
-				sql, errorsCaught);
+				sql, errorsCaught, settings);
+	}
+
+	/**
+	 * Add a SQL parameter (corresponding to a "?" in the SQL) of the
+	 * PostgreSQL jsonb type
+	 * 
+	 * @param param
+	 *            parameter to add (a JSON String)
+	 * @return builder
+	 */
+	public RequestBuilder<T> addPGJSONBParam(String param) {
+		return addPGJSONParam(JsonParameter.jsonb(param));
+	}
+
+	/**
+	 * Add a SQL parameter (corresponding to a "?" in the SQL) of the
+	 * PostgreSQL json or jsonb type, e.g. from UTF-8 bytes or a Reader
+	 * without building a String beforehand (see JsonParameter)
+	 * 
+	 * @param param
+	 *            parameter to add
+	 * @return builder
+	 */
+	public RequestBuilder<T> addPGJSONParam(JsonParameter param) {
+		ArgumentSetterBuilder currentArgSetterToUse = createArgSetterBuilderIfNeeded();
+		return new RequestBuilder<T>(logger,
+				currentArgSetterToUse.addPGjson(param), returnType, setters,
+				reader, readerForFollowUp, connectionProvider, jdbcConnection,
+				sql, errorsCaught, settings);
 	}
 
 	private ArgumentSetterBuilder createArgSetterBuilderIfNeeded() {
@@ -423,33 +784,114 @@ public class RequestBuilder<T> {
 	 * @return The result of the request
 	 */
 	public T execute() {
-		SQLExecutor<T> exec = new SQLExecutor<T>(logger);
-		finalizeParameters();
+		final RequestBuilder<T> expanded = withInListsExpanded();
+		if (this != expanded) {
+			return expanded.execute();
+		}
+		return executeWithParameters(finalizeParameters());
+	}
+
+	/**
+	 * Execute the request with the given parameters, reading the result cache
+	 * or invalidating its table tags as configured (also used by the
+	 * templates compiled from this builder)
+	 */
+	T executeWithParameters(List<JDBCArgumentSetter> setters) {
+		SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		final QueryResultCache cache = settings.getResultCache();
+		if (null == cache || null == sql) {
+			return executeOnce(exec, setters);
+		}
+		if (!SqlScanner.isQuery(sql)) {
+			final T returnVal = executeOnce(exec, setters);
+			invalidateTableTags();
+			return returnVal;
+		}
+		return executeWithResultCache(cache, exec, setters);
+	}
+
+	/**
+	 * Queries are not cached inside a transaction, where they may see its
+	 * uncommitted writes, nor when they return a stream (which can only be
+	 * read once). The key includes the connection provider and the reader, so
+	 * that requests on other databases or building other objects do not get
+	 * each other's results.
+	 */
+	@SuppressWarnings("unchecked")
+	private T executeWithResultCache(QueryResultCache cache,
+			SQLExecutor<T> exec, List<JDBCArgumentSetter> setters) {
+		final QueryResultCache.Key key = null != this.connectionProvider
+				&& null == Transaction.current(connectionProvider)
+				&& (null == returnType || !BaseStream.class
+						.isAssignableFrom(returnType)) ? QueryResultCache
+				.keyFor(connectionProvider, null != reader ? reader
+						: readerForFollowUp, settings.getMaxRows(), sql,
+						setters) : null;
+		if (null == key) {
+			return executeOnce(exec, setters);
+		}
+		final QueryResultCache.CachedResult cached = cache.get(key);
+		if (null != cached) {
+			if (logger.isDebugEnabled()) {
+				logger.debug("Result taken from cache for SQL request: \n{}",
+						sql);
+			}
+			return (T) cached.getValue();
+		}
+		final T returnVal = executeOnce(exec, setters);
+		if (exec.getCaughtErrors().isEmpty()) {
+			cache.put(key, returnVal, settings.getTableTags());
+		}
+		return returnVal;
+	}
 
+	/**
+	 * After a write request, remove the cached results of queries on the
+	 * same tables. Inside a transaction, the results read before the commit
+	 * are removed again after it.
+	 */
+	void invalidateTableTags() {
+		final QueryResultCache cache = settings.getResultCache();
+		final String[] tags = settings.getTableTags();
+		if (null == cache || tags.length < 1 || null == sql
+				|| SqlScanner.isQuery(sql)) {
+			return;
+		}
+		cache.invalidate(tags);
+		final Transaction transaction = null != this.connectionProvider ? Transaction
+				.current(connectionProvider) : null;
+		if (null != transaction) {
+			transaction.onCommit(() -> cache.invalidate(tags));
+		}
+	}
+
+	private T executeOnce(SQLExecutor<T> exec, List<JDBCArgumentSetter> setters) {
 		if (null == this.connectionProvider) {
 			if (null != this.jdbcConnection) {
-				return executeSubrequest(exec);
+				return executeSubrequest(exec, setters);
 			}
 			logger.error("No connection provided for request sql={}", sql);
 			return null;
 		} else {
 			if (null == this.readerForFollowUp) {
-				return singleExecuteWithProviderAndNoSubrequests(exec);
+				return singleExecuteWithProviderAndNoSubrequests(exec,
+						setters);
 			} else {
-				return singleExecuteWithSubrequests(exec);
+				return singleExecuteWithSubrequests(exec, setters);
 			}
 		}
 	}
 
-	private T singleExecuteWithSubrequests(SQLExecutor<T> exec) {
-		if (this.setters.size() < 1) {
+	private T singleExecuteWithSubrequests(SQLExecutor<T> exec,
+			List<JDBCArgumentSetter> setters) {
+		if (setters.size() < 1) {
 			T returnVal = exec.executeWithSubrequests(connectionProvider, sql,
 					null, this.readerForFollowUp);
 			copyOutCaughtErrors(exec);
 			return returnVal;
-		} else if (this.setters.size() < 2) {
+		} else if (setters.size() < 2) {
 			T returnVal = exec.executeWithSubrequests(connectionProvider, sql,
-					this.setters.get(0), this.readerForFollowUp);
+					setters.get(0), this.readerForFollowUp);
 			copyOutCaughtErrors(exec);
 			return returnVal;
 		}
@@ -459,15 +901,16 @@ public class RequestBuilder<T> {
 		return null;
 	}
 
-	private T singleExecuteWithProviderAndNoSubrequests(SQLExecutor<T> exec) {
-		if (this.setters.size() < 1) {
+	private T singleExecuteWithProviderAndNoSubrequests(SQLExecutor<T> exec,
+			List<JDBCArgumentSetter> setters) {
+		if (setters.size() < 1) {
 			T returnVal = exec.execute(connectionProvider, sql, null,
 					this.reader);
 			copyOutCaughtErrors(exec);
 			return returnVal;
-		} else if (this.setters.size() < 2) {
+		} else if (setters.size() < 2) {
 			T returnVal = exec.execute(connectionProvider, sql,
-					this.setters.get(0), this.reader);
+					setters.get(0), this.reader);
 			copyOutCaughtErrors(exec);
 			return returnVal;
 		} else {
@@ -484,14 +927,17 @@ public class RequestBuilder<T> {
 		}
 	}
 
-	private T executeSubrequest(SQLExecutor<T> exec) {
+	private T executeSubrequest(SQLExecutor<T> exec,
+			List<JDBCArgumentSetter> setters) {
 		try {
-			T returnVal = exec.execute(sql, this.setters.size() < 1 ? null
-					: this.setters.get(0), reader, jdbcConnection);
+			T returnVal = exec.execute(sql, setters.size() < 1 ? null
+					: setters.get(0), reader, jdbcConnection);
 			copyOutCaughtErrors(exec);
 			return returnVal;
 		} catch (SQLException e) {
 			logger.error("SQL error. sql=" + sql, e);
+			exec.getCaughtErrors().add(e);
+			copyOutCaughtErrors(exec);
 			return null;
 		}
 	}
@@ -502,18 +948,401 @@ public class RequestBuilder<T> {
 	 * @return list of results
 	 */
 	public List<T> executeMultiple() {
-		SQLExecutor<T> exec = new SQLExecutor<T>(logger);
-		finalizeParameters();
+		SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		final List<JDBCArgumentSetter> setters = finalizeParameters();
 		List<T> returnValues = exec.executeMultiple(connectionProvider, sql,
 				reader, setters.toArray(new JDBCArgumentSetter[0]));
 		copyOutCaughtErrors(exec);
+		invalidateTableTags();
 		return returnValues;
 	}
 
-	private void finalizeParameters() {
-		if (null != this.currentArgSetter) {
-			this.setters.add(this.currentArgSetter.build());
+	/**
+	 * Execute the request on another thread (see withExecutor()). The number
+	 * of requests running at once for the same connection provider is
+	 * limited to its maximum number of connections; extra requests are
+	 * queued without blocking any thread.
+	 * 
+	 * @return future result of the request, completed exceptionally with the
+	 *         first exception caught if the request failed (exceptions are
+	 *         also added to the error collector, if any)
+	 */
+	public CompletableFuture<T> executeAsync() {
+		return dispatch(errors -> withErrorCollector(errors).execute());
+	}
+
+	/**
+	 * Execute the request for each set of parameters provided, on another
+	 * thread (see executeAsync())
+	 * 
+	 * @return future list of results
+	 */
+	public CompletableFuture<List<T>> executeMultipleAsync() {
+		return dispatch(errors -> withErrorCollector(errors).executeMultiple());
+	}
+
+	private <R> CompletableFuture<R> dispatch(
+			final Function<List<SQLException>, R> request) {
+		final AsyncDispatcher dispatcher;
+		if (null != this.connectionProvider) {
+			dispatcher = AsyncDispatcher.forProvider(connectionProvider);
+		} else if (null != this.jdbcConnection) {
+			dispatcher = AsyncDispatcher.forTarget(jdbcConnection, 1);
+		} else {
+			logger.error("No connection provided for request sql={}", sql);
+			CompletableFuture<R> failed = new CompletableFuture<R>();
+			failed.completeExceptionally(new SQLException(
+					"No connection provided for request sql=" + sql));
+			return failed;
+		}
+		return dispatcher.submit(settings.getExecutor(), () -> {
+			final List<SQLException> errors = new ArrayList<SQLException>();
+			final R result = request.apply(errors);
+			if (errors.isEmpty()) {
+				return result;
+			}
+			if (null != this.errorsCaught) {
+				synchronized (this.errorsCaught) {
+					this.errorsCaught.addAll(errors);
+				}
+			}
+			final SQLException first = errors.get(0);
+			for (int i = 1; i < errors.size(); i++) {
+				first.addSuppressed(errors.get(i));
+			}
+			throw new CompletionException(first);
+		});
+	}
+
+	/**
+	 * Specify on how many connections at once executeMultiple() runs the
+	 * parameter sets. The sets are split into contiguous chunks, one per
+	 * connection, and the results are returned in the original order. The
+	 * request must not rely on the sets being run one after the other.
+	 * 
+	 * @param connections
+	 *            number of connections (default 1; capped by the maximum
+	 *            number of connections of the provider)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withParallelism(int connections) {
+		return withSettings(settings.withParallelism(connections));
+	}
+
+	/**
+	 * Let executeMultiple() insert several parameter sets per statement when
+	 * the request is a single-row INSERT ... VALUES (...): the parameter sets
+	 * are sent as INSERT ... VALUES (...), (...), ... statements of at most
+	 * maxRows rows each, instead of one round trip per set. Other requests
+	 * are executed as usual. Inserted rows are not returned.
+	 * 
+	 * @param maxRows
+	 *            maximum number of rows per statement (0 to disable)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withMultiRowInserts(int maxRows) {
+		return withSettings(settings.withMultiRowInserts(maxRows));
+	}
+
+	/**
+	 * Cache the results of this query in a shared cache, so repeating it
+	 * with the same parameters does not reach the database (see
+	 * QueryResultCache). Queries with a connection (rather than a
+	 * connection provider), with lambda argument setters or running in a
+	 * transaction are not cached. For a write request, the cache is where
+	 * the results of queries on the same table tags are invalidated.
+	 * 
+	 * @param cache
+	 *            cache shared by the requests on the same data
+	 * @return builder
+	 */
+	public RequestBuilder<T> withResultCache(QueryResultCache cache) {
+		return withSettings(settings.withResultCache(cache));
+	}
+
+	/**
+	 * Declare the tables read or written by the request. The cached results
+	 * of a query are stored with its tags, and a write request with a result
+	 * cache invalidates the results stored with any of its tags.
+	 * 
+	 * @param tags
+	 *            table names (or any other tags)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withTableTags(String... tags) {
+		return withSettings(settings.withTableTags(tags));
+	}
+
+	/**
+	 * Report the duration of each phase of the execution (connection
+	 * acquisition, statement preparation, parameter binding, execution,
+	 * reading of the results, statement release) and the number of rows read
+	 * to a listener, e.g. a MetricsListener shared by many requests. Without
+	 * a listener, nothing is timed.
+	 * 
+	 * @param listener
+	 *            execution listener (null for none)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withExecutionListener(ExecutionListener listener) {
+		return withSettings(settings.withListener(listener));
+	}
+
+	/**
+	 * Record the executions slower than the threshold of a detector, which
+	 * may also capture their plans; it is usually shared by many requests
+	 * 
+	 * @param detector
+	 *            slow query detector (null for none)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withSlowQueryDetector(SlowQueryDetector detector) {
+		return withSettings(settings.withSlowQueryDetector(detector));
+	}
+
+	/**
+	 * Specify the executor running executeAsync() requests and the chunks of
+	 * executeMultiple() requests using withParallelism()
+	 * 
+	 * @param executor
+	 *            executor (default: virtual threads if available, otherwise
+	 *            a cached pool of daemon threads)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withExecutor(Executor executor) {
+		return withSettings(settings.withExecutor(executor));
+	}
+
+	/**
+	 * Execute a write request (insert, update, delete) for each set of
+	 * parameters provided, sending them to the database in JDBC batches
+	 * instead of one round trip per set. See withBatchSize(). Failed batches
+	 * are logged and their exceptions added to the error collector, if any.
+	 * 
+	 * @return update count of each set of parameters, in the same order
+	 *         (Statement.EXECUTE_FAILED for sets which failed)
+	 */
+	public int[] executeBatch() {
+		SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		final List<JDBCArgumentSetter> setters = finalizeParameters();
+		final JDBCArgumentSetter[] argumentSetters = setters
+				.toArray(new JDBCArgumentSetter[0]);
+		int[] updateCounts;
+		if (null != this.connectionProvider) {
+			updateCounts = exec.executeBatch(connectionProvider, sql,
+					argumentSetters);
+		} else if (null != this.jdbcConnection) {
+			try {
+				updateCounts = exec.executeBatch(sql, jdbcConnection,
+						argumentSetters);
+			} catch (SQLException e) {
+				logger.error("SQL error. sql=" + sql, e);
+				exec.getCaughtErrors().add(e);
+				updateCounts = new int[0];
+			}
+		} else {
+			logger.error("No connection provided for request sql={}", sql);
+			return new int[0];
+		}
+		copyOutCaughtErrors(exec);
+		invalidateTableTags();
+		return updateCounts;
+	}
+
+	/**
+	 * Execute the query and read its rows lazily. Rows are fetched from the
+	 * database in chunks (see withFetchSize()), so results larger than the
+	 * heap can be processed. The stream holds a connection until it is
+	 * closed (or fully read), so use it in a try-with-resources block.
+	 * Errors raised while reading the rows end the stream, but are only
+	 * added to the error collector (see withErrorCollector()) when the stream
+	 * is closed. If a PostgreSQL cursor made the stream turn auto-commit off,
+	 * its transaction is rolled back instead of committed after such an
+	 * error.
+	 * 
+	 * @param rowMapper
+	 *            lambda converting the current row
+	 * @return lazy stream of converted rows
+	 */
+	public Stream<T> stream(RowMapper<T> rowMapper) {
+		final RequestBuilder<T> expanded = withInListsExpanded();
+		if (this != expanded) {
+			return expanded.stream(rowMapper);
+		}
+		SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		final List<JDBCArgumentSetter> setters = finalizeParameters();
+		if (setters.size() > 1) {
+			logger.error(
+					"Request not executed. Streaming not implemented for multiple param sets. : sql={}",
+					sql);
+			return Stream.empty();
+		}
+		final JDBCArgumentSetter argumentSetter = setters.isEmpty() ? null
+				: setters.get(0);
+		final Stream<T> rows;
+		if (null != this.connectionProvider) {
+			rows = exec.stream(connectionProvider, sql, argumentSetter,
+					rowMapper);
+		} else if (null != this.jdbcConnection) {
+			rows = exec.stream(sql, argumentSetter, rowMapper, jdbcConnection);
+		} else {
+			logger.error("No connection provided for request sql={}", sql);
+			return Stream.empty();
 		}
+		drainCaughtErrors(exec);
+		return rows.onClose(() -> drainCaughtErrors(exec));
+	}
+
+	/**
+	 * Execute the query and read its rows lazily, converting each row to the
+	 * return type automatically (see AutoRowMapper). As with
+	 * stream(RowMapper), errors are reported when the stream is closed.
+	 * 
+	 * @return lazy stream of converted rows
+	 */
+	public Stream<T> stream() {
+		return stream(AutoRowMapper.of(returnType));
+	}
+
+	private void drainCaughtErrors(SQLExecutor<T> exec) {
+		copyOutCaughtErrors(exec);
+		exec.getCaughtErrors().clear();
+	}
+
+	/**
+	 * Execute the query and pass each row to an action as it is read,
+	 * without keeping the rows in memory
+	 * 
+	 * @param rowMapper
+	 *            lambda converting the current row
+	 * @param action
+	 *            lambda called for each converted row
+	 */
+	public void forEach(RowMapper<T> rowMapper, Consumer<? super T> action) {
+		try (Stream<T> rows = stream(rowMapper)) {
+			rows.forEach(action);
+		}
+	}
+
+	/**
+	 * Specify how many rows the driver fetches at once, so that a
+	 * ResultSetReader going through a large result only holds that many rows
+	 * in memory. PostgreSQL only fetches rows in chunks inside a transaction:
+	 * outside of one, auto-commit is switched off for the duration of the
+	 * request and restored afterwards.
+	 * 
+	 * @param fetchSize
+	 *            number of rows per fetch (default: driver setting, or 1000
+	 *            for stream())
+	 * @return builder
+	 */
+	public RequestBuilder<T> withFetchSize(int fetchSize) {
+		return withSettings(settings.withFetchSize(fetchSize));
+	}
+
+	/**
+	 * Limit the number of rows returned by the query
+	 * 
+	 * @param maxRows
+	 *            maximum number of rows (0 for no limit, the default)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withMaxRows(int maxRows) {
+		return withSettings(settings.withMaxRows(maxRows));
+	}
+
+	/**
+	 * Specify the type of the result set passed to the reader, e.g. a
+	 * scrollable one (default: forward-only and read-only)
+	 * 
+	 * @param type
+	 *            a ResultSet.TYPE_* constant
+	 * @param concurrency
+	 *            a ResultSet.CONCUR_* constant
+	 * @return builder
+	 */
+	public RequestBuilder<T> withResultSetType(int type, int concurrency) {
+		return withSettings(settings.withResultSetType(type, concurrency));
+	}
+
+	/**
+	 * Specify how many sets of parameters are sent at once by executeBatch()
+	 * 
+	 * @param batchSize
+	 *            number of parameter sets per JDBC batch (default 1000)
+	 * @return builder
+	 */
+	public RequestBuilder<T> withBatchSize(int batchSize) {
+		return withSettings(settings.withBatchSize(batchSize));
+	}
+
+	private RequestBuilder<T> withSettings(ExecutionSettings newSettings) {
+		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
+				setters, reader, readerForFollowUp, connectionProvider,
+				jdbcConnection, sql, errorsCaught, newSettings);
+	}
+
+	/**
+	 * @return builder whose array parameters used as a whole IN list are
+	 *         expanded to one parameter per element, or this builder if
+	 *         there are none
+	 */
+	private RequestBuilder<T> withInListsExpanded() {
+		if (null == this.currentArgSetter || !currentArgSetter.hasArrays()
+				|| null == sql || !this.setters.isEmpty()) {
+			return this;
+		}
+		final InListExpansion expansion = InListExpansion.of(sql,
+				currentArgSetter.fill(new ParameterBuffer(logger)));
+		if (null == expansion) {
+			return this;
+		}
+		final List<JDBCArgumentSetter> expandedSetters = new ArrayList<JDBCArgumentSetter>(
+				1);
+		expandedSetters.add(expansion.getParameters());
+		return new RequestBuilder<T>(logger, null, returnType,
+				expandedSetters, reader, readerForFollowUp, connectionProvider,
+				jdbcConnection, expansion.getSql(), errorsCaught, settings);
+	}
+
+	/**
+	 * @return the parameter sets of this request, including the one being
+	 *         built by addParam() (the builder itself is left unchanged, so
+	 *         it can be executed again)
+	 */
+	private List<JDBCArgumentSetter> finalizeParameters() {
+		if (null == this.currentArgSetter) {
+			return this.setters;
+		}
+		List<JDBCArgumentSetter> allSetters = new ArrayList<JDBCArgumentSetter>(
+				this.setters.size() + 1);
+		allSetters.addAll(this.setters);
+		allSetters.add(this.currentArgSetter.build());
+		return allSetters;
+	}
+
+	/**
+	 * Build an immutable template of this request, thread-safe when built on a
+	 * connection provider. Parameters are not taken from the builder but
+	 * passed to each call of RequestTemplate.execute(), and errors are only
+	 * collected when passed a list by
+	 * RequestTemplate.executeWithErrorCollector(). The result cache and table
+	 * tags apply to the template as to execute().
+	 * 
+	 * @param parameterTypes
+	 *            types of the parameters, in the order of the "?" in the SQL
+	 * @return template
+	 * @throws IllegalStateException
+	 *             if no SQL or connection was provided
+	 */
+	public RequestTemplate<T> compile(Class<?>... parameterTypes) {
+		final RequestBuilder<T> request = new RequestBuilder<T>(logger, null,
+				returnType, new ArrayList<JDBCArgumentSetter>(0), reader,
+				readerForFollowUp, connectionProvider, jdbcConnection, sql,
+				null, settings);
+		return new RequestTemplate<T>(logger, sql, reader, readerForFollowUp,
+				connectionProvider, jdbcConnection, settings, parameterTypes,
+				request);
 	}
 
 	/**
@@ -525,6 +1354,6 @@ public class RequestBuilder<T> {
 	public RequestBuilder<T> withErrorCollector(List<SQLException> caughtErrors) {
 		return new RequestBuilder<T>(logger, currentArgSetter, returnType,
 				setters, reader, readerForFollowUp, connectionProvider,
-				jdbcConnection, sql, caughtErrors);
+				jdbcConnection, sql, caughtErrors, settings);
 	}
 }
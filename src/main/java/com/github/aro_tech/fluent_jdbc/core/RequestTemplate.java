@@ -0,0 +1,357 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.impl.ExecutionSettings;
+import com.github.aro_tech.fluent_jdbc.core.impl.SQLExecutor;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReaderReusingConnection;
+
+/**
+ * Precompiled request: SQL, reader, connection and parameter types are fixed
+ * when the template is built (see RequestBuilder.compile()), so executing it
+ * only binds the values passed to execute(). A template is immutable: built
+ * on a connection provider, it can be shared by any number of threads; built
+ * on a single Connection, it must only be used by one thread at a time, like
+ * the Connection itself.
+ * 
+ * Example: <code><pre>
+ * RequestTemplate&lt;Long&gt; countByStatus = RequestBuilder.returningLong()
+ * 		.withConnectionProvider(provider)
+ * 		.withSQL("SELECT count(*) FROM orders WHERE status=?")
+ * 		.compile(String.class);
+ * ...
+ * Long count = countByStatus.execute("SHIPPED");
+ * </pre></code>
+ * 
+ * @author aro_tech
+ *
+ */
+public final class RequestTemplate<T> {
+	private final ILogger logger;
+	private final String sql;
+	private final ResultSetReader<T> reader;
+	private final ResultSetReaderReusingConnection<T> readerForFollowUp;
+	private final IJDBCConnectionProvider connectionProvider;
+	private final Connection jdbcConnection;
+	private final ExecutionSettings settings;
+	private final Class<?>[] parameterTypes;
+	private final ValueBinder[] binders;
+	private final RequestBuilder<T> request;
+
+	/**
+	 * Adds one statement parameter to a buffer
+	 */
+	@FunctionalInterface
+	private static interface ValueBinder {
+		void bind(ParameterBuffer buffer, Object value);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param logger
+	 * @param sql
+	 * @param reader
+	 * @param readerForFollowUp
+	 * @param connectionProvider
+	 * @param jdbcConnection
+	 * @param settings
+	 * @param parameterTypes
+	 *            types of the values passed to execute(), in the order of the
+	 *            "?" in the SQL
+	 * @param request
+	 *            builder without parameters, executing the template when the
+	 *            settings have a result cache
+	 */
+	RequestTemplate(ILogger logger, String sql, ResultSetReader<T> reader,
+			ResultSetReaderReusingConnection<T> readerForFollowUp,
+			IJDBCConnectionProvider connectionProvider,
+			Connection jdbcConnection, ExecutionSettings settings,
+			Class<?>[] parameterTypes, RequestBuilder<T> request) {
+		super();
+		if (null == sql) {
+			throw new IllegalStateException("No SQL provided for the template");
+		}
+		if (null == connectionProvider && null == jdbcConnection) {
+			throw new IllegalStateException(
+					"No connection provided for template sql=" + sql);
+		}
+		this.logger = logger;
+		this.sql = sql;
+		this.reader = reader;
+		this.readerForFollowUp = readerForFollowUp;
+		this.connectionProvider = connectionProvider;
+		this.jdbcConnection = jdbcConnection;
+		this.settings = settings;
+		this.request = request;
+		this.parameterTypes = parameterTypes.clone();
+		this.binders = new ValueBinder[parameterTypes.length];
+		for (int i = 0; i < parameterTypes.length; i++) {
+			this.parameterTypes[i] = boxed(parameterTypes[i]);
+			this.binders[i] = binderFor(this.parameterTypes[i]);
+		}
+	}
+
+	/**
+	 * Execute the request with the given parameter values. Errors are logged
+	 * and null is returned.
+	 * 
+	 * @param parameters
+	 *            one value per "?" in the SQL, of the types given to compile()
+	 * @return The result of the request
+	 */
+	public T execute(Object... parameters) {
+		return executeWithErrorCollector(null, parameters);
+	}
+
+	/**
+	 * Execute the request with the given parameter values
+	 * 
+	 * @param caughtErrors
+	 *            list to which any exceptions caught are added (may be null)
+	 * @param parameters
+	 *            one value per "?" in the SQL, of the types given to compile()
+	 * @return The result of the request
+	 */
+	public T executeWithErrorCollector(List<SQLException> caughtErrors,
+			Object... parameters) {
+		if (!checkParameters(parameters)) {
+			return null;
+		}
+		final JDBCArgumentSetter setter = argumentSetter(parameters);
+		if (null != settings.getResultCache()) {
+			// read from or invalidate the cache as RequestBuilder.execute()
+			return request.withErrorCollector(caughtErrors)
+					.executeWithParameters(
+							null != setter ? Collections
+									.singletonList(setter) : Collections
+									.<JDBCArgumentSetter> emptyList());
+		}
+		final SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		T returnVal;
+		if (null != connectionProvider) {
+			if (null == readerForFollowUp) {
+				returnVal = exec.execute(connectionProvider, sql, setter,
+						reader);
+			} else {
+				returnVal = exec.executeWithSubrequests(connectionProvider,
+						sql, setter, readerForFollowUp);
+			}
+		} else {
+			try {
+				returnVal = exec.execute(sql, setter, reader, jdbcConnection);
+			} catch (SQLException e) {
+				logger.error("SQL error. sql=" + sql, e);
+				exec.getCaughtErrors().add(e);
+				returnVal = null;
+			}
+		}
+		if (null != caughtErrors) {
+			caughtErrors.addAll(exec.getCaughtErrors());
+		}
+		return returnVal;
+	}
+
+	/**
+	 * Execute the request once for each set of parameter values. Errors are
+	 * logged.
+	 * 
+	 * @param parameterSets
+	 *            sets of values, each one as for execute()
+	 * @return list of results, in the same order (null if a set of values
+	 *         does not match the types given to compile())
+	 */
+	public List<T> executeMultiple(List<Object[]> parameterSets) {
+		return executeMultipleWithErrorCollector(null, parameterSets);
+	}
+
+	/**
+	 * Execute the request once for each set of parameter values. With a
+	 * connection provider, the sets are executed as by
+	 * RequestBuilder.executeMultiple() (on one connection, or in parallel
+	 * chunks and multi-row inserts when enabled in the settings).
+	 * 
+	 * @param caughtErrors
+	 *            list to which any exceptions caught are added (may be null)
+	 * @param parameterSets
+	 *            sets of values, each one as for execute()
+	 * @return list of results, in the same order (null if a set of values
+	 *         does not match the types given to compile())
+	 */
+	public List<T> executeMultipleWithErrorCollector(
+			List<SQLException> caughtErrors, List<Object[]> parameterSets) {
+		if (null == connectionProvider || null != readerForFollowUp) {
+			final List<T> results = new ArrayList<T>(parameterSets.size());
+			for (Object[] parameters : parameterSets) {
+				results.add(executeWithErrorCollector(caughtErrors, parameters));
+			}
+			return results;
+		}
+		final JDBCArgumentSetter[] setters = new JDBCArgumentSetter[parameterSets
+				.size()];
+		for (int i = 0; i < setters.length; i++) {
+			final Object[] parameters = parameterSets.get(i);
+			if (!checkParameters(parameters)) {
+				return null;
+			}
+			// one buffer per set: they are all bound after the loop
+			setters[i] = bind(new ParameterBuffer(logger, parameters.length),
+					parameters);
+		}
+		final SQLExecutor<T> exec = new SQLExecutor<T>(logger, settings);
+		final List<T> results = exec.executeMultiple(connectionProvider, sql,
+				reader, setters);
+		if (null != caughtErrors) {
+			caughtErrors.addAll(exec.getCaughtErrors());
+		}
+		request.invalidateTableTags();
+		return results;
+	}
+
+	/**
+	 * @return SQL of the request
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	private boolean checkParameters(Object[] parameters) {
+		if (parameters.length != parameterTypes.length) {
+			logger.error(
+					"Request not executed. Expected {} parameters but got {}. : sql={}",
+					parameterTypes.length, parameters.length, sql);
+			return false;
+		}
+		for (int i = 0; i < parameters.length; i++) {
+			if (null != parameters[i]
+					&& !parameterTypes[i].isInstance(parameters[i])) {
+				logger.error(
+						"Request not executed. Parameter {} should be a {} but is a {}. : sql={}",
+						i + 1, parameterTypes[i].getName(), parameters[i]
+								.getClass().getName(), sql);
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * The values are copied into the buffer of the current thread, which is
+	 * free again once the statement has been executed
+	 */
+	private JDBCArgumentSetter argumentSetter(final Object[] parameters) {
+		if (parameters.length == 0) {
+			return null;
+		}
+		return bind(ParameterBuffer.forCurrentThread(logger), parameters);
+	}
+
+	private ParameterBuffer bind(ParameterBuffer buffer, Object[] parameters) {
+		for (int i = 0; i < parameters.length; i++) {
+			binders[i].bind(buffer, parameters[i]);
+		}
+		return buffer;
+	}
+
+	private static ValueBinder binderFor(Class<?> type) {
+		if (Integer.class == type) {
+			return (buffer, value) -> {
+				if (null == value) {
+					buffer.addNull(Types.INTEGER);
+				} else {
+					buffer.addInt((Integer) value);
+				}
+			};
+		} else if (Long.class == type) {
+			return (buffer, value) -> {
+				if (null == value) {
+					buffer.addNull(Types.BIGINT);
+				} else {
+					buffer.addLong((Long) value);
+				}
+			};
+		} else if (Double.class == type) {
+			return (buffer, value) -> {
+				if (null == value) {
+					buffer.addNull(Types.DOUBLE);
+				} else {
+					buffer.addDouble((Double) value);
+				}
+			};
+		} else if (Float.class == type) {
+			return (buffer, value) -> {
+				if (null == value) {
+					buffer.addNull(Types.REAL);
+				} else {
+					buffer.addFloat((Float) value);
+				}
+			};
+		} else if (Boolean.class == type) {
+			return (buffer, value) -> {
+				if (null == value) {
+					buffer.addNull(Types.BOOLEAN);
+				} else {
+					buffer.addBoolean((Boolean) value);
+				}
+			};
+		} else if (String.class == type) {
+			return (buffer, value) -> buffer.addString((String) value);
+		} else if (BigDecimal.class == type) {
+			return (buffer, value) -> buffer.addObject(value, Types.NUMERIC);
+		} else if (Timestamp.class == type) {
+			return (buffer, value) -> buffer.addTimestamp((Timestamp) value);
+		} else if (LocalDateTime.class == type) {
+			return (buffer, value) -> buffer
+					.addLocalDateTime((LocalDateTime) value);
+		}
+		return (buffer, value) -> buffer.addObject(value);
+	}
+
+	private static Class<?> boxed(Class<?> type) {
+		if (!type.isPrimitive()) {
+			return type;
+		}
+		if (int.class == type) {
+			return Integer.class;
+		} else if (long.class == type) {
+			return Long.class;
+		} else if (double.class == type) {
+			return Double.class;
+		} else if (float.class == type) {
+			return Float.class;
+		} else if (boolean.class == type) {
+			return Boolean.class;
+		} else if (short.class == type) {
+			return Short.class;
+		} else if (byte.class == type) {
+			return Byte.class;
+		} else if (char.class == type) {
+			return Character.class;
+		}
+		throw new IllegalArgumentException("Unsupported parameter type: "
+				+ type);
+	}
+
+	@Override
+	public String toString() {
+		return "RequestTemplate [sql=" + sql + ", parameterTypes="
+				+ Arrays.toString(parameterTypes) + "]";
+	}
+}
@@ -3,34 +3,33 @@
  */
 package com.github.aro_tech.fluent_jdbc.core.arguments;
 
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.io.InputStream;
 import java.sql.Timestamp;
 import java.sql.Types;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.List;
-
-import org.postgresql.util.PGobject;
+import java.util.Collection;
 
 import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
 
 /**
  * Fluent interface to build an argument setter lambda
  * 
+ * Each builder only holds the argument it adds and a link to the previous
+ * builder, so adding an argument takes constant time and previous builders
+ * stay valid. build() copies the arguments into a ParameterBuffer.
+ * 
  * @author aro_tech
  *
  */
 public class ArgumentSetterBuilder {
 	private final ILogger logger;
-	private final List<SingleArgumentSetter> setters;
-	private final StringBuilder logTextBuilder;
-
-	@FunctionalInterface
-	private static interface SingleArgumentSetter {
-		void setOneArgument(PreparedStatement stmnt, int index)
-				throws SQLException;
-	}
+	private final ArgumentSetterBuilder previous;
+	private final int size;
+	private final byte tag;
+	private final long longValue;
+	private final double doubleValue;
+	private final Object objectValue;
+	private final boolean arrays;
 
 	/**
 	 * Constructor
@@ -38,10 +37,22 @@ public class ArgumentSetterBuilder {
 	 * @param logger
 	 */
 	private ArgumentSetterBuilder(ILogger logger) {
+		this(logger, null, (byte) 0, 0L, 0.0, null);
+	}
+
+	private ArgumentSetterBuilder(ILogger logger,
+			ArgumentSetterBuilder previous, byte tag, long longValue,
+			double doubleValue, Object objectValue) {
 		super();
 		this.logger = logger;
-		this.setters = new ArrayList<SingleArgumentSetter>();
-		this.logTextBuilder = new StringBuilder();
+		this.previous = previous;
+		this.size = null == previous ? 0 : previous.size + 1;
+		this.tag = tag;
+		this.longValue = longValue;
+		this.doubleValue = doubleValue;
+		this.objectValue = objectValue;
+		this.arrays = tag == ParameterBuffer.ARRAY
+				|| (null != previous && previous.arrays);
 	}
 
 	/**
@@ -64,27 +75,13 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(int arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setInt(index, arg);
-		}, "(int)");
-	}
-
-	private ArgumentSetterBuilder generateNextBuilder(String argAsStringForLog,
-			final SingleArgumentSetter singleArgSetter, String typeForLog) {
-		ArgumentSetterBuilder next = new ArgumentSetterBuilder(logger);
-		next.setters.addAll(this.setters);
-		next.setters.add(singleArgSetter);
-		if (null != logger) {
-			appendLogText(argAsStringForLog, next, typeForLog);
-		}
-		return next;
+		return generateNextBuilder(ParameterBuffer.INT, arg, 0.0, null);
 	}
 
-	private void appendLogText(String argAsString, ArgumentSetterBuilder next,
-			final String typeText) {
-		next.logTextBuilder.append(logTextBuilder.toString())
-				.append(next.setters.size()).append(") ").append(typeText)
-				.append(" ").append(argAsString).append(" ");
+	private ArgumentSetterBuilder generateNextBuilder(byte nextTag,
+			long nextLong, double nextDouble, Object nextObject) {
+		return new ArgumentSetterBuilder(logger, this, nextTag, nextLong,
+				nextDouble, nextObject);
 	}
 
 	/**
@@ -96,9 +93,7 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(double arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setDouble(index, arg);
-		}, "(double)");
+		return generateNextBuilder(ParameterBuffer.DOUBLE, 0L, arg, null);
 	}
 
 	/**
@@ -110,22 +105,15 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(float arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setFloat(index, arg);
-		}, "(float)");
+		return generateNextBuilder(ParameterBuffer.FLOAT, 0L, arg, null);
 	}
 
 	public ArgumentSetterBuilder add(long arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setLong(index, arg);
-		}, "(long)");
+		return generateNextBuilder(ParameterBuffer.LONG, arg, 0.0, null);
 	}
 
 	public ArgumentSetterBuilder add(String arg) {
-		return generateNextBuilder(null != arg ? "'" + arg + "'" : "null", (
-				stmnt, index) -> {
-			stmnt.setString(index, arg);
-		}, "(String)");
+		return generateNextBuilder(ParameterBuffer.STRING, 0L, 0.0, arg);
 	}
 
 	/**
@@ -137,10 +125,8 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(LocalDateTime arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			final Timestamp ts = null != arg ? Timestamp.valueOf(arg) : null;
-			stmnt.setTimestamp(index, ts);
-		}, "(LocalDateTime)");
+		return generateNextBuilder(ParameterBuffer.LOCAL_DATE_TIME, 0L, 0.0,
+				arg);
 	}
 
 	/**
@@ -152,9 +138,7 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(Timestamp arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setTimestamp(index, arg);
-		}, "(Timestamp)");
+		return generateNextBuilder(ParameterBuffer.TIMESTAMP, 0L, 0.0, arg);
 	}
 
 	/**
@@ -168,55 +152,136 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(Object arg, int sqlType) {
-		return generateNextBuilder("" + arg, objectOrNullSetter(arg, sqlType),
-				"(Object of type" + sqlType + ")");
-	}
-
-	private SingleArgumentSetter objectOrNullSetter(Object arg, int sqlType) {
-		final SingleArgumentSetter singleArgSetter;
-		if (null == arg) {
-			singleArgSetter = (stmnt, index) -> {
-				stmnt.setNull(index, sqlType);
-			};
-		} else {
-			singleArgSetter = (stmnt, index) -> {
-				stmnt.setObject(index, arg, sqlType);
-			};
+		return generateNextBuilder(null == arg ? ParameterBuffer.NULL
+				: ParameterBuffer.OBJECT, sqlType, 0.0, arg);
+	}
+
+	/**
+	 * Add a binary argument (e.g. PostgreSQL bytea) read from a stream while
+	 * the statement is executed
+	 * 
+	 * @param stream
+	 *            data (read once: the argument must only be bound once)
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder add(InputStream stream, long length) {
+		if (null == stream) {
+			return generateNextBuilder(ParameterBuffer.NULL, Types.BINARY, 0.0,
+					null);
 		}
-		return singleArgSetter;
+		return generateNextBuilder(ParameterBuffer.BINARY_STREAM, length, 0.0,
+				stream);
 	}
 
-	private SingleArgumentSetter postgresJSONSetter(String json) {
-		final SingleArgumentSetter singleArgSetter;
-		if (null == json) {
-			singleArgSetter = (stmnt, index) -> {
-				stmnt.setNull(index, Types.JAVA_OBJECT);
-			};
-		} else {
-			singleArgSetter = (stmnt, index) -> {
-				PGobject pg = new PGobject();
-				pg.setType("json");
-				pg.setValue(json);
-				stmnt.setObject(index, pg);
-			};
+	/**
+	 * Add a BLOB argument read from a stream while the statement is executed
+	 * (with PostgreSQL, a large object is created and its oid is bound)
+	 * 
+	 * @param stream
+	 *            data (read once: the argument must only be bound once)
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder addBlob(InputStream stream, long length) {
+		if (null == stream) {
+			return generateNextBuilder(ParameterBuffer.NULL, Types.BLOB, 0.0,
+					null);
 		}
-		return singleArgSetter;
+		return generateNextBuilder(ParameterBuffer.BLOB_STREAM, length, 0.0,
+				stream);
+	}
+
+	/**
+	 * Add an SQL array argument holding the elements (e.g. for "= ANY(?)" in
+	 * PostgreSQL, or for an "IN (?)" list expanded by RequestBuilder)
+	 * 
+	 * @param elements
+	 *            elements of a common type (Long, Integer, String, UUID,
+	 *            etc.; see ArrayParameter.typeNameOf())
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder add(Collection<?> elements) {
+		return addArray(null == elements ? null : ArrayParameter.of(elements));
+	}
+
+	/**
+	 * Add an SQL bigint array argument
+	 * 
+	 * @param elements
+	 *            array elements
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder add(long[] elements) {
+		return addArray(null == elements ? null : ArrayParameter.of(elements));
+	}
+
+	/**
+	 * Add an SQL integer array argument
+	 * 
+	 * @param elements
+	 *            array elements
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder add(int[] elements) {
+		return addArray(null == elements ? null : ArrayParameter.of(elements));
+	}
+
+	/**
+	 * Add an SQL array argument
+	 * 
+	 * @param array
+	 *            elements and SQL type name
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder addArray(ArrayParameter array) {
+		if (null == array) {
+			return generateNextBuilder(ParameterBuffer.NULL, Types.ARRAY, 0.0,
+					null);
+		}
+		return generateNextBuilder(ParameterBuffer.ARRAY, 0L, 0.0, array);
+	}
+
+	/**
+	 * @return true if an array argument was added
+	 */
+	public boolean hasArrays() {
+		return arrays;
 	}
 
-	
 	/**
 	 * @return Constructed function that sets JDBC parameters for a given
 	 *         PreparedStatement
 	 */
 	public JDBCArgumentSetter build() {
-		return stmnt -> {
-			logger.debug("Setting SQL parameters: {}",
-					this.logTextBuilder.toString());
-			int index = 1;
-			for (SingleArgumentSetter cur : setters) {
-				cur.setOneArgument(stmnt, index++);
-			}
-		};
+		return fill(new ParameterBuffer(logger, size));
+	}
+
+	/**
+	 * Copy the arguments into a buffer
+	 * 
+	 * @param buffer
+	 *            buffer to append the arguments to
+	 * @return the buffer
+	 */
+	public ParameterBuffer fill(ParameterBuffer buffer) {
+		final ArgumentSetterBuilder[] inOrder = new ArgumentSetterBuilder[size];
+		for (ArgumentSetterBuilder cur = this; cur.size > 0; cur = cur.previous) {
+			inOrder[cur.size - 1] = cur;
+		}
+		for (ArgumentSetterBuilder cur : inOrder) {
+			buffer.append(cur.tag, cur.longValue, cur.doubleValue,
+					cur.objectValue);
+		}
+		return buffer;
 	}
 
 	/**
@@ -228,18 +293,31 @@ public class ArgumentSetterBuilder {
 	 *         preserved in case branching of states in needed)
 	 */
 	public ArgumentSetterBuilder add(boolean arg) {
-		return generateNextBuilder("" + arg, (stmnt, index) -> {
-			stmnt.setBoolean(index, arg);
-		}, "(boolean)");
+		return generateNextBuilder(ParameterBuffer.BOOLEAN, arg ? 1L : 0L,
+				0.0, null);
 	}
 
 	public ArgumentSetterBuilder addPGjson(String json) {
-		ArgumentSetterBuilder next = new ArgumentSetterBuilder(logger);
-		next.setters.addAll(this.setters);
-		next.setters.add(postgresJSONSetter(json));
-		if (null != logger) {
-			appendLogText("" + json, next, "(json)");
+		if (null == json) {
+			return generateNextBuilder(ParameterBuffer.NULL,
+					Types.JAVA_OBJECT, 0.0, null);
+		}
+		return generateNextBuilder(ParameterBuffer.PG_JSON, 0L, 0.0, json);
+	}
+
+	/**
+	 * Add a PostgreSQL json or jsonb argument
+	 * 
+	 * @param json
+	 *            JSON document and type (see JsonParameter)
+	 * @return Updated builder object (a new copy - previous builder state is
+	 *         preserved in case branching of states in needed)
+	 */
+	public ArgumentSetterBuilder addPGjson(JsonParameter json) {
+		if (null == json || json.isNull()) {
+			return generateNextBuilder(ParameterBuffer.NULL,
+					Types.JAVA_OBJECT, 0.0, null);
 		}
-		return next;
+		return generateNextBuilder(ParameterBuffer.PG_JSON, 0L, 0.0, json);
 	}
 }
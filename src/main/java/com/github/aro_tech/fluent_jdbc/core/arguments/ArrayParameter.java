@@ -0,0 +1,157 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.arguments;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Value of an SQL array parameter: the elements and the SQL type name used to
+ * create the array with Connection.createArrayOf()
+ * 
+ * @author aro_tech
+ *
+ */
+public final class ArrayParameter {
+	private final String typeName;
+	private final Object[] elements;
+
+	private ArrayParameter(String typeName, Object[] elements) {
+		this.typeName = typeName;
+		this.elements = elements;
+	}
+
+	/**
+	 * @param typeName
+	 *            SQL type name of the elements (e.g. "bigint"), or null to
+	 *            deduce it from the first element
+	 * @param elements
+	 * @return array parameter
+	 * @throws IllegalArgumentException
+	 *             if the type name is null and cannot be deduced
+	 */
+	public static ArrayParameter of(String typeName, Object[] elements) {
+		String typeNameToUse = typeName;
+		if (null == typeNameToUse && elements.length > 0) {
+			typeNameToUse = typeNameOf(elements[0]);
+			if (null == typeNameToUse) {
+				throw new IllegalArgumentException(
+						"Cannot deduce the SQL array type of elements of "
+								+ elements[0].getClass().getName()
+								+ ": specify the type name");
+			}
+		}
+		return new ArrayParameter(typeNameToUse, elements);
+	}
+
+	/**
+	 * @param elements
+	 *            elements of a common type (see typeNameOf())
+	 * @return array parameter
+	 */
+	public static ArrayParameter of(Collection<?> elements) {
+		return of(null, elements.toArray());
+	}
+
+	/**
+	 * @param elements
+	 * @return bigint array parameter
+	 */
+	public static ArrayParameter of(long[] elements) {
+		final Object[] boxed = new Object[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			boxed[i] = elements[i];
+		}
+		return new ArrayParameter("bigint", boxed);
+	}
+
+	/**
+	 * @param elements
+	 * @return integer array parameter
+	 */
+	public static ArrayParameter of(int[] elements) {
+		final Object[] boxed = new Object[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			boxed[i] = elements[i];
+		}
+		return new ArrayParameter("integer", boxed);
+	}
+
+	/**
+	 * @param element
+	 *            an element (Long, Integer, Short, String, UUID, BigDecimal,
+	 *            Double or Boolean)
+	 * @return SQL type name for arrays of such elements, or null for other
+	 *         classes
+	 */
+	public static String typeNameOf(Object element) {
+		if (element instanceof Long) {
+			return "bigint";
+		} else if (element instanceof Integer) {
+			return "integer";
+		} else if (element instanceof Short) {
+			return "smallint";
+		} else if (element instanceof String) {
+			return "text";
+		} else if (element instanceof UUID) {
+			return "uuid";
+		} else if (element instanceof BigDecimal) {
+			return "numeric";
+		} else if (element instanceof Double) {
+			return "float8";
+		} else if (element instanceof Boolean) {
+			return "boolean";
+		}
+		return null;
+	}
+
+	/**
+	 * @return SQL type name of the elements (null for an empty array whose
+	 *         type was not given)
+	 */
+	public String getTypeName() {
+		return typeName;
+	}
+
+	/**
+	 * @return the elements (not to be modified)
+	 */
+	public Object[] getElements() {
+		return elements;
+	}
+
+	/**
+	 * @return number of elements
+	 */
+	public int length() {
+		return elements.length;
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * (null == typeName ? 0 : typeName.hashCode())
+				+ Arrays.hashCode(elements);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof ArrayParameter)) {
+			return false;
+		}
+		final ArrayParameter other = (ArrayParameter) obj;
+		return (null == typeName ? null == other.typeName : typeName
+				.equals(other.typeName))
+				&& Arrays.equals(elements, other.elements);
+	}
+
+	@Override
+	public String toString() {
+		return "(" + typeName + "[]) " + Arrays.toString(elements);
+	}
+}
@@ -0,0 +1,211 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.arguments;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.Arrays;
+
+/**
+ * Value of a PostgreSQL json or jsonb parameter, from a String, UTF-8 bytes
+ * or a Reader.
+ * 
+ * The document is only decoded when it is bound to a statement, so a payload
+ * kept as bytes (e.g. read from a message queue) does not exist as a String
+ * for longer than the binding. The PostgreSQL driver sends parameters as
+ * text, so this is the only copy made.
+ * 
+ * A Reader can only be read once: a parameter built from one must only be
+ * bound once.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class JsonParameter {
+	private final boolean binary;
+	private final Object source;
+
+	private JsonParameter(boolean binary, Object source) {
+		this.binary = binary;
+		this.source = source;
+	}
+
+	/**
+	 * @param json
+	 *            JSON text
+	 * @return json parameter
+	 */
+	public static JsonParameter json(String json) {
+		return new JsonParameter(false, json);
+	}
+
+	/**
+	 * @param utf8
+	 *            JSON text encoded in UTF-8 (not copied: not to be modified
+	 *            until the parameter is bound)
+	 * @return json parameter
+	 */
+	public static JsonParameter json(byte[] utf8) {
+		return new JsonParameter(false, utf8);
+	}
+
+	/**
+	 * @param utf8
+	 *            JSON text encoded in UTF-8, between its position and its
+	 *            limit (which are left unchanged)
+	 * @return json parameter
+	 */
+	public static JsonParameter json(ByteBuffer utf8) {
+		return new JsonParameter(false, utf8);
+	}
+
+	/**
+	 * @param json
+	 *            JSON text, read when the parameter is bound and closed by the
+	 *            caller
+	 * @return json parameter
+	 */
+	public static JsonParameter json(Reader json) {
+		return new JsonParameter(false, json);
+	}
+
+	/**
+	 * @param json
+	 *            JSON text
+	 * @return jsonb parameter
+	 */
+	public static JsonParameter jsonb(String json) {
+		return new JsonParameter(true, json);
+	}
+
+	/**
+	 * @param utf8
+	 *            JSON text encoded in UTF-8 (not copied: not to be modified
+	 *            until the parameter is bound)
+	 * @return jsonb parameter
+	 */
+	public static JsonParameter jsonb(byte[] utf8) {
+		return new JsonParameter(true, utf8);
+	}
+
+	/**
+	 * @param utf8
+	 *            JSON text encoded in UTF-8, between its position and its
+	 *            limit (which are left unchanged)
+	 * @return jsonb parameter
+	 */
+	public static JsonParameter jsonb(ByteBuffer utf8) {
+		return new JsonParameter(true, utf8);
+	}
+
+	/**
+	 * @param json
+	 *            JSON text, read when the parameter is bound and closed by the
+	 *            caller
+	 * @return jsonb parameter
+	 */
+	public static JsonParameter jsonb(Reader json) {
+		return new JsonParameter(true, json);
+	}
+
+	/**
+	 * @return "jsonb" or "json"
+	 */
+	public String getTypeName() {
+		return binary ? "jsonb" : "json";
+	}
+
+	/**
+	 * @return true if the source is null
+	 */
+	public boolean isNull() {
+		return null == source;
+	}
+
+	/**
+	 * @return false if the source is a Reader, which can only be read once
+	 */
+	public boolean isReplayable() {
+		return !(source instanceof Reader);
+	}
+
+	/**
+	 * Decode the document
+	 * 
+	 * @return JSON text (null if the source is null)
+	 * @throws SQLException
+	 *             if the Reader fails
+	 */
+	public String getText() throws SQLException {
+		if (null == source || source instanceof String) {
+			return (String) source;
+		} else if (source instanceof byte[]) {
+			return new String((byte[]) source, StandardCharsets.UTF_8);
+		} else if (source instanceof ByteBuffer) {
+			return StandardCharsets.UTF_8.decode(
+					((ByteBuffer) source).duplicate()).toString();
+		}
+		try {
+			return read((Reader) source);
+		} catch (IOException e) {
+			throw new SQLException("Failed to read a " + getTypeName()
+					+ " parameter", e);
+		}
+	}
+
+	private static String read(Reader reader) throws IOException {
+		final StringBuilder text = new StringBuilder(8192);
+		final char[] chunk = new char[4096];
+		int count;
+		while ((count = reader.read(chunk)) >= 0) {
+			text.append(chunk, 0, count);
+		}
+		return text.toString();
+	}
+
+	@Override
+	public int hashCode() {
+		final int hash = source instanceof byte[] ? Arrays
+				.hashCode((byte[]) source) : null == source ? 0 : source
+				.hashCode();
+		return 31 * hash + (binary ? 1 : 0);
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		if (this == obj) {
+			return true;
+		}
+		if (!(obj instanceof JsonParameter)) {
+			return false;
+		}
+		final JsonParameter other = (JsonParameter) obj;
+		if (binary != other.binary) {
+			return false;
+		}
+		if (source instanceof byte[] && other.source instanceof byte[]) {
+			return Arrays.equals((byte[]) source, (byte[]) other.source);
+		}
+		return null == source ? null == other.source : source
+				.equals(other.source);
+	}
+
+	@Override
+	public String toString() {
+		final String text;
+		if (source instanceof byte[]) {
+			text = ((byte[]) source).length + " bytes";
+		} else if (source instanceof ByteBuffer) {
+			text = ((ByteBuffer) source).remaining() + " bytes";
+		} else if (source instanceof Reader) {
+			text = "Reader";
+		} else {
+			text = String.valueOf(source);
+		}
+		return "(" + getTypeName() + ") " + text;
+	}
+}
@@ -0,0 +1,681 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.arguments;
+
+import java.io.InputStream;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Objects;
+
+import org.postgresql.util.PGobject;
+
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+
+/**
+ * Statement parameters stored in parallel arrays: a type tag per parameter,
+ * plus a long slot (integers, booleans, SQL types), a double slot (floating
+ * point numbers) and an Object slot (strings, dates, other objects). Values
+ * are never boxed or converted to text, and binding them to a statement
+ * walks the arrays without allocating.
+ * 
+ * A buffer can be reset and filled again, e.g. once per execution with
+ * forCurrentThread(). The text logged at debug level is only rendered if the
+ * logger actually writes it (see toString()).
+ * 
+ * A buffer is not thread-safe while it is being filled.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class ParameterBuffer implements JDBCArgumentSetter {
+	private static final int DEFAULT_CAPACITY = 8;
+	private static final ThreadLocal<ParameterBuffer> PER_THREAD = new ThreadLocal<ParameterBuffer>();
+	/**
+	 * json and jsonb values are bound through a PGobject, whose value the
+	 * driver copies: one per thread is enough
+	 */
+	private static final ThreadLocal<PGobject> PG_OBJECT = ThreadLocal
+			.withInitial(PGobject::new);
+
+	static final byte INT = 1;
+	static final byte LONG = 2;
+	static final byte DOUBLE = 3;
+	static final byte FLOAT = 4;
+	static final byte BOOLEAN = 5;
+	static final byte STRING = 6;
+	static final byte TIMESTAMP = 7;
+	static final byte LOCAL_DATE_TIME = 8;
+	static final byte OBJECT = 9;
+	static final byte NULL = 10;
+	static final byte PG_JSON = 11;
+	static final byte UNTYPED_OBJECT = 12;
+	static final byte ARRAY = 13;
+	static final byte BINARY_STREAM = 14;
+	static final byte BLOB_STREAM = 15;
+
+	private ILogger logger;
+	/** passed as is to the logger, so logging does not allocate an array */
+	private final Object[] logArguments = { this };
+	private byte[] tags;
+	private long[] longs;
+	private double[] doubles;
+	private Object[] objects;
+	private int size = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param logger
+	 *            For debug statements with arguments (may be null)
+	 */
+	public ParameterBuffer(ILogger logger) {
+		this(logger, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param logger
+	 *            For debug statements with arguments (may be null)
+	 * @param capacity
+	 *            initial number of parameters (grows as needed)
+	 */
+	public ParameterBuffer(ILogger logger, int capacity) {
+		super();
+		this.logger = logger;
+		final int initialCapacity = Math.max(1, capacity);
+		this.tags = new byte[initialCapacity];
+		this.longs = new long[initialCapacity];
+		this.doubles = new double[initialCapacity];
+		this.objects = new Object[initialCapacity];
+	}
+
+	/**
+	 * Static factory - the buffer of the current thread, emptied. It must
+	 * only be used until the request it is filled for has been executed.
+	 * 
+	 * @param logger
+	 *            For debug statements with arguments (may be null)
+	 * @return empty buffer
+	 */
+	public static ParameterBuffer forCurrentThread(ILogger logger) {
+		ParameterBuffer buffer = PER_THREAD.get();
+		if (null == buffer) {
+			buffer = new ParameterBuffer(logger);
+			PER_THREAD.set(buffer);
+		}
+		buffer.logger = logger;
+		return buffer.reset();
+	}
+
+	/**
+	 * Remove all parameters, keeping the allocated capacity
+	 * 
+	 * @return this buffer
+	 */
+	public ParameterBuffer reset() {
+		Arrays.fill(objects, 0, size, null);
+		size = 0;
+		return this;
+	}
+
+	/**
+	 * @return number of parameters
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return false if a parameter is read from a stream or a Reader, which
+	 *         can only be bound once
+	 */
+	public boolean isReplayable() {
+		for (int i = 0; i < size; i++) {
+			if (tags[i] == BINARY_STREAM
+					|| tags[i] == BLOB_STREAM
+					|| (tags[i] == PG_JSON && objects[i] instanceof JsonParameter && !((JsonParameter) objects[i])
+							.isReplayable())) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return independent copy of this buffer, trimmed to its size
+	 */
+	public ParameterBuffer copy() {
+		ParameterBuffer copy = new ParameterBuffer(logger, size);
+		System.arraycopy(tags, 0, copy.tags, 0, size);
+		System.arraycopy(longs, 0, copy.longs, 0, size);
+		System.arraycopy(doubles, 0, copy.doubles, 0, size);
+		System.arraycopy(objects, 0, copy.objects, 0, size);
+		copy.size = size;
+		return copy;
+	}
+
+	/**
+	 * @param other
+	 *            another buffer
+	 * @return true if both buffers bind the same types and values (e.g. to
+	 *         use the parameters of a request as part of a cache key)
+	 */
+	public boolean hasSameValues(ParameterBuffer other) {
+		if (this == other) {
+			return true;
+		}
+		if (null == other || other.size != size) {
+			return false;
+		}
+		for (int i = 0; i < size; i++) {
+			if (tags[i] != other.tags[i]
+					|| longs[i] != other.longs[i]
+					|| Double.doubleToLongBits(doubles[i]) != Double
+							.doubleToLongBits(other.doubles[i])
+					|| !Objects.deepEquals(objects[i], other.objects[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * @return hash code of the bound types and values, consistent with
+	 *         hasSameValues()
+	 */
+	public int valuesHashCode() {
+		int hash = size;
+		for (int i = 0; i < size; i++) {
+			hash = 31 * hash + tags[i];
+			hash = 31 * hash + Long.hashCode(longs[i]);
+			hash = 31 * hash + Double.hashCode(doubles[i]);
+			hash = 31 * hash + valueHashCode(objects[i]);
+		}
+		return hash;
+	}
+
+	private static int valueHashCode(Object value) {
+		if (null == value) {
+			return 0;
+		}
+		if (value.getClass().isArray()) {
+			return Arrays.deepHashCode(new Object[] { value });
+		}
+		return value.hashCode();
+	}
+
+	public ParameterBuffer addInt(int value) {
+		final int index = next(INT);
+		longs[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addLong(long value) {
+		final int index = next(LONG);
+		longs[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addDouble(double value) {
+		final int index = next(DOUBLE);
+		doubles[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addFloat(float value) {
+		final int index = next(FLOAT);
+		doubles[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addBoolean(boolean value) {
+		final int index = next(BOOLEAN);
+		longs[index] = value ? 1L : 0L;
+		return this;
+	}
+
+	public ParameterBuffer addString(String value) {
+		final int index = next(STRING);
+		objects[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addTimestamp(Timestamp value) {
+		final int index = next(TIMESTAMP);
+		objects[index] = value;
+		return this;
+	}
+
+	public ParameterBuffer addLocalDateTime(LocalDateTime value) {
+		final int index = next(LOCAL_DATE_TIME);
+		objects[index] = value;
+		return this;
+	}
+
+	/**
+	 * Add a SQL argument of the specified type
+	 * 
+	 * @param value
+	 *            SQL parameter value (null is bound with setNull())
+	 * @param sqlType
+	 *            constant from java.sql.Types
+	 * @return this buffer
+	 */
+	public ParameterBuffer addObject(Object value, int sqlType) {
+		if (null == value) {
+			return addNull(sqlType);
+		}
+		final int index = next(OBJECT);
+		objects[index] = value;
+		longs[index] = sqlType;
+		return this;
+	}
+
+	/**
+	 * Add an argument whose SQL type is chosen by the driver
+	 * 
+	 * @param value
+	 *            SQL parameter value
+	 * @return this buffer
+	 */
+	public ParameterBuffer addObject(Object value) {
+		final int index = next(UNTYPED_OBJECT);
+		objects[index] = value;
+		return this;
+	}
+
+	/**
+	 * Add a SQL NULL
+	 * 
+	 * @param sqlType
+	 *            constant from java.sql.Types
+	 * @return this buffer
+	 */
+	public ParameterBuffer addNull(int sqlType) {
+		final int index = next(NULL);
+		longs[index] = sqlType;
+		return this;
+	}
+
+	/**
+	 * Add a PostgreSQL json argument
+	 * 
+	 * @param json
+	 *            JSON text
+	 * @return this buffer
+	 */
+	public ParameterBuffer addPGjson(String json) {
+		if (null == json) {
+			return addNull(Types.JAVA_OBJECT);
+		}
+		final int index = next(PG_JSON);
+		objects[index] = json;
+		return this;
+	}
+
+	/**
+	 * Add a PostgreSQL json or jsonb argument
+	 * 
+	 * @param json
+	 *            JSON document and type
+	 * @return this buffer
+	 */
+	public ParameterBuffer addPGjson(JsonParameter json) {
+		if (null == json || json.isNull()) {
+			return addNull(Types.JAVA_OBJECT);
+		}
+		final int index = next(PG_JSON);
+		objects[index] = json;
+		return this;
+	}
+
+	/**
+	 * Add a binary argument (e.g. PostgreSQL bytea) read from a stream while
+	 * the statement is executed, instead of being held in memory
+	 * 
+	 * @param stream
+	 *            data (read once: the argument must only be bound once)
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return this buffer
+	 */
+	public ParameterBuffer addBinaryStream(InputStream stream, long length) {
+		if (null == stream) {
+			return addNull(Types.BINARY);
+		}
+		final int index = next(BINARY_STREAM);
+		objects[index] = stream;
+		longs[index] = length;
+		return this;
+	}
+
+	/**
+	 * Add a BLOB argument read from a stream (with PostgreSQL, a large object
+	 * is created and its oid is bound)
+	 * 
+	 * @param stream
+	 *            data (read once: the argument must only be bound once)
+	 * @param length
+	 *            number of bytes, or -1 if unknown
+	 * @return this buffer
+	 */
+	public ParameterBuffer addBlob(InputStream stream, long length) {
+		if (null == stream) {
+			return addNull(Types.BLOB);
+		}
+		final int index = next(BLOB_STREAM);
+		objects[index] = stream;
+		longs[index] = length;
+		return this;
+	}
+
+	/**
+	 * Add an SQL array parameter (e.g. for "= ANY(?)" in PostgreSQL, or for
+	 * an "IN (?)" list expanded by RequestBuilder)
+	 * 
+	 * @param array
+	 *            elements and SQL type name
+	 * @return this buffer
+	 */
+	public ParameterBuffer addArray(ArrayParameter array) {
+		if (null == array) {
+			return addNull(Types.ARRAY);
+		}
+		final int index = next(ARRAY);
+		objects[index] = array;
+		return this;
+	}
+
+	/**
+	 * @param i
+	 *            index of a parameter (0-based)
+	 * @return number of elements if the parameter is an array, otherwise -1
+	 */
+	public int arrayLength(int i) {
+		return i < size && tags[i] == ARRAY ? ((ArrayParameter) objects[i])
+				.length() : -1;
+	}
+
+	/**
+	 * Copy the parameters, replacing some array parameters with one
+	 * parameter per element (e.g. for "IN (?, ?, ?)")
+	 * 
+	 * @param expandedSizes
+	 *            for each parameter, the number of parameters to replace the
+	 *            array with, or 0 to copy the parameter as it is. If the array
+	 *            has fewer elements, its last element is repeated (a null
+	 *            parameter replaces an empty array).
+	 * @return new buffer
+	 */
+	public ParameterBuffer expandArrays(int[] expandedSizes) {
+		int expandedSize = 0;
+		for (int i = 0; i < size; i++) {
+			expandedSize += i < expandedSizes.length && expandedSizes[i] > 0
+					&& tags[i] == ARRAY ? expandedSizes[i] : 1;
+		}
+		final ParameterBuffer expanded = new ParameterBuffer(logger,
+				Math.max(1, expandedSize));
+		for (int i = 0; i < size; i++) {
+			if (i >= expandedSizes.length || expandedSizes[i] < 1
+					|| tags[i] != ARRAY) {
+				expanded.append(tags[i], longs[i], doubles[i], objects[i]);
+				continue;
+			}
+			final Object[] elements = ((ArrayParameter) objects[i])
+					.getElements();
+			for (int k = 0; k < expandedSizes[i]; k++) {
+				if (elements.length == 0) {
+					expanded.addNull(Types.NULL);
+				} else {
+					expanded.append(UNTYPED_OBJECT, 0L, 0.0,
+							elements[Math.min(k, elements.length - 1)]);
+				}
+			}
+		}
+		return expanded;
+	}
+
+	/**
+	 * Add the parameters of another buffer after those of this one (e.g. to
+	 * bind the rows of a multi-row statement from one buffer)
+	 * 
+	 * @param other
+	 *            buffer whose parameters are copied
+	 * @return this buffer
+	 */
+	public ParameterBuffer addAll(ParameterBuffer other) {
+		for (int i = 0; i < other.size; i++) {
+			append(other.tags[i], other.longs[i], other.doubles[i],
+					other.objects[i]);
+		}
+		return this;
+	}
+
+	/**
+	 * Add a parameter in its stored form
+	 */
+	void append(byte tag, long longValue, double doubleValue,
+			Object objectValue) {
+		final int index = next(tag);
+		longs[index] = longValue;
+		doubles[index] = doubleValue;
+		objects[index] = objectValue;
+	}
+
+	/**
+	 * @return index of the new parameter (read the arrays after calling
+	 *         this, as they may have been replaced)
+	 */
+	private int next(byte tag) {
+		if (size == tags.length) {
+			grow();
+		}
+		tags[size] = tag;
+		return size++;
+	}
+
+	private void grow() {
+		final int capacity = tags.length * 2;
+		tags = Arrays.copyOf(tags, capacity);
+		longs = Arrays.copyOf(longs, capacity);
+		doubles = Arrays.copyOf(doubles, capacity);
+		objects = Arrays.copyOf(objects, capacity);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter#setArguments
+	 * (java.sql.PreparedStatement)
+	 */
+	@Override
+	public void setArguments(PreparedStatement stmnt) throws SQLException {
+		setArguments(stmnt, 0);
+	}
+
+	/**
+	 * Set the parameters after a number of already set ones, e.g. for one
+	 * row of a multi-row statement
+	 * 
+	 * @param stmnt
+	 * @param offset
+	 *            number of parameters before the first one of this buffer
+	 * @throws SQLException
+	 */
+	public void setArguments(PreparedStatement stmnt, int offset)
+			throws SQLException {
+		if (null != logger && logger.isDebugEnabled()) {
+			logger.debug("Setting SQL parameters: {}", logArguments);
+		}
+		for (int i = 0; i < size; i++) {
+			bind(stmnt, i, offset + i + 1);
+		}
+	}
+
+	private void bind(PreparedStatement stmnt, int i, int index)
+			throws SQLException {
+		switch (tags[i]) {
+		case INT:
+			stmnt.setInt(index, (int) longs[i]);
+			break;
+		case LONG:
+			stmnt.setLong(index, longs[i]);
+			break;
+		case DOUBLE:
+			stmnt.setDouble(index, doubles[i]);
+			break;
+		case FLOAT:
+			stmnt.setFloat(index, (float) doubles[i]);
+			break;
+		case BOOLEAN:
+			stmnt.setBoolean(index, longs[i] != 0L);
+			break;
+		case STRING:
+			stmnt.setString(index, (String) objects[i]);
+			break;
+		case TIMESTAMP:
+			stmnt.setTimestamp(index, (Timestamp) objects[i]);
+			break;
+		case LOCAL_DATE_TIME:
+			stmnt.setTimestamp(index, null != objects[i] ? Timestamp
+					.valueOf((LocalDateTime) objects[i]) : null);
+			break;
+		case OBJECT:
+			stmnt.setObject(index, objects[i], (int) longs[i]);
+			break;
+		case UNTYPED_OBJECT:
+			stmnt.setObject(index, objects[i]);
+			break;
+		case NULL:
+			stmnt.setNull(index, (int) longs[i]);
+			break;
+		case ARRAY:
+			final ArrayParameter array = (ArrayParameter) objects[i];
+			if (null == array.getTypeName()) {
+				stmnt.setNull(index, Types.ARRAY);
+			} else {
+				stmnt.setArray(index, stmnt.getConnection().createArrayOf(
+						array.getTypeName(), array.getElements()));
+			}
+			break;
+		case BINARY_STREAM:
+			if (longs[i] < 0) {
+				stmnt.setBinaryStream(index, (InputStream) objects[i]);
+			} else {
+				stmnt.setBinaryStream(index, (InputStream) objects[i], longs[i]);
+			}
+			break;
+		case BLOB_STREAM:
+			if (longs[i] < 0) {
+				stmnt.setBlob(index, (InputStream) objects[i]);
+			} else {
+				stmnt.setBlob(index, (InputStream) objects[i], longs[i]);
+			}
+			break;
+		case PG_JSON:
+			final PGobject pg = PG_OBJECT.get();
+			if (objects[i] instanceof JsonParameter) {
+				final JsonParameter json = (JsonParameter) objects[i];
+				pg.setType(json.getTypeName());
+				pg.setValue(json.getText());
+			} else {
+				pg.setType("json");
+				pg.setValue((String) objects[i]);
+			}
+			try {
+				stmnt.setObject(index, pg);
+			} finally {
+				// do not keep the document alive until the next bind
+				pg.setValue(null);
+			}
+			break;
+		default:
+			throw new IllegalStateException("Unknown parameter type tag "
+					+ tags[i]);
+		}
+	}
+
+	/**
+	 * Log text of the parameters, e.g. "1) (int) 47 2) (String) 'Hello' "
+	 */
+	@Override
+	public String toString() {
+		StringBuilder text = new StringBuilder(16 * size);
+		for (int i = 0; i < size; i++) {
+			text.append(i + 1).append(") ");
+			appendLogText(text, i);
+			text.append(' ');
+		}
+		return text.toString();
+	}
+
+	private void appendLogText(StringBuilder text, int i) {
+		switch (tags[i]) {
+		case INT:
+			text.append("(int) ").append(longs[i]);
+			break;
+		case LONG:
+			text.append("(long) ").append(longs[i]);
+			break;
+		case DOUBLE:
+			text.append("(double) ").append(doubles[i]);
+			break;
+		case FLOAT:
+			text.append("(float) ").append((float) doubles[i]);
+			break;
+		case BOOLEAN:
+			text.append("(boolean) ").append(longs[i] != 0L);
+			break;
+		case STRING:
+			text.append("(String) ");
+			if (null == objects[i]) {
+				text.append("null");
+			} else {
+				text.append('\'').append(objects[i]).append('\'');
+			}
+			break;
+		case TIMESTAMP:
+			text.append("(Timestamp) ").append(objects[i]);
+			break;
+		case LOCAL_DATE_TIME:
+			text.append("(LocalDateTime) ").append(objects[i]);
+			break;
+		case OBJECT:
+			text.append("(Object of type").append(longs[i]).append(") ")
+					.append(objects[i]);
+			break;
+		case UNTYPED_OBJECT:
+			text.append("(Object) ").append(objects[i]);
+			break;
+		case NULL:
+			text.append("(Object of type").append(longs[i]).append(") null");
+			break;
+		case PG_JSON:
+			if (objects[i] instanceof JsonParameter) {
+				text.append(objects[i]);
+			} else {
+				text.append("(json) ").append(objects[i]);
+			}
+			break;
+		case ARRAY:
+			text.append(objects[i]);
+			break;
+		case BINARY_STREAM:
+			text.append("(InputStream) ").append(longs[i]).append(" bytes");
+			break;
+		case BLOB_STREAM:
+			text.append("(Blob InputStream) ").append(longs[i])
+					.append(" bytes");
+			break;
+		default:
+			text.append("(?)");
+		}
+	}
+}
@@ -0,0 +1,204 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Encoder of the COPY binary format: a header, then for each row the number
+ * of fields followed by each field's length and bytes in network byte
+ * order, and a trailer. Each field must be written with the exact type of
+ * its column.
+ * 
+ * @author aro_tech
+ *
+ */
+public class BinaryCopyEncoder extends CopyEncoder {
+	private static final byte[] SIGNATURE = { 'P', 'G', 'C', 'O', 'P', 'Y',
+			'\n', (byte) 0xFF, '\r', '\n', 0 };
+	/** 2000-01-01T00:00:00Z, the PostgreSQL epoch */
+	private static final long POSTGRES_EPOCH_SECONDS = 946684800L;
+	private static final long POSTGRES_EPOCH_DAYS = 10957L;
+
+	private final int columnCount;
+
+	/**
+	 * Constructor - writes the header
+	 * 
+	 * @param out
+	 *            destination of the encoded rows
+	 * @param columnCount
+	 *            number of fields of each row
+	 * @param bufferSize
+	 *            size of the buffer, in bytes
+	 * @throws IOException
+	 */
+	public BinaryCopyEncoder(OutputStream out, int columnCount, int bufferSize)
+			throws IOException {
+		super(out, bufferSize);
+		if (columnCount < 1 || columnCount > Short.MAX_VALUE) {
+			throw new IllegalArgumentException("Invalid column count: "
+					+ columnCount);
+		}
+		this.columnCount = columnCount;
+		writeThrough(SIGNATURE);
+		putInt(0); // flags
+		putInt(0); // header extension length
+	}
+
+	/**
+	 * Write the field count if the field starts a row, then the field length
+	 * 
+	 * @param length
+	 *            length of the field, -1 for NULL
+	 * @param reserve
+	 *            number of bytes to make room for after the length
+	 */
+	private void beginField(int length, int reserve) throws IOException {
+		if (fieldIndex == 0) {
+			ensureCapacity(2);
+			buffer[position++] = (byte) (columnCount >> 8);
+			buffer[position++] = (byte) columnCount;
+		} else if (fieldIndex >= columnCount) {
+			throw new IllegalStateException("More than " + columnCount
+					+ " fields in row " + (getRowCount() + 1));
+		}
+		fieldIndex++;
+		ensureCapacity(4 + reserve);
+		putInt(length);
+	}
+
+	private void putInt(int value) throws IOException {
+		ensureCapacity(4);
+		buffer[position++] = (byte) (value >> 24);
+		buffer[position++] = (byte) (value >> 16);
+		buffer[position++] = (byte) (value >> 8);
+		buffer[position++] = (byte) value;
+	}
+
+	private void putLong(long value) throws IOException {
+		putInt((int) (value >> 32));
+		putInt((int) value);
+	}
+
+	@Override
+	public CopyRowWriter writeNull() throws IOException {
+		beginField(-1, 0);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeInt(int value) throws IOException {
+		beginField(4, 4);
+		putInt(value);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeLong(long value) throws IOException {
+		beginField(8, 8);
+		putLong(value);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeDouble(double value) throws IOException {
+		beginField(8, 8);
+		putLong(Double.doubleToLongBits(value));
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeBoolean(boolean value) throws IOException {
+		beginField(1, 1);
+		buffer[position++] = (byte) (value ? 1 : 0);
+		return this;
+	}
+
+	/**
+	 * The length is written once the UTF-8 bytes are in the buffer
+	 */
+	@Override
+	public CopyRowWriter writeString(CharSequence value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		final int length = value.length();
+		// UTF-8 needs at most 3 bytes per char, and the buffer must not be
+		// flushed before the length is known
+		beginField(0, 3 * length + 4);
+		final int lengthPosition = position - 4;
+		final int start = position;
+		for (int i = 0; i < length; i++) {
+			i = putUtf8(value, i);
+		}
+		final int byteCount = position - start;
+		buffer[lengthPosition] = (byte) (byteCount >> 24);
+		buffer[lengthPosition + 1] = (byte) (byteCount >> 16);
+		buffer[lengthPosition + 2] = (byte) (byteCount >> 8);
+		buffer[lengthPosition + 3] = (byte) byteCount;
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeBytes(byte[] value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField(value.length, 0);
+		writeThrough(value);
+		return this;
+	}
+
+	/**
+	 * Written as microseconds since 2000-01-01 (integer date/times, the
+	 * default since PostgreSQL 8.4)
+	 */
+	@Override
+	public CopyRowWriter writeTimestamp(LocalDateTime value)
+			throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField(8, 8);
+		putLong((value.toEpochSecond(ZoneOffset.UTC) - POSTGRES_EPOCH_SECONDS)
+				* 1000000L + value.getNano() / 1000);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeDate(LocalDate value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField(4, 4);
+		putInt((int) (value.toEpochDay() - POSTGRES_EPOCH_DAYS));
+		return this;
+	}
+
+	@Override
+	public void endRow() throws IOException {
+		if (fieldIndex != columnCount) {
+			throw new IllegalStateException("Row " + (getRowCount() + 1)
+					+ " has " + fieldIndex + " fields instead of "
+					+ columnCount);
+		}
+		super.endRow();
+	}
+
+	/**
+	 * Write the trailer and flush
+	 */
+	@Override
+	public void finish() throws IOException {
+		ensureCapacity(2);
+		buffer[position++] = (byte) 0xFF;
+		buffer[position++] = (byte) 0xFF;
+		super.finish();
+	}
+}
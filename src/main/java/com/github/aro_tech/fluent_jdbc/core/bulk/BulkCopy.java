@@ -0,0 +1,311 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.PGCopyInputStream;
+
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.Transaction;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+
+/**
+ * Fluent PostgreSQL bulk loader/unloader based on the COPY command, which
+ * transfers rows as one data stream instead of one statement execution per
+ * row.
+ * 
+ * Example: <code><pre>
+ * long loaded = BulkCopy.withConnectionProvider(provider).load("person",
+ * 		new String[] { "id", "name" }, people,
+ * 		(p, row) -&gt; row.writeLong(p.getId()).writeString(p.getName()));
+ * </pre></code>
+ * 
+ * Errors are logged and added to the error collector, if any, as with
+ * RequestBuilder.
+ * 
+ * @author aro_tech
+ *
+ */
+public class BulkCopy {
+	/**
+	 * Plain or quoted identifier
+	 */
+	private static final String IDENTIFIER = "(?:\"(?:[^\"]|\"\")+\"|[A-Za-z_][A-Za-z0-9_$]*)";
+
+	/**
+	 * Table name, optionally schema-qualified
+	 */
+	private static final Pattern TABLE_NAME = Pattern.compile("\\s*"
+			+ IDENTIFIER + "(?:\\." + IDENTIFIER + ")?\\s*");
+
+	private final ILogger logger;
+	private final IJDBCConnectionProvider connectionProvider;
+	private final Connection jdbcConnection;
+	private final CopyFormat format;
+	private final int bufferSize;
+	private final List<SQLException> errorsCaught;
+
+	private BulkCopy(ILogger logger,
+			IJDBCConnectionProvider connectionProvider,
+			Connection jdbcConnection, CopyFormat format, int bufferSize,
+			List<SQLException> errorsCaught) {
+		super();
+		this.logger = null != logger ? logger : new SQLLogger();
+		this.connectionProvider = connectionProvider;
+		this.jdbcConnection = jdbcConnection;
+		this.format = format;
+		this.bufferSize = bufferSize;
+		this.errorsCaught = errorsCaught;
+	}
+
+	/**
+	 * Static factory - each operation uses a new connection from the provider
+	 * 
+	 * @param connectionProvider
+	 * @return builder
+	 */
+	public static BulkCopy withConnectionProvider(
+			IJDBCConnectionProvider connectionProvider) {
+		return new BulkCopy(null, connectionProvider, null, CopyFormat.TEXT,
+				CopyEncoder.DEFAULT_BUFFER_SIZE, null);
+	}
+
+	/**
+	 * Static factory - operations use this connection, which is left open
+	 * 
+	 * @param connection
+	 * @return builder
+	 */
+	public static BulkCopy withConnection(Connection connection) {
+		return new BulkCopy(null, null, connection, CopyFormat.TEXT,
+				CopyEncoder.DEFAULT_BUFFER_SIZE, null);
+	}
+
+	/**
+	 * Specify the logger to use
+	 * 
+	 * @param loggerToUse
+	 * @return builder
+	 */
+	public BulkCopy withLogger(ILogger loggerToUse) {
+		return new BulkCopy(loggerToUse, connectionProvider, jdbcConnection,
+				format, bufferSize, errorsCaught);
+	}
+
+	/**
+	 * Specify the format used by load() (default: TEXT)
+	 * 
+	 * @param formatToUse
+	 * @return builder
+	 */
+	public BulkCopy withFormat(CopyFormat formatToUse) {
+		return new BulkCopy(logger, connectionProvider, jdbcConnection,
+				formatToUse, bufferSize, errorsCaught);
+	}
+
+	/**
+	 * Specify how many bytes are sent to the database at once
+	 * 
+	 * @param size
+	 *            buffer size, in bytes
+	 * @return builder
+	 */
+	public BulkCopy withBufferSize(int size) {
+		return new BulkCopy(logger, connectionProvider, jdbcConnection,
+				format, size, errorsCaught);
+	}
+
+	/**
+	 * Add a list to collect any exceptions caught
+	 * 
+	 * @param caughtErrors
+	 * @return builder
+	 */
+	public BulkCopy withErrorCollector(List<SQLException> caughtErrors) {
+		return new BulkCopy(logger, connectionProvider, jdbcConnection,
+				format, bufferSize, caughtErrors);
+	}
+
+	/**
+	 * Load rows into a table with COPY ... FROM STDIN
+	 * 
+	 * @param table
+	 *            table name
+	 * @param columns
+	 *            columns written by the encoder, in order
+	 * @param rows
+	 *            objects to load (they can be produced lazily)
+	 * @param encoder
+	 *            lambda writing the fields of a row
+	 * @return number of rows loaded, -1 if the COPY failed (in which case no
+	 *         row is loaded)
+	 */
+	public <R> long load(String table, String[] columns,
+			Iterable<? extends R> rows, CopyRowEncoder<R> encoder) {
+		final String sql = "COPY " + table + " (" + String.join(", ", columns)
+				+ ") FROM STDIN"
+				+ (CopyFormat.BINARY == format ? " WITH (FORMAT binary)" : "");
+		return withCopyManager(sql, copyManager -> {
+			final CopyIn copyIn = copyManager.copyIn(sql);
+			try {
+				final CopyEncoder rowWriter = CopyEncoder.create(format,
+						new CopyInStream(copyIn), columns.length, bufferSize);
+				for (R row : rows) {
+					encoder.encode(row, rowWriter);
+					rowWriter.endRow();
+				}
+				rowWriter.finish();
+				return copyIn.endCopy();
+			} finally {
+				if (copyIn.isActive()) {
+					copyIn.cancelCopy();
+				}
+			}
+		});
+	}
+
+	/**
+	 * Run a COPY ... FROM STDIN command with data already in COPY format
+	 * 
+	 * @param copySql
+	 *            COPY command
+	 * @param data
+	 *            rows in the format given in the command
+	 * @return number of rows loaded, -1 if the COPY failed
+	 */
+	public long load(String copySql, InputStream data) {
+		return withCopyManager(copySql,
+				copyManager -> copyManager.copyIn(copySql, data, bufferSize));
+	}
+
+	/**
+	 * Read the results of a query with COPY (...) TO STDOUT, in text format
+	 * 
+	 * @param query
+	 *            query, e.g. SELECT or WITH (or table name)
+	 * @param mapper
+	 *            lambda converting a row
+	 * @return converted rows (null if the COPY failed)
+	 */
+	public <R> List<R> unload(String query, CopyRowMapper<R> mapper) {
+		final List<R> results = new ArrayList<R>();
+		if (unload(query, mapper, results::add) < 0) {
+			return null;
+		}
+		return results;
+	}
+
+	/**
+	 * Read the results of a query with COPY (...) TO STDOUT, in text format,
+	 * passing each row to an action as it is read
+	 * 
+	 * @param query
+	 *            query, e.g. SELECT or WITH (or table name)
+	 * @param mapper
+	 *            lambda converting a row
+	 * @param action
+	 *            lambda called for each converted row
+	 * @return number of rows read, -1 if the COPY failed
+	 */
+	public <R> long unload(String query, CopyRowMapper<R> mapper,
+			Consumer<? super R> action) {
+		final String sql = "COPY " + copySource(query) + " TO STDOUT";
+		return withCopyManager(sql, copyManager -> {
+			long count = 0;
+			try (InputStream in = new PGCopyInputStream(copyManager
+					.copyOut(sql))) {
+				final CopyRowReader reader = new CopyRowReader(in, bufferSize);
+				while (reader.next()) {
+					action.accept(mapper.mapRow(reader));
+					count++;
+				}
+			}
+			return count;
+		});
+	}
+
+	/**
+	 * @param query
+	 *            query or table name
+	 * @return a table name as is, any query (SELECT, WITH, VALUES...) in
+	 *         parentheses
+	 */
+	private static String copySource(String query) {
+		return TABLE_NAME.matcher(query).matches() ? query.trim() : "("
+				+ query + ")";
+	}
+
+	/**
+	 * Run a COPY ... TO STDOUT command, writing the data as is
+	 * 
+	 * @param copySql
+	 *            COPY command
+	 * @param out
+	 *            destination of the data
+	 * @return number of rows written, -1 if the COPY failed
+	 */
+	public long unload(String copySql, OutputStream out) {
+		return withCopyManager(copySql,
+				copyManager -> copyManager.copyOut(copySql, out));
+	}
+
+	@FunctionalInterface
+	private static interface CopyOperation {
+		long run(CopyManager copyManager) throws SQLException, IOException;
+	}
+
+	private long withCopyManager(String sql, CopyOperation operation) {
+		if (logger.isInfoEnabled()) {
+			logger.info("About to execute COPY: \n{}", sql);
+		}
+		try {
+			if (null != connectionProvider) {
+				try (Connection c = Transaction
+						.connectionFor(connectionProvider)) {
+					return run(c, sql, operation);
+				}
+			} else if (null != jdbcConnection) {
+				return run(jdbcConnection, sql, operation);
+			}
+			logger.error("No connection provided for request sql={}", sql);
+		} catch (SQLException e) {
+			handleError(sql, e);
+		}
+		return -1L;
+	}
+
+	private long run(Connection c, String sql, CopyOperation operation)
+			throws SQLException {
+		try {
+			final long count = operation.run(c.unwrap(PGConnection.class)
+					.getCopyAPI());
+			if (logger.isDebugEnabled()) {
+				logger.debug("COPY handled {} rows", count);
+			}
+			return count;
+		} catch (IOException e) {
+			throw new SQLException("I/O error during COPY", e);
+		}
+	}
+
+	private void handleError(String sql, SQLException e) {
+		logger.error("Exception for SQL request: " + sql, e);
+		if (null != errorsCaught) {
+			errorsCaught.add(e);
+		}
+	}
+}
@@ -0,0 +1,250 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * Base class of the COPY format encoders. Fields are encoded directly into a
+ * byte buffer, which is written to the output stream whenever it is full, so
+ * no intermediate String or byte array is created per row.
+ * 
+ * An encoder is not thread-safe.
+ * 
+ * @author aro_tech
+ *
+ */
+public abstract class CopyEncoder implements CopyRowWriter, Flushable {
+	/**
+	 * Default size of the buffer, in bytes
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final OutputStream out;
+	protected byte[] buffer;
+	protected int position = 0;
+	/** number of fields written in the current row */
+	protected int fieldIndex = 0;
+	private long rowCount = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param out
+	 *            destination of the encoded rows
+	 * @param bufferSize
+	 *            size of the buffer, in bytes
+	 */
+	protected CopyEncoder(OutputStream out, int bufferSize) {
+		super();
+		this.out = out;
+		this.buffer = new byte[Math.max(64, bufferSize)];
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @param format
+	 *            COPY format
+	 * @param out
+	 *            destination of the encoded rows
+	 * @param columnCount
+	 *            number of fields of each row
+	 * @param bufferSize
+	 *            size of the buffer, in bytes
+	 * @return encoder
+	 * @throws IOException
+	 */
+	public static CopyEncoder create(CopyFormat format, OutputStream out,
+			int columnCount, int bufferSize) throws IOException {
+		if (CopyFormat.BINARY == format) {
+			return new BinaryCopyEncoder(out, columnCount, bufferSize);
+		}
+		return new TextCopyEncoder(out, bufferSize);
+	}
+
+	/**
+	 * Make room for a number of bytes in the buffer, writing out its content
+	 * (or growing it) if needed
+	 * 
+	 * @param bytes
+	 * @throws IOException
+	 */
+	protected final void ensureCapacity(int bytes) throws IOException {
+		if (position + bytes > buffer.length) {
+			flushBuffer();
+			if (bytes > buffer.length) {
+				buffer = new byte[Math.max(bytes, 2 * buffer.length)];
+			}
+		}
+	}
+
+	/**
+	 * Write out the content of the buffer
+	 * 
+	 * @throws IOException
+	 */
+	protected final void flushBuffer() throws IOException {
+		if (position > 0) {
+			out.write(buffer, 0, position);
+			position = 0;
+		}
+	}
+
+	/**
+	 * Write bytes without copying them into the buffer
+	 * 
+	 * @param bytes
+	 * @throws IOException
+	 */
+	protected final void writeThrough(byte[] bytes) throws IOException {
+		if (bytes.length <= buffer.length - position) {
+			System.arraycopy(bytes, 0, buffer, position, bytes.length);
+			position += bytes.length;
+		} else {
+			flushBuffer();
+			out.write(bytes);
+		}
+	}
+
+	/**
+	 * Append the decimal digits of a number to the buffer
+	 * 
+	 * @param value
+	 * @throws IOException
+	 */
+	protected final void putDecimal(long value) throws IOException {
+		ensureCapacity(20);
+		if (value == Long.MIN_VALUE) {
+			putAscii("-9223372036854775808");
+			return;
+		}
+		long remaining = value;
+		if (remaining < 0) {
+			buffer[position++] = '-';
+			remaining = -remaining;
+		}
+		final int start = position;
+		do {
+			buffer[position++] = (byte) ('0' + remaining % 10);
+			remaining /= 10;
+		} while (remaining > 0);
+		// digits were written from the least significant one
+		for (int i = start, j = position - 1; i < j; i++, j--) {
+			final byte digit = buffer[i];
+			buffer[i] = buffer[j];
+			buffer[j] = digit;
+		}
+	}
+
+	/**
+	 * Append a number with leading zeros
+	 * 
+	 * @param value
+	 *            positive number
+	 * @param digits
+	 *            minimum number of digits
+	 * @throws IOException
+	 */
+	protected final void putPadded(int value, int digits) throws IOException {
+		ensureCapacity(digits);
+		int divisor = 1;
+		for (int i = 1; i < digits; i++) {
+			divisor *= 10;
+		}
+		int remaining = value;
+		for (; divisor > 0; divisor /= 10) {
+			buffer[position++] = (byte) ('0' + remaining / divisor);
+			remaining %= divisor;
+		}
+	}
+
+	/**
+	 * Append text known to be ASCII
+	 * 
+	 * @param text
+	 * @throws IOException
+	 */
+	protected final void putAscii(String text) throws IOException {
+		ensureCapacity(text.length());
+		for (int i = 0; i < text.length(); i++) {
+			buffer[position++] = (byte) text.charAt(i);
+		}
+	}
+
+	/**
+	 * Append one character encoded in UTF-8 (surrogate pairs are combined)
+	 * 
+	 * @param text
+	 * @param i
+	 *            index of the character
+	 * @return index of the last char consumed
+	 * @throws IOException
+	 */
+	protected final int putUtf8(CharSequence text, int i) throws IOException {
+		ensureCapacity(4);
+		final char c = text.charAt(i);
+		if (c < 0x80) {
+			buffer[position++] = (byte) c;
+		} else if (c < 0x800) {
+			buffer[position++] = (byte) (0xC0 | (c >> 6));
+			buffer[position++] = (byte) (0x80 | (c & 0x3F));
+		} else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+				&& Character.isLowSurrogate(text.charAt(i + 1))) {
+			final int codePoint = Character.toCodePoint(c, text.charAt(i + 1));
+			buffer[position++] = (byte) (0xF0 | (codePoint >> 18));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 12) & 0x3F));
+			buffer[position++] = (byte) (0x80 | ((codePoint >> 6) & 0x3F));
+			buffer[position++] = (byte) (0x80 | (codePoint & 0x3F));
+			return i + 1;
+		} else if (Character.isSurrogate(c)) {
+			buffer[position++] = '?';
+		} else {
+			buffer[position++] = (byte) (0xE0 | (c >> 12));
+			buffer[position++] = (byte) (0x80 | ((c >> 6) & 0x3F));
+			buffer[position++] = (byte) (0x80 | (c & 0x3F));
+		}
+		return i;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.github.aro_tech.fluent_jdbc.core.bulk.CopyRowWriter#endRow()
+	 */
+	@Override
+	public void endRow() throws IOException {
+		fieldIndex = 0;
+		rowCount++;
+	}
+
+	/**
+	 * Write the end of the data (if the format has one) and flush
+	 * 
+	 * @throws IOException
+	 */
+	public void finish() throws IOException {
+		flush();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see java.io.Flushable#flush()
+	 */
+	@Override
+	public void flush() throws IOException {
+		flushBuffer();
+		out.flush();
+	}
+
+	/**
+	 * @return number of rows written
+	 */
+	public long getRowCount() {
+		return rowCount;
+	}
+}
@@ -0,0 +1,23 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+/**
+ * Data formats of PostgreSQL's COPY command
+ * 
+ * @author aro_tech
+ *
+ */
+public enum CopyFormat {
+	/**
+	 * Tab-separated text, one line per row
+	 */
+	TEXT,
+	/**
+	 * PostgreSQL binary format: more compact and faster to parse, but each
+	 * field must be written with the exact type of its column (e.g.
+	 * writeInt() for an integer column, writeLong() for a bigint)
+	 */
+	BINARY
+}
@@ -0,0 +1,49 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.SQLException;
+
+import org.postgresql.copy.CopyIn;
+
+/**
+ * Unbuffered stream over a COPY FROM STDIN operation (the encoders already
+ * write whole buffers)
+ * 
+ * @author aro_tech
+ *
+ */
+class CopyInStream extends OutputStream {
+	private final CopyIn copyIn;
+
+	CopyInStream(CopyIn copyIn) {
+		super();
+		this.copyIn = copyIn;
+	}
+
+	@Override
+	public void write(int b) throws IOException {
+		write(new byte[] { (byte) b }, 0, 1);
+	}
+
+	@Override
+	public void write(byte[] b, int off, int len) throws IOException {
+		try {
+			copyIn.writeToCopy(b, off, len);
+		} catch (SQLException e) {
+			throw new IOException("COPY failed", e);
+		}
+	}
+
+	@Override
+	public void flush() throws IOException {
+		try {
+			copyIn.flushCopy();
+		} catch (SQLException e) {
+			throw new IOException("COPY failed", e);
+		}
+	}
+}
@@ -0,0 +1,18 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+
+/**
+ * Functional interface to write the fields of a Java object as a COPY row
+ * using a lambda
+ * 
+ * @author aro_tech
+ *
+ */
+@FunctionalInterface
+public interface CopyRowEncoder<R> {
+	void encode(R row, CopyRowWriter writer) throws IOException;
+}
@@ -0,0 +1,18 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+
+/**
+ * Functional interface to convert the current row of a COPY output using a
+ * lambda
+ * 
+ * @author aro_tech
+ *
+ */
+@FunctionalInterface
+public interface CopyRowMapper<R> {
+	R mapRow(CopyRowReader row) throws IOException;
+}
@@ -0,0 +1,303 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Decoder of the COPY text format, reading one row at a time. The fields of
+ * the current row are kept unescaped in a reusable byte buffer: numbers and
+ * booleans are parsed from the bytes, and a String is only created by
+ * getString(). Columns are numbered from 1, as in JDBC.
+ * 
+ * A reader is not thread-safe.
+ * 
+ * @author aro_tech
+ *
+ */
+public class CopyRowReader {
+	private final InputStream in;
+	private final byte[] input;
+	private int inputPosition = 0;
+	private int inputLimit = 0;
+
+	private byte[] row = new byte[256];
+	private int rowLength = 0;
+	private int[] fieldEnds = new int[16];
+	private boolean[] nulls = new boolean[16];
+	private int fieldCount = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param in
+	 *            COPY text data
+	 */
+	public CopyRowReader(InputStream in) {
+		this(in, 8192);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param in
+	 *            COPY text data
+	 * @param bufferSize
+	 *            number of bytes read from the stream at once
+	 */
+	public CopyRowReader(InputStream in, int bufferSize) {
+		super();
+		this.in = in;
+		this.input = new byte[Math.max(16, bufferSize)];
+	}
+
+	/**
+	 * Read the next row
+	 * 
+	 * @return false if there are no more rows
+	 * @throws IOException
+	 *             if the stream cannot be read or the data is invalid
+	 */
+	public boolean next() throws IOException {
+		rowLength = 0;
+		fieldCount = 0;
+		int b = read();
+		if (b < 0) {
+			return false;
+		}
+		boolean fieldIsNull = false;
+		while (b >= 0 && b != '\n') {
+			if (b == '\t') {
+				endField(fieldIsNull);
+				fieldIsNull = false;
+			} else if (b == '\\') {
+				b = read();
+				if (b == 'N') {
+					fieldIsNull = true;
+				} else if (b == '.' && fieldCount == 0 && rowLength == 0) {
+					// end-of-data marker
+					skipLine();
+					return false;
+				} else {
+					put(unescape(b));
+				}
+			} else if (b != '\r') {
+				put(b);
+			}
+			b = read();
+		}
+		endField(fieldIsNull);
+		return true;
+	}
+
+	private int unescape(int escaped) throws IOException {
+		switch (escaped) {
+		case 'b':
+			return '\b';
+		case 'f':
+			return '\f';
+		case 'n':
+			return '\n';
+		case 'r':
+			return '\r';
+		case 't':
+			return '\t';
+		case 'v':
+			return 0x0B;
+		case 'x':
+			return readDigits(16, 2);
+		case -1:
+			throw new IOException("Unexpected end of COPY data after \\");
+		default:
+			if (escaped >= '0' && escaped <= '7') {
+				inputPosition--;
+				return readDigits(8, 3);
+			}
+			return escaped;
+		}
+	}
+
+	private int readDigits(int radix, int maxDigits) throws IOException {
+		int value = 0;
+		for (int i = 0; i < maxDigits; i++) {
+			final int b = read();
+			final int digit = b < 0 ? -1 : Character.digit(b, radix);
+			if (digit < 0) {
+				if (b >= 0) {
+					inputPosition--;
+				}
+				break;
+			}
+			value = value * radix + digit;
+		}
+		return value & 0xFF;
+	}
+
+	private void skipLine() throws IOException {
+		int b;
+		do {
+			b = read();
+		} while (b >= 0 && b != '\n');
+	}
+
+	private int read() throws IOException {
+		if (inputPosition == inputLimit) {
+			inputLimit = in.read(input, 0, input.length);
+			inputPosition = 0;
+			if (inputLimit <= 0) {
+				inputLimit = 0;
+				return -1;
+			}
+		}
+		return input[inputPosition++] & 0xFF;
+	}
+
+	private void put(int b) {
+		if (rowLength == row.length) {
+			row = Arrays.copyOf(row, 2 * row.length);
+		}
+		row[rowLength++] = (byte) b;
+	}
+
+	private void endField(boolean isNull) {
+		if (fieldCount == fieldEnds.length) {
+			fieldEnds = Arrays.copyOf(fieldEnds, 2 * fieldCount);
+			nulls = Arrays.copyOf(nulls, 2 * fieldCount);
+		}
+		fieldEnds[fieldCount] = rowLength;
+		nulls[fieldCount] = isNull;
+		fieldCount++;
+	}
+
+	/**
+	 * @return number of fields of the current row
+	 */
+	public int getFieldCount() {
+		return fieldCount;
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return true if the field is NULL
+	 */
+	public boolean isNull(int column) {
+		return nulls[checkColumn(column)];
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return text of the field (null for NULL)
+	 */
+	public String getString(int column) {
+		final int field = checkColumn(column);
+		if (nulls[field]) {
+			return null;
+		}
+		final int start = start(field);
+		return new String(row, start, fieldEnds[field] - start,
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return value of the field (0 for NULL)
+	 */
+	public long getLong(int column) {
+		final int field = checkColumn(column);
+		if (nulls[field]) {
+			return 0L;
+		}
+		int i = start(field);
+		final int end = fieldEnds[field];
+		final boolean negative = i < end && row[i] == '-';
+		if (negative || (i < end && row[i] == '+')) {
+			i++;
+		}
+		if (i == end) {
+			throw new NumberFormatException("Empty number in column "
+					+ column);
+		}
+		long value = 0;
+		for (; i < end; i++) {
+			final int digit = row[i] - '0';
+			if (digit < 0 || digit > 9) {
+				throw new NumberFormatException("Not an integer in column "
+						+ column + ": " + getString(column));
+			}
+			value = value * 10 - digit;
+		}
+		return negative ? value : -value;
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return value of the field (0 for NULL)
+	 */
+	public int getInt(int column) {
+		return (int) getLong(column);
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return value of the field (0 for NULL)
+	 */
+	public double getDouble(int column) {
+		final String text = getString(column);
+		return null == text ? 0.0 : Double.parseDouble(text);
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return value of the field (false for NULL)
+	 */
+	public boolean getBoolean(int column) {
+		final int field = checkColumn(column);
+		return !nulls[field] && fieldEnds[field] > start(field)
+				&& row[start(field)] == 't';
+	}
+
+	/**
+	 * @param column
+	 *            column number, starting at 1
+	 * @return value of a bytea field in hex format (null for NULL)
+	 */
+	public byte[] getBytes(int column) {
+		final int field = checkColumn(column);
+		if (nulls[field]) {
+			return null;
+		}
+		final int start = start(field);
+		final int end = fieldEnds[field];
+		if (end - start < 2 || row[start] != '\\' || row[start + 1] != 'x') {
+			return Arrays.copyOfRange(row, start, end);
+		}
+		final byte[] bytes = new byte[(end - start - 2) / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) (Character.digit(row[start + 2 + 2 * i], 16) << 4 | Character
+					.digit(row[start + 3 + 2 * i], 16));
+		}
+		return bytes;
+	}
+
+	private int start(int field) {
+		return field == 0 ? 0 : fieldEnds[field - 1];
+	}
+
+	private int checkColumn(int column) {
+		if (column < 1 || column > fieldCount) {
+			throw new IndexOutOfBoundsException("Column " + column
+					+ " out of 1.." + fieldCount);
+		}
+		return column - 1;
+	}
+}
@@ -0,0 +1,61 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Receives the fields of a row being written to a COPY stream, in column
+ * order
+ * 
+ * @author aro_tech
+ *
+ */
+public interface CopyRowWriter {
+	CopyRowWriter writeNull() throws IOException;
+
+	/**
+	 * Write an int field (int4 column in binary format)
+	 */
+	CopyRowWriter writeInt(int value) throws IOException;
+
+	/**
+	 * Write a long field (int8 column in binary format)
+	 */
+	CopyRowWriter writeLong(long value) throws IOException;
+
+	/**
+	 * Write a double field (float8 column in binary format)
+	 */
+	CopyRowWriter writeDouble(double value) throws IOException;
+
+	CopyRowWriter writeBoolean(boolean value) throws IOException;
+
+	/**
+	 * Write a text field (null writes a NULL)
+	 */
+	CopyRowWriter writeString(CharSequence value) throws IOException;
+
+	/**
+	 * Write a bytea field (null writes a NULL)
+	 */
+	CopyRowWriter writeBytes(byte[] value) throws IOException;
+
+	/**
+	 * Write a timestamp (without time zone) field (null writes a NULL)
+	 */
+	CopyRowWriter writeTimestamp(LocalDateTime value) throws IOException;
+
+	/**
+	 * Write a date field (null writes a NULL)
+	 */
+	CopyRowWriter writeDate(LocalDate value) throws IOException;
+
+	/**
+	 * Terminate the current row
+	 */
+	void endRow() throws IOException;
+}
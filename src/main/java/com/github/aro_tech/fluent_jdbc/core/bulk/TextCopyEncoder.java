@@ -0,0 +1,213 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.bulk;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Encoder of the COPY text format: fields separated by tabs, rows
+ * terminated by a newline, \N for NULL and backslash escapes for
+ * backslashes, tabs, newlines and carriage returns
+ * 
+ * @author aro_tech
+ *
+ */
+public class TextCopyEncoder extends CopyEncoder {
+	private static final byte[] HEX_DIGITS = "0123456789abcdef".getBytes();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param out
+	 *            destination of the encoded rows
+	 * @param bufferSize
+	 *            size of the buffer, in bytes
+	 */
+	public TextCopyEncoder(OutputStream out, int bufferSize) {
+		super(out, bufferSize);
+	}
+
+	private void beginField() throws IOException {
+		if (fieldIndex++ > 0) {
+			ensureCapacity(1);
+			buffer[position++] = '\t';
+		}
+	}
+
+	@Override
+	public CopyRowWriter writeNull() throws IOException {
+		beginField();
+		ensureCapacity(2);
+		buffer[position++] = '\\';
+		buffer[position++] = 'N';
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeInt(int value) throws IOException {
+		beginField();
+		putDecimal(value);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeLong(long value) throws IOException {
+		beginField();
+		putDecimal(value);
+		return this;
+	}
+
+	/**
+	 * Note: the text of a double is produced by Double.toString()
+	 */
+	@Override
+	public CopyRowWriter writeDouble(double value) throws IOException {
+		beginField();
+		if (value == (long) value && Math.abs(value) < 1e15) {
+			putDecimal((long) value);
+		} else if (Double.isNaN(value)) {
+			putAscii("NaN");
+		} else if (Double.isInfinite(value)) {
+			putAscii(value > 0 ? "Infinity" : "-Infinity");
+		} else {
+			putAscii(Double.toString(value));
+		}
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeBoolean(boolean value) throws IOException {
+		beginField();
+		ensureCapacity(1);
+		buffer[position++] = (byte) (value ? 't' : 'f');
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeString(CharSequence value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField();
+		final int length = value.length();
+		for (int i = 0; i < length; i++) {
+			final char c = value.charAt(i);
+			switch (c) {
+			case '\\':
+				putEscape('\\');
+				break;
+			case '\t':
+				putEscape('t');
+				break;
+			case '\n':
+				putEscape('n');
+				break;
+			case '\r':
+				putEscape('r');
+				break;
+			default:
+				i = putUtf8(value, i);
+			}
+		}
+		return this;
+	}
+
+	private void putEscape(char escaped) throws IOException {
+		ensureCapacity(2);
+		buffer[position++] = '\\';
+		buffer[position++] = (byte) escaped;
+	}
+
+	/**
+	 * Written in bytea hex format (\x followed by 2 hex digits per byte)
+	 */
+	@Override
+	public CopyRowWriter writeBytes(byte[] value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField();
+		// the backslash of \x is itself escaped in the COPY text format
+		ensureCapacity(3);
+		buffer[position++] = '\\';
+		buffer[position++] = '\\';
+		buffer[position++] = 'x';
+		for (byte b : value) {
+			ensureCapacity(2);
+			buffer[position++] = HEX_DIGITS[(b >> 4) & 0xF];
+			buffer[position++] = HEX_DIGITS[b & 0xF];
+		}
+		return this;
+	}
+
+	/**
+	 * Written as yyyy-MM-dd HH:mm:ss.SSSSSS
+	 */
+	@Override
+	public CopyRowWriter writeTimestamp(LocalDateTime value)
+			throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField();
+		if (!putDate(value.getYear(), value.getMonthValue(),
+				value.getDayOfMonth())) {
+			putAscii(value.toString());
+			return this;
+		}
+		ensureCapacity(1);
+		buffer[position++] = ' ';
+		putPadded(value.getHour(), 2);
+		putSeparator(':');
+		putPadded(value.getMinute(), 2);
+		putSeparator(':');
+		putPadded(value.getSecond(), 2);
+		putSeparator('.');
+		putPadded(value.getNano() / 1000, 6);
+		return this;
+	}
+
+	@Override
+	public CopyRowWriter writeDate(LocalDate value) throws IOException {
+		if (null == value) {
+			return writeNull();
+		}
+		beginField();
+		if (!putDate(value.getYear(), value.getMonthValue(),
+				value.getDayOfMonth())) {
+			putAscii(value.toString());
+		}
+		return this;
+	}
+
+	/**
+	 * @return false if the year cannot be written in 4 digits
+	 */
+	private boolean putDate(int year, int month, int day) throws IOException {
+		if (year < 0 || year > 9999) {
+			return false;
+		}
+		putPadded(year, 4);
+		putSeparator('-');
+		putPadded(month, 2);
+		putSeparator('-');
+		putPadded(day, 2);
+		return true;
+	}
+
+	private void putSeparator(char separator) throws IOException {
+		ensureCapacity(1);
+		buffer[position++] = (byte) separator;
+	}
+
+	@Override
+	public void endRow() throws IOException {
+		ensureCapacity(1);
+		buffer[position++] = '\n';
+		super.endRow();
+	}
+}
@@ -0,0 +1,47 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+/**
+ * Connection carrying a cache of PreparedStatements, which SQLExecutor uses
+ * instead of preparing the same SQL again
+ * 
+ * @author aro_tech
+ * 
+ */
+public class CachingConnection extends ConnectionWrapper {
+	private final StatementCache statementCache;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            the wrapped connection
+	 * @param statementCache
+	 *            cache of statements prepared on the wrapped connection
+	 */
+	public CachingConnection(Connection delegate, StatementCache statementCache) {
+		super(delegate);
+		this.statementCache = statementCache;
+	}
+
+	/**
+	 * @return cache of statements prepared on this connection
+	 */
+	public StatementCache getStatementCache() {
+		return statementCache;
+	}
+
+	/**
+	 * Closes the cached statements, then the connection
+	 */
+	@Override
+	public void close() throws SQLException {
+		statementCache.close();
+		super.close();
+	}
+}
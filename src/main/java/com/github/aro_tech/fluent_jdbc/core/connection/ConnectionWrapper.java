@@ -0,0 +1,328 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Array;
+import java.sql.Blob;
+import java.sql.CallableStatement;
+import java.sql.Clob;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.NClob;
+import java.sql.PreparedStatement;
+import java.sql.SQLClientInfoException;
+import java.sql.SQLException;
+import java.sql.SQLWarning;
+import java.sql.SQLXML;
+import java.sql.Savepoint;
+import java.sql.Statement;
+import java.sql.Struct;
+import java.util.Map;
+import java.util.Properties;
+import java.util.concurrent.Executor;
+
+/**
+ * JDBC Connection which delegates every call to another connection. Subclasses
+ * override the calls they need to intercept (e.g. close() for pooling).
+ * 
+ * @author aro_tech
+ * 
+ */
+public class ConnectionWrapper implements Connection {
+	private final Connection delegate;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            the wrapped connection
+	 */
+	public ConnectionWrapper(Connection delegate) {
+		super();
+		this.delegate = delegate;
+	}
+
+	/**
+	 * @return The wrapped connection, to which calls are delegated
+	 * @throws SQLException
+	 *             if the wrapped connection may no longer be used through
+	 *             this wrapper
+	 */
+	protected Connection getDelegate() throws SQLException {
+		return delegate;
+	}
+
+	@Override
+	public void abort(Executor executor) throws SQLException {
+		getDelegate().abort(executor);
+	}
+
+	@Override
+	public void clearWarnings() throws SQLException {
+		getDelegate().clearWarnings();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		getDelegate().close();
+	}
+
+	@Override
+	public void commit() throws SQLException {
+		getDelegate().commit();
+	}
+
+	@Override
+	public Array createArrayOf(String typeName, Object[] elements) throws SQLException {
+		return getDelegate().createArrayOf(typeName, elements);
+	}
+
+	@Override
+	public Blob createBlob() throws SQLException {
+		return getDelegate().createBlob();
+	}
+
+	@Override
+	public Clob createClob() throws SQLException {
+		return getDelegate().createClob();
+	}
+
+	@Override
+	public NClob createNClob() throws SQLException {
+		return getDelegate().createNClob();
+	}
+
+	@Override
+	public SQLXML createSQLXML() throws SQLException {
+		return getDelegate().createSQLXML();
+	}
+
+	@Override
+	public Statement createStatement() throws SQLException {
+		return getDelegate().createStatement();
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+		return getDelegate().createStatement(resultSetType, resultSetConcurrency, resultSetHoldability);
+	}
+
+	@Override
+	public Statement createStatement(int resultSetType, int resultSetConcurrency) throws SQLException {
+		return getDelegate().createStatement(resultSetType, resultSetConcurrency);
+	}
+
+	@Override
+	public Struct createStruct(String typeName, Object[] attributes) throws SQLException {
+		return getDelegate().createStruct(typeName, attributes);
+	}
+
+	@Override
+	public boolean getAutoCommit() throws SQLException {
+		return getDelegate().getAutoCommit();
+	}
+
+	@Override
+	public String getCatalog() throws SQLException {
+		return getDelegate().getCatalog();
+	}
+
+	@Override
+	public Properties getClientInfo() throws SQLException {
+		return getDelegate().getClientInfo();
+	}
+
+	@Override
+	public String getClientInfo(String name) throws SQLException {
+		return getDelegate().getClientInfo(name);
+	}
+
+	@Override
+	public int getHoldability() throws SQLException {
+		return getDelegate().getHoldability();
+	}
+
+	@Override
+	public DatabaseMetaData getMetaData() throws SQLException {
+		return getDelegate().getMetaData();
+	}
+
+	@Override
+	public int getNetworkTimeout() throws SQLException {
+		return getDelegate().getNetworkTimeout();
+	}
+
+	@Override
+	public String getSchema() throws SQLException {
+		return getDelegate().getSchema();
+	}
+
+	@Override
+	public int getTransactionIsolation() throws SQLException {
+		return getDelegate().getTransactionIsolation();
+	}
+
+	@Override
+	public Map<String, Class<?>> getTypeMap() throws SQLException {
+		return getDelegate().getTypeMap();
+	}
+
+	@Override
+	public SQLWarning getWarnings() throws SQLException {
+		return getDelegate().getWarnings();
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return getDelegate().isClosed();
+	}
+
+	@Override
+	public boolean isReadOnly() throws SQLException {
+		return getDelegate().isReadOnly();
+	}
+
+	@Override
+	public boolean isValid(int timeout) throws SQLException {
+		return getDelegate().isValid(timeout);
+	}
+
+	@Override
+	public boolean isWrapperFor(Class<?> iface) throws SQLException {
+		return iface.isInstance(this) || getDelegate().isWrapperFor(iface);
+	}
+
+	@Override
+	public String nativeSQL(String sql) throws SQLException {
+		return getDelegate().nativeSQL(sql);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+		return getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return getDelegate().prepareCall(sql, resultSetType, resultSetConcurrency);
+	}
+
+	@Override
+	public CallableStatement prepareCall(String sql) throws SQLException {
+		return getDelegate().prepareCall(sql);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int[] columnIndexes) throws SQLException {
+		return getDelegate().prepareStatement(sql, columnIndexes);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, String[] columnNames) throws SQLException {
+		return getDelegate().prepareStatement(sql, columnNames);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency, int resultSetHoldability) throws SQLException {
+		return getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency, resultSetHoldability);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int resultSetType, int resultSetConcurrency) throws SQLException {
+		return getDelegate().prepareStatement(sql, resultSetType, resultSetConcurrency);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql, int autoGeneratedKeys) throws SQLException {
+		return getDelegate().prepareStatement(sql, autoGeneratedKeys);
+	}
+
+	@Override
+	public PreparedStatement prepareStatement(String sql) throws SQLException {
+		return getDelegate().prepareStatement(sql);
+	}
+
+	@Override
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		getDelegate().releaseSavepoint(savepoint);
+	}
+
+	@Override
+	public void rollback() throws SQLException {
+		getDelegate().rollback();
+	}
+
+	@Override
+	public void rollback(Savepoint savepoint) throws SQLException {
+		getDelegate().rollback(savepoint);
+	}
+
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		getDelegate().setAutoCommit(autoCommit);
+	}
+
+	@Override
+	public void setCatalog(String catalog) throws SQLException {
+		getDelegate().setCatalog(catalog);
+	}
+
+	@Override
+	public void setClientInfo(String name, String value) throws SQLClientInfoException {
+		delegate.setClientInfo(name, value);
+	}
+
+	@Override
+	public void setClientInfo(Properties properties) throws SQLClientInfoException {
+		delegate.setClientInfo(properties);
+	}
+
+	@Override
+	public void setHoldability(int holdability) throws SQLException {
+		getDelegate().setHoldability(holdability);
+	}
+
+	@Override
+	public void setNetworkTimeout(Executor executor, int milliseconds) throws SQLException {
+		getDelegate().setNetworkTimeout(executor, milliseconds);
+	}
+
+	@Override
+	public void setReadOnly(boolean readOnly) throws SQLException {
+		getDelegate().setReadOnly(readOnly);
+	}
+
+	@Override
+	public Savepoint setSavepoint() throws SQLException {
+		return getDelegate().setSavepoint();
+	}
+
+	@Override
+	public Savepoint setSavepoint(String name) throws SQLException {
+		return getDelegate().setSavepoint(name);
+	}
+
+	@Override
+	public void setSchema(String schema) throws SQLException {
+		getDelegate().setSchema(schema);
+	}
+
+	@Override
+	public void setTransactionIsolation(int level) throws SQLException {
+		getDelegate().setTransactionIsolation(level);
+	}
+
+	@Override
+	public void setTypeMap(Map<String, Class<?>> map) throws SQLException {
+		getDelegate().setTypeMap(map);
+	}
+
+	@Override
+	public <T> T unwrap(Class<T> iface) throws SQLException {
+		if (iface.isInstance(this)) {
+			return iface.cast(this);
+		}
+		return getDelegate().unwrap(iface);
+	}
+}
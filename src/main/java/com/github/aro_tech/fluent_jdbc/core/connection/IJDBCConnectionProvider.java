@@ -16,4 +16,12 @@ public interface IJDBCConnectionProvider {
 	 */
 	public abstract Connection getConnection() throws SQLException;
 
+	/**
+	 * @return maximum number of connections open at once (Integer.MAX_VALUE
+	 *         if not bounded)
+	 */
+	public default int getMaxConnections() {
+		return Integer.MAX_VALUE;
+	}
+
 }
\ No newline at end of file
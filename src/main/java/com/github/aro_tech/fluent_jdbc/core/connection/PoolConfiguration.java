@@ -0,0 +1,238 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+/**
+ * Immutable settings for a PooledConnectionProvider. Each "with" method
+ * returns a modified copy.
+ * 
+ * @author aro_tech
+ * 
+ */
+public class PoolConfiguration {
+	private final int maxSize;
+	private final long maxWaitMillis;
+	private final long idleTimeoutMillis;
+	private final long evictionIntervalMillis;
+	private final int minIdle;
+	private final boolean validateOnBorrow;
+	private final int validationTimeoutSeconds;
+	private final long validationBypassMillis;
+	private final int statementCacheSize;
+
+	private PoolConfiguration(int maxSize, long maxWaitMillis,
+			long idleTimeoutMillis, long evictionIntervalMillis, int minIdle,
+			boolean validateOnBorrow, int validationTimeoutSeconds,
+			long validationBypassMillis, int statementCacheSize) {
+		super();
+		this.maxSize = maxSize;
+		this.maxWaitMillis = maxWaitMillis;
+		this.idleTimeoutMillis = idleTimeoutMillis;
+		this.evictionIntervalMillis = evictionIntervalMillis;
+		this.minIdle = minIdle;
+		this.validateOnBorrow = validateOnBorrow;
+		this.validationTimeoutSeconds = validationTimeoutSeconds;
+		this.validationBypassMillis = validationBypassMillis;
+		this.statementCacheSize = statementCacheSize;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @return configuration with default values: 10 connections, 30s maximum
+	 *         wait, 10 minutes idle timeout checked every 30s, validation on
+	 *         borrow for connections idle more than 500ms, 64 cached
+	 *         statements per connection
+	 */
+	public static PoolConfiguration defaults() {
+		return new PoolConfiguration(10, 30000L, 600000L, 30000L, 0, true, 5,
+				500L, 64);
+	}
+
+	/**
+	 * Specify the maximum number of physical connections
+	 * 
+	 * @param size
+	 *            maximum number of connections open at the same time (at
+	 *            least 1)
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withMaxSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Pool size must be at least 1");
+		}
+		return new PoolConfiguration(size, maxWaitMillis, idleTimeoutMillis,
+				evictionIntervalMillis, minIdle, validateOnBorrow,
+				validationTimeoutSeconds, validationBypassMillis,
+				statementCacheSize);
+	}
+
+	/**
+	 * Specify how long a caller waits for a connection when the pool is
+	 * exhausted
+	 * 
+	 * @param millis
+	 *            maximum wait in milliseconds
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withMaxWaitMillis(long millis) {
+		return new PoolConfiguration(maxSize, millis, idleTimeoutMillis,
+				evictionIntervalMillis, minIdle, validateOnBorrow,
+				validationTimeoutSeconds, validationBypassMillis,
+				statementCacheSize);
+	}
+
+	/**
+	 * Specify how long an unused connection stays open
+	 * 
+	 * @param millis
+	 *            idle time in milliseconds after which a connection is
+	 *            closed (0 or less to keep idle connections forever)
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withIdleTimeoutMillis(long millis) {
+		return new PoolConfiguration(maxSize, maxWaitMillis, millis,
+				evictionIntervalMillis, minIdle, validateOnBorrow,
+				validationTimeoutSeconds, validationBypassMillis,
+				statementCacheSize);
+	}
+
+	/**
+	 * Specify how often the background eviction of idle connections runs
+	 * 
+	 * @param millis
+	 *            interval in milliseconds
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withEvictionIntervalMillis(long millis) {
+		return new PoolConfiguration(maxSize, maxWaitMillis,
+				idleTimeoutMillis, millis, minIdle, validateOnBorrow,
+				validationTimeoutSeconds, validationBypassMillis,
+				statementCacheSize);
+	}
+
+	/**
+	 * Specify the number of idle connections which are never evicted
+	 * 
+	 * @param count
+	 *            minimum number of connections kept open
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withMinIdle(int count) {
+		return new PoolConfiguration(maxSize, maxWaitMillis,
+				idleTimeoutMillis, evictionIntervalMillis, count,
+				validateOnBorrow, validationTimeoutSeconds,
+				validationBypassMillis, statementCacheSize);
+	}
+
+	/**
+	 * Specify whether connections are checked with Connection.isValid() when
+	 * they are borrowed
+	 * 
+	 * @param validate
+	 *            true to validate
+	 * @param timeoutSeconds
+	 *            timeout passed to isValid()
+	 * @param bypassMillis
+	 *            connections used more recently than this are handed out
+	 *            without validation (saves a round trip under load)
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withValidationOnBorrow(boolean validate,
+			int timeoutSeconds, long bypassMillis) {
+		return new PoolConfiguration(maxSize, maxWaitMillis,
+				idleTimeoutMillis, evictionIntervalMillis, minIdle, validate,
+				timeoutSeconds, bypassMillis, statementCacheSize);
+	}
+
+	/**
+	 * Specify how many PreparedStatements are kept open for each connection
+	 * 
+	 * @param size
+	 *            maximum number of cached statements per connection (0 to
+	 *            disable caching)
+	 * @return modified configuration
+	 */
+	public PoolConfiguration withStatementCacheSize(int size) {
+		return new PoolConfiguration(maxSize, maxWaitMillis,
+				idleTimeoutMillis, evictionIntervalMillis, minIdle,
+				validateOnBorrow, validationTimeoutSeconds,
+				validationBypassMillis, size);
+	}
+
+	/**
+	 * @return maximum number of physical connections
+	 */
+	public int getMaxSize() {
+		return maxSize;
+	}
+
+	/**
+	 * @return maximum wait for a connection, in milliseconds
+	 */
+	public long getMaxWaitMillis() {
+		return maxWaitMillis;
+	}
+
+	/**
+	 * @return idle time after which a connection is closed, in milliseconds
+	 */
+	public long getIdleTimeoutMillis() {
+		return idleTimeoutMillis;
+	}
+
+	/**
+	 * @return interval between idle connection evictions, in milliseconds
+	 */
+	public long getEvictionIntervalMillis() {
+		return evictionIntervalMillis;
+	}
+
+	/**
+	 * @return number of idle connections which are never evicted
+	 */
+	public int getMinIdle() {
+		return minIdle;
+	}
+
+	/**
+	 * @return true if connections are validated when borrowed
+	 */
+	public boolean isValidateOnBorrow() {
+		return validateOnBorrow;
+	}
+
+	/**
+	 * @return timeout passed to Connection.isValid()
+	 */
+	public int getValidationTimeoutSeconds() {
+		return validationTimeoutSeconds;
+	}
+
+	/**
+	 * @return idle time under which validation is skipped, in milliseconds
+	 */
+	public long getValidationBypassMillis() {
+		return validationBypassMillis;
+	}
+
+	/**
+	 * @return maximum number of cached statements per connection
+	 */
+	public int getStatementCacheSize() {
+		return statementCacheSize;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolConfiguration [maxSize=" + maxSize + ", maxWaitMillis="
+				+ maxWaitMillis + ", idleTimeoutMillis=" + idleTimeoutMillis
+				+ ", evictionIntervalMillis=" + evictionIntervalMillis
+				+ ", minIdle=" + minIdle + ", validateOnBorrow="
+				+ validateOnBorrow + ", validationTimeoutSeconds="
+				+ validationTimeoutSeconds + ", validationBypassMillis="
+				+ validationBypassMillis + ", statementCacheSize="
+				+ statementCacheSize + "]";
+	}
+}
@@ -0,0 +1,132 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+/**
+ * Snapshot of the counters of a PooledConnectionProvider
+ * 
+ * @author aro_tech
+ * 
+ */
+public class PoolStatistics {
+	private final int activeConnections;
+	private final int idleConnections;
+	private final long borrowCount;
+	private final long timeoutCount;
+	private final long totalWaitNanos;
+	private final long maxWaitNanos;
+	private final long createdCount;
+	private final long destroyedCount;
+	private final long validationFailureCount;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param activeConnections
+	 * @param idleConnections
+	 * @param borrowCount
+	 * @param timeoutCount
+	 * @param totalWaitNanos
+	 * @param maxWaitNanos
+	 * @param createdCount
+	 * @param destroyedCount
+	 * @param validationFailureCount
+	 */
+	public PoolStatistics(int activeConnections, int idleConnections,
+			long borrowCount, long timeoutCount, long totalWaitNanos,
+			long maxWaitNanos, long createdCount, long destroyedCount,
+			long validationFailureCount) {
+		super();
+		this.activeConnections = activeConnections;
+		this.idleConnections = idleConnections;
+		this.borrowCount = borrowCount;
+		this.timeoutCount = timeoutCount;
+		this.totalWaitNanos = totalWaitNanos;
+		this.maxWaitNanos = maxWaitNanos;
+		this.createdCount = createdCount;
+		this.destroyedCount = destroyedCount;
+		this.validationFailureCount = validationFailureCount;
+	}
+
+	/**
+	 * @return number of connections currently borrowed
+	 */
+	public int getActiveConnections() {
+		return activeConnections;
+	}
+
+	/**
+	 * @return number of open connections waiting in the pool
+	 */
+	public int getIdleConnections() {
+		return idleConnections;
+	}
+
+	/**
+	 * @return number of successful calls to getConnection()
+	 */
+	public long getBorrowCount() {
+		return borrowCount;
+	}
+
+	/**
+	 * @return number of calls to getConnection() which gave up waiting
+	 */
+	public long getTimeoutCount() {
+		return timeoutCount;
+	}
+
+	/**
+	 * @return cumulated time spent acquiring connections, in nanoseconds
+	 */
+	public long getTotalWaitNanos() {
+		return totalWaitNanos;
+	}
+
+	/**
+	 * @return longest time spent acquiring a connection, in nanoseconds
+	 */
+	public long getMaxWaitNanos() {
+		return maxWaitNanos;
+	}
+
+	/**
+	 * @return average time spent acquiring a connection, in nanoseconds
+	 */
+	public long getAverageWaitNanos() {
+		return borrowCount > 0 ? totalWaitNanos / borrowCount : 0L;
+	}
+
+	/**
+	 * @return number of physical connections opened
+	 */
+	public long getCreatedCount() {
+		return createdCount;
+	}
+
+	/**
+	 * @return number of physical connections closed
+	 */
+	public long getDestroyedCount() {
+		return destroyedCount;
+	}
+
+	/**
+	 * @return number of idle connections discarded because validation failed
+	 */
+	public long getValidationFailureCount() {
+		return validationFailureCount;
+	}
+
+	@Override
+	public String toString() {
+		return "PoolStatistics [activeConnections=" + activeConnections
+				+ ", idleConnections=" + idleConnections + ", borrowCount="
+				+ borrowCount + ", timeoutCount=" + timeoutCount
+				+ ", averageWaitNanos=" + getAverageWaitNanos()
+				+ ", maxWaitNanos=" + maxWaitNanos + ", createdCount="
+				+ createdCount + ", destroyedCount=" + destroyedCount
+				+ ", validationFailureCount=" + validationFailureCount + "]";
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.github.aro_tech.fluent_jdbc.core.connection.PooledConnectionProvider.PoolEntry;
+
+/**
+ * Connection handed out by a PooledConnectionProvider. Closing it returns the
+ * physical connection to the pool. A new instance is created for each borrow,
+ * so a stale reference cannot use the connection once it has been returned.
+ * The statement cache belongs to the physical connection and survives the
+ * return to the pool.
+ * 
+ * @author aro_tech
+ *
+ */
+class PooledConnection extends CachingConnection {
+	private final PooledConnectionProvider pool;
+	private final PoolEntry entry;
+	private final AtomicBoolean returned = new AtomicBoolean(false);
+
+	/**
+	 * Constructor
+	 * 
+	 * @param pool
+	 *            owner of the physical connection
+	 * @param entry
+	 *            pool entry holding the physical connection
+	 */
+	PooledConnection(PooledConnectionProvider pool, PoolEntry entry) {
+		super(entry.getConnection(), entry.getStatementCache());
+		this.pool = pool;
+		this.entry = entry;
+	}
+
+	@Override
+	protected Connection getDelegate() throws SQLException {
+		if (returned.get()) {
+			throw new SQLException("Connection has been returned to the pool");
+		}
+		return super.getDelegate();
+	}
+
+	@Override
+	public void close() throws SQLException {
+		// only the first of concurrent close() calls gives the entry back
+		if (returned.compareAndSet(false, true)) {
+			pool.giveBack(entry);
+		}
+	}
+
+	@Override
+	public boolean isClosed() throws SQLException {
+		return returned.get() || entry.getConnection().isClosed();
+	}
+
+	@Override
+	public void setAutoCommit(boolean autoCommit) throws SQLException {
+		entry.autoCommitChanged();
+		getDelegate().setAutoCommit(autoCommit);
+	}
+
+	@Override
+	public void setReadOnly(boolean readOnly) throws SQLException {
+		entry.readOnlyChanged();
+		getDelegate().setReadOnly(readOnly);
+	}
+
+	@Override
+	public void setTransactionIsolation(int level) throws SQLException {
+		entry.isolationChanged();
+		getDelegate().setTransactionIsolation(level);
+	}
+
+	@Override
+	public void abort(Executor executor) throws SQLException {
+		entry.markBroken();
+		getDelegate().abort(executor);
+	}
+}
@@ -0,0 +1,389 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Connection provider which keeps physical connections open and hands them
+ * out again instead of opening a new one for each request. It wraps any other
+ * provider (e.g. PostgreSQLConnectionProvider), which is only called when the
+ * pool needs a new physical connection.
+ * 
+ * Closing a connection obtained from this provider returns it to the pool.
+ * Each physical connection keeps its own cache of PreparedStatements.
+ * Borrowing and returning are lock-free as long as the pool is not exhausted.
+ * 
+ * @author aro_tech
+ *
+ */
+public class PooledConnectionProvider implements IJDBCConnectionProvider,
+		AutoCloseable {
+	private final IJDBCConnectionProvider delegate;
+	private final PoolConfiguration configuration;
+	private final Semaphore permits;
+	private final ConcurrentLinkedDeque<PoolEntry> idle = new ConcurrentLinkedDeque<PoolEntry>();
+	private final AtomicInteger openCount = new AtomicInteger();
+	private final ScheduledExecutorService evictor;
+	private final StatementCacheStatistics statementCacheStatistics = new StatementCacheStatistics();
+	private volatile boolean closed = false;
+
+	private final LongAdder borrowCount = new LongAdder();
+	private final LongAdder timeoutCount = new LongAdder();
+	private final LongAdder totalWaitNanos = new LongAdder();
+	private final AtomicLong maxWaitNanos = new AtomicLong();
+	private final LongAdder createdCount = new LongAdder();
+	private final LongAdder destroyedCount = new LongAdder();
+	private final LongAdder validationFailureCount = new LongAdder();
+
+	/**
+	 * Constructor using the default pool configuration
+	 * 
+	 * @param delegate
+	 *            provider of the physical connections
+	 */
+	public PooledConnectionProvider(IJDBCConnectionProvider delegate) {
+		this(delegate, PoolConfiguration.defaults());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            provider of the physical connections
+	 * @param configuration
+	 *            pool settings
+	 */
+	public PooledConnectionProvider(IJDBCConnectionProvider delegate,
+			PoolConfiguration configuration) {
+		super();
+		this.delegate = delegate;
+		this.configuration = configuration;
+		this.permits = new Semaphore(configuration.getMaxSize());
+		if (configuration.getIdleTimeoutMillis() > 0
+				&& configuration.getEvictionIntervalMillis() > 0) {
+			this.evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+				Thread t = new Thread(r, "fluent-jdbc-pool-evictor");
+				t.setDaemon(true);
+				return t;
+			});
+			this.evictor.scheduleWithFixedDelay(this::evictIdleConnections,
+					configuration.getEvictionIntervalMillis(),
+					configuration.getEvictionIntervalMillis(),
+					TimeUnit.MILLISECONDS);
+		} else {
+			this.evictor = null;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.github.aro_tech.fluent_jdbc.core.connection.
+	 * IJDBCConnectionProvider#getConnection()
+	 */
+	@Override
+	public Connection getConnection() throws SQLException {
+		if (closed) {
+			throw new SQLException("Connection pool is closed");
+		}
+		final long start = System.nanoTime();
+		acquirePermit();
+		try {
+			PoolEntry entry = pollUsableIdleEntry();
+			if (null == entry) {
+				entry = openEntry();
+			}
+			recordWait(System.nanoTime() - start);
+			return new PooledConnection(this, entry);
+		} catch (SQLException | RuntimeException e) {
+			permits.release();
+			throw e;
+		}
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see com.github.aro_tech.fluent_jdbc.core.connection.
+	 * IJDBCConnectionProvider#getMaxConnections()
+	 */
+	@Override
+	public int getMaxConnections() {
+		return configuration.getMaxSize();
+	}
+
+	private void acquirePermit() throws SQLException {
+		boolean acquired;
+		try {
+			acquired = permits.tryAcquire()
+					|| permits.tryAcquire(configuration.getMaxWaitMillis(),
+							TimeUnit.MILLISECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new SQLException(
+					"Interrupted while waiting for a pooled connection", e);
+		}
+		if (!acquired) {
+			timeoutCount.increment();
+			throw new SQLTransientConnectionException("Timed out after "
+					+ configuration.getMaxWaitMillis()
+					+ " ms waiting for a pooled connection (pool size "
+					+ configuration.getMaxSize() + ")");
+		}
+	}
+
+	private void recordWait(long waitNanos) {
+		borrowCount.increment();
+		totalWaitNanos.add(waitNanos);
+		long max = maxWaitNanos.get();
+		while (waitNanos > max && !maxWaitNanos.compareAndSet(max, waitNanos)) {
+			max = maxWaitNanos.get();
+		}
+	}
+
+	private PoolEntry pollUsableIdleEntry() {
+		PoolEntry entry;
+		while (null != (entry = idle.pollFirst())) {
+			if (isUsable(entry)) {
+				return entry;
+			}
+			destroy(entry);
+		}
+		return null;
+	}
+
+	private boolean isUsable(PoolEntry entry) {
+		final long idleMillis = entry.idleMillis(System.nanoTime());
+		if (configuration.getIdleTimeoutMillis() > 0
+				&& idleMillis > configuration.getIdleTimeoutMillis()) {
+			return false;
+		}
+		if (!configuration.isValidateOnBorrow()
+				|| idleMillis < configuration.getValidationBypassMillis()) {
+			return true;
+		}
+		try {
+			if (entry.getConnection().isValid(
+					configuration.getValidationTimeoutSeconds())) {
+				return true;
+			}
+		} catch (SQLException e) {
+			// counted as a validation failure below
+		}
+		validationFailureCount.increment();
+		return false;
+	}
+
+	private PoolEntry openEntry() throws SQLException {
+		Connection physical = delegate.getConnection();
+		if (null == physical) {
+			throw new SQLException(
+					"Connection provider returned no connection");
+		}
+		openCount.incrementAndGet();
+		createdCount.increment();
+		return new PoolEntry(physical, new StatementCache(physical,
+				configuration.getStatementCacheSize(),
+				statementCacheStatistics));
+	}
+
+	private void destroy(PoolEntry entry) {
+		openCount.decrementAndGet();
+		destroyedCount.increment();
+		entry.getStatementCache().close();
+		try {
+			entry.getConnection().close();
+		} catch (SQLException e) {
+			// the connection is discarded anyway
+		}
+	}
+
+	/**
+	 * Called when a borrowed connection is closed
+	 * 
+	 * @param entry
+	 *            pool entry of the returned connection
+	 */
+	void giveBack(PoolEntry entry) {
+		try {
+			if (closed || !entry.resetState()) {
+				destroy(entry);
+			} else {
+				entry.markIdle(System.nanoTime());
+				idle.offerFirst(entry);
+				if (closed) {
+					closeIdleConnections();
+				}
+			}
+		} finally {
+			permits.release();
+		}
+	}
+
+	private void evictIdleConnections() {
+		final long now = System.nanoTime();
+		Iterator<PoolEntry> oldestFirst = idle.descendingIterator();
+		while (oldestFirst.hasNext()
+				&& openCount.get() > configuration.getMinIdle()) {
+			PoolEntry entry = oldestFirst.next();
+			if (entry.idleMillis(now) > configuration.getIdleTimeoutMillis()
+					&& idle.remove(entry)) {
+				destroy(entry);
+			}
+		}
+	}
+
+	private void closeIdleConnections() {
+		PoolEntry entry;
+		while (null != (entry = idle.pollFirst())) {
+			destroy(entry);
+		}
+	}
+
+	/**
+	 * @return snapshot of the pool counters
+	 */
+	public PoolStatistics getStatistics() {
+		final int idleCount = idle.size();
+		return new PoolStatistics(configuration.getMaxSize()
+				- permits.availablePermits(), idleCount, borrowCount.sum(),
+				timeoutCount.sum(), totalWaitNanos.sum(), maxWaitNanos.get(),
+				createdCount.sum(), destroyedCount.sum(),
+				validationFailureCount.sum());
+	}
+
+	/**
+	 * @return hit/miss counters of the statement caches of all the pooled
+	 *         connections
+	 */
+	public StatementCacheStatistics getStatementCacheStatistics() {
+		return statementCacheStatistics;
+	}
+
+	/**
+	 * @return pool settings
+	 */
+	public PoolConfiguration getConfiguration() {
+		return configuration;
+	}
+
+	/**
+	 * Close all idle connections and stop pooling. Borrowed connections are
+	 * closed when they are returned.
+	 */
+	@Override
+	public void close() {
+		closed = true;
+		if (null != evictor) {
+			evictor.shutdownNow();
+		}
+		closeIdleConnections();
+	}
+
+	/**
+	 * A physical connection, its statement cache and its pooling state
+	 */
+	static class PoolEntry {
+		private final Connection connection;
+		private final StatementCache statementCache;
+		private final boolean initialAutoCommit;
+		private final boolean initialReadOnly;
+		private final int initialIsolation;
+		private volatile long lastReturnNanos;
+		private boolean autoCommitChanged = false;
+		private boolean readOnlyChanged = false;
+		private boolean isolationChanged = false;
+		private boolean broken = false;
+
+		PoolEntry(Connection connection, StatementCache statementCache)
+				throws SQLException {
+			this.connection = connection;
+			this.statementCache = statementCache;
+			this.initialAutoCommit = connection.getAutoCommit();
+			this.initialReadOnly = connection.isReadOnly();
+			this.initialIsolation = connection.getTransactionIsolation();
+			this.lastReturnNanos = System.nanoTime();
+		}
+
+		Connection getConnection() {
+			return connection;
+		}
+
+		StatementCache getStatementCache() {
+			return statementCache;
+		}
+
+		long idleMillis(long nowNanos) {
+			return TimeUnit.NANOSECONDS.toMillis(nowNanos - lastReturnNanos);
+		}
+
+		void markIdle(long nowNanos) {
+			this.lastReturnNanos = nowNanos;
+		}
+
+		void autoCommitChanged() {
+			this.autoCommitChanged = true;
+		}
+
+		void readOnlyChanged() {
+			this.readOnlyChanged = true;
+		}
+
+		void isolationChanged() {
+			this.isolationChanged = true;
+		}
+
+		void markBroken() {
+			this.broken = true;
+		}
+
+		/**
+		 * Undo the changes made by the borrower so the next borrower gets
+		 * the connection in its initial state
+		 * 
+		 * @return false if the connection cannot be reused
+		 */
+		boolean resetState() {
+			if (broken) {
+				return false;
+			}
+			try {
+				if (connection.isClosed()) {
+					return false;
+				}
+				if (autoCommitChanged) {
+					if (!connection.getAutoCommit()) {
+						connection.rollback();
+					}
+					connection.setAutoCommit(initialAutoCommit);
+					autoCommitChanged = false;
+				}
+				if (readOnlyChanged) {
+					connection.setReadOnly(initialReadOnly);
+					readOnlyChanged = false;
+				}
+				if (isolationChanged) {
+					connection.setTransactionIsolation(initialIsolation);
+					isolationChanged = false;
+				}
+				connection.clearWarnings();
+				return true;
+			} catch (SQLException e) {
+				return false;
+			}
+		}
+	}
+}
@@ -0,0 +1,141 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of PreparedStatements for one physical connection, keyed by SQL
+ * text. Statements are taken out of the cache while they are in use, so a
+ * nested request running the same SQL on the same connection gets its own
+ * statement instead of closing the outer one's ResultSet.
+ * 
+ * Like the connection it belongs to, a cache must not be used by several
+ * threads at the same time.
+ * 
+ * @author aro_tech
+ * 
+ */
+public class StatementCache {
+	private final Connection connection;
+	private final int maxSize;
+	private final StatementCacheStatistics statistics;
+	private final LinkedHashMap<String, PreparedStatement> statements;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param connection
+	 *            physical connection used to prepare statements
+	 * @param maxSize
+	 *            maximum number of statements kept open
+	 * @param statistics
+	 *            counters to update
+	 */
+	public StatementCache(Connection connection, int maxSize,
+			StatementCacheStatistics statistics) {
+		super();
+		this.connection = connection;
+		this.maxSize = maxSize;
+		this.statistics = statistics;
+		this.statements = new LinkedHashMap<String, PreparedStatement>(16,
+				0.75f, true);
+	}
+
+	/**
+	 * @param c
+	 *            a connection
+	 * @return the statement cache of the connection, or null if it has none
+	 */
+	public static StatementCache of(Connection c) {
+		if (c instanceof CachingConnection) {
+			return ((CachingConnection) c).getStatementCache();
+		}
+		return null;
+	}
+
+	/**
+	 * Take a statement out of the cache, or prepare a new one
+	 * 
+	 * @param sql
+	 *            SQL text
+	 * @return statement to be returned with giveBack() after use
+	 * @throws SQLException
+	 */
+	public PreparedStatement borrow(String sql) throws SQLException {
+		PreparedStatement stmnt = statements.remove(sql);
+		if (null != stmnt) {
+			statistics.hit();
+			return stmnt;
+		}
+		statistics.miss();
+		return connection.prepareStatement(sql);
+	}
+
+	/**
+	 * Put a statement back into the cache once it is no longer in use. The
+	 * least recently used statement is closed if the cache is full.
+	 * 
+	 * @param sql
+	 *            SQL text used to borrow the statement
+	 * @param stmnt
+	 *            the borrowed statement
+	 */
+	public void giveBack(String sql, PreparedStatement stmnt) {
+		if (maxSize < 1 || isClosed(stmnt)) {
+			closeQuietly(stmnt);
+			return;
+		}
+		PreparedStatement previous = statements.put(sql, stmnt);
+		if (null != previous && previous != stmnt) {
+			closeQuietly(previous);
+		}
+		Iterator<PreparedStatement> eldestFirst = statements.values()
+				.iterator();
+		while (statements.size() > maxSize && eldestFirst.hasNext()) {
+			PreparedStatement evicted = eldestFirst.next();
+			eldestFirst.remove();
+			statistics.evicted();
+			closeQuietly(evicted);
+		}
+	}
+
+	/**
+	 * @return number of statements currently cached
+	 */
+	public int size() {
+		return statements.size();
+	}
+
+	/**
+	 * Close all cached statements
+	 */
+	public void close() {
+		for (PreparedStatement stmnt : statements.values()) {
+			closeQuietly(stmnt);
+		}
+		statements.clear();
+	}
+
+	private static boolean isClosed(PreparedStatement stmnt) {
+		try {
+			return stmnt.isClosed();
+		} catch (SQLException e) {
+			return true;
+		}
+	}
+
+	private static void closeQuietly(PreparedStatement stmnt) {
+		try {
+			stmnt.close();
+		} catch (SQLException e) {
+			// statement is discarded anyway
+		}
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters shared by one or more StatementCache instances (e.g. by all the
+ * connections of a pool), used to size the caches
+ * 
+ * @author aro_tech
+ * 
+ */
+public class StatementCacheStatistics {
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void evicted() {
+		evictions.increment();
+	}
+
+	/**
+	 * @return number of statements taken from a cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of statements which had to be prepared
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of statements closed to make room for others
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), or 0 if nothing was requested yet
+	 */
+	public double getHitRatio() {
+		final long hitCount = getHitCount();
+		final long total = hitCount + getMissCount();
+		return total > 0 ? (double) hitCount / total : 0d;
+	}
+
+	@Override
+	public String toString() {
+		return "StatementCacheStatistics [hits=" + getHitCount() + ", misses="
+				+ getMissCount() + ", evictions=" + getEvictionCount() + "]";
+	}
+}
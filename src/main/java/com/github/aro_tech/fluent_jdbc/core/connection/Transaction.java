@@ -0,0 +1,425 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Unit of work holding one connection of a connection provider from begin()
+ * to close(). While it is open, every request executed on the same thread
+ * with the same connection provider (RequestBuilder, RequestTemplate,
+ * BulkCopy) uses this connection instead of getting one from the provider,
+ * and its changes are only visible to others once commit() is called.
+ * Closing the transaction rolls back what was not committed and gives the
+ * connection back to the provider.
+ * 
+ * Typical usage:
+ * 
+ * <pre>
+ * try (Transaction tx = Transaction.begin(connectionProvider)) {
+ * 	RequestBuilder.returningVoid().withConnectionProvider(connectionProvider)
+ * 			.withSQL(&quot;UPDATE ...&quot;).withErrorCollector(errors).execute();
+ * 	...
+ * 	tx.commit();
+ * }
+ * </pre>
+ * 
+ * A transaction belongs to the thread which began it: asynchronous requests
+ * and the parallel chunks of executeMultiple() do not run in it (parallel
+ * chunks run one after the other on the transaction's connection instead).
+ * Requests report their errors through the error collector, as usual, so
+ * check it before committing.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class Transaction implements AutoCloseable {
+	/**
+	 * Size of the statement cache of a transaction whose connection has none
+	 * (i.e. not from a PooledConnectionProvider)
+	 */
+	public static final int STATEMENT_CACHE_SIZE = 16;
+	private static final StatementCacheStatistics STATEMENT_CACHE_STATISTICS = new StatementCacheStatistics();
+	private static final ThreadLocal<Map<IJDBCConnectionProvider, Transaction>> ACTIVE = new ThreadLocal<Map<IJDBCConnectionProvider, Transaction>>();
+
+	private final IJDBCConnectionProvider connectionProvider;
+	private final Map<IJDBCConnectionProvider, Transaction> bindings;
+	private final Connection connection;
+	private final StatementCache statementCache;
+	private final boolean ownsStatementCache;
+	private final Connection sharedConnection;
+	private final boolean initialAutoCommit;
+	private final boolean initialReadOnly;
+	private final int initialIsolation;
+	private final TransactionSettings settings;
+	private final List<Runnable> commitActions = new ArrayList<Runnable>();
+	private boolean pendingWork = false;
+	private boolean closed = false;
+
+	private Transaction(IJDBCConnectionProvider connectionProvider,
+			Map<IJDBCConnectionProvider, Transaction> bindings,
+			Connection connection, TransactionSettings settings)
+			throws SQLException {
+		this.connectionProvider = connectionProvider;
+		this.bindings = bindings;
+		this.connection = connection;
+		this.settings = settings;
+		this.initialAutoCommit = connection.getAutoCommit();
+		this.initialReadOnly = connection.isReadOnly();
+		this.initialIsolation = connection.getTransactionIsolation();
+		final StatementCache cache = StatementCache.of(connection);
+		this.ownsStatementCache = null == cache;
+		this.statementCache = null != cache ? cache : new StatementCache(
+				connection, STATEMENT_CACHE_SIZE, STATEMENT_CACHE_STATISTICS);
+		this.sharedConnection = new SharedConnection(connection,
+				statementCache);
+		if (settings.getIsolation() != TransactionSettings.DEFAULT_ISOLATION
+				&& settings.getIsolation() != initialIsolation) {
+			connection.setTransactionIsolation(settings.getIsolation());
+		}
+		if (settings.isReadOnly() != initialReadOnly) {
+			connection.setReadOnly(settings.isReadOnly());
+		}
+		if (initialAutoCommit) {
+			connection.setAutoCommit(false);
+		}
+	}
+
+	/**
+	 * Begin a transaction with the default settings
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connection of the transaction
+	 * @return the open transaction, to be closed by the caller
+	 * @throws SQLException
+	 *             if no connection can be obtained, or if a transaction is
+	 *             already open for this provider on this thread (use a
+	 *             savepoint for nested work)
+	 */
+	public static Transaction begin(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		return begin(connectionProvider, TransactionSettings.defaults());
+	}
+
+	/**
+	 * Begin a transaction
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connection of the transaction
+	 * @param settings
+	 *            isolation level and read-only hint
+	 * @return the open transaction, to be closed by the caller
+	 * @throws SQLException
+	 *             if no connection can be obtained or configured, or if a
+	 *             transaction is already open for this provider on this
+	 *             thread (use a savepoint for nested work)
+	 */
+	public static Transaction begin(
+			IJDBCConnectionProvider connectionProvider,
+			TransactionSettings settings) throws SQLException {
+		Map<IJDBCConnectionProvider, Transaction> bindings = ACTIVE.get();
+		if (null == bindings) {
+			bindings = new IdentityHashMap<IJDBCConnectionProvider, Transaction>();
+			ACTIVE.set(bindings);
+		} else if (bindings.containsKey(connectionProvider)) {
+			throw new SQLException(
+					"A transaction is already open on this thread for this connection provider");
+		}
+		final Connection c = connectionProvider.getConnection();
+		if (null == c) {
+			throw new SQLException("Connection provider returned no connection");
+		}
+		try {
+			final Transaction transaction = new Transaction(connectionProvider,
+					bindings, c, settings);
+			bindings.put(connectionProvider, transaction);
+			return transaction;
+		} catch (SQLException | RuntimeException e) {
+			try {
+				c.close();
+			} catch (SQLException closeError) {
+				e.addSuppressed(closeError);
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Run some requests in a transaction with the default settings: the
+	 * transaction is committed if the work completes, rolled back if it
+	 * throws
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connection of the transaction
+	 * @param work
+	 *            requests to run
+	 * @return result of the work
+	 * @throws SQLException
+	 *             from the work, or if the transaction fails
+	 */
+	public static <R> R inTransaction(
+			IJDBCConnectionProvider connectionProvider, TransactionWork<R> work)
+			throws SQLException {
+		return inTransaction(connectionProvider,
+				TransactionSettings.defaults(), work);
+	}
+
+	/**
+	 * Run some requests in a transaction: the transaction is committed if the
+	 * work completes, rolled back if it throws
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connection of the transaction
+	 * @param settings
+	 *            isolation level and read-only hint
+	 * @param work
+	 *            requests to run
+	 * @return result of the work
+	 * @throws SQLException
+	 *             from the work, or if the transaction fails
+	 */
+	public static <R> R inTransaction(
+			IJDBCConnectionProvider connectionProvider,
+			TransactionSettings settings, TransactionWork<R> work)
+			throws SQLException {
+		try (Transaction transaction = begin(connectionProvider, settings)) {
+			final R result = work.execute(transaction);
+			transaction.commit();
+			return result;
+		}
+	}
+
+	/**
+	 * @param connectionProvider
+	 * @return transaction open on this thread for this provider, or null
+	 */
+	public static Transaction current(IJDBCConnectionProvider connectionProvider) {
+		final Map<IJDBCConnectionProvider, Transaction> bindings = ACTIVE.get();
+		return null != bindings ? bindings.get(connectionProvider) : null;
+	}
+
+	/**
+	 * Get the connection a request must use: the connection of the
+	 * transaction open on this thread for this provider, if any, otherwise a
+	 * connection from the provider. In both cases the caller closes it after
+	 * use (closing the connection of a transaction has no effect).
+	 * 
+	 * @param connectionProvider
+	 * @return connection
+	 * @throws SQLException
+	 */
+	public static Connection connectionFor(
+			IJDBCConnectionProvider connectionProvider) throws SQLException {
+		final Transaction transaction = current(connectionProvider);
+		return null != transaction ? transaction.getConnection()
+				: connectionProvider.getConnection();
+	}
+
+	/**
+	 * @return hit/miss counters of the statement caches created for
+	 *         transactions whose connections had no cache of their own
+	 */
+	public static StatementCacheStatistics getStatementCacheStatistics() {
+		return STATEMENT_CACHE_STATISTICS;
+	}
+
+	/**
+	 * @return connection of the transaction, for direct JDBC use (closing it
+	 *         has no effect)
+	 * @throws SQLException
+	 *             if the transaction is closed
+	 */
+	public Connection getConnection() throws SQLException {
+		checkOpen();
+		pendingWork = true;
+		return sharedConnection;
+	}
+
+	/**
+	 * Make the changes done so far permanent. The transaction stays open
+	 * for more requests.
+	 * 
+	 * @throws SQLException
+	 */
+	public void commit() throws SQLException {
+		checkOpen();
+		connection.commit();
+		pendingWork = false;
+		final Runnable[] actions = commitActions.toArray(new Runnable[0]);
+		commitActions.clear();
+		for (Runnable action : actions) {
+			action.run();
+		}
+	}
+
+	/**
+	 * Undo the changes done since the last commit. The transaction stays
+	 * open for more requests.
+	 * 
+	 * @throws SQLException
+	 */
+	public void rollback() throws SQLException {
+		checkOpen();
+		connection.rollback();
+		pendingWork = false;
+		commitActions.clear();
+	}
+
+	/**
+	 * Register an action to run after the next successful commit() (e.g.
+	 * invalidating cached results of the tables written). The action is
+	 * dropped if the transaction is rolled back instead.
+	 * 
+	 * @param action
+	 * @throws IllegalStateException
+	 *             if the transaction is closed
+	 */
+	public void onCommit(Runnable action) {
+		if (closed) {
+			throw new IllegalStateException("Transaction is closed");
+		}
+		commitActions.add(action);
+	}
+
+	/**
+	 * @return savepoint to which the changes done after this call can be
+	 *         rolled back
+	 * @throws SQLException
+	 */
+	public Savepoint setSavepoint() throws SQLException {
+		checkOpen();
+		pendingWork = true;
+		return connection.setSavepoint();
+	}
+
+	/**
+	 * @param name
+	 *            name of the savepoint
+	 * @return savepoint to which the changes done after this call can be
+	 *         rolled back
+	 * @throws SQLException
+	 */
+	public Savepoint setSavepoint(String name) throws SQLException {
+		checkOpen();
+		pendingWork = true;
+		return connection.setSavepoint(name);
+	}
+
+	/**
+	 * Undo the changes done since the savepoint was set, keeping the earlier
+	 * ones
+	 * 
+	 * @param savepoint
+	 * @throws SQLException
+	 */
+	public void rollback(Savepoint savepoint) throws SQLException {
+		checkOpen();
+		connection.rollback(savepoint);
+	}
+
+	/**
+	 * Forget a savepoint which is no longer needed
+	 * 
+	 * @param savepoint
+	 * @throws SQLException
+	 */
+	public void releaseSavepoint(Savepoint savepoint) throws SQLException {
+		checkOpen();
+		connection.releaseSavepoint(savepoint);
+	}
+
+	/**
+	 * @return settings of this transaction
+	 */
+	public TransactionSettings getSettings() {
+		return settings;
+	}
+
+	/**
+	 * @return true once close() has been called
+	 */
+	public boolean isClosed() {
+		return closed;
+	}
+
+	private void checkOpen() throws SQLException {
+		if (closed) {
+			throw new SQLException("Transaction is closed");
+		}
+	}
+
+	/**
+	 * Roll back what was not committed, restore the settings of the
+	 * connection and give it back to the provider
+	 */
+	@Override
+	public void close() throws SQLException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		bindings.remove(connectionProvider);
+		if (bindings.isEmpty() && ACTIVE.get() == bindings) {
+			ACTIVE.remove();
+		}
+		SQLException failure = null;
+		try {
+			if (pendingWork) {
+				connection.rollback();
+			}
+			restoreSettings();
+		} catch (SQLException e) {
+			failure = e;
+		}
+		if (ownsStatementCache) {
+			statementCache.close();
+		}
+		try {
+			connection.close();
+		} catch (SQLException e) {
+			if (null == failure) {
+				failure = e;
+			} else {
+				failure.addSuppressed(e);
+			}
+		}
+		if (null != failure) {
+			throw failure;
+		}
+	}
+
+	private void restoreSettings() throws SQLException {
+		if (initialAutoCommit) {
+			connection.setAutoCommit(true);
+		}
+		if (settings.isReadOnly() != initialReadOnly) {
+			connection.setReadOnly(initialReadOnly);
+		}
+		if (settings.getIsolation() != TransactionSettings.DEFAULT_ISOLATION
+				&& settings.getIsolation() != initialIsolation) {
+			connection.setTransactionIsolation(initialIsolation);
+		}
+	}
+
+	/**
+	 * Connection handed to the requests of a transaction: closing it leaves
+	 * the connection open for the next request
+	 */
+	private static final class SharedConnection extends CachingConnection {
+		SharedConnection(Connection delegate, StatementCache statementCache) {
+			super(delegate, statementCache);
+		}
+
+		@Override
+		public void close() {
+			// closed with the transaction
+		}
+	}
+}
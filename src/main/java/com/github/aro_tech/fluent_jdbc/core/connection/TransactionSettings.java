@@ -0,0 +1,88 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.Connection;
+
+/**
+ * Immutable settings for a Transaction. Each "with" method returns a modified
+ * copy.
+ * 
+ * @author aro_tech
+ *
+ */
+public class TransactionSettings {
+	/**
+	 * Isolation level meaning "keep the level of the connection"
+	 */
+	public static final int DEFAULT_ISOLATION = -1;
+
+	private static final TransactionSettings DEFAULTS = new TransactionSettings(
+			DEFAULT_ISOLATION, false);
+
+	private final int isolation;
+	private final boolean readOnly;
+
+	private TransactionSettings(int isolation, boolean readOnly) {
+		super();
+		this.isolation = isolation;
+		this.readOnly = readOnly;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @return settings with default values: isolation level of the
+	 *         connection, read-write
+	 */
+	public static TransactionSettings defaults() {
+		return DEFAULTS;
+	}
+
+	/**
+	 * Specify the isolation level
+	 * 
+	 * @param level
+	 *            one of the Connection.TRANSACTION_* constants other than
+	 *            TRANSACTION_NONE, or DEFAULT_ISOLATION
+	 * @return modified settings
+	 */
+	public TransactionSettings withIsolation(int level) {
+		if (level != DEFAULT_ISOLATION
+				&& level != Connection.TRANSACTION_READ_UNCOMMITTED
+				&& level != Connection.TRANSACTION_READ_COMMITTED
+				&& level != Connection.TRANSACTION_REPEATABLE_READ
+				&& level != Connection.TRANSACTION_SERIALIZABLE) {
+			throw new IllegalArgumentException("Invalid isolation level: "
+					+ level);
+		}
+		return new TransactionSettings(level, readOnly);
+	}
+
+	/**
+	 * Specify whether the transaction only reads, which lets the database
+	 * skip some work (and reject writes)
+	 * 
+	 * @param readOnly
+	 * @return modified settings
+	 */
+	public TransactionSettings withReadOnly(boolean readOnly) {
+		return new TransactionSettings(isolation, readOnly);
+	}
+
+	/**
+	 * @return isolation level (DEFAULT_ISOLATION to keep the level of the
+	 *         connection)
+	 */
+	public int getIsolation() {
+		return isolation;
+	}
+
+	/**
+	 * @return true for a read-only transaction
+	 */
+	public boolean isReadOnly() {
+		return readOnly;
+	}
+}
@@ -0,0 +1,26 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.connection;
+
+import java.sql.SQLException;
+
+/**
+ * Requests run in a transaction by Transaction.inTransaction()
+ * 
+ * @author aro_tech
+ *
+ * @param <R>
+ *            result type
+ */
+@FunctionalInterface
+public interface TransactionWork<R> {
+	/**
+	 * @param transaction
+	 *            the running transaction (for savepoints)
+	 * @return result of the work
+	 * @throws SQLException
+	 *             to roll the transaction back
+	 */
+	R execute(Transaction transaction) throws SQLException;
+}
@@ -0,0 +1,214 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+
+/**
+ * Runs blocking requests on an executor while limiting how many of them run
+ * at once, so asynchronous callers never wait for connections on the
+ * executor's threads: requests beyond the limit are queued without holding a
+ * thread and started as running ones complete.
+ * 
+ * One dispatcher is shared by all the requests using the same connection
+ * provider, with the provider's maximum number of connections as limit.
+ * 
+ * @author aro_tech
+ *
+ */
+public class AsyncDispatcher {
+	/**
+	 * Limit for providers which do not bound their number of connections
+	 */
+	public static final int DEFAULT_MAX_CONCURRENCY = 16;
+
+	private static final Map<Object, AsyncDispatcher> DISPATCHERS = new WeakHashMap<Object, AsyncDispatcher>();
+	private static volatile Executor defaultExecutor;
+
+	private final int maxConcurrency;
+	private final AtomicInteger active = new AtomicInteger();
+	private final ConcurrentLinkedQueue<Runnable> pending = new ConcurrentLinkedQueue<Runnable>();
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxConcurrency
+	 *            maximum number of requests running at once
+	 */
+	public AsyncDispatcher(int maxConcurrency) {
+		super();
+		if (maxConcurrency < 1) {
+			throw new IllegalArgumentException(
+					"Maximum concurrency must be at least 1");
+		}
+		this.maxConcurrency = maxConcurrency;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @param connectionProvider
+	 * @return dispatcher shared by all requests using this provider
+	 */
+	public static AsyncDispatcher forProvider(
+			IJDBCConnectionProvider connectionProvider) {
+		final int max = connectionProvider.getMaxConnections();
+		return forTarget(connectionProvider, max > 0 && max < Integer.MAX_VALUE ? max
+				: DEFAULT_MAX_CONCURRENCY);
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @param target
+	 *            resource the requests use (e.g. a Connection, which can only
+	 *            run one request at a time)
+	 * @param maxConcurrency
+	 *            limit used if no dispatcher exists yet for this target
+	 * @return dispatcher shared by all requests using this target
+	 */
+	public static AsyncDispatcher forTarget(Object target, int maxConcurrency) {
+		synchronized (DISPATCHERS) {
+			AsyncDispatcher dispatcher = DISPATCHERS.get(target);
+			if (null == dispatcher) {
+				dispatcher = new AsyncDispatcher(maxConcurrency);
+				DISPATCHERS.put(target, dispatcher);
+			}
+			return dispatcher;
+		}
+	}
+
+	/**
+	 * Queue a task
+	 * 
+	 * @param executor
+	 *            executor running the task (null for the default executor:
+	 *            virtual threads if the JDK has them, otherwise a cached pool
+	 *            of daemon threads)
+	 * @param task
+	 *            blocking work
+	 * @return future completed with the result of the task, or exceptionally
+	 *         with whatever it throws
+	 */
+	public <R> CompletableFuture<R> submit(Executor executor,
+			final Supplier<R> task) {
+		final Executor executorToUse = null != executor ? executor
+				: defaultExecutor();
+		final CompletableFuture<R> future = new CompletableFuture<R>();
+		final Runnable run = () -> {
+			R result = null;
+			Throwable failure = null;
+			try {
+				result = task.get();
+			} catch (Throwable t) {
+				failure = t;
+			}
+			// free the slot before running the callers' continuations
+			active.decrementAndGet();
+			startPending();
+			if (null == failure) {
+				future.complete(result);
+			} else {
+				future.completeExceptionally(failure);
+			}
+		};
+		pending.add(() -> {
+			try {
+				executorToUse.execute(run);
+			} catch (RuntimeException e) {
+				future.completeExceptionally(e);
+				active.decrementAndGet();
+			}
+		});
+		startPending();
+		return future;
+	}
+
+	private void startPending() {
+		for (;;) {
+			final int running = active.get();
+			if (running >= maxConcurrency || pending.isEmpty()) {
+				return;
+			}
+			if (!active.compareAndSet(running, running + 1)) {
+				continue;
+			}
+			final Runnable next = pending.poll();
+			if (null == next) {
+				active.decrementAndGet();
+			} else {
+				next.run();
+			}
+		}
+	}
+
+	/**
+	 * @return number of requests running
+	 */
+	public int getActiveCount() {
+		return active.get();
+	}
+
+	/**
+	 * @return number of requests waiting for a running one to complete
+	 */
+	public int getQueuedCount() {
+		return pending.size();
+	}
+
+	/**
+	 * @return maximum number of requests running at once
+	 */
+	public int getMaxConcurrency() {
+		return maxConcurrency;
+	}
+
+	/**
+	 * @return executor used when none is specified
+	 */
+	static Executor defaultExecutor() {
+		Executor executor = defaultExecutor;
+		if (null == executor) {
+			synchronized (AsyncDispatcher.class) {
+				executor = defaultExecutor;
+				if (null == executor) {
+					executor = createDefaultExecutor();
+					defaultExecutor = executor;
+				}
+			}
+		}
+		return executor;
+	}
+
+	/**
+	 * Virtual threads are looked up reflectively since this library targets
+	 * Java 8
+	 */
+	private static Executor createDefaultExecutor() {
+		try {
+			Method factory = Executors.class
+					.getMethod("newVirtualThreadPerTaskExecutor");
+			return (ExecutorService) factory.invoke(null);
+		} catch (ReflectiveOperationException | RuntimeException e) {
+			final AtomicInteger threadCount = new AtomicInteger();
+			return Executors.newCachedThreadPool(r -> {
+				Thread t = new Thread(r, "fluent-jdbc-async-"
+						+ threadCount.incrementAndGet());
+				t.setDaemon(true);
+				return t;
+			});
+		}
+	}
+}
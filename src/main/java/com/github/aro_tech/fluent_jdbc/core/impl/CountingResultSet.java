@@ -0,0 +1,45 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetWrapper;
+
+/**
+ * ResultSet counting the rows read through it, for execution listeners
+ * 
+ * @author aro_tech
+ *
+ */
+class CountingResultSet extends ResultSetWrapper {
+	private long rowCount = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            the result set to count
+	 */
+	CountingResultSet(ResultSet delegate) {
+		super(delegate);
+	}
+
+	@Override
+	public boolean next() throws SQLException {
+		final boolean hasRow = getDelegate().next();
+		if (hasRow) {
+			rowCount++;
+		}
+		return hasRow;
+	}
+
+	/**
+	 * @return number of rows reached with next()
+	 */
+	long getRowCount() {
+		return rowCount;
+	}
+}
@@ -0,0 +1,353 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.sql.ResultSet;
+import java.util.concurrent.Executor;
+
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionListener;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
+import com.github.aro_tech.fluent_jdbc.core.results.QueryResultCache;
+
+/**
+ * Immutable per-request execution tuning used by SQLExecutor. Each "with"
+ * method returns a modified copy.
+ * 
+ * @author aro_tech
+ *
+ */
+public class ExecutionSettings {
+	/**
+	 * Number of parameter sets sent in one executeBatch() call by default
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 1000;
+
+	/**
+	 * Number of rows fetched at once by streamed results by default
+	 */
+	public static final int DEFAULT_STREAM_FETCH_SIZE = 1000;
+
+	private static final ExecutionSettings DEFAULTS = new ExecutionSettings();
+
+	// only assigned in the constructor or on a fresh copy(), before the
+	// modified settings are returned
+	private int batchSize = DEFAULT_BATCH_SIZE;
+	private int fetchSize = 0;
+	private Executor executor = null;
+	private int parallelism = 1;
+	private int maxRowsPerInsert = 0;
+	private QueryResultCache resultCache = null;
+	private String[] tableTags = new String[0];
+	private ExecutionListener listener = null;
+	private SlowQueryDetector slowQueryDetector = null;
+	private int maxRows = 0;
+	private int resultSetType = ResultSet.TYPE_FORWARD_ONLY;
+	private int resultSetConcurrency = ResultSet.CONCUR_READ_ONLY;
+
+	private ExecutionSettings() {
+		super();
+	}
+
+	/**
+	 * @return copy of these settings, to be modified by a "with" method
+	 */
+	private ExecutionSettings copy() {
+		final ExecutionSettings copy = new ExecutionSettings();
+		copy.batchSize = batchSize;
+		copy.fetchSize = fetchSize;
+		copy.executor = executor;
+		copy.parallelism = parallelism;
+		copy.maxRowsPerInsert = maxRowsPerInsert;
+		copy.resultCache = resultCache;
+		copy.tableTags = tableTags;
+		copy.listener = listener;
+		copy.slowQueryDetector = slowQueryDetector;
+		copy.maxRows = maxRows;
+		copy.resultSetType = resultSetType;
+		copy.resultSetConcurrency = resultSetConcurrency;
+		return copy;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @return default settings
+	 */
+	public static ExecutionSettings defaults() {
+		return DEFAULTS;
+	}
+
+	/**
+	 * Specify the number of parameter sets sent to the database at once in
+	 * batch mode
+	 * 
+	 * @param size
+	 *            number of rows per executeBatch() call (at least 1)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withBatchSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Batch size must be at least 1");
+		}
+		final ExecutionSettings copy = copy();
+		copy.batchSize = size;
+		return copy;
+	}
+
+	/**
+	 * Specify how many rows the driver fetches from the database at once
+	 * 
+	 * @param size
+	 *            number of rows (0 to let the driver decide)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withFetchSize(int size) {
+		if (size < 0) {
+			throw new IllegalArgumentException("Fetch size cannot be negative");
+		}
+		final ExecutionSettings copy = copy();
+		copy.fetchSize = size;
+		return copy;
+	}
+
+	/**
+	 * Specify the executor running asynchronous requests
+	 * 
+	 * @param executorToUse
+	 *            executor (null for the default one, see AsyncDispatcher)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withExecutor(Executor executorToUse) {
+		final ExecutionSettings copy = copy();
+		copy.executor = executorToUse;
+		return copy;
+	}
+
+	/**
+	 * Specify on how many connections executeMultiple() runs the parameter
+	 * sets at once
+	 * 
+	 * @param connections
+	 *            number of connections (at least 1, the default, which runs
+	 *            all sets one after the other on the same connection)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withParallelism(int connections) {
+		if (connections < 1) {
+			throw new IllegalArgumentException(
+					"Parallelism must be at least 1");
+		}
+		final ExecutionSettings copy = copy();
+		copy.parallelism = connections;
+		return copy;
+	}
+
+	/**
+	 * Let executeMultiple() rewrite single-row INSERT ... VALUES statements to
+	 * insert several parameter sets per statement. Execution stops at the
+	 * first failing statement, so the rows of the following statements are not
+	 * inserted.
+	 * 
+	 * @param rowsPerInsert
+	 *            maximum number of rows per statement (0 to disable, the
+	 *            default)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withMultiRowInserts(int rowsPerInsert) {
+		if (rowsPerInsert < 0) {
+			throw new IllegalArgumentException(
+					"Maximum rows per insert cannot be negative");
+		}
+		final ExecutionSettings copy = copy();
+		copy.maxRowsPerInsert = rowsPerInsert;
+		return copy;
+	}
+
+	/**
+	 * Specify the cache holding the results of queries, and invalidated by
+	 * writes
+	 * 
+	 * @param cache
+	 *            result cache (null to disable caching, the default)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withResultCache(QueryResultCache cache) {
+		final ExecutionSettings copy = copy();
+		copy.resultCache = cache;
+		return copy;
+	}
+
+	/**
+	 * Specify the tables a request reads or writes, used to invalidate the
+	 * cached results of queries when a write request is executed
+	 * 
+	 * @param tags
+	 *            table names (or any other tags)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withTableTags(String... tags) {
+		final ExecutionSettings copy = copy();
+		copy.tableTags = tags.clone();
+		return copy;
+	}
+
+	/**
+	 * Specify the listener receiving the duration of each phase of the
+	 * execution
+	 * 
+	 * @param listenerToUse
+	 *            listener (null for none, the default)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withListener(ExecutionListener listenerToUse) {
+		final ExecutionSettings copy = copy();
+		copy.listener = listenerToUse;
+		return copy;
+	}
+
+	/**
+	 * Specify the detector recording the executions slower than its threshold
+	 * 
+	 * @param detector
+	 *            slow query detector (null for none, the default)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withSlowQueryDetector(SlowQueryDetector detector) {
+		final ExecutionSettings copy = copy();
+		copy.slowQueryDetector = detector;
+		return copy;
+	}
+
+	/**
+	 * Limit the number of rows returned by queries, the remaining ones being
+	 * silently dropped by the driver
+	 * 
+	 * @param max
+	 *            maximum number of rows (0 for no limit, the default)
+	 * @return modified settings
+	 */
+	public ExecutionSettings withMaxRows(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException(
+					"Maximum number of rows cannot be negative");
+		}
+		final ExecutionSettings copy = copy();
+		copy.maxRows = max;
+		return copy;
+	}
+
+	/**
+	 * Specify the type of the result sets of queries. Statements of other
+	 * types than forward-only and read-only are not cached.
+	 * 
+	 * @param type
+	 *            ResultSet.TYPE_FORWARD_ONLY (the default),
+	 *            ResultSet.TYPE_SCROLL_INSENSITIVE or
+	 *            ResultSet.TYPE_SCROLL_SENSITIVE
+	 * @param concurrency
+	 *            ResultSet.CONCUR_READ_ONLY (the default) or
+	 *            ResultSet.CONCUR_UPDATABLE
+	 * @return modified settings
+	 */
+	public ExecutionSettings withResultSetType(int type, int concurrency) {
+		final ExecutionSettings copy = copy();
+		copy.resultSetType = type;
+		copy.resultSetConcurrency = concurrency;
+		return copy;
+	}
+
+	/**
+	 * @return number of parameter sets per executeBatch() call
+	 */
+	public int getBatchSize() {
+		return batchSize;
+	}
+
+	/**
+	 * @return number of rows fetched at once (0 if not specified)
+	 */
+	public int getFetchSize() {
+		return fetchSize;
+	}
+
+	/**
+	 * @return executor for asynchronous requests (null if not specified)
+	 */
+	public Executor getExecutor() {
+		return executor;
+	}
+
+	/**
+	 * @return number of connections used at once by executeMultiple()
+	 */
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @return maximum number of rows per rewritten INSERT statement (0 if
+	 *         rewriting is disabled)
+	 */
+	public int getMaxRowsPerInsert() {
+		return maxRowsPerInsert;
+	}
+
+	/**
+	 * @return result cache (null if results are not cached)
+	 */
+	public QueryResultCache getResultCache() {
+		return resultCache;
+	}
+
+	/**
+	 * @return tables read or written by the request (not to be modified)
+	 */
+	public String[] getTableTags() {
+		return tableTags;
+	}
+
+	/**
+	 * @return execution listener (null if none)
+	 */
+	public ExecutionListener getListener() {
+		return listener;
+	}
+
+	/**
+	 * @return slow query detector (null if none)
+	 */
+	public SlowQueryDetector getSlowQueryDetector() {
+		return slowQueryDetector;
+	}
+
+	/**
+	 * @return maximum number of rows returned by queries (0 for no limit)
+	 */
+	public int getMaxRows() {
+		return maxRows;
+	}
+
+	/**
+	 * @return type of the result sets (a ResultSet.TYPE_* constant)
+	 */
+	public int getResultSetType() {
+		return resultSetType;
+	}
+
+	/**
+	 * @return concurrency of the result sets (a ResultSet.CONCUR_* constant)
+	 */
+	public int getResultSetConcurrency() {
+		return resultSetConcurrency;
+	}
+
+	/**
+	 * @return true for forward-only read-only result sets, which JDBC
+	 *         statements produce by default
+	 */
+	public boolean hasDefaultResultSetType() {
+		return ResultSet.TYPE_FORWARD_ONLY == resultSetType
+				&& ResultSet.CONCUR_READ_ONLY == resultSetConcurrency;
+	}
+}
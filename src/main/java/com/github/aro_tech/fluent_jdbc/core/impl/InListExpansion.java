@@ -0,0 +1,149 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+
+/**
+ * Expansion of array parameters used as a whole IN list, e.g. "id IN (?)",
+ * into one parameter per element: "id IN (?, ?, ?, ?)". The number of
+ * parameters is rounded up to a power of two (repeating the last element),
+ * so lists of any length only use a few statement shapes, which the
+ * statement caches and the database can keep prepared.
+ * 
+ * An empty array becomes "IN (NULL)", which matches no rows (beware of NOT
+ * IN, which matches no rows either).
+ * 
+ * @author aro_tech
+ *
+ */
+public final class InListExpansion {
+	private static final int MAX_CACHED_PARSES = 256;
+	private static final int[] NO_IN_LISTS = new int[0];
+	private static final ConcurrentMap<String, int[]> IN_LIST_PLACEHOLDERS = new ConcurrentHashMap<String, int[]>();
+
+	private final String sql;
+	private final ParameterBuffer parameters;
+
+	private InListExpansion(String sql, ParameterBuffer parameters) {
+		this.sql = sql;
+		this.parameters = parameters;
+	}
+
+	/**
+	 * @param sql
+	 *            SQL text of the request
+	 * @param parameters
+	 *            its parameters
+	 * @return the expanded request, or null if no array parameter is used as
+	 *         an IN list
+	 */
+	public static InListExpansion of(String sql, ParameterBuffer parameters) {
+		final int[] placeholders = inListPlaceholders(sql);
+		if (placeholders.length == 0) {
+			return null;
+		}
+		final int[] expandedSizes = new int[parameters.size()];
+		final StringBuilder text = new StringBuilder(sql.length() + 64);
+		int copied = 0;
+		for (int k = 0; k < placeholders.length; k += 2) {
+			final int parameter = placeholders[k];
+			final int length = parameters.arrayLength(parameter);
+			if (length < 0) {
+				continue;
+			}
+			final int position = placeholders[k + 1];
+			expandedSizes[parameter] = bucketSize(length);
+			text.append(sql, copied, position).append('?');
+			for (int i = 1; i < expandedSizes[parameter]; i++) {
+				text.append(", ?");
+			}
+			copied = position + 1;
+		}
+		if (copied == 0) {
+			return null;
+		}
+		text.append(sql, copied, sql.length());
+		return new InListExpansion(text.toString(),
+				parameters.expandArrays(expandedSizes));
+	}
+
+	/**
+	 * @param length
+	 *            number of elements
+	 * @return number of parameters for this number of elements: the next
+	 *         power of two (at least 1)
+	 */
+	static int bucketSize(int length) {
+		return length <= 1 ? 1 : Integer.highestOneBit(length - 1) << 1;
+	}
+
+	/**
+	 * @return pairs of (parameter index, placeholder position) for the
+	 *         placeholders which are a whole IN list
+	 */
+	private static int[] inListPlaceholders(String sql) {
+		int[] placeholders = IN_LIST_PLACEHOLDERS.get(sql);
+		if (null == placeholders) {
+			placeholders = parse(sql);
+			if (IN_LIST_PLACEHOLDERS.size() < MAX_CACHED_PARSES) {
+				IN_LIST_PLACEHOLDERS.putIfAbsent(sql, placeholders);
+			}
+		}
+		return placeholders;
+	}
+
+	private static int[] parse(String sql) {
+		final int[] positions = SqlScanner.placeholderPositions(sql);
+		int[] placeholders = NO_IN_LISTS;
+		for (int i = 0; i < positions.length; i++) {
+			if (isWholeInList(sql, positions[i])) {
+				final int count = placeholders.length;
+				placeholders = Arrays.copyOf(placeholders, count + 2);
+				placeholders[count] = i;
+				placeholders[count + 1] = positions[i];
+			}
+		}
+		return placeholders;
+	}
+
+	private static boolean isWholeInList(String sql, int position) {
+		final int close = SqlScanner.skipWhitespace(sql, position + 1);
+		if (close >= sql.length() || sql.charAt(close) != ')') {
+			return false;
+		}
+		int open = position - 1;
+		while (open >= 0 && Character.isWhitespace(sql.charAt(open))) {
+			open--;
+		}
+		if (open < 0 || sql.charAt(open) != '(') {
+			return false;
+		}
+		int end = open;
+		while (end > 0 && Character.isWhitespace(sql.charAt(end - 1))) {
+			end--;
+		}
+		return end >= 2 && sql.regionMatches(true, end - 2, "IN", 0, 2)
+				&& (end == 2 || !Character.isLetterOrDigit(sql.charAt(end - 3))
+						&& sql.charAt(end - 3) != '_');
+	}
+
+	/**
+	 * @return SQL with one placeholder per expanded element
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return parameters with the expanded arrays replaced by their elements
+	 */
+	public ParameterBuffer getParameters() {
+		return parameters;
+	}
+}
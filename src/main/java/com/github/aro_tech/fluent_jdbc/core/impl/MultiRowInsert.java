@@ -0,0 +1,140 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Rewriting of a single-row INSERT ... VALUES (...) into statements inserting
+ * several rows at once: INSERT ... VALUES (...), (...), ...
+ * 
+ * Row counts are rounded down to powers of two, so inserting any number of
+ * rows only uses a few statement shapes (which the statement caches can
+ * keep), and the number of bind parameters of a statement stays within the
+ * driver's limit.
+ * 
+ * @author aro_tech
+ *
+ */
+final class MultiRowInsert {
+	/**
+	 * Maximum number of bind parameters of a statement for the PostgreSQL
+	 * protocol
+	 */
+	static final int MAX_BIND_PARAMETERS = Short.MAX_VALUE;
+	private static final int MAX_CACHED_PARSES = 256;
+	private static final MultiRowInsert NOT_REWRITABLE = new MultiRowInsert(
+			"", "", "", 0);
+	private static final ConcurrentMap<String, MultiRowInsert> PARSED = new ConcurrentHashMap<String, MultiRowInsert>();
+
+	private final String prefix;
+	private final String tuple;
+	private final String suffix;
+	private final int parametersPerRow;
+	/** SQL by power of two (index 0: 1 row, 1: 2 rows, etc.) */
+	private final String[] sqlByBucket = new String[31];
+
+	private MultiRowInsert(String prefix, String tuple, String suffix,
+			int parametersPerRow) {
+		this.prefix = prefix;
+		this.tuple = tuple;
+		this.suffix = suffix;
+		this.parametersPerRow = parametersPerRow;
+	}
+
+	/**
+	 * @param sql
+	 * @return rewriter for this statement, or null if it is not a single-row
+	 *         INSERT ... VALUES whose only parameters are in the VALUES list
+	 *         (statements with RETURNING are not rewritten either, as they
+	 *         return one result per row)
+	 */
+	static MultiRowInsert of(String sql) {
+		MultiRowInsert insert = PARSED.get(sql);
+		if (null == insert) {
+			insert = parse(sql);
+			if (PARSED.size() < MAX_CACHED_PARSES) {
+				PARSED.putIfAbsent(sql, insert);
+			}
+		}
+		return NOT_REWRITABLE == insert ? null : insert;
+	}
+
+	private static MultiRowInsert parse(String sql) {
+		final int start = SqlScanner.skipWhitespace(sql, 0);
+		if (!sql.regionMatches(true, start, "INSERT", 0, 6)) {
+			return NOT_REWRITABLE;
+		}
+		final int values = SqlScanner.indexOfKeyword(sql, "VALUES", start);
+		if (values < 0) {
+			return NOT_REWRITABLE;
+		}
+		final int open = SqlScanner.skipWhitespace(sql, values + 6);
+		if (open >= sql.length() || sql.charAt(open) != '(') {
+			return NOT_REWRITABLE;
+		}
+		final int close = SqlScanner.indexOfClosingParenthesis(sql, open);
+		if (close < 0) {
+			return NOT_REWRITABLE;
+		}
+		final int afterTuple = SqlScanner.skipWhitespace(sql, close + 1);
+		if (afterTuple < sql.length() && sql.charAt(afterTuple) == ','
+				|| SqlScanner.indexOfKeyword(sql, "RETURNING", close) >= 0) {
+			return NOT_REWRITABLE;
+		}
+		int parametersPerRow = 0;
+		for (int position : SqlScanner.placeholderPositions(sql)) {
+			if (position < open || position > close) {
+				return NOT_REWRITABLE;
+			}
+			parametersPerRow++;
+		}
+		return new MultiRowInsert(sql.substring(0, open), sql.substring(open,
+				close + 1), sql.substring(close + 1), parametersPerRow);
+	}
+
+	/**
+	 * @return number of bind parameters of one row
+	 */
+	int getParametersPerRow() {
+		return parametersPerRow;
+	}
+
+	/**
+	 * @param remainingRows
+	 *            number of rows still to insert (at least 1)
+	 * @param maxRows
+	 *            maximum number of rows per statement
+	 * @return number of rows to insert with the next statement
+	 */
+	int rowsForNextStatement(int remainingRows, int maxRows) {
+		int limit = Math.min(remainingRows, maxRows);
+		if (parametersPerRow > 0) {
+			limit = Math.min(limit, MAX_BIND_PARAMETERS / parametersPerRow);
+		}
+		return Integer.highestOneBit(Math.max(1, limit));
+	}
+
+	/**
+	 * @param rows
+	 *            number of rows, a power of two
+	 * @return SQL inserting this number of rows
+	 */
+	String sqlForRows(int rows) {
+		final int bucket = Integer.numberOfTrailingZeros(rows);
+		String sql = sqlByBucket[bucket];
+		if (null == sql) {
+			final StringBuilder text = new StringBuilder(prefix.length()
+					+ (tuple.length() + 2) * rows + suffix.length());
+			text.append(prefix).append(tuple);
+			for (int i = 1; i < rows; i++) {
+				text.append(", ").append(tuple);
+			}
+			sql = text.append(suffix).toString();
+			sqlByBucket[bucket] = sql;
+		}
+		return sql;
+	}
+}
@@ -0,0 +1,57 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.PreparedStatement;
+
+/**
+ * PreparedStatement view shifting the parameter indexes by an offset, so an
+ * argument setter written for one row sets the parameters of another row of
+ * a multi-row statement. Only used for argument setters which are not a
+ * ParameterBuffer (which can bind at an offset itself).
+ * 
+ * @author aro_tech
+ *
+ */
+final class ParameterOffsetStatement implements InvocationHandler {
+	private final PreparedStatement delegate;
+	private final int offset;
+
+	private ParameterOffsetStatement(PreparedStatement delegate, int offset) {
+		this.delegate = delegate;
+		this.offset = offset;
+	}
+
+	/**
+	 * @param stmnt
+	 * @param offset
+	 *            number added to the parameter index of each set method
+	 * @return view of the statement
+	 */
+	static PreparedStatement wrap(PreparedStatement stmnt, int offset) {
+		return (PreparedStatement) Proxy.newProxyInstance(
+				ParameterOffsetStatement.class.getClassLoader(),
+				new Class<?>[] { PreparedStatement.class },
+				new ParameterOffsetStatement(stmnt, offset));
+	}
+
+	@Override
+	public Object invoke(Object proxy, Method method, Object[] args)
+			throws Throwable {
+		if (null != args && args.length >= 2
+				&& method.getName().startsWith("set")
+				&& method.getParameterTypes()[0] == int.class) {
+			args[0] = (Integer) args[0] + offset;
+		}
+		try {
+			return method.invoke(delegate, args);
+		} catch (InvocationTargetException e) {
+			throw e.getCause();
+		}
+	}
+}
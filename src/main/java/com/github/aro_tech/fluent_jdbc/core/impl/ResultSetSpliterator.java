@@ -0,0 +1,81 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
+
+/**
+ * Spliterator reading one row of a ResultSet at a time. Resources are
+ * released as soon as the last row has been read or an SQL error occurred.
+ * An unchecked error of the row mapper is rethrown, and the resources are
+ * released (and the cursor transaction rolled back) when the stream is
+ * closed.
+ * 
+ * @author aro_tech
+ *
+ */
+class ResultSetSpliterator<T> extends Spliterators.AbstractSpliterator<T> {
+	private final ResultSet rs;
+	private final RowMapper<T> mapper;
+	private final StreamResources resources;
+	private final Consumer<SQLException> errorHandler;
+	private boolean done = false;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param rs
+	 *            results to read
+	 * @param mapper
+	 *            converts each row
+	 * @param resources
+	 *            released when all rows are read
+	 * @param errorHandler
+	 *            receives the error which ends the iteration, if any
+	 */
+	ResultSetSpliterator(ResultSet rs, RowMapper<T> mapper,
+			StreamResources resources, Consumer<SQLException> errorHandler) {
+		super(Long.MAX_VALUE, Spliterator.ORDERED);
+		this.rs = rs;
+		this.mapper = mapper;
+		this.resources = resources;
+		this.errorHandler = errorHandler;
+	}
+
+	@Override
+	public boolean tryAdvance(Consumer<? super T> action) {
+		if (done) {
+			return false;
+		}
+		final T row;
+		try {
+			if (!rs.next()) {
+				finish();
+				return false;
+			}
+			row = mapper.mapRow(rs);
+		} catch (SQLException e) {
+			resources.fail();
+			finish();
+			errorHandler.accept(e);
+			return false;
+		} catch (RuntimeException e) {
+			resources.fail();
+			throw e;
+		}
+		action.accept(row);
+		return true;
+	}
+
+	private void finish() {
+		done = true;
+		resources.close();
+	}
+}
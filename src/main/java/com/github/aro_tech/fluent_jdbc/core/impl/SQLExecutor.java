@@ -1,17 +1,35 @@
 package com.github.aro_tech.fluent_jdbc.core.impl;
 
+import java.sql.BatchUpdateException;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.connection.CachingConnection;
 import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCache;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCacheStatistics;
+import com.github.aro_tech.fluent_jdbc.core.connection.Transaction;
 import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionListener;
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionPhase;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
 import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
 import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReaderReusingConnection;
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
 
 /**
  * Allows JDBC query set-up and handling via lambdas
@@ -20,7 +38,17 @@ import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReaderReusingConnec
  *
  */
 public class SQLExecutor<T> {
+	/**
+	 * Size of the statement cache used for follow-up requests when the
+	 * connection does not already have one
+	 */
+	public static final int SUBREQUEST_STATEMENT_CACHE_SIZE = 16;
+	private static final StatementCacheStatistics SUBREQUEST_CACHE_STATISTICS = new StatementCacheStatistics();
+
 	private final ILogger logger;
+	private final ExecutionSettings settings;
+	private final ExecutionListener listener;
+	private final SlowQueryDetector slowQueries;
 	private final List<SQLException> caughtErrors = new ArrayList<SQLException>();
 
 	/**
@@ -41,8 +69,23 @@ public class SQLExecutor<T> {
 	 * @param logger
 	 */
 	public SQLExecutor(ILogger logger) {
+		this(logger, ExecutionSettings.defaults());
+	}
+
+	/**
+	 * 
+	 * Constructor
+	 * 
+	 * @param logger
+	 * @param settings
+	 *            execution tuning (batch size, etc.)
+	 */
+	public SQLExecutor(ILogger logger, ExecutionSettings settings) {
 		super();
 		this.logger = logger;
+		this.settings = settings;
+		this.listener = settings.getListener();
+		this.slowQueries = settings.getSlowQueryDetector();
 	}
 
 	/**
@@ -56,7 +99,7 @@ public class SQLExecutor<T> {
 	 */
 	public T execute(IJDBCConnectionProvider connectionProvider, String sql,
 			JDBCArgumentSetter argumentSetter, ResultSetReader<T> resultHandler) {
-		try (Connection c = connectionProvider.getConnection()) {
+		try (Connection c = acquire(connectionProvider, sql)) {
 			return execute(sql, argumentSetter, resultHandler, c);
 		} catch (SQLException e) {
 			return handleError(sql, e);
@@ -74,7 +117,8 @@ public class SQLExecutor<T> {
 	public T executeWithSubrequests(IJDBCConnectionProvider connectionProvider,
 			String sql, JDBCArgumentSetter argumentSetter,
 			ResultSetReaderReusingConnection<T> resultHandler) {
-		try (Connection c = connectionProvider.getConnection()) {
+		try (Connection c = withStatementCache(acquire(connectionProvider,
+				sql))) {
 			return listToSingleValue(executeImpl(sql, null, resultHandler, c,
 					new ArrayList<T>(), argumentSetter));
 		} catch (SQLException e) {
@@ -82,6 +126,28 @@ public class SQLExecutor<T> {
 		}
 	}
 
+	/**
+	 * Follow-up requests run on the same connection, often with the same SQL
+	 * for each row of the main result, so they share a statement cache for
+	 * the duration of the main request
+	 */
+	private Connection withStatementCache(Connection c) {
+		if (null == c || c instanceof CachingConnection) {
+			return c;
+		}
+		return new CachingConnection(c, new StatementCache(c,
+				SUBREQUEST_STATEMENT_CACHE_SIZE, SUBREQUEST_CACHE_STATISTICS));
+	}
+
+	/**
+	 * @return hit/miss counters of the statement caches created for
+	 *         follow-up requests on connections which had no cache of their
+	 *         own (pooled connections have their own counters)
+	 */
+	public static StatementCacheStatistics getSubrequestStatementCacheStatistics() {
+		return SUBREQUEST_CACHE_STATISTICS;
+	}
+
 	private T listToSingleValue(final List<T> resultsList) {
 		if (resultsList.isEmpty()) {
 			return null;
@@ -118,8 +184,19 @@ public class SQLExecutor<T> {
 	public List<T> executeMultiple(IJDBCConnectionProvider connectionProvider,
 			String sql, ResultSetReader<T> resultHandler,
 			JDBCArgumentSetter... argumentSetters) {
+		final int chunkCount = parallelChunkCount(connectionProvider,
+				argumentSetters);
+		if (chunkCount > 1) {
+			return executeMultipleInParallel(connectionProvider, sql,
+					resultHandler, chunkCount, argumentSetters);
+		}
+		final MultiRowInsert insert = multiRowInsert(sql, argumentSetters);
+		if (null != insert) {
+			return executeMultiRowInsert(connectionProvider, sql, insert,
+					argumentSetters);
+		}
 		final ArrayList<T> resultsListOutParam = new ArrayList<T>();
-		try (Connection c = connectionProvider.getConnection()) {
+		try (Connection c = acquire(connectionProvider, sql)) {
 			return executeImpl(sql, resultHandler, null, c,
 					resultsListOutParam, argumentSetters);
 		} catch (SQLException e) {
@@ -128,31 +205,576 @@ public class SQLExecutor<T> {
 		}
 	}
 
+	private MultiRowInsert multiRowInsert(String sql,
+			JDBCArgumentSetter[] argumentSetters) {
+		if (settings.getMaxRowsPerInsert() < 2 || null == argumentSetters
+				|| argumentSetters.length < 2) {
+			return null;
+		}
+		return MultiRowInsert.of(sql);
+	}
+
+	/**
+	 * Insert the rows with as few statements as possible, each statement
+	 * inserting a power of two rows. As with one statement per parameter set,
+	 * execution stops at the first failure, which is handled by handleError()
+	 */
+	private List<T> executeMultiRowInsert(
+			IJDBCConnectionProvider connectionProvider, String sql,
+			MultiRowInsert insert, JDBCArgumentSetter[] argumentSetters) {
+		try (Connection c = acquire(connectionProvider, sql)) {
+			final StatementCache statementCache = StatementCache.of(c);
+			int next = 0;
+			while (next < argumentSetters.length) {
+				final int rows = insert.rowsForNextStatement(
+						argumentSetters.length - next,
+						settings.getMaxRowsPerInsert());
+				final String wideSql = insert.sqlForRows(rows);
+				if (logger.isInfoEnabled()) {
+					logger.info("About to insert {} rows with SQL request: \n{}",
+							rows, sql);
+				}
+				PreparedStatement stmnt = prepare(wideSql, c, statementCache);
+				try {
+					final long bindStart = startPhase();
+					for (int row = 0; row < rows; row++) {
+						bindRow(stmnt, argumentSetters[next + row], row
+								* insert.getParametersPerRow());
+					}
+					endPhase(wideSql, ExecutionPhase.BIND, bindStart, false);
+					final long executeStart = startPhase();
+					final long start = startTimer();
+					boolean failed = true;
+					try {
+						stmnt.executeUpdate();
+						failed = false;
+					} finally {
+						endPhase(wideSql, ExecutionPhase.EXECUTE, executeStart,
+								failed);
+						checkRowsDuration(wideSql, insert, argumentSetters,
+								next, rows, start, failed);
+					}
+				} finally {
+					releaseStatement(wideSql, stmnt, statementCache);
+				}
+				next += rows;
+			}
+		} catch (SQLException e) {
+			handleError(sql, e);
+		}
+		return new ArrayList<T>();
+	}
+
+	/**
+	 * Report a slow multi-row statement to the slow query detector, with the
+	 * parameters of all its rows (only gathered if it is slow). Rows bound from
+	 * ParameterBuffers are copied into one buffer, which the detector can
+	 * explain; other argument setters are only recorded.
+	 */
+	private void checkRowsDuration(String wideSql, MultiRowInsert insert,
+			JDBCArgumentSetter[] argumentSetters, int first, int rows,
+			long start, boolean failed) {
+		if (null == slowQueries
+				|| !slowQueries.isSlow(System.nanoTime() - start)) {
+			return;
+		}
+		final int parametersPerRow = insert.getParametersPerRow();
+		final ParameterBuffer allRows = rowsBuffer(argumentSetters, first,
+				rows, parametersPerRow);
+		if (null != allRows) {
+			checkDuration(wideSql, allRows, start, failed);
+			return;
+		}
+		final JDBCArgumentSetter[] rowSetters = Arrays.copyOfRange(
+				argumentSetters, first, first + rows);
+		checkDuration(wideSql, stmnt -> {
+			for (int row = 0; row < rowSetters.length; row++) {
+				bindRow(stmnt, rowSetters[row], row * parametersPerRow);
+			}
+		}, start, failed);
+	}
+
+	/**
+	 * @return buffer holding the parameters of the rows one after the other,
+	 *         or null if a row is not bound from a ParameterBuffer of
+	 *         parametersPerRow parameters
+	 */
+	private ParameterBuffer rowsBuffer(JDBCArgumentSetter[] argumentSetters,
+			int first, int rows, int parametersPerRow) {
+		final ParameterBuffer allRows = new ParameterBuffer(logger, rows
+				* parametersPerRow);
+		for (int row = first; row < first + rows; row++) {
+			if (!(argumentSetters[row] instanceof ParameterBuffer)
+					|| ((ParameterBuffer) argumentSetters[row]).size() != parametersPerRow) {
+				return null;
+			}
+			allRows.addAll((ParameterBuffer) argumentSetters[row]);
+		}
+		return allRows;
+	}
+
+	private static void bindRow(PreparedStatement stmnt,
+			JDBCArgumentSetter argumentSetter, int offset) throws SQLException {
+		if (null == argumentSetter) {
+			return;
+		}
+		if (argumentSetter instanceof ParameterBuffer) {
+			((ParameterBuffer) argumentSetter).setArguments(stmnt, offset);
+		} else if (0 == offset) {
+			argumentSetter.setArguments(stmnt);
+		} else {
+			argumentSetter.setArguments(ParameterOffsetStatement.wrap(stmnt,
+					offset));
+		}
+	}
+
+	private int parallelChunkCount(IJDBCConnectionProvider connectionProvider,
+			JDBCArgumentSetter[] argumentSetters) {
+		if (settings.getParallelism() < 2 || null == argumentSetters
+				|| null != Transaction.current(connectionProvider)) {
+			return 1;
+		}
+		int maxConnections = connectionProvider.getMaxConnections();
+		if (maxConnections < 1) {
+			maxConnections = Integer.MAX_VALUE;
+		}
+		return Math.min(Math.min(settings.getParallelism(), maxConnections),
+				argumentSetters.length);
+	}
+
+	/**
+	 * Split the parameter sets into contiguous chunks, each one run by
+	 * executeMultiple() on its own connection. The results of the chunks are
+	 * concatenated in order and their errors collected, so the outcome is
+	 * the same as running the chunks one after the other.
+	 * 
+	 * The calling thread runs the chunks no other thread has started, and
+	 * only waits for chunks which are already running: when the caller is
+	 * itself a thread of a busy bounded executor, the chunks queued behind it
+	 * are run serially instead of deadlocking the pool.
+	 */
+	private List<T> executeMultipleInParallel(
+			IJDBCConnectionProvider connectionProvider, String sql,
+			ResultSetReader<T> resultHandler, int chunkCount,
+			JDBCArgumentSetter[] argumentSetters) {
+		final ExecutionSettings serialSettings = settings.withParallelism(1);
+		final Executor executor = null != settings.getExecutor() ? settings
+				.getExecutor() : AsyncDispatcher.defaultExecutor();
+		final List<SQLExecutor<T>> chunkExecutors = new ArrayList<SQLExecutor<T>>(
+				chunkCount);
+		final List<FutureTask<List<T>>> chunkResults = new ArrayList<FutureTask<List<T>>>(
+				chunkCount);
+		if (logger.isInfoEnabled()) {
+			logger.info("Running {} parameter sets on {} connections: \n{}",
+					argumentSetters.length, chunkCount, sql);
+		}
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			final JDBCArgumentSetter[] chunkSetters = Arrays.copyOfRange(
+					argumentSetters,
+					(int) ((long) argumentSetters.length * chunk / chunkCount),
+					(int) ((long) argumentSetters.length * (chunk + 1) / chunkCount));
+			final SQLExecutor<T> chunkExecutor = new SQLExecutor<T>(logger,
+					serialSettings);
+			chunkExecutors.add(chunkExecutor);
+			chunkResults.add(new FutureTask<List<T>>(
+					() -> chunkExecutor.executeMultiple(connectionProvider,
+							sql, resultHandler, chunkSetters)));
+		}
+		// the first chunk is run by the calling thread
+		for (int chunk = 1; chunk < chunkCount; chunk++) {
+			try {
+				executor.execute(chunkResults.get(chunk));
+			} catch (RejectedExecutionException e) {
+				// run below by the calling thread
+			}
+		}
+		final List<T> results = new ArrayList<T>(argumentSetters.length);
+		for (int chunk = 0; chunk < chunkCount; chunk++) {
+			final FutureTask<List<T>> chunkResult = chunkResults.get(chunk);
+			// does nothing if another thread has started the chunk
+			chunkResult.run();
+			try {
+				results.addAll(chunkResult.get());
+			} catch (ExecutionException e) {
+				handleError(sql, new SQLException(
+						"Parallel execution failed", e.getCause()));
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				handleError(sql, new SQLException(
+						"Interrupted while waiting for parallel execution", e));
+			}
+			caughtErrors.addAll(chunkExecutors.get(chunk).getCaughtErrors());
+		}
+		return results;
+	}
+
+	/**
+	 * Run a query whose rows are read lazily, one fetch at a time, as the
+	 * returned stream is consumed. The stream owns the connection, statement
+	 * and result set: they are released when the stream is closed or all
+	 * rows have been read. An error while reading ends the stream and is
+	 * added to the caught errors.
+	 * 
+	 * @param connectionProvider
+	 * @param sql
+	 * @param argumentSetter
+	 * @param rowMapper
+	 *            converts each row
+	 * @return lazy stream of rows (to be closed by the caller)
+	 */
+	public Stream<T> stream(IJDBCConnectionProvider connectionProvider,
+			String sql, JDBCArgumentSetter argumentSetter,
+			RowMapper<T> rowMapper) {
+		final Connection c;
+		try {
+			c = acquire(connectionProvider, sql);
+		} catch (SQLException e) {
+			handleError(sql, e);
+			return Stream.empty();
+		}
+		return streamImpl(sql, argumentSetter, rowMapper, c, true);
+	}
+
+	/**
+	 * Lazy query using an existing connection, which is left open when the
+	 * stream is closed
+	 * 
+	 * @param sql
+	 * @param argumentSetter
+	 * @param rowMapper
+	 * @param c
+	 * @return lazy stream of rows (to be closed by the caller)
+	 */
+	public Stream<T> stream(String sql, JDBCArgumentSetter argumentSetter,
+			RowMapper<T> rowMapper, Connection c) {
+		return streamImpl(sql, argumentSetter, rowMapper, c, false);
+	}
+
+	private Stream<T> streamImpl(String sql,
+			JDBCArgumentSetter argumentSetter, RowMapper<T> rowMapper,
+			Connection c, boolean ownsConnection) {
+		final StreamResources resources = new StreamResources(c,
+				ownsConnection, e -> handleError(sql, e));
+		try {
+			if (logger.isInfoEnabled()) {
+				logger.info("About to execute streamed SQL request: \n{}", sql);
+			}
+			final int fetchSize = settings.getFetchSize() > 0 ? settings
+					.getFetchSize() : ExecutionSettings.DEFAULT_STREAM_FETCH_SIZE;
+			resources.prepareCursor(fetchSize);
+			final long prepareStart = startPhase();
+			PreparedStatement stmnt = c.prepareStatement(sql,
+					ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+			endPhase(sql, ExecutionPhase.PREPARE, prepareStart, false);
+			resources.setStatement(stmnt);
+			stmnt.setFetchSize(fetchSize);
+			if (settings.getMaxRows() > 0) {
+				stmnt.setMaxRows(settings.getMaxRows());
+			}
+			if (null != argumentSetter) {
+				bind(sql, stmnt, argumentSetter);
+			}
+			final long executeStart = startPhase();
+			final long start = startTimer();
+			boolean failed = true;
+			ResultSet rs;
+			try {
+				rs = stmnt.executeQuery();
+				failed = false;
+			} finally {
+				checkDuration(sql, argumentSetter, start, failed);
+			}
+			endPhase(sql, ExecutionPhase.EXECUTE, executeStart, false);
+			if (null != listener) {
+				rs = countRowsUntilClosed(sql, rs, resources);
+			}
+			resources.setResultSet(rs);
+			return StreamSupport.stream(
+					new ResultSetSpliterator<T>(rs, rowMapper, resources,
+							e -> handleError(sql, e)), false).onClose(
+					resources::close);
+		} catch (SQLException e) {
+			resources.fail();
+			resources.close();
+			handleError(sql, e);
+			return Stream.empty();
+		}
+	}
+
+	/**
+	 * Run a write request once per set of arguments using JDBC batches, which
+	 * saves a network round trip per row. Rows are sent in chunks of the
+	 * configured batch size. A failing chunk does not stop the following
+	 * ones: its error is added to the caught errors and its rows are reported
+	 * as Statement.EXECUTE_FAILED unless the driver says otherwise.
+	 * 
+	 * @param connectionProvider
+	 * @param sql
+	 * @param argumentSetters
+	 * @return update count for each set of arguments, in the same order
+	 */
+	public int[] executeBatch(IJDBCConnectionProvider connectionProvider,
+			String sql, JDBCArgumentSetter... argumentSetters) {
+		JDBCArgumentSetter[] argumentSettersToUse = safeArgumentSetters(argumentSetters);
+		final int[] updateCounts = failedUpdateCounts(argumentSettersToUse.length);
+		try (Connection c = acquire(connectionProvider, sql)) {
+			executeBatchImpl(sql, c, updateCounts, argumentSettersToUse);
+		} catch (SQLException e) {
+			handleError(sql, e);
+		}
+		return updateCounts;
+	}
+
+	/**
+	 * Batch execution using an existing connection
+	 * 
+	 * @param sql
+	 * @param c
+	 * @param argumentSetters
+	 * @return update count for each set of arguments, in the same order
+	 * @throws SQLException
+	 *             if the statement cannot be prepared or arguments cannot be
+	 *             set (failures of the batches themselves are caught)
+	 */
+	public int[] executeBatch(String sql, Connection c,
+			JDBCArgumentSetter... argumentSetters) throws SQLException {
+		JDBCArgumentSetter[] argumentSettersToUse = safeArgumentSetters(argumentSetters);
+		final int[] updateCounts = failedUpdateCounts(argumentSettersToUse.length);
+		executeBatchImpl(sql, c, updateCounts, argumentSettersToUse);
+		return updateCounts;
+	}
+
+	private static int[] failedUpdateCounts(int length) {
+		final int[] updateCounts = new int[length];
+		Arrays.fill(updateCounts, Statement.EXECUTE_FAILED);
+		return updateCounts;
+	}
+
+	private void executeBatchImpl(String sql, Connection c,
+			int[] updateCountsOutParam, JDBCArgumentSetter... argumentSetters)
+			throws SQLException {
+		if (logger.isInfoEnabled()) {
+			logger.info("About to execute SQL batch of {} rows: \n{}",
+					argumentSetters.length, sql);
+		}
+		final StatementCache statementCache = StatementCache.of(c);
+		PreparedStatement stmnt = prepare(sql, c, statementCache);
+		try {
+			final int batchSize = settings.getBatchSize();
+			int chunkStart = 0;
+			long bindNanos = 0;
+			for (int i = 0; i < argumentSetters.length; i++) {
+				final long bindStart = startPhase();
+				argumentSetters[i].setArguments(stmnt);
+				stmnt.addBatch();
+				if (null != listener) {
+					bindNanos += System.nanoTime() - bindStart;
+				}
+				final int chunkLength = i + 1 - chunkStart;
+				if (chunkLength == batchSize || i == argumentSetters.length - 1) {
+					flushBatch(sql, stmnt, updateCountsOutParam, chunkStart,
+							chunkLength, argumentSetters[chunkStart]);
+					chunkStart = i + 1;
+				}
+			}
+			if (null != listener) {
+				phaseCompleted(sql, ExecutionPhase.BIND, bindNanos, false);
+			}
+		} finally {
+			try {
+				if (null != statementCache) {
+					clearBatch(sql, stmnt);
+				}
+			} finally {
+				releaseStatement(sql, stmnt, statementCache);
+			}
+		}
+	}
+
+	/**
+	 * Empty the batch of a statement going back to the cache. If that fails
+	 * (e.g. the connection is broken), the statement is closed so that the
+	 * cache discards it, and the error of the batch itself is kept.
+	 */
+	private void clearBatch(String sql, PreparedStatement stmnt) {
+		try {
+			stmnt.clearBatch();
+		} catch (SQLException e) {
+			logger.warn("Failed to clear batch for SQL request: " + sql, e);
+			try {
+				stmnt.close();
+			} catch (SQLException closeError) {
+				// the statement is discarded anyway
+			}
+		}
+	}
+
+	/**
+	 * Send the rows added to the batch. A slow batch is reported to the slow
+	 * query detector with the parameters of its first row.
+	 */
+	private void flushBatch(String sql, PreparedStatement stmnt,
+			int[] updateCountsOutParam, int chunkStart, int chunkLength,
+			JDBCArgumentSetter firstRow) throws SQLException {
+		final long executeStart = startPhase();
+		final long start = startTimer();
+		boolean failed = true;
+		try {
+			int[] counts = stmnt.executeBatch();
+			failed = false;
+			endPhase(sql, ExecutionPhase.EXECUTE, executeStart, false);
+			System.arraycopy(counts, 0, updateCountsOutParam, chunkStart,
+					Math.min(counts.length, chunkLength));
+		} catch (BatchUpdateException e) {
+			endPhase(sql, ExecutionPhase.EXECUTE, executeStart, true);
+			int[] counts = e.getUpdateCounts();
+			if (null != counts) {
+				System.arraycopy(counts, 0, updateCountsOutParam, chunkStart,
+						Math.min(counts.length, chunkLength));
+			}
+			caughtErrors.add(e);
+			logger.error("Batch failed for rows " + (chunkStart + 1) + " to "
+					+ (chunkStart + chunkLength) + " of SQL request: " + sql,
+					e);
+			stmnt.clearBatch();
+		} finally {
+			checkDuration(sql, firstRow, start, failed);
+		}
+	}
+
 	private List<T> executeImpl(String sql, ResultSetReader<T> resultHandler,
 			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
 			Connection c, List<T> resultsListOutParam,
 			JDBCArgumentSetter... argumentSetters) throws SQLException {
-		logger.info("About to execute SQL request: \n{}", sql);
-		PreparedStatement stmnt = c.prepareStatement(sql);
+		if (logger.isInfoEnabled()) {
+			logger.info("About to execute SQL request: \n{}", sql);
+		}
+		final boolean autoCommitDisabled = prepareCursor(c);
+		boolean succeeded = false;
+		try {
+			final List<T> results = executePrepared(sql, resultHandler,
+					resultHandlerReusingC, c, resultsListOutParam,
+					argumentSetters);
+			succeeded = true;
+			return results;
+		} finally {
+			if (autoCommitDisabled) {
+				endCursorTransaction(sql, c, succeeded);
+			}
+		}
+	}
+
+	private List<T> executePrepared(String sql,
+			ResultSetReader<T> resultHandler,
+			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
+			Connection c, List<T> resultsListOutParam,
+			JDBCArgumentSetter... argumentSetters) throws SQLException {
+		final StatementCache statementCache = settings
+				.hasDefaultResultSetType() ? StatementCache.of(c) : null;
+		PreparedStatement stmnt = prepare(sql, c, statementCache);
+		boolean configured = false;
+		try {
+			configured = configure(stmnt);
+			return executeWithStatement(sql, stmnt, resultHandler,
+					resultHandlerReusingC, c, resultsListOutParam,
+					argumentSetters);
+		} finally {
+			if (configured && null != statementCache) {
+				restoreDefaults(sql, stmnt);
+			}
+			releaseStatement(sql, stmnt, statementCache);
+		}
+	}
+
+	/**
+	 * PostgreSQL only honours the fetch size inside a transaction, so
+	 * auto-commit is switched off for the duration of the request (see
+	 * StreamResources.prepareCursor())
+	 * 
+	 * @return true if auto-commit must be restored
+	 */
+	private boolean prepareCursor(Connection c) throws SQLException {
+		if (settings.getFetchSize() > 0 && c.getAutoCommit()
+				&& StreamResources.isPostgreSQL(c)) {
+			c.setAutoCommit(false);
+			return true;
+		}
+		return false;
+	}
+
+	private void endCursorTransaction(String sql, Connection c,
+			boolean succeeded) throws SQLException {
+		if (!succeeded) {
+			try {
+				c.rollback();
+				c.setAutoCommit(true);
+			} catch (SQLException e) {
+				logger.warn("Failed to restore auto-commit after SQL request: "
+						+ sql, e);
+			}
+			return;
+		}
+		try {
+			c.commit();
+		} finally {
+			c.setAutoCommit(true);
+		}
+	}
+
+	/**
+	 * Apply the fetch size and row limit of the settings
+	 * 
+	 * @return true if the statement no longer has the default settings
+	 */
+	private boolean configure(PreparedStatement stmnt) throws SQLException {
+		boolean configured = false;
+		if (settings.getFetchSize() > 0) {
+			stmnt.setFetchSize(settings.getFetchSize());
+			configured = true;
+		}
+		if (settings.getMaxRows() > 0) {
+			stmnt.setMaxRows(settings.getMaxRows());
+			configured = true;
+		}
+		return configured;
+	}
+
+	/**
+	 * Statements going back to the cache must not keep the settings of this
+	 * request: those which cannot be reset are closed, so the cache drops them
+	 */
+	private void restoreDefaults(String sql, PreparedStatement stmnt) {
+		try {
+			stmnt.setFetchSize(0);
+			stmnt.setMaxRows(0);
+		} catch (SQLException e) {
+			logger.warn("Failed to reset statement for SQL request: " + sql, e);
+			try {
+				stmnt.close();
+			} catch (SQLException closeError) {
+				// the statement is discarded anyway
+			}
+		}
+	}
+
+	private List<T> executeWithStatement(String sql, PreparedStatement stmnt,
+			ResultSetReader<T> resultHandler,
+			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
+			Connection c, List<T> resultsListOutParam,
+			JDBCArgumentSetter... argumentSetters) throws SQLException {
 		JDBCArgumentSetter[] argumentSettersToUse = safeArgumentSetters(argumentSetters);
 		int counter = 1;
 		for (JDBCArgumentSetter argumentSetter : argumentSettersToUse) {
 			try {
-				argumentSetter.setArguments(stmnt);
-				if (stmnt.execute()) {
-					ResultSet rs = stmnt.getResultSet();
-					final T results = getResults(resultHandler,
-							resultHandlerReusingC, c, rs);
-					if (null != results) {
-						logger.debug("Query returned results: \n{}", results);
-					} else {
-						logger.debug("No results.");
-					}
-					resultsListOutParam.add(results);
-				} else {
-					logger.debug(
-							"Query executed with no result sets but with update count {}",
-							stmnt.getUpdateCount());
+				bind(sql, stmnt, argumentSetter);
+				final long start = startTimer();
+				boolean failed = true;
+				try {
+					executeAndRead(sql, stmnt, resultHandler,
+							resultHandlerReusingC, c, resultsListOutParam);
+					failed = false;
+				} finally {
+					checkDuration(sql, argumentSetter, start, failed);
 				}
 				counter++;
 			} catch (SQLException e) {
@@ -180,6 +802,197 @@ public class SQLExecutor<T> {
 		return resultsListOutParam;
 	}
 
+	private void executeAndRead(String sql, PreparedStatement stmnt,
+			ResultSetReader<T> resultHandler,
+			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
+			Connection c, List<T> resultsListOutParam) throws SQLException {
+		if (execute(sql, stmnt)) {
+			final T results = readResults(sql, stmnt, resultHandler,
+					resultHandlerReusingC, c);
+			if (logger.isDebugEnabled()) {
+				if (null != results) {
+					logger.debug("Query returned results: \n{}", results);
+				} else {
+					logger.debug("No results.");
+				}
+			}
+			resultsListOutParam.add(results);
+		} else if (logger.isDebugEnabled()) {
+			logger.debug(
+					"Query executed with no result sets but with update count {}",
+					stmnt.getUpdateCount());
+		}
+	}
+
+	private void releaseStatement(String sql, PreparedStatement stmnt,
+			final StatementCache statementCache) {
+		final long start = startPhase();
+		if (null != statementCache) {
+			statementCache.giveBack(sql, stmnt);
+			endPhase(sql, ExecutionPhase.CLOSE, start, false);
+			return;
+		}
+		try {
+			stmnt.close();
+			endPhase(sql, ExecutionPhase.CLOSE, start, false);
+		} catch (SQLException e) {
+			endPhase(sql, ExecutionPhase.CLOSE, start, true);
+			logger.warn("Failed to close statement for SQL request: " + sql, e);
+		}
+	}
+
+	private Connection acquire(IJDBCConnectionProvider connectionProvider,
+			String sql) throws SQLException {
+		final long start = startPhase();
+		boolean failed = true;
+		try {
+			final Connection c = Transaction.connectionFor(connectionProvider);
+			failed = false;
+			return c;
+		} finally {
+			endPhase(sql, ExecutionPhase.ACQUIRE, start, failed);
+		}
+	}
+
+	private PreparedStatement prepare(String sql, Connection c,
+			StatementCache statementCache) throws SQLException {
+		final long start = startPhase();
+		boolean failed = true;
+		try {
+			final PreparedStatement stmnt = null != statementCache ? statementCache
+					.borrow(sql) : settings.hasDefaultResultSetType() ? c
+					.prepareStatement(sql) : c.prepareStatement(sql,
+					settings.getResultSetType(),
+					settings.getResultSetConcurrency());
+			failed = false;
+			return stmnt;
+		} finally {
+			endPhase(sql, ExecutionPhase.PREPARE, start, failed);
+		}
+	}
+
+	private void bind(String sql, PreparedStatement stmnt,
+			JDBCArgumentSetter argumentSetter) throws SQLException {
+		final long start = startPhase();
+		boolean failed = true;
+		try {
+			argumentSetter.setArguments(stmnt);
+			failed = false;
+		} finally {
+			endPhase(sql, ExecutionPhase.BIND, start, failed);
+		}
+	}
+
+	private boolean execute(String sql, PreparedStatement stmnt)
+			throws SQLException {
+		final long start = startPhase();
+		boolean failed = true;
+		try {
+			final boolean hasResults = stmnt.execute();
+			failed = false;
+			return hasResults;
+		} finally {
+			endPhase(sql, ExecutionPhase.EXECUTE, start, failed);
+		}
+	}
+
+	private T readResults(String sql, PreparedStatement stmnt,
+			ResultSetReader<T> resultHandler,
+			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
+			Connection c) throws SQLException {
+		if (null == listener) {
+			try (ResultSet rs = stmnt.getResultSet()) {
+				return getResults(resultHandler, resultHandlerReusingC, c, rs);
+			}
+		}
+		final long start = System.nanoTime();
+		boolean failed = true;
+		CountingResultSet counter = null;
+		try {
+			final ResultSet original = stmnt.getResultSet();
+			counter = null != original ? new CountingResultSet(original)
+					: null;
+			try (ResultSet rs = counter) {
+				final T results = getResults(resultHandler,
+						resultHandlerReusingC, c, rs);
+				failed = false;
+				return results;
+			}
+		} finally {
+			endPhase(sql, ExecutionPhase.READ, start, failed);
+			if (null != counter) {
+				rowsRead(sql, counter.getRowCount());
+			}
+		}
+	}
+
+	/**
+	 * The rows of a stream are read as it is consumed, so they are reported
+	 * when it is closed
+	 */
+	private ResultSet countRowsUntilClosed(String sql, ResultSet rs,
+			StreamResources resources) {
+		final long start = System.nanoTime();
+		final CountingResultSet counter = new CountingResultSet(rs);
+		resources.onClose(() -> {
+			endPhase(sql, ExecutionPhase.READ, start, false);
+			rowsRead(sql, counter.getRowCount());
+		});
+		return counter;
+	}
+
+	/**
+	 * @return start time of a phase (0 if no listener needs it)
+	 */
+	private long startPhase() {
+		return null != listener ? System.nanoTime() : 0;
+	}
+
+	private void endPhase(String sql, ExecutionPhase phase, long start,
+			boolean failed) {
+		if (null != listener) {
+			phaseCompleted(sql, phase, System.nanoTime() - start, failed);
+		}
+	}
+
+	/**
+	 * @return start time of a statement execution (0 if no slow query
+	 *         detector needs it)
+	 */
+	private long startTimer() {
+		return null != slowQueries ? System.nanoTime() : 0;
+	}
+
+	private void checkDuration(String sql, JDBCArgumentSetter argumentSetter,
+			long start, boolean failed) {
+		if (null != slowQueries) {
+			try {
+				slowQueries.executed(sql, argumentSetter, System.nanoTime()
+						- start, failed);
+			} catch (RuntimeException e) {
+				logger.warn("Slow query detector failed for SQL request: "
+						+ sql, e);
+			}
+		}
+	}
+
+	private void phaseCompleted(String sql, ExecutionPhase phase,
+			long elapsedNanos, boolean failed) {
+		try {
+			listener.phaseCompleted(sql, phase, elapsedNanos, failed);
+		} catch (RuntimeException e) {
+			logger.warn("Execution listener failed for SQL request: " + sql, e);
+		}
+	}
+
+	private void rowsRead(String sql, long rowCount) {
+		try {
+			listener.rowsRead(sql, rowCount);
+		} catch (RuntimeException e) {
+			logger.warn("Execution listener failed for SQL request: " + sql, e);
+		}
+	}
+
 	private T getResults(ResultSetReader<T> resultHandler,
 			ResultSetReaderReusingConnection<T> resultHandlerReusingC,
 			Connection c, ResultSet rs) throws SQLException {
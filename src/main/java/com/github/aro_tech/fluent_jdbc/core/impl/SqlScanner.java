@@ -0,0 +1,220 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.util.Arrays;
+
+/**
+ * Minimal lexical analysis of SQL text: finds placeholders, keywords and
+ * parentheses while skipping string literals, quoted identifiers,
+ * dollar-quoted strings and comments
+ * 
+ * @author aro_tech
+ *
+ */
+public final class SqlScanner {
+	private static final String[] QUERY_KEYWORDS = { "SELECT", "VALUES",
+			"TABLE", "SHOW", "WITH" };
+	private static final String[] WRITE_KEYWORDS = { "INSERT", "UPDATE",
+			"DELETE", "MERGE", "INTO" };
+
+	private final String sql;
+	private int position = 0;
+
+	private SqlScanner(String sql) {
+		this.sql = sql;
+	}
+
+	/**
+	 * @param sql
+	 * @return positions of the "?" placeholders
+	 */
+	static int[] placeholderPositions(String sql) {
+		int[] positions = new int[8];
+		int count = 0;
+		final SqlScanner scanner = new SqlScanner(sql);
+		int c;
+		while ((c = scanner.nextCodeChar()) >= 0) {
+			if (c == '?') {
+				if (count == positions.length) {
+					positions = Arrays.copyOf(positions, 2 * count);
+				}
+				positions[count++] = scanner.position - 1;
+			}
+		}
+		return Arrays.copyOf(positions, count);
+	}
+
+	/**
+	 * @param sql
+	 * @param keyword
+	 *            upper case word
+	 * @param from
+	 *            position to start from
+	 * @return position of the first occurrence of the keyword as a whole
+	 *         word outside literals and comments, or -1
+	 */
+	static int indexOfKeyword(String sql, String keyword, int from) {
+		final SqlScanner scanner = new SqlScanner(sql);
+		scanner.position = from;
+		int c;
+		while ((c = scanner.nextCodeChar()) >= 0) {
+			final int start = scanner.position - 1;
+			if (Character.toUpperCase(c) == keyword.charAt(0)
+					&& sql.regionMatches(true, start, keyword, 0,
+							keyword.length())
+					&& !isWordChar(sql, start - 1)
+					&& !isWordChar(sql, start + keyword.length())) {
+				return start;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param sql
+	 * @param open
+	 *            position of an opening parenthesis
+	 * @return position of the matching closing parenthesis, or -1
+	 */
+	static int indexOfClosingParenthesis(String sql, int open) {
+		final SqlScanner scanner = new SqlScanner(sql);
+		scanner.position = open + 1;
+		int depth = 1;
+		int c;
+		while ((c = scanner.nextCodeChar()) >= 0) {
+			if (c == '(') {
+				depth++;
+			} else if (c == ')' && --depth == 0) {
+				return scanner.position - 1;
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * @param sql
+	 * @param from
+	 * @return position of the first character which is not white space or
+	 *         part of a comment (sql.length() if none)
+	 */
+	static int skipWhitespace(String sql, int from) {
+		final SqlScanner scanner = new SqlScanner(sql);
+		scanner.position = from;
+		int c;
+		while ((c = scanner.nextCodeChar()) >= 0) {
+			if (!Character.isWhitespace(c)) {
+				return scanner.position - 1;
+			}
+		}
+		return sql.length();
+	}
+
+	/**
+	 * @param sql
+	 * @return true if the statement only reads data: it starts with SELECT,
+	 *         VALUES, TABLE, SHOW or WITH and contains none of INSERT,
+	 *         UPDATE (which includes SELECT ... FOR UPDATE), DELETE, MERGE
+	 *         and INTO
+	 */
+	public static boolean isQuery(String sql) {
+		final int start = skipWhitespace(sql, 0);
+		boolean query = false;
+		for (String keyword : QUERY_KEYWORDS) {
+			if (sql.regionMatches(true, start, keyword, 0, keyword.length())
+					&& !isWordChar(sql, start + keyword.length())) {
+				query = true;
+				break;
+			}
+		}
+		if (!query) {
+			return false;
+		}
+		for (String keyword : WRITE_KEYWORDS) {
+			if (indexOfKeyword(sql, keyword, start) >= 0) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static boolean isWordChar(String sql, int index) {
+		if (index < 0 || index >= sql.length()) {
+			return false;
+		}
+		final char c = sql.charAt(index);
+		return Character.isLetterOrDigit(c) || c == '_' || c == '$';
+	}
+
+	/**
+	 * @return next character outside literals and comments (which are
+	 *         skipped), -1 at the end
+	 */
+	private int nextCodeChar() {
+		while (position < sql.length()) {
+			final char c = sql.charAt(position);
+			if (c == '\'' || c == '"') {
+				skipQuoted(c);
+			} else if (c == '-' && next() == '-') {
+				skipTo("\n");
+			} else if (c == '/' && next() == '*') {
+				skipTo("*/");
+			} else if (c == '$' && startsDollarQuote()) {
+				continue;
+			} else {
+				position++;
+				return c;
+			}
+		}
+		return -1;
+	}
+
+	private char next() {
+		return position + 1 < sql.length() ? sql.charAt(position + 1) : 0;
+	}
+
+	private void skipQuoted(char quote) {
+		position++;
+		while (position < sql.length()) {
+			if (sql.charAt(position++) == quote) {
+				if (position < sql.length() && sql.charAt(position) == quote) {
+					position++; // doubled quote
+				} else {
+					return;
+				}
+			}
+		}
+	}
+
+	private void skipTo(String end) {
+		final int found = sql.indexOf(end, position + 2);
+		position = found < 0 ? sql.length() : found + end.length();
+	}
+
+	/**
+	 * Skip a $tag$...$tag$ string if one starts here
+	 * 
+	 * @return true if one was skipped
+	 */
+	private boolean startsDollarQuote() {
+		if (isWordChar(sql, position - 1)) {
+			return false; // e.g. an identifier containing $
+		}
+		int end = position + 1;
+		while (end < sql.length()
+				&& (Character.isLetterOrDigit(sql.charAt(end)) || sql
+						.charAt(end) == '_')) {
+			end++;
+		}
+		if (end >= sql.length() || sql.charAt(end) != '$'
+				|| (end > position + 1 && Character.isDigit(sql
+						.charAt(position + 1)))) {
+			return false; // not a tag, e.g. a $1 parameter
+		}
+		final String tag = sql.substring(position, end + 1);
+		final int close = sql.indexOf(tag, end + 1);
+		position = close < 0 ? sql.length() : close + tag.length();
+		return true;
+	}
+}
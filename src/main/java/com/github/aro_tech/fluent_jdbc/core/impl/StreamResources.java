@@ -0,0 +1,142 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.impl;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * JDBC objects owned by a lazily read result, released together (once) when
+ * the result is closed or fully read
+ * 
+ * @author aro_tech
+ *
+ */
+class StreamResources implements AutoCloseable {
+	private final Connection connection;
+	private final boolean ownsConnection;
+	private final Consumer<SQLException> errorHandler;
+	private Statement statement;
+	private ResultSet resultSet;
+	private Runnable closeAction;
+	private boolean autoCommitDisabled = false;
+	private boolean failed = false;
+	private boolean closed = false;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param connection
+	 *            connection used to read the results
+	 * @param ownsConnection
+	 *            true if the connection must be closed with the results
+	 * @param errorHandler
+	 *            receives errors raised while releasing resources
+	 */
+	StreamResources(Connection connection, boolean ownsConnection,
+			Consumer<SQLException> errorHandler) {
+		super();
+		this.connection = connection;
+		this.ownsConnection = ownsConnection;
+		this.errorHandler = errorHandler;
+	}
+
+	/**
+	 * PostgreSQL only honours the fetch size (i.e. uses a server-side cursor)
+	 * inside a transaction, so auto-commit is switched off until the results
+	 * are closed. The transaction is then committed, or rolled back if
+	 * reading or releasing the results failed.
+	 * 
+	 * @param fetchSize
+	 *            fetch size which will be used
+	 * @throws SQLException
+	 */
+	void prepareCursor(int fetchSize) throws SQLException {
+		if (fetchSize > 0 && isPostgreSQL(connection)
+				&& connection.getAutoCommit()) {
+			connection.setAutoCommit(false);
+			autoCommitDisabled = true;
+		}
+	}
+
+	static boolean isPostgreSQL(Connection c) throws SQLException {
+		DatabaseMetaData metaData = c.getMetaData();
+		return null != metaData
+				&& "PostgreSQL".equals(metaData.getDatabaseProductName());
+	}
+
+	void setStatement(Statement statement) {
+		this.statement = statement;
+	}
+
+	void setResultSet(ResultSet resultSet) {
+		this.resultSet = resultSet;
+	}
+
+	/**
+	 * Mark the reading as failed, so that the transaction opened by
+	 * prepareCursor() is rolled back instead of committed on close
+	 */
+	void fail() {
+		failed = true;
+	}
+
+	/**
+	 * @param action
+	 *            run once the resources have been released
+	 */
+	void onClose(Runnable action) {
+		this.closeAction = action;
+	}
+
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			if (null != resultSet) {
+				resultSet.close();
+			}
+		} catch (SQLException e) {
+			failed = true;
+			errorHandler.accept(e);
+		}
+		try {
+			if (null != statement) {
+				statement.close();
+			}
+		} catch (SQLException e) {
+			failed = true;
+			errorHandler.accept(e);
+		}
+		try {
+			if (autoCommitDisabled) {
+				if (failed) {
+					connection.rollback();
+				} else {
+					connection.commit();
+				}
+				connection.setAutoCommit(true);
+			}
+		} catch (SQLException e) {
+			errorHandler.accept(e);
+		}
+		try {
+			if (ownsConnection) {
+				connection.close();
+			}
+		} catch (SQLException e) {
+			errorHandler.accept(e);
+		}
+		if (null != closeAction) {
+			closeAction.run();
+		}
+	}
+}
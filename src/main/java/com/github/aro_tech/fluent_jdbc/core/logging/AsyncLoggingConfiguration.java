@@ -0,0 +1,115 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.logging;
+
+/**
+ * Immutable settings for an AsyncSamplingLogger. Each "with" method returns a
+ * modified copy.
+ * 
+ * @author aro_tech
+ *
+ */
+public class AsyncLoggingConfiguration {
+	private final int queueCapacity;
+	private final int sampleRate;
+	private final int maxRepeatsPerSecond;
+
+	private AsyncLoggingConfiguration(int queueCapacity, int sampleRate,
+			int maxRepeatsPerSecond) {
+		super();
+		this.queueCapacity = queueCapacity;
+		this.sampleRate = sampleRate;
+		this.maxRepeatsPerSecond = maxRepeatsPerSecond;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @return configuration with default values: up to 4096 pending messages,
+	 *         every debug and info message kept, at most 10 identical messages
+	 *         per second
+	 */
+	public static AsyncLoggingConfiguration defaults() {
+		return new AsyncLoggingConfiguration(4096, 1, 10);
+	}
+
+	/**
+	 * Specify the number of messages waiting to be written beyond which new
+	 * messages are dropped
+	 * 
+	 * @param capacity
+	 *            maximum number of pending messages (at least 1)
+	 * @return modified configuration
+	 */
+	public AsyncLoggingConfiguration withQueueCapacity(int capacity) {
+		if (capacity < 1) {
+			throw new IllegalArgumentException(
+					"Queue capacity must be at least 1");
+		}
+		return new AsyncLoggingConfiguration(capacity, sampleRate,
+				maxRepeatsPerSecond);
+	}
+
+	/**
+	 * Specify the proportion of debug and info messages written
+	 * 
+	 * @param oneInN
+	 *            1 to write all of them, N to write one message in N (at least
+	 *            1)
+	 * @return modified configuration
+	 */
+	public AsyncLoggingConfiguration withSampleRate(int oneInN) {
+		if (oneInN < 1) {
+			throw new IllegalArgumentException("Sample rate must be at least 1");
+		}
+		return new AsyncLoggingConfiguration(queueCapacity, oneInN,
+				maxRepeatsPerSecond);
+	}
+
+	/**
+	 * Limit how often the same debug or info message is written, such as the
+	 * same SQL request executed in a loop
+	 * 
+	 * @param max
+	 *            maximum number of identical messages written per second, 0
+	 *            for no limit
+	 * @return modified configuration
+	 */
+	public AsyncLoggingConfiguration withMaxRepeatsPerSecond(int max) {
+		if (max < 0) {
+			throw new IllegalArgumentException(
+					"Maximum number of repeats cannot be negative");
+		}
+		return new AsyncLoggingConfiguration(queueCapacity, sampleRate, max);
+	}
+
+	/**
+	 * @return maximum number of pending messages
+	 */
+	public int getQueueCapacity() {
+		return queueCapacity;
+	}
+
+	/**
+	 * @return N when one debug or info message in N is written
+	 */
+	public int getSampleRate() {
+		return sampleRate;
+	}
+
+	/**
+	 * @return maximum number of identical messages written per second, 0 for
+	 *         no limit
+	 */
+	public int getMaxRepeatsPerSecond() {
+		return maxRepeatsPerSecond;
+	}
+
+	@Override
+	public String toString() {
+		return "AsyncLoggingConfiguration [queueCapacity=" + queueCapacity
+				+ ", sampleRate=" + sampleRate + ", maxRepeatsPerSecond="
+				+ maxRepeatsPerSecond + "]";
+	}
+}
@@ -0,0 +1,337 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.logging;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * ILogger decorator which never makes the calling thread wait for the log
+ * output: messages are handed over through a bounded queue to a background
+ * thread, which formats and writes them with the delegate logger.
+ * 
+ * <pre>
+ * AsyncSamplingLogger logger = new AsyncSamplingLogger(new SQLLogger(),
+ * 		AsyncLoggingConfiguration.defaults().withSampleRate(100));
+ * RequestBuilder.returningListOf(Person.class).withLogger(logger)...
+ * </pre>
+ * 
+ * Debug and info messages are sampled (one in N is kept) and rate-limited:
+ * messages with the same template and the same SQL (their last parameter when
+ * it is a String) are written at most a given number of times per second,
+ * and the number of suppressed repeats is reported when the message comes
+ * back in a later second. When the queue is full they are dropped and
+ * counted. Warnings and errors are neither sampled nor limited, and are
+ * written on the calling thread when the queue is full.
+ * 
+ * Parameters which are not immutable values (String, Number, Boolean,
+ * Character, enum, java.time values or Throwable) are turned into text on
+ * the calling thread, since they might change before the message is written.
+ * This only happens for the messages kept after sampling.
+ * 
+ * @author aro_tech
+ *
+ */
+public class AsyncSamplingLogger implements ILogger, AutoCloseable {
+	/**
+	 * Number of distinct messages whose repeats are counted, beyond which the
+	 * counts start over
+	 */
+	private static final int MAX_TRACKED_MESSAGES = 1024;
+
+	private static final LogEvent END = new LogEvent(Level.INFO, "", null,
+			null);
+
+	private final ILogger delegate;
+	private final AsyncLoggingConfiguration configuration;
+	private final BlockingQueue<LogEvent> queue;
+	private final AtomicLong sampleCounter = new AtomicLong();
+	private final ConcurrentMap<String, RepeatWindow> repeats = new ConcurrentHashMap<String, RepeatWindow>();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder suppressed = new LongAdder();
+	private final Thread writer;
+	private volatile boolean closed = false;
+
+	/**
+	 * Constructor using default settings
+	 * 
+	 * @param delegate
+	 *            logger writing the messages
+	 */
+	public AsyncSamplingLogger(ILogger delegate) {
+		this(delegate, AsyncLoggingConfiguration.defaults());
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param delegate
+	 *            logger writing the messages
+	 * @param configuration
+	 *            queue size, sampling and rate limit
+	 */
+	public AsyncSamplingLogger(ILogger delegate,
+			AsyncLoggingConfiguration configuration) {
+		super();
+		this.delegate = delegate;
+		this.configuration = configuration;
+		this.queue = new ArrayBlockingQueue<LogEvent>(
+				configuration.getQueueCapacity());
+		this.writer = new Thread(this::writeMessages, "fluent-jdbc-logger");
+		this.writer.setDaemon(true);
+		this.writer.start();
+	}
+
+	@Override
+	public boolean isDebugEnabled() {
+		return delegate.isDebugEnabled();
+	}
+
+	@Override
+	public boolean isInfoEnabled() {
+		return delegate.isInfoEnabled();
+	}
+
+	@Override
+	public boolean isWarnEnabled() {
+		return delegate.isWarnEnabled();
+	}
+
+	@Override
+	public void debug(String template, Object... parameters) {
+		if (keep(template, parameters)) {
+			enqueue(Level.DEBUG, template, parameters, null);
+		}
+	}
+
+	@Override
+	public void info(String template, Object... parameters) {
+		if (keep(template, parameters)) {
+			enqueue(Level.INFO, template, parameters, null);
+		}
+	}
+
+	@Override
+	public void warn(String template, Object... parameters) {
+		enqueue(Level.WARN, template, parameters, null);
+	}
+
+	@Override
+	public void warn(String message, Throwable throwable) {
+		enqueue(Level.WARN, message, null, throwable);
+	}
+
+	@Override
+	public void error(String message, Throwable throwable) {
+		enqueue(Level.ERROR, message, null, throwable);
+	}
+
+	@Override
+	public void error(String template, Object... parameters) {
+		enqueue(Level.ERROR, template, parameters, null);
+	}
+
+	/**
+	 * @return number of messages dropped because the queue was full
+	 */
+	public long getDroppedCount() {
+		return dropped.sum();
+	}
+
+	/**
+	 * @return number of messages left out by the repeat limit
+	 */
+	public long getSuppressedCount() {
+		return suppressed.sum();
+	}
+
+	/**
+	 * Write the pending messages and stop the background thread. Messages
+	 * logged afterwards are written on the calling thread.
+	 */
+	@Override
+	public void close() {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		try {
+			queue.put(END);
+			writer.join(TimeUnit.SECONDS.toMillis(10));
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private boolean keep(String template, Object[] parameters) {
+		final int sampleRate = configuration.getSampleRate();
+		if (sampleRate > 1
+				&& sampleCounter.getAndIncrement() % sampleRate != 0) {
+			return false;
+		}
+		final int maxRepeats = configuration.getMaxRepeatsPerSecond();
+		if (0 == maxRepeats) {
+			return true;
+		}
+		final String key = repeatKey(template, parameters);
+		RepeatWindow window = repeats.get(key);
+		if (null == window) {
+			if (repeats.size() >= MAX_TRACKED_MESSAGES) {
+				repeats.clear();
+			}
+			window = new RepeatWindow();
+			final RepeatWindow existing = repeats.putIfAbsent(key, window);
+			if (null != existing) {
+				window = existing;
+			}
+		}
+		final long second = TimeUnit.NANOSECONDS.toSeconds(System.nanoTime());
+		final long suppressedBefore;
+		final boolean kept;
+		synchronized (window) {
+			if (window.second != second) {
+				suppressedBefore = window.suppressed;
+				window.second = second;
+				window.count = 0;
+				window.suppressed = 0;
+			} else {
+				suppressedBefore = 0;
+			}
+			kept = window.count < maxRepeats;
+			if (kept) {
+				window.count++;
+			} else {
+				window.suppressed++;
+			}
+		}
+		if (suppressedBefore > 0) {
+			enqueue(Level.INFO, "{} repeats of this message were not logged: {}",
+					new Object[] { suppressedBefore, key }, null);
+		}
+		if (!kept) {
+			suppressed.increment();
+		}
+		return kept;
+	}
+
+	private static String repeatKey(String template, Object[] parameters) {
+		if (null != parameters && parameters.length > 0
+				&& parameters[parameters.length - 1] instanceof String) {
+			return template + '\n' + parameters[parameters.length - 1];
+		}
+		return template;
+	}
+
+	private void enqueue(Level level, String template, Object[] parameters,
+			Throwable throwable) {
+		final LogEvent event = new LogEvent(level, template,
+				snapshot(parameters), throwable);
+		if (closed || !queue.offer(event)) {
+			if (closed || level.compareTo(Level.WARN) >= 0) {
+				write(event);
+			} else {
+				dropped.increment();
+			}
+		}
+	}
+
+	private static Object[] snapshot(Object[] parameters) {
+		if (null == parameters) {
+			return null;
+		}
+		Object[] copy = parameters.clone();
+		for (int i = 0; i < copy.length; i++) {
+			if (!isImmutable(copy[i])) {
+				copy[i] = String.valueOf(copy[i]);
+			}
+		}
+		return copy;
+	}
+
+	private static boolean isImmutable(Object value) {
+		return null == value || value instanceof String
+				|| value instanceof Number || value instanceof Boolean
+				|| value instanceof Character || value instanceof Enum
+				|| value instanceof TemporalAccessor
+				|| value instanceof Throwable;
+	}
+
+	private void writeMessages() {
+		while (true) {
+			final LogEvent event;
+			try {
+				event = queue.take();
+			} catch (InterruptedException e) {
+				return;
+			}
+			if (END == event) {
+				return;
+			}
+			try {
+				write(event);
+			} catch (RuntimeException e) {
+				dropped.increment();
+			}
+		}
+	}
+
+	private void write(LogEvent event) {
+		switch (event.level) {
+		case DEBUG:
+			delegate.debug(event.template, event.parameters);
+			break;
+		case INFO:
+			delegate.info(event.template, event.parameters);
+			break;
+		case WARN:
+			if (null != event.throwable) {
+				delegate.warn(event.template, event.throwable);
+			} else {
+				delegate.warn(event.template, event.parameters);
+			}
+			break;
+		default:
+			if (null != event.throwable) {
+				delegate.error(event.template, event.throwable);
+			} else {
+				delegate.error(event.template, event.parameters);
+			}
+		}
+	}
+
+	private enum Level {
+		DEBUG, INFO, WARN, ERROR
+	}
+
+	private static final class LogEvent {
+		private final Level level;
+		private final String template;
+		private final Object[] parameters;
+		private final Throwable throwable;
+
+		private LogEvent(Level level, String template, Object[] parameters,
+				Throwable throwable) {
+			super();
+			this.level = level;
+			this.template = template;
+			this.parameters = parameters;
+			this.throwable = throwable;
+		}
+	}
+
+	/**
+	 * Count of the writes of one message during the current second
+	 */
+	private static final class RepeatWindow {
+		private long second = Long.MIN_VALUE;
+		private int count = 0;
+		private long suppressed = 0;
+	}
+}
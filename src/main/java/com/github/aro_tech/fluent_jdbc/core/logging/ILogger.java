@@ -8,6 +8,33 @@ package com.github.aro_tech.fluent_jdbc.core.logging;
  *
  */
 public interface ILogger {
+	/**
+	 * Level check, to skip building log parameters nobody will read
+	 * 
+	 * @return true if debug messages are written (default)
+	 */
+	default boolean isDebugEnabled() {
+		return true;
+	}
+
+	/**
+	 * Level check, to skip building log parameters nobody will read
+	 * 
+	 * @return true if info messages are written (default)
+	 */
+	default boolean isInfoEnabled() {
+		return true;
+	}
+
+	/**
+	 * Level check, to skip building log parameters nobody will read
+	 * 
+	 * @return true if warning messages are written (default)
+	 */
+	default boolean isWarnEnabled() {
+		return true;
+	}
+
 	/**
 	 * Conditionally logged message
 	 * @param template message template using "{}" to insert parameters
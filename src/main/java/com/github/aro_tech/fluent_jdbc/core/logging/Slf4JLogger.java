@@ -17,6 +17,21 @@ public class Slf4JLogger implements ILogger {
 		this.logger = LoggerFactory.getLogger(logName);
 	}
 
+	@Override
+	public boolean isDebugEnabled() {
+		return logger.isDebugEnabled();
+	}
+
+	@Override
+	public boolean isInfoEnabled() {
+		return logger.isInfoEnabled();
+	}
+
+	@Override
+	public boolean isWarnEnabled() {
+		return logger.isWarnEnabled();
+	}
+
 	@Override
 	public void debug(String template, Object... parameters) {
 		logger.debug(template, parameters);
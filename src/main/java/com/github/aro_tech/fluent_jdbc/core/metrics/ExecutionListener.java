@@ -0,0 +1,42 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+/**
+ * Receives the duration of each phase of the execution of SQL requests (see
+ * RequestBuilder.withExecutionListener()). Listeners are called on the
+ * threads running the requests, so they must be thread-safe and return
+ * quickly. Exceptions they throw are logged and otherwise ignored.
+ * 
+ * @author aro_tech
+ *
+ */
+@FunctionalInterface
+public interface ExecutionListener {
+	/**
+	 * Called after each phase of a request
+	 * 
+	 * @param sql
+	 *            SQL text of the request, as sent to the database
+	 * @param phase
+	 *            the completed phase
+	 * @param elapsedNanos
+	 *            duration of the phase in nanoseconds
+	 * @param failed
+	 *            true if the phase ended with an SQLException
+	 */
+	void phaseCompleted(String sql, ExecutionPhase phase, long elapsedNanos,
+			boolean failed);
+
+	/**
+	 * Called after the results of a query have been read
+	 * 
+	 * @param sql
+	 *            SQL text of the request
+	 * @param rowCount
+	 *            number of rows read from the result set
+	 */
+	default void rowsRead(String sql, long rowCount) {
+	}
+}
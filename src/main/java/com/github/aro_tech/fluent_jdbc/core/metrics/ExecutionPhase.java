@@ -0,0 +1,39 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+/**
+ * Steps of the execution of an SQL request, reported to an
+ * ExecutionListener
+ * 
+ * @author aro_tech
+ *
+ */
+public enum ExecutionPhase {
+	/**
+	 * Getting a connection from the connection provider (or the current
+	 * transaction)
+	 */
+	ACQUIRE,
+	/**
+	 * Preparing the statement, or borrowing it from a statement cache
+	 */
+	PREPARE,
+	/**
+	 * Setting the parameters of the statement (all parameter sets of a batch)
+	 */
+	BIND,
+	/**
+	 * Executing the statement, up to the first results
+	 */
+	EXECUTE,
+	/**
+	 * Reading the results and converting the rows
+	 */
+	READ,
+	/**
+	 * Releasing the statement (to its cache, or closing it)
+	 */
+	CLOSE
+}
@@ -0,0 +1,95 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Immutable copy of a LatencyHistogram
+ * 
+ * @author aro_tech
+ *
+ */
+public final class LatencySnapshot {
+	private final long[] counts;
+	private final long count;
+	private final long total;
+	private final long max;
+
+	LatencySnapshot(long[] counts, long total, long max) {
+		long sum = 0;
+		for (long c : counts) {
+			sum += c;
+		}
+		this.counts = counts;
+		this.count = sum;
+		this.total = total;
+		this.max = max;
+	}
+
+	/**
+	 * @return number of values recorded
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @return highest value recorded, in nanoseconds
+	 */
+	public long getMax() {
+		return max;
+	}
+
+	/**
+	 * @return average value, in nanoseconds (0 if no values)
+	 */
+	public double getMean() {
+		return count == 0 ? 0 : (double) total / count;
+	}
+
+	/**
+	 * @param percent
+	 *            percentage of the values (e.g. 99 for the 99th percentile)
+	 * @return value under which this percentage of the values were recorded,
+	 *         in nanoseconds (rounded up to its bucket, at most 12.5% more;
+	 *         0 if no values)
+	 */
+	public long getPercentile(double percent) {
+		if (percent < 0 || percent > 100) {
+			throw new IllegalArgumentException(
+					"Percentile must be between 0 and 100");
+		}
+		if (count == 0) {
+			return 0;
+		}
+		final long rank = Math.max(1, (long) Math.ceil(count * percent / 100));
+		long seen = 0;
+		for (int i = 0; i < counts.length; i++) {
+			seen += counts[i];
+			if (seen >= rank) {
+				return Math.min(LatencyHistogram.upperBoundOf(i), max);
+			}
+		}
+		return max;
+	}
+
+	/**
+	 * @param percent
+	 *            see getPercentile()
+	 * @param unit
+	 *            unit of the result
+	 * @return the percentile in the given unit
+	 */
+	public long getPercentile(double percent, TimeUnit unit) {
+		return unit.convert(getPercentile(percent), TimeUnit.NANOSECONDS);
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + count + ", mean=" + (long) getMean() + "ns, p50="
+				+ getPercentile(50) + "ns, p99=" + getPercentile(99)
+				+ "ns, max=" + max + "ns";
+	}
+}
@@ -0,0 +1,122 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * ExecutionListener keeping latency histograms and row counts per SQL
+ * statement, to be shared by the requests to monitor:
+ * 
+ * <pre>
+ * MetricsListener metrics = new MetricsListener();
+ * RequestBuilder.returningListOf(Person.class).withExecutionListener(metrics)...
+ * metrics.getMetrics(sql).getLatencies(ExecutionPhase.EXECUTE).getPercentile(99);
+ * </pre>
+ * 
+ * Recording never blocks: the histograms are atomic counters, read through
+ * snapshots. The number of statements tracked separately is bounded; the
+ * executions of statements beyond that limit are recorded together under
+ * OTHER_STATEMENTS.
+ * 
+ * @author aro_tech
+ *
+ */
+public class MetricsListener implements ExecutionListener {
+	/**
+	 * Number of statements tracked separately by default
+	 */
+	public static final int DEFAULT_MAX_STATEMENTS = 1000;
+
+	/**
+	 * SQL under which the executions of untracked statements are recorded
+	 */
+	public static final String OTHER_STATEMENTS = "(other statements)";
+
+	private final int maxStatements;
+	private final ConcurrentMap<String, StatementMetrics> metricsBySql = new ConcurrentHashMap<String, StatementMetrics>();
+	private volatile StatementMetrics otherStatements = new StatementMetrics(
+			OTHER_STATEMENTS);
+
+	/**
+	 * Constructor tracking up to DEFAULT_MAX_STATEMENTS statements
+	 */
+	public MetricsListener() {
+		this(DEFAULT_MAX_STATEMENTS);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxStatements
+	 *            number of statements tracked separately
+	 */
+	public MetricsListener(int maxStatements) {
+		super();
+		if (maxStatements < 0) {
+			throw new IllegalArgumentException(
+					"Maximum number of statements cannot be negative");
+		}
+		this.maxStatements = maxStatements;
+	}
+
+	@Override
+	public void phaseCompleted(String sql, ExecutionPhase phase,
+			long elapsedNanos, boolean failed) {
+		metricsFor(sql).record(phase, elapsedNanos, failed);
+	}
+
+	@Override
+	public void rowsRead(String sql, long rowCount) {
+		metricsFor(sql).addRows(rowCount);
+	}
+
+	private StatementMetrics metricsFor(String sql) {
+		StatementMetrics metrics = metricsBySql.get(sql);
+		if (null != metrics) {
+			return metrics;
+		}
+		if (null == sql || metricsBySql.size() >= maxStatements) {
+			return otherStatements;
+		}
+		metrics = new StatementMetrics(sql);
+		final StatementMetrics existing = metricsBySql.putIfAbsent(sql,
+				metrics);
+		return null != existing ? existing : metrics;
+	}
+
+	/**
+	 * @param sql
+	 *            SQL text of a statement
+	 * @return its metrics (null if it was never executed or is not tracked
+	 *         separately)
+	 */
+	public StatementMetrics getMetrics(String sql) {
+		return OTHER_STATEMENTS.equals(sql) ? otherStatements : metricsBySql
+				.get(sql);
+	}
+
+	/**
+	 * @return metrics of all the statements executed, including
+	 *         OTHER_STATEMENTS
+	 */
+	public Collection<StatementMetrics> getAllMetrics() {
+		final Collection<StatementMetrics> all = new ArrayList<StatementMetrics>(
+				metricsBySql.values());
+		all.add(otherStatements);
+		return Collections.unmodifiableCollection(all);
+	}
+
+	/**
+	 * Forget the metrics collected so far
+	 */
+	public void reset() {
+		metricsBySql.clear();
+		otherStatements = new StatementMetrics(OTHER_STATEMENTS);
+	}
+}
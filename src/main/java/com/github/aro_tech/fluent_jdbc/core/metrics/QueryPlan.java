@@ -0,0 +1,62 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.time.Instant;
+
+/**
+ * Execution plan of a slow statement, as returned by EXPLAIN (FORMAT JSON)
+ * 
+ * @author aro_tech
+ *
+ */
+public final class QueryPlan {
+	private final String sql;
+	private final String parameters;
+	private final String plan;
+	private final Instant capturedAt;
+
+	QueryPlan(String sql, String parameters, String plan, Instant capturedAt) {
+		super();
+		this.sql = sql;
+		this.parameters = parameters;
+		this.plan = plan;
+		this.capturedAt = capturedAt;
+	}
+
+	/**
+	 * @return SQL text of the statement, with its parameter markers
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return description of the parameter values the plan was computed for
+	 *         (null if unknown)
+	 */
+	public String getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return plan in JSON format
+	 */
+	public String getPlan() {
+		return plan;
+	}
+
+	/**
+	 * @return time the plan was computed
+	 */
+	public Instant getCapturedAt() {
+		return capturedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryPlan [sql=" + sql + ", parameters=" + parameters
+				+ ", capturedAt=" + capturedAt + ", plan=" + plan + "]";
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Execution of an SQL statement which took longer than the threshold of a
+ * SlowQueryDetector
+ * 
+ * @author aro_tech
+ *
+ */
+public final class SlowQuery {
+	private final String sql;
+	private final String parameters;
+	private final long elapsedNanos;
+	private final boolean failed;
+	private final Instant finishedAt;
+
+	SlowQuery(String sql, String parameters, long elapsedNanos,
+			boolean failed, Instant finishedAt) {
+		super();
+		this.sql = sql;
+		this.parameters = parameters;
+		this.elapsedNanos = elapsedNanos;
+		this.failed = failed;
+		this.finishedAt = finishedAt;
+	}
+
+	/**
+	 * @return SQL text of the statement, with its parameter markers
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @return description of the parameter values (null if the arguments were
+	 *         not set by a ParameterBuffer, e.g. by a custom
+	 *         JDBCArgumentSetter)
+	 */
+	public String getParameters() {
+		return parameters;
+	}
+
+	/**
+	 * @return duration of the execution and of the reading of the results
+	 *         (execution only for streams), in nanoseconds
+	 */
+	public long getElapsedNanos() {
+		return elapsedNanos;
+	}
+
+	/**
+	 * @param unit
+	 *            unit of the result
+	 * @return duration of the execution and of the reading of the results
+	 */
+	public long getElapsed(TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * @return true if the execution ended with an SQLException
+	 */
+	public boolean isFailed() {
+		return failed;
+	}
+
+	/**
+	 * @return end of the execution
+	 */
+	public Instant getFinishedAt() {
+		return finishedAt;
+	}
+
+	@Override
+	public String toString() {
+		return "SlowQuery [sql=" + sql + ", parameters=" + parameters
+				+ ", elapsedMillis="
+				+ TimeUnit.NANOSECONDS.toMillis(elapsedNanos) + ", failed="
+				+ failed + ", finishedAt=" + finishedAt + "]";
+	}
+}
@@ -0,0 +1,316 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+
+/**
+ * Records the SQL executions slower than a threshold, to be shared by the
+ * requests to monitor:
+ * 
+ * <pre>
+ * SlowQueryDetector slowQueries = new SlowQueryDetector(200,
+ * 		TimeUnit.MILLISECONDS, 100, connectionProvider, 60000);
+ * RequestBuilder.returningListOf(Person.class).withSlowQueryDetector(slowQueries)...
+ * slowQueries.getSlowQueries(); slowQueries.getPlan(sql);
+ * </pre>
+ * 
+ * The last slow executions are kept in a fixed-size ring buffer, with their
+ * parameters and duration (execution and reading of the results). When a
+ * connection provider is given, the plan of a slow statement is computed by
+ * EXPLAIN (FORMAT JSON) on a background thread, with the parameters of the
+ * slow execution, at most once per statement per interval. Nothing is done
+ * on the calling thread beyond a clock read for fast executions; plans which
+ * cannot be computed right away (the background thread being busy) are
+ * skipped, as are executions with parameters read from a stream or a Reader,
+ * which can only be bound once, and executions whose parameters are bound by
+ * argument setters other than ParameterBuffers (e.g. lambdas), which cannot
+ * be checked.
+ * 
+ * EXPLAIN without ANALYZE does not run the statement, so writes are not
+ * repeated. The syntax is PostgreSQL's: with other databases plans cannot be
+ * captured and the failures are logged.
+ * 
+ * @author aro_tech
+ *
+ */
+public class SlowQueryDetector implements AutoCloseable {
+	/**
+	 * Number of slow executions kept by default
+	 */
+	public static final int DEFAULT_CAPACITY = 100;
+
+	/**
+	 * Number of statements whose plans are kept, beyond which the plans start
+	 * over
+	 */
+	private static final int MAX_PLANS = 1000;
+
+	/**
+	 * Number of plans waiting to be computed, beyond which slow statements are
+	 * not explained
+	 */
+	private static final int MAX_PENDING_EXPLAINS = 16;
+
+	private final ILogger logger;
+	private final long thresholdNanos;
+	private final AtomicReferenceArray<SlowQuery> slowQueries;
+	private final AtomicLong recordedCount = new AtomicLong();
+	private final IJDBCConnectionProvider explainConnections;
+	private final long explainIntervalNanos;
+	private final ThreadPoolExecutor explainer;
+	private final ConcurrentMap<String, Long> lastExplainBySql = new ConcurrentHashMap<String, Long>();
+	private final ConcurrentMap<String, QueryPlan> plansBySql = new ConcurrentHashMap<String, QueryPlan>();
+
+	/**
+	 * Constructor without plan capture, keeping the last DEFAULT_CAPACITY slow
+	 * executions
+	 * 
+	 * @param threshold
+	 *            duration beyond which an execution is recorded
+	 * @param unit
+	 *            unit of the threshold
+	 */
+	public SlowQueryDetector(long threshold, TimeUnit unit) {
+		this(threshold, unit, DEFAULT_CAPACITY, null, 0);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param threshold
+	 *            duration beyond which an execution is recorded
+	 * @param unit
+	 *            unit of the threshold
+	 * @param capacity
+	 *            number of slow executions kept (at least 1)
+	 * @param explainConnections
+	 *            provider of the connections running EXPLAIN (null to capture
+	 *            no plans)
+	 * @param explainIntervalMillis
+	 *            minimum delay between two plan captures of the same statement
+	 */
+	public SlowQueryDetector(long threshold, TimeUnit unit, int capacity,
+			IJDBCConnectionProvider explainConnections,
+			long explainIntervalMillis) {
+		this(threshold, unit, capacity, explainConnections,
+				explainIntervalMillis, null);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param threshold
+	 *            duration beyond which an execution is recorded
+	 * @param unit
+	 *            unit of the threshold
+	 * @param capacity
+	 *            number of slow executions kept (at least 1)
+	 * @param explainConnections
+	 *            provider of the connections running EXPLAIN (null to capture
+	 *            no plans)
+	 * @param explainIntervalMillis
+	 *            minimum delay between two plan captures of the same statement
+	 * @param logger
+	 *            logger of the plan capture failures (null for an SQLLogger)
+	 */
+	public SlowQueryDetector(long threshold, TimeUnit unit, int capacity,
+			IJDBCConnectionProvider explainConnections,
+			long explainIntervalMillis, ILogger logger) {
+		super();
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be at least 1");
+		}
+		this.logger = null != logger ? logger : new SQLLogger();
+		this.thresholdNanos = unit.toNanos(threshold);
+		this.slowQueries = new AtomicReferenceArray<SlowQuery>(capacity);
+		this.explainConnections = explainConnections;
+		this.explainIntervalNanos = TimeUnit.MILLISECONDS
+				.toNanos(explainIntervalMillis);
+		if (null != explainConnections) {
+			this.explainer = new ThreadPoolExecutor(1, 1, 0L,
+					TimeUnit.MILLISECONDS, new ArrayBlockingQueue<Runnable>(
+							MAX_PENDING_EXPLAINS), r -> {
+						Thread t = new Thread(r, "fluent-jdbc-explain");
+						t.setDaemon(true);
+						return t;
+					}, new ThreadPoolExecutor.DiscardPolicy());
+		} else {
+			this.explainer = null;
+		}
+	}
+
+	/**
+	 * @param elapsedNanos
+	 *            duration of an execution
+	 * @return true if it is slow enough to be recorded
+	 */
+	public boolean isSlow(long elapsedNanos) {
+		return elapsedNanos >= thresholdNanos;
+	}
+
+	/**
+	 * Record an execution if it is slower than the threshold (called by
+	 * SQLExecutor)
+	 * 
+	 * @param sql
+	 *            SQL text of the statement
+	 * @param arguments
+	 *            arguments of the execution (may be null)
+	 * @param elapsedNanos
+	 *            duration of the execution and of the reading of its results
+	 * @param failed
+	 *            true if the execution ended with an SQLException
+	 */
+	public void executed(String sql, JDBCArgumentSetter arguments,
+			long elapsedNanos, boolean failed) {
+		if (!isSlow(elapsedNanos)) {
+			return;
+		}
+		final boolean described = arguments instanceof ParameterBuffer;
+		final String parameters = described ? arguments.toString() : null;
+		final long index = recordedCount.getAndIncrement();
+		slowQueries.set((int) (index % slowQueries.length()), new SlowQuery(
+				sql, parameters, elapsedNanos, failed, Instant.now()));
+		// other argument setters (e.g. lambdas) may read streams or not be
+		// thread-safe, so only buffers known to be replayable are explained
+		if (null != explainer
+				&& (null == arguments || described
+						&& ((ParameterBuffer) arguments).isReplayable())
+				&& dueForExplain(sql)) {
+			// the buffer may be reused by the calling thread
+			final JDBCArgumentSetter explainArguments = described ? ((ParameterBuffer) arguments)
+					.copy() : arguments;
+			explainer.execute(() -> explain(sql, explainArguments, parameters));
+		}
+	}
+
+	private boolean dueForExplain(String sql) {
+		final long now = System.nanoTime();
+		final Long last = lastExplainBySql.get(sql);
+		if (null == last) {
+			if (lastExplainBySql.size() >= MAX_PLANS) {
+				lastExplainBySql.clear();
+			}
+			return null == lastExplainBySql.putIfAbsent(sql, now);
+		}
+		return now - last >= explainIntervalNanos
+				&& lastExplainBySql.replace(sql, last, now);
+	}
+
+	private void explain(String sql, JDBCArgumentSetter arguments,
+			String parameters) {
+		try (Connection c = explainConnections.getConnection();
+				PreparedStatement stmnt = c
+						.prepareStatement("EXPLAIN (FORMAT JSON) " + sql)) {
+			if (null != arguments) {
+				arguments.setArguments(stmnt);
+			}
+			final StringBuilder plan = new StringBuilder();
+			try (ResultSet rs = stmnt.executeQuery()) {
+				while (rs.next()) {
+					plan.append(rs.getString(1));
+				}
+			}
+			if (plansBySql.size() >= MAX_PLANS && !plansBySql.containsKey(sql)) {
+				plansBySql.clear();
+			}
+			plansBySql.put(sql, new QueryPlan(sql, parameters, plan.toString(),
+					Instant.now()));
+		} catch (SQLException | RuntimeException e) {
+			logger.warn("Failed to capture the plan of SQL request: " + sql, e);
+		}
+	}
+
+	/**
+	 * @return threshold in nanoseconds
+	 */
+	public long getThresholdNanos() {
+		return thresholdNanos;
+	}
+
+	/**
+	 * @return number of slow executions recorded since the creation (or the
+	 *         last reset), including those no longer kept
+	 */
+	public long getSlowQueryCount() {
+		return recordedCount.get();
+	}
+
+	/**
+	 * @return the slow executions kept, oldest first
+	 */
+	public List<SlowQuery> getSlowQueries() {
+		final int capacity = slowQueries.length();
+		final long end = recordedCount.get();
+		final long start = Math.max(0, end - capacity);
+		final List<SlowQuery> result = new ArrayList<SlowQuery>(
+				(int) (end - start));
+		for (long i = start; i < end; i++) {
+			final SlowQuery q = slowQueries.get((int) (i % capacity));
+			if (null != q) {
+				result.add(q);
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @param sql
+	 *            SQL text of a statement
+	 * @return last plan captured for this statement (null if none)
+	 */
+	public QueryPlan getPlan(String sql) {
+		return plansBySql.get(sql);
+	}
+
+	/**
+	 * @return last plan captured for each statement
+	 */
+	public Collection<QueryPlan> getPlans() {
+		return new ArrayList<QueryPlan>(plansBySql.values());
+	}
+
+	/**
+	 * Forget the slow executions and plans recorded so far
+	 */
+	public void reset() {
+		for (int i = 0; i < slowQueries.length(); i++) {
+			slowQueries.set(i, null);
+		}
+		recordedCount.set(0);
+		lastExplainBySql.clear();
+		plansBySql.clear();
+	}
+
+	/**
+	 * Stop the background thread capturing plans
+	 */
+	@Override
+	public void close() {
+		if (null != explainer) {
+			explainer.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latencies, row and error counts of the executions of one SQL statement, as
+ * collected by a MetricsListener
+ * 
+ * @author aro_tech
+ *
+ */
+public final class StatementMetrics {
+	private static final ExecutionPhase[] PHASES = ExecutionPhase.values();
+
+	private final String sql;
+	private final LatencyHistogram[] latencies = new LatencyHistogram[PHASES.length];
+	private final LongAdder executions = new LongAdder();
+	private final LongAdder rows = new LongAdder();
+	private final LongAdder errors = new LongAdder();
+
+	StatementMetrics(String sql) {
+		this.sql = sql;
+		for (int i = 0; i < latencies.length; i++) {
+			latencies[i] = new LatencyHistogram();
+		}
+	}
+
+	void record(ExecutionPhase phase, long elapsedNanos, boolean failed) {
+		latencies[phase.ordinal()].record(elapsedNanos);
+		if (phase == ExecutionPhase.EXECUTE) {
+			executions.increment();
+		}
+		if (failed) {
+			errors.increment();
+		}
+	}
+
+	void addRows(long rowCount) {
+		rows.add(rowCount);
+	}
+
+	/**
+	 * @return SQL text of the statement
+	 */
+	public String getSql() {
+		return sql;
+	}
+
+	/**
+	 * @param phase
+	 * @return snapshot of the durations of this phase
+	 */
+	public LatencySnapshot getLatencies(ExecutionPhase phase) {
+		return latencies[phase.ordinal()].snapshot();
+	}
+
+	/**
+	 * @return number of executions of the statement
+	 */
+	public long getExecutionCount() {
+		return executions.sum();
+	}
+
+	/**
+	 * @return number of rows read from the results of the statement
+	 */
+	public long getRowCount() {
+		return rows.sum();
+	}
+
+	/**
+	 * @return number of phases which ended with an SQLException
+	 */
+	public long getErrorCount() {
+		return errors.sum();
+	}
+
+	@Override
+	public String toString() {
+		return "execute: " + getLatencies(ExecutionPhase.EXECUTE) + ", rows="
+				+ getRowCount() + ", errors=" + getErrorCount() + ": " + sql;
+	}
+}
@@ -0,0 +1,252 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArrayParameter;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCache;
+import com.github.aro_tech.fluent_jdbc.core.connection.Transaction;
+
+/**
+ * Loads the child rows of many parent rows with one query instead of one
+ * query per parent row. Reader code (typically a
+ * ResultSetReaderReusingConnection) registers the key of each parent row
+ * while reading the parent results, then calls load() once to get the child
+ * rows of all the keys, grouped by key:
+ * 
+ * <pre>
+ * BatchLoader&lt;Long, Address&gt; addresses = BatchLoader.of(
+ * 		&quot;SELECT person_id, street, city FROM address WHERE person_id = ANY(?)&quot;,
+ * 		rs -&gt; rs.getLong(1), rs -&gt; new Address(rs.getString(2), rs.getString(3)));
+ * while (rs.next()) {
+ * 	people.add(new Person(rs.getLong(&quot;id&quot;), rs.getString(&quot;name&quot;)));
+ * 	addresses.register(rs.getLong(&quot;id&quot;));
+ * }
+ * Map&lt;Long, List&lt;Address&gt;&gt; addressesByPerson = addresses.load(c);
+ * </pre>
+ * 
+ * The SQL has a single parameter, bound to an SQL array of keys (e.g. in
+ * "WHERE key = ANY(?)" for PostgreSQL), and each row it returns must include
+ * the key it belongs to. Many keys are sent in chunks, one query per chunk.
+ * 
+ * A loader is not thread-safe; create one per request.
+ * 
+ * @author aro_tech
+ *
+ * @param <K>
+ *            key type
+ * @param <V>
+ *            child row type
+ */
+public final class BatchLoader<K, V> {
+	/**
+	 * Maximum number of keys sent in one query by default
+	 */
+	public static final int DEFAULT_CHUNK_SIZE = 1000;
+
+	private final String sql;
+	private final String arrayType;
+	private final RowMapper<K> keyReader;
+	private final RowMapper<V> rowMapper;
+	private final int chunkSize;
+	private final Set<K> keys = new LinkedHashSet<K>();
+
+	private BatchLoader(String sql, String arrayType, RowMapper<K> keyReader,
+			RowMapper<V> rowMapper, int chunkSize) {
+		if (chunkSize < 1) {
+			throw new IllegalArgumentException("Chunk size must be at least 1");
+		}
+		this.sql = sql;
+		this.arrayType = arrayType;
+		this.keyReader = keyReader;
+		this.rowMapper = rowMapper;
+		this.chunkSize = chunkSize;
+	}
+
+	/**
+	 * Static factory for keys of a common type (Integer, Long, String, UUID,
+	 * etc.; see ArrayParameter.typeNameOf()), whose SQL array type is deduced
+	 * from the keys
+	 * 
+	 * @param sql
+	 *            query with one parameter for the array of keys
+	 * @param keyReader
+	 *            reads the key of the parent from a child row
+	 * @param rowMapper
+	 *            converts a child row
+	 * @return loader with no keys registered
+	 */
+	public static <K, V> BatchLoader<K, V> of(String sql,
+			RowMapper<K> keyReader, RowMapper<V> rowMapper) {
+		return new BatchLoader<K, V>(sql, null, keyReader, rowMapper,
+				DEFAULT_CHUNK_SIZE);
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @param sql
+	 *            query with one parameter for the array of keys
+	 * @param arrayType
+	 *            SQL type name of the keys (as for
+	 *            Connection.createArrayOf(), e.g. "bigint")
+	 * @param keyReader
+	 *            reads the key of the parent from a child row
+	 * @param rowMapper
+	 *            converts a child row
+	 * @param chunkSize
+	 *            maximum number of keys per query
+	 * @return loader with no keys registered
+	 */
+	public static <K, V> BatchLoader<K, V> of(String sql, String arrayType,
+			RowMapper<K> keyReader, RowMapper<V> rowMapper, int chunkSize) {
+		return new BatchLoader<K, V>(sql, arrayType, keyReader, rowMapper,
+				chunkSize);
+	}
+
+	/**
+	 * Register the key of a parent row (duplicates and nulls are ignored)
+	 * 
+	 * @param key
+	 * @return this loader
+	 */
+	public BatchLoader<K, V> register(K key) {
+		if (null != key) {
+			keys.add(key);
+		}
+		return this;
+	}
+
+	/**
+	 * Register the keys of several parent rows
+	 * 
+	 * @param keysToLoad
+	 * @return this loader
+	 */
+	public BatchLoader<K, V> registerAll(Collection<? extends K> keysToLoad) {
+		for (K key : keysToLoad) {
+			register(key);
+		}
+		return this;
+	}
+
+	/**
+	 * @return number of keys registered since the last load
+	 */
+	public int size() {
+		return keys.size();
+	}
+
+	/**
+	 * Load the child rows of the registered keys with a connection of the
+	 * provider (or the connection of the current Transaction)
+	 * 
+	 * @param connectionProvider
+	 * @return child rows by key, see load(Connection)
+	 * @throws SQLException
+	 */
+	public Map<K, List<V>> load(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		if (keys.isEmpty()) {
+			return new LinkedHashMap<K, List<V>>();
+		}
+		try (Connection c = Transaction.connectionFor(connectionProvider)) {
+			return load(c);
+		}
+	}
+
+	/**
+	 * Load the child rows of the registered keys, then forget the keys so
+	 * the loader can be reused
+	 * 
+	 * @param c
+	 *            open connection (e.g. the one passed to a
+	 *            ResultSetReaderReusingConnection)
+	 * @return child rows by key, in the order the keys were registered (keys
+	 *         without child rows are mapped to an empty list)
+	 * @throws SQLException
+	 */
+	public Map<K, List<V>> load(Connection c) throws SQLException {
+		final Map<K, List<V>> rowsByKey = new LinkedHashMap<K, List<V>>(
+				keys.size() * 4 / 3 + 1);
+		if (keys.isEmpty()) {
+			return rowsByKey;
+		}
+		for (K key : keys) {
+			rowsByKey.put(key, new ArrayList<V>());
+		}
+		final Object[] allKeys = keys.toArray();
+		keys.clear();
+		final String type = null != arrayType ? arrayType
+				: arrayTypeOf(allKeys[0]);
+		final StatementCache statementCache = StatementCache.of(c);
+		final PreparedStatement stmnt = null != statementCache ? statementCache
+				.borrow(sql) : c.prepareStatement(sql);
+		try {
+			for (int from = 0; from < allKeys.length; from += chunkSize) {
+				final Object[] chunk = allKeys.length <= chunkSize ? allKeys
+						: Arrays.copyOfRange(allKeys, from,
+								Math.min(allKeys.length, from + chunkSize));
+				loadChunk(c, stmnt, type, chunk, rowsByKey);
+			}
+		} finally {
+			if (null != statementCache) {
+				statementCache.giveBack(sql, stmnt);
+			} else {
+				stmnt.close();
+			}
+		}
+		return rowsByKey;
+	}
+
+	private void loadChunk(Connection c, PreparedStatement stmnt,
+			String type, Object[] chunk, Map<K, List<V>> rowsByKey)
+			throws SQLException {
+		final Array array = c.createArrayOf(type, chunk);
+		try {
+			stmnt.setArray(1, array);
+			try (ResultSet rs = stmnt.executeQuery()) {
+				while (rs.next()) {
+					final K key = keyReader.mapRow(rs);
+					List<V> rows = rowsByKey.get(key);
+					if (null == rows) {
+						rows = new ArrayList<V>();
+						rowsByKey.put(key, rows);
+					}
+					rows.add(rowMapper.mapRow(rs));
+				}
+			}
+		} finally {
+			try {
+				array.free();
+			} catch (SQLException e) {
+				// released with the statement anyway
+			}
+		}
+	}
+
+	private static String arrayTypeOf(Object key) throws SQLException {
+		final String typeName = ArrayParameter.typeNameOf(key);
+		if (null == typeName) {
+			throw new SQLException("Cannot deduce the SQL array type of keys of "
+					+ key.getClass().getName()
+					+ ": specify it when creating the BatchLoader");
+		}
+		return typeName;
+	}
+}
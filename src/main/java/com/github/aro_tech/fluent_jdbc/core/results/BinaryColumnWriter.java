@@ -0,0 +1,188 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Copies binary column values (bytea, BLOB / PostgreSQL large objects) to a
+ * channel, e.g. a FileChannel or a socket, in chunks through one reusable
+ * direct buffer:
+ * 
+ * <pre>
+ * BinaryColumnWriter writer = new BinaryColumnWriter();
+ * try (FileChannel file = FileChannel.open(path, CREATE, WRITE)) {
+ * 	RequestBuilder.returning(Long.class).withConnectionProvider(connectionProvider)
+ * 			.withSQL("SELECT content FROM attachment WHERE id = ?").addParam(id)
+ * 			.withResultReader(writer.reader(1, file)).execute();
+ * }
+ * </pre>
+ * 
+ * Values are read into the direct buffer through a channel over the driver's
+ * stream, and a direct buffer is written to a FileChannel without the
+ * intermediate copy made for heap buffers. BLOB values are streamed from the database as they
+ * are copied (with PostgreSQL, large objects must be read in a transaction);
+ * bytea values are received with their row by the driver.
+ * 
+ * A writer is not thread-safe: use one per thread.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class BinaryColumnWriter {
+	/**
+	 * Size of the buffer by default
+	 */
+	public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+	private final ByteBuffer buffer;
+
+	/**
+	 * Constructor with a buffer of DEFAULT_BUFFER_SIZE bytes
+	 */
+	public BinaryColumnWriter() {
+		this(DEFAULT_BUFFER_SIZE);
+	}
+
+	/**
+	 * Constructor
+	 * 
+	 * @param bufferSize
+	 *            number of bytes copied at a time (at least 1)
+	 */
+	public BinaryColumnWriter(int bufferSize) {
+		super();
+		if (bufferSize < 1) {
+			throw new IllegalArgumentException(
+					"Buffer size must be at least 1");
+		}
+		this.buffer = ByteBuffer.allocateDirect(bufferSize);
+	}
+
+	/**
+	 * Copy the value of a binary column (e.g. bytea) of the current row
+	 * 
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param out
+	 *            destination
+	 * @return number of bytes copied, -1 if NULL
+	 * @throws SQLException
+	 *             if the value cannot be read or written
+	 */
+	public long copy(ResultSet rs, int column, WritableByteChannel out)
+			throws SQLException {
+		final InputStream in = rs.getBinaryStream(column);
+		if (null == in) {
+			return -1L;
+		}
+		try {
+			return copy(in, out);
+		} catch (IOException e) {
+			throw new SQLException("Failed to copy binary column " + column, e);
+		}
+	}
+
+	/**
+	 * Copy the value of a BLOB column (with PostgreSQL, an oid column
+	 * referencing a large object) of the current row
+	 * 
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param out
+	 *            destination
+	 * @return number of bytes copied, -1 if NULL
+	 * @throws SQLException
+	 *             if the value cannot be read or written
+	 */
+	public long copyBlob(ResultSet rs, int column, WritableByteChannel out)
+			throws SQLException {
+		final Blob blob = rs.getBlob(column);
+		if (null == blob) {
+			return -1L;
+		}
+		try (InputStream in = blob.getBinaryStream()) {
+			return copy(in, out);
+		} catch (IOException e) {
+			throw new SQLException("Failed to copy BLOB column " + column, e);
+		} finally {
+			blob.free();
+		}
+	}
+
+	/**
+	 * Copy a stream to a channel through the buffer
+	 * 
+	 * @param in
+	 *            source, read to its end
+	 * @param out
+	 *            destination
+	 * @return number of bytes copied
+	 * @throws IOException
+	 */
+	public long copy(InputStream in, WritableByteChannel out)
+			throws IOException {
+		final ReadableByteChannel source = Channels.newChannel(in);
+		long total = 0;
+		int count;
+		buffer.clear();
+		while ((count = source.read(buffer)) >= 0) {
+			buffer.flip();
+			while (buffer.hasRemaining()) {
+				out.write(buffer);
+			}
+			buffer.clear();
+			total += count;
+		}
+		return total;
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param out
+	 *            destination
+	 * @return result set reader copying the binary column of all rows one
+	 *         after the other, and returning the number of bytes copied
+	 */
+	public ResultSetReader<Long> reader(int column, WritableByteChannel out) {
+		return rs -> {
+			long total = 0;
+			while (rs.next()) {
+				total += Math.max(0L, copy(rs, column, out));
+			}
+			return total;
+		};
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param out
+	 *            destination
+	 * @return result set reader copying the BLOB column of all rows one after
+	 *         the other, and returning the number of bytes copied
+	 */
+	public ResultSetReader<Long> blobReader(int column, WritableByteChannel out) {
+		return rs -> {
+			long total = 0;
+			while (rs.next()) {
+				total += Math.max(0L, copyBlob(rs, column, out));
+			}
+			return total;
+		};
+	}
+}
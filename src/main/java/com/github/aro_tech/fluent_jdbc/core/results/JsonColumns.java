@@ -0,0 +1,129 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Access to json and jsonb columns without building a String per document,
+ * so that large documents go straight to a streaming parser:
+ * 
+ * <pre>
+ * RequestBuilder.returning(Event.class).withConnectionProvider(connectionProvider)
+ * 		.withSQL("SELECT payload FROM event").forEach(
+ * 				JsonColumns.mapper(1, in -> mapper.readValue(in, Event.class)),
+ * 				events::add);
+ * </pre>
+ * 
+ * The values are read with getBytes(): the PostgreSQL driver returns the
+ * UTF-8 text received from the server without decoding it, whereas
+ * getString() would make a String (twice the size for ASCII text) of each
+ * document.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class JsonColumns {
+
+	private JsonColumns() {
+	}
+
+	/**
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return read-only view of the UTF-8 text of the value (null if NULL)
+	 * @throws SQLException
+	 */
+	public static ByteBuffer getBytes(ResultSet rs, int column)
+			throws SQLException {
+		final byte[] bytes = rs.getBytes(column);
+		return null == bytes ? null : ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+	}
+
+	/**
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return stream of the UTF-8 text of the value (null if NULL)
+	 * @throws SQLException
+	 */
+	public static InputStream getStream(ResultSet rs, int column)
+			throws SQLException {
+		final byte[] bytes = rs.getBytes(column);
+		return null == bytes ? null : new ByteArrayInputStream(bytes);
+	}
+
+	/**
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return reader of the text of the value, decoded as it is read (null if
+	 *         NULL)
+	 * @throws SQLException
+	 */
+	public static Reader getReader(ResultSet rs, int column)
+			throws SQLException {
+		final InputStream stream = getStream(rs, column);
+		return null == stream ? null : new InputStreamReader(stream,
+				StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param parser
+	 *            converts the document of a row
+	 * @return row mapper parsing the column (null for NULLs), to use with
+	 *         stream() or forEach()
+	 */
+	public static <T> RowMapper<T> mapper(int column,
+			JsonDocumentParser<T> parser) {
+		return rs -> {
+			final InputStream json = getStream(rs, column);
+			if (null == json) {
+				return null;
+			}
+			try {
+				return parser.parse(json);
+			} catch (IOException e) {
+				throw new SQLException("Failed to parse the JSON of column "
+						+ column, e);
+			}
+		};
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @param parser
+	 *            converts the document of a row
+	 * @return result set reader parsing the column of all rows (null for
+	 *         NULLs)
+	 */
+	public static <T> ResultSetReader<List<T>> listReader(int column,
+			JsonDocumentParser<T> parser) {
+		final RowMapper<T> mapper = mapper(column, parser);
+		return rs -> {
+			final List<T> documents = new ArrayList<T>();
+			while (rs.next()) {
+				documents.add(mapper.mapRow(rs));
+			}
+			return documents;
+		};
+	}
+}
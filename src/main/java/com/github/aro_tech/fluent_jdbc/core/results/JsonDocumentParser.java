@@ -0,0 +1,27 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Functional interface to convert a JSON document read from a column to an
+ * object, e.g. with a streaming JSON parser (see JsonColumns)
+ * 
+ * @author aro_tech
+ *
+ */
+@FunctionalInterface
+public interface JsonDocumentParser<T> {
+
+	/**
+	 * @param json
+	 *            UTF-8 JSON text of a column value
+	 * @return object built from the document
+	 * @throws IOException
+	 *             if the document cannot be parsed
+	 */
+	public T parse(InputStream json) throws IOException;
+}
@@ -0,0 +1,453 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.math.BigInteger;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCache;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.SQLLogger;
+
+/**
+ * Reads a whole table (or query result) in parallel, for exports and ETL
+ * jobs. The values of an integer key column are split into ranges, and each
+ * range is read page by page with keyset pagination:
+ * 
+ * <pre>
+ * SELECT * FROM (source) scan_source WHERE id &gt; ? AND id &lt;= ? ORDER BY id LIMIT 1000
+ * </pre>
+ * 
+ * so each page is found through the index of the key, however far into the
+ * table it is, and no connection is held between pages. The ranges are
+ * handed out by a Spliterator: a parallel stream reads them on several
+ * threads, each with its own connection of the provider.
+ * 
+ * <pre>
+ * try (Stream&lt;Person&gt; people = KeyRangeScan.ofTable(&quot;person&quot;, &quot;id&quot;,
+ * 		rs -&gt; new Person(rs.getLong(&quot;id&quot;), rs.getString(&quot;name&quot;))).stream(
+ * 		connectionProvider)) {
+ * 	people.forEach(exporter::write);
+ * }
+ * </pre>
+ * 
+ * The ranges are equal slices between the lowest and highest keys by
+ * default, or hold the same number of rows with withQuantileSplit()
+ * (PostgreSQL only). The key column must be returned by the source query,
+ * under its own name, and be of an integer type (BIGINT, INTEGER, SMALLINT,
+ * or NUMERIC / DECIMAL without decimals): the last key of a page is kept as a
+ * long to find the next page. Rows come in key order within a range; the ranges of
+ * a sequential stream come in key order too.
+ * 
+ * Errors while reading a page are logged and collected (see
+ * getCaughtErrors()), and end the reading of its range, so create a scan
+ * per reading.
+ * 
+ * @author aro_tech
+ *
+ * @param <T>
+ *            row type
+ */
+public final class KeyRangeScan<T> {
+	/**
+	 * Number of rows read per query by default
+	 */
+	public static final int DEFAULT_PAGE_SIZE = 1000;
+
+	/**
+	 * Number of ranges per available processor by default, so that threads
+	 * done with short ranges can take over the remaining ones
+	 */
+	private static final int RANGES_PER_PROCESSOR = 4;
+
+	private final ILogger logger;
+	private final String source;
+	private final String keyColumn;
+	private final RowMapper<T> rowMapper;
+	private final int pageSize;
+	private final int rangeCount;
+	private final boolean quantileSplit;
+	private final List<SQLException> caughtErrors = Collections
+			.synchronizedList(new ArrayList<SQLException>());
+
+	private KeyRangeScan(ILogger logger, String source, String keyColumn,
+			RowMapper<T> rowMapper, int pageSize, int rangeCount,
+			boolean quantileSplit) {
+		super();
+		this.logger = null != logger ? logger : new SQLLogger();
+		this.source = source;
+		this.keyColumn = keyColumn;
+		this.rowMapper = rowMapper;
+		this.pageSize = pageSize;
+		this.rangeCount = rangeCount;
+		this.quantileSplit = quantileSplit;
+	}
+
+	/**
+	 * Static factory for a table scan
+	 * 
+	 * @param table
+	 *            table name
+	 * @param keyColumn
+	 *            name of an integer column with unique values, ideally
+	 *            indexed (e.g. the primary key)
+	 * @param rowMapper
+	 *            converts each row
+	 * @return scan with default settings
+	 */
+	public static <T> KeyRangeScan<T> ofTable(String table, String keyColumn,
+			RowMapper<T> rowMapper) {
+		return ofQuery("SELECT * FROM " + table, keyColumn, rowMapper);
+	}
+
+	/**
+	 * Static factory for a query scan
+	 * 
+	 * @param query
+	 *            query without parameters returning the key column, with no
+	 *            ORDER BY or LIMIT clause
+	 * @param keyColumn
+	 *            name of an integer column with unique values in the results
+	 * @param rowMapper
+	 *            converts each row
+	 * @return scan with default settings
+	 */
+	public static <T> KeyRangeScan<T> ofQuery(String query, String keyColumn,
+			RowMapper<T> rowMapper) {
+		return new KeyRangeScan<T>(null, query, keyColumn, rowMapper,
+				DEFAULT_PAGE_SIZE, RANGES_PER_PROCESSOR
+						* Runtime.getRuntime().availableProcessors(), false);
+	}
+
+	/**
+	 * Specify the number of rows read per query
+	 * 
+	 * @param size
+	 *            number of rows (at least 1)
+	 * @return modified scan
+	 */
+	public KeyRangeScan<T> withPageSize(int size) {
+		if (size < 1) {
+			throw new IllegalArgumentException("Page size must be at least 1");
+		}
+		return new KeyRangeScan<T>(logger, source, keyColumn, rowMapper,
+				size, rangeCount, quantileSplit);
+	}
+
+	/**
+	 * Specify the number of ranges the keys are split into, i.e. the maximum
+	 * number of threads reading at the same time
+	 * 
+	 * @param count
+	 *            number of ranges (at least 1; default: 4 per available
+	 *            processor)
+	 * @return modified scan
+	 */
+	public KeyRangeScan<T> withRangeCount(int count) {
+		if (count < 1) {
+			throw new IllegalArgumentException(
+					"Range count must be at least 1");
+		}
+		return new KeyRangeScan<T>(logger, source, keyColumn, rowMapper,
+				pageSize, count, quantileSplit);
+	}
+
+	/**
+	 * Split the keys at their quantiles, so that ranges hold the same number
+	 * of rows even if the keys have gaps. The quantiles are computed by the
+	 * database with percentile_disc (PostgreSQL), which reads all the keys
+	 * once.
+	 * 
+	 * @return modified scan
+	 */
+	public KeyRangeScan<T> withQuantileSplit() {
+		return new KeyRangeScan<T>(logger, source, keyColumn, rowMapper,
+				pageSize, rangeCount, true);
+	}
+
+	/**
+	 * Specify the logger receiving the errors
+	 * 
+	 * @param loggerToUse
+	 * @return modified scan
+	 */
+	public KeyRangeScan<T> withLogger(ILogger loggerToUse) {
+		return new KeyRangeScan<T>(loggerToUse, source, keyColumn, rowMapper,
+				pageSize, rangeCount, quantileSplit);
+	}
+
+	/**
+	 * Split the keys into ranges, to be read as the spliterator is consumed
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connections, one per page read
+	 * @return spliterator over all the rows
+	 * @throws SQLException
+	 *             if the key column is not of an integer type, or if the key
+	 *             ranges cannot be computed
+	 */
+	public Spliterator<T> spliterator(
+			IJDBCConnectionProvider connectionProvider) throws SQLException {
+		checkIntegerKey(connectionProvider);
+		final long[] bounds = quantileSplit ? quantileBounds(connectionProvider)
+				: minMaxBounds(connectionProvider);
+		if (null == bounds) {
+			return Spliterators.emptySpliterator();
+		}
+		return new KeyRangeSpliterator(connectionProvider, bounds, 0,
+				bounds.length - 1);
+	}
+
+	/**
+	 * Read all the rows with a parallel stream
+	 * 
+	 * @param connectionProvider
+	 *            provider of the connections, one per page read
+	 * @return parallel stream of the rows
+	 * @throws SQLException
+	 *             if the key column is not of an integer type, or if the key
+	 *             ranges cannot be computed
+	 */
+	public Stream<T> stream(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		return StreamSupport.stream(spliterator(connectionProvider), true);
+	}
+
+	/**
+	 * @return errors raised while reading pages
+	 */
+	public List<SQLException> getCaughtErrors() {
+		return caughtErrors;
+	}
+
+	/**
+	 * Keys with decimals would be truncated by the pagination, which would
+	 * then read the same rows again, or never move past a page
+	 */
+	private void checkIntegerKey(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		final String sql = "SELECT " + keyColumn + " FROM (" + source
+				+ ") scan_source LIMIT 0";
+		try (Connection c = connectionProvider.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(sql);
+				ResultSet rs = stmnt.executeQuery()) {
+			final ResultSetMetaData metaData = rs.getMetaData();
+			if (!isIntegerType(metaData.getColumnType(1),
+					metaData.getPrecision(1), metaData.getScale(1))) {
+				throw new SQLException("Key column " + keyColumn
+						+ " must be of an integer type, not "
+						+ metaData.getColumnTypeName(1));
+			}
+		}
+	}
+
+	private static boolean isIntegerType(int sqlType, int precision, int scale) {
+		switch (sqlType) {
+		case Types.BIGINT:
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			return true;
+		case Types.NUMERIC:
+		case Types.DECIMAL:
+			// precision 0: unconstrained NUMERIC, which may hold decimals
+			return 0 == scale && precision > 0;
+		default:
+			return false;
+		}
+	}
+
+	/**
+	 * @return range bounds, the first range starting at the first bound
+	 *         included and each range ending at the next bound included (null
+	 *         if there are no rows)
+	 */
+	private long[] minMaxBounds(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		final String sql = "SELECT MIN(" + keyColumn + "), MAX(" + keyColumn
+				+ ") FROM (" + source + ") scan_source";
+		try (Connection c = connectionProvider.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(sql);
+				ResultSet rs = stmnt.executeQuery()) {
+			if (!rs.next()) {
+				return null;
+			}
+			final long min = rs.getLong(1);
+			if (rs.wasNull()) {
+				return null;
+			}
+			return evenBounds(min, rs.getLong(2), rangeCount);
+		}
+	}
+
+	private static long[] evenBounds(long min, long max, int count) {
+		final BigInteger low = BigInteger.valueOf(min);
+		final BigInteger span = BigInteger.valueOf(max).subtract(low);
+		final BigInteger parts = BigInteger.valueOf(count).min(
+				span.max(BigInteger.ONE));
+		final long[] bounds = new long[parts.intValue() + 1];
+		for (int i = 0; i < bounds.length; i++) {
+			bounds[i] = low.add(
+					span.multiply(BigInteger.valueOf(i)).divide(parts))
+					.longValue();
+		}
+		return bounds;
+	}
+
+	private long[] quantileBounds(IJDBCConnectionProvider connectionProvider)
+			throws SQLException {
+		final StringBuilder fractions = new StringBuilder();
+		for (int i = 0; i <= rangeCount; i++) {
+			fractions.append(i > 0 ? "," : "").append(
+					(double) i / rangeCount);
+		}
+		final String sql = "SELECT percentile_disc(ARRAY[" + fractions
+				+ "]::float8[]) WITHIN GROUP (ORDER BY " + keyColumn
+				+ ") FROM (" + source + ") scan_source";
+		try (Connection c = connectionProvider.getConnection();
+				PreparedStatement stmnt = c.prepareStatement(sql);
+				ResultSet rs = stmnt.executeQuery()) {
+			if (!rs.next()) {
+				return null;
+			}
+			final Array array = rs.getArray(1);
+			if (null == array) {
+				return null;
+			}
+			final Object[] quantiles = (Object[]) array.getArray();
+			final long[] bounds = new long[quantiles.length];
+			int count = 0;
+			for (Object quantile : quantiles) {
+				final long bound = ((Number) quantile).longValue();
+				if (0 == count || bound > bounds[count - 1]) {
+					bounds[count++] = bound;
+				}
+			}
+			return 1 == count ? new long[] { bounds[0], bounds[0] }
+					: Arrays.copyOf(bounds, count);
+		}
+	}
+
+	/**
+	 * Reads the ranges from index first (included) to index end (excluded),
+	 * and gives the first half of them away when split before reading
+	 */
+	private final class KeyRangeSpliterator implements Spliterator<T> {
+		private final IJDBCConnectionProvider connectionProvider;
+		private final long[] bounds;
+		private int range;
+		private final int end;
+		private final List<T> page = new ArrayList<T>();
+		private int pageIndex = 0;
+		private long lastKey;
+		private boolean rangeStarted = false;
+		private boolean rangeDone = false;
+
+		private KeyRangeSpliterator(IJDBCConnectionProvider connectionProvider,
+				long[] bounds, int first, int end) {
+			super();
+			this.connectionProvider = connectionProvider;
+			this.bounds = bounds;
+			this.range = first;
+			this.end = end;
+		}
+
+		@Override
+		public boolean tryAdvance(Consumer<? super T> action) {
+			while (pageIndex >= page.size()) {
+				if (rangeDone) {
+					range++;
+					rangeStarted = false;
+					rangeDone = false;
+				}
+				if (range >= end) {
+					return false;
+				}
+				readNextPage();
+			}
+			action.accept(page.get(pageIndex++));
+			return true;
+		}
+
+		private void readNextPage() {
+			page.clear();
+			pageIndex = 0;
+			final boolean includeLow = 0 == range && !rangeStarted;
+			final long low = rangeStarted ? lastKey : bounds[range];
+			final String sql = "SELECT * FROM (" + source
+					+ ") scan_source WHERE " + keyColumn
+					+ (includeLow ? " >= ?" : " > ?") + " AND " + keyColumn
+					+ " <= ? ORDER BY " + keyColumn + " LIMIT " + pageSize;
+			rangeStarted = true;
+			try (Connection c = connectionProvider.getConnection()) {
+				final StatementCache statementCache = StatementCache.of(c);
+				final PreparedStatement stmnt = null != statementCache ? statementCache
+						.borrow(sql) : c.prepareStatement(sql);
+				try {
+					stmnt.setLong(1, low);
+					stmnt.setLong(2, bounds[range + 1]);
+					try (ResultSet rs = stmnt.executeQuery()) {
+						final int keyIndex = rs.findColumn(keyColumn);
+						while (rs.next()) {
+							page.add(rowMapper.mapRow(rs));
+							lastKey = rs.getLong(keyIndex);
+						}
+					}
+				} finally {
+					if (null != statementCache) {
+						statementCache.giveBack(sql, stmnt);
+					} else {
+						stmnt.close();
+					}
+				}
+			} catch (SQLException e) {
+				caughtErrors.add(e);
+				logger.error("Failed to read key range of SQL request: " + sql,
+						e);
+				page.clear();
+				rangeDone = true;
+				return;
+			}
+			rangeDone = page.size() < pageSize;
+		}
+
+		@Override
+		public Spliterator<T> trySplit() {
+			if (rangeStarted || end - range < 2) {
+				return null;
+			}
+			final int middle = range + (end - range) / 2;
+			final KeyRangeSpliterator prefix = new KeyRangeSpliterator(
+					connectionProvider, bounds, range, middle);
+			range = middle;
+			return prefix;
+		}
+
+		@Override
+		public long estimateSize() {
+			return Long.MAX_VALUE;
+		}
+
+		@Override
+		public int characteristics() {
+			return Spliterator.ORDERED;
+		}
+	}
+}
@@ -0,0 +1,394 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.io.InputStream;
+import java.io.Reader;
+import java.lang.reflect.Array;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+
+/**
+ * Bounded cache of query results, keyed by connection provider, result
+ * reader, SQL text, parameter values and maximum number of rows, to be
+ * shared by the RequestBuilders of repeated reads (see
+ * RequestBuilder.withResultCache()). The least recently used result is
+ * evicted when the cache is full, and results older than the time to live
+ * are not returned.
+ * 
+ * Each result is stored with the table tags of its request. Invalidating a
+ * tag removes all the results stored with it: RequestBuilders executing a
+ * write request with a result cache and table tags do it after the write
+ * (and again after commit when the write is part of a Transaction).
+ * 
+ * Cached results are returned to every request which hits them, so they must
+ * be immutable. List, Set and Map results are stored as unmodifiable copies
+ * (requests must then declare these interfaces as their result type, not
+ * ArrayList or HashSet), and arrays are copied when stored and when
+ * returned. Streams, iterators and other objects which can only be read
+ * once are never stored. The cache is thread-safe.
+ * 
+ * @author aro_tech
+ *
+ */
+public class QueryResultCache {
+	private final int maxEntries;
+	private final long timeToLiveNanos;
+	private final QueryResultCacheStatistics statistics = new QueryResultCacheStatistics();
+	private final LinkedHashMap<Key, CachedResult> entries = new LinkedHashMap<Key, CachedResult>(
+			16, 0.75f, true);
+	private final Map<String, Set<Key>> keysByTag = new HashMap<String, Set<Key>>();
+	private long invalidationStamp = 0;
+
+	/**
+	 * Constructor
+	 * 
+	 * @param maxEntries
+	 *            maximum number of results kept (at least 1)
+	 * @param timeToLive
+	 *            how long a result may be returned after it was read from
+	 *            the database (0 for no limit)
+	 * @param unit
+	 *            unit of timeToLive
+	 */
+	public QueryResultCache(int maxEntries, long timeToLive, TimeUnit unit) {
+		super();
+		if (maxEntries < 1) {
+			throw new IllegalArgumentException(
+					"Result cache size must be at least 1");
+		}
+		this.maxEntries = maxEntries;
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+	}
+
+	/**
+	 * Key of a request identified by its SQL and parameters only (all the
+	 * requests using it must read the same database with the same reader)
+	 * 
+	 * @param sql
+	 *            SQL text of the request
+	 * @param argumentSetters
+	 *            parameters of the request
+	 * @return cache key of the request, or null if its parameters cannot be
+	 *         compared (see the other keyFor())
+	 */
+	public static Key keyFor(String sql,
+			List<? extends JDBCArgumentSetter> argumentSetters) {
+		return keyFor(null, null, 0, sql, argumentSetters);
+	}
+
+	/**
+	 * @param source
+	 *            connection provider of the request, compared by identity
+	 * @param reader
+	 *            result reader of the request, compared by identity
+	 * @param maxRows
+	 *            maximum number of rows read by the request (0 for no limit)
+	 * @param sql
+	 *            SQL text of the request
+	 * @param argumentSetters
+	 *            parameters of the request
+	 * @return cache key of the request, or null if its parameters cannot be
+	 *         compared (more than one parameter set, or argument setters
+	 *         which are not a ParameterBuffer, e.g. lambdas)
+	 */
+	public static Key keyFor(Object source, Object reader, int maxRows,
+			String sql, List<? extends JDBCArgumentSetter> argumentSetters) {
+		if (null == sql || argumentSetters.size() > 1) {
+			return null;
+		}
+		if (argumentSetters.isEmpty()) {
+			return new Key(source, reader, maxRows, sql, null);
+		}
+		final JDBCArgumentSetter setter = argumentSetters.get(0);
+		return setter instanceof ParameterBuffer ? new Key(source, reader,
+				maxRows, sql, (ParameterBuffer) setter) : null;
+	}
+
+	/**
+	 * @param value
+	 *            result of a request
+	 * @return false for results which can only be read once (streams,
+	 *         iterators)
+	 */
+	public static boolean isCacheable(Object value) {
+		return !(value instanceof BaseStream || value instanceof Iterator
+				|| value instanceof Spliterator
+				|| value instanceof InputStream || value instanceof Reader);
+	}
+
+	/**
+	 * @param key
+	 * @return the cached result, or null if the request must be sent to the
+	 *         database
+	 */
+	public synchronized CachedResult get(Key key) {
+		final CachedResult entry = entries.get(key);
+		if (null != entry) {
+			if (timeToLiveNanos <= 0
+					|| System.nanoTime() - entry.createdNanos < timeToLiveNanos) {
+				statistics.hit();
+				return entry;
+			}
+			remove(key, entry);
+			statistics.expired();
+		}
+		statistics.miss();
+		key.missStamp = invalidationStamp;
+		return null;
+	}
+
+	/**
+	 * Store a result read after get() returned null for this key. The result
+	 * is not stored if a tag was invalidated in between, since it may have
+	 * been read before the write.
+	 * 
+	 * @param key
+	 * @param value
+	 *            result of the request (may be null)
+	 * @param tags
+	 *            tables read by the request
+	 */
+	public synchronized void put(Key key, Object value, String... tags) {
+		if (key.missStamp >= 0 && key.missStamp != invalidationStamp
+				|| !isCacheable(value)) {
+			return;
+		}
+		final Key storedKey = key.snapshot();
+		final String[] normalizedTags = normalize(tags);
+		final CachedResult previous = entries.put(storedKey, new CachedResult(
+				immutableCopy(value), normalizedTags, System.nanoTime()));
+		if (null != previous) {
+			untag(storedKey, previous.tags);
+		}
+		for (String tag : normalizedTags) {
+			Set<Key> keys = keysByTag.get(tag);
+			if (null == keys) {
+				keys = new HashSet<Key>();
+				keysByTag.put(tag, keys);
+			}
+			keys.add(storedKey);
+		}
+		final Iterator<Map.Entry<Key, CachedResult>> eldestFirst = entries
+				.entrySet().iterator();
+		while (entries.size() > maxEntries) {
+			final Map.Entry<Key, CachedResult> eldest = eldestFirst.next();
+			eldestFirst.remove();
+			untag(eldest.getKey(), eldest.getValue().tags);
+			statistics.evicted();
+		}
+	}
+
+	/**
+	 * Remove the results stored with any of these tags
+	 * 
+	 * @param tags
+	 *            tables which were written
+	 */
+	public synchronized void invalidate(String... tags) {
+		invalidationStamp++;
+		int count = 0;
+		for (String tag : normalize(tags)) {
+			final Set<Key> keys = keysByTag.remove(tag);
+			if (null == keys) {
+				continue;
+			}
+			for (Key key : keys) {
+				final CachedResult entry = entries.remove(key);
+				if (null != entry) {
+					untag(key, entry.tags);
+					count++;
+				}
+			}
+		}
+		statistics.invalidated(count);
+	}
+
+	/**
+	 * Remove all the results
+	 */
+	public synchronized void invalidateAll() {
+		invalidationStamp++;
+		statistics.invalidated(entries.size());
+		entries.clear();
+		keysByTag.clear();
+	}
+
+	/**
+	 * @return number of results currently cached
+	 */
+	public synchronized int size() {
+		return entries.size();
+	}
+
+	/**
+	 * @return hit/miss/eviction counters
+	 */
+	public QueryResultCacheStatistics getStatistics() {
+		return statistics;
+	}
+
+	private void remove(Key key, CachedResult entry) {
+		entries.remove(key);
+		untag(key, entry.tags);
+	}
+
+	private void untag(Key key, String[] tags) {
+		for (String tag : tags) {
+			final Set<Key> keys = keysByTag.get(tag);
+			if (null != keys && keys.remove(key) && keys.isEmpty()) {
+				keysByTag.remove(tag);
+			}
+		}
+	}
+
+	private static Object immutableCopy(Object value) {
+		if (value instanceof List) {
+			return Collections.unmodifiableList(new ArrayList<Object>(
+					(List<?>) value));
+		} else if (value instanceof Set) {
+			return Collections.unmodifiableSet(new LinkedHashSet<Object>(
+					(Set<?>) value));
+		} else if (value instanceof Map) {
+			return Collections.unmodifiableMap(new LinkedHashMap<Object, Object>(
+					(Map<?, ?>) value));
+		}
+		return copyIfArray(value);
+	}
+
+	private static Object copyIfArray(Object value) {
+		if (null == value || !value.getClass().isArray()) {
+			return value;
+		}
+		final int length = Array.getLength(value);
+		final Object copy = Array.newInstance(value.getClass()
+				.getComponentType(), length);
+		System.arraycopy(value, 0, copy, 0, length);
+		return copy;
+	}
+
+	private static String[] normalize(String[] tags) {
+		if (null == tags) {
+			return new String[0];
+		}
+		final String[] normalized = new String[tags.length];
+		for (int i = 0; i < tags.length; i++) {
+			normalized[i] = tags[i].toLowerCase(Locale.ROOT);
+		}
+		return normalized;
+	}
+
+	/**
+	 * Connection provider, result reader, SQL text, parameter values and
+	 * maximum number of rows of a request
+	 */
+	public static final class Key {
+		private final Object source;
+		private final Object reader;
+		private final int maxRows;
+		private final String sql;
+		private final ParameterBuffer parameters;
+		private final int hash;
+		private long missStamp = -1;
+
+		private Key(Object source, Object reader, int maxRows, String sql,
+				ParameterBuffer parameters) {
+			this(source, reader, maxRows, sql, parameters, hash(source,
+					reader, maxRows, sql, parameters));
+		}
+
+		private Key(Object source, Object reader, int maxRows, String sql,
+				ParameterBuffer parameters, int hash) {
+			this.source = source;
+			this.reader = reader;
+			this.maxRows = maxRows;
+			this.sql = sql;
+			this.parameters = parameters;
+			this.hash = hash;
+		}
+
+		private static int hash(Object source, Object reader, int maxRows,
+				String sql, ParameterBuffer parameters) {
+			int hash = System.identityHashCode(source);
+			hash = 31 * hash + System.identityHashCode(reader);
+			hash = 31 * hash + maxRows;
+			hash = 31 * hash + sql.hashCode();
+			return 31 * hash
+					+ (null != parameters ? parameters.valuesHashCode() : 0);
+		}
+
+		/**
+		 * @return copy which does not change if the original parameters are
+		 *         reused
+		 */
+		private Key snapshot() {
+			return new Key(source, reader, maxRows, sql,
+					null != parameters ? parameters.copy() : null, hash);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (this == obj) {
+				return true;
+			}
+			if (!(obj instanceof Key)) {
+				return false;
+			}
+			final Key other = (Key) obj;
+			return hash == other.hash && source == other.source
+					&& reader == other.reader && maxRows == other.maxRows
+					&& sql.equals(other.sql)
+					&& (null == parameters ? null == other.parameters
+							: parameters.hasSameValues(other.parameters));
+		}
+
+		@Override
+		public String toString() {
+			return "Key [sql=" + sql + ", parameters=" + parameters + "]";
+		}
+	}
+
+	/**
+	 * A result held by the cache
+	 */
+	public static final class CachedResult {
+		private final Object value;
+		private final String[] tags;
+		private final long createdNanos;
+
+		private CachedResult(Object value, String[] tags, long createdNanos) {
+			this.value = value;
+			this.tags = tags;
+			this.createdNanos = createdNanos;
+		}
+
+		/**
+		 * @return the result (possibly null), not to be modified; a copy for
+		 *         arrays
+		 */
+		public Object getValue() {
+			return copyIfArray(value);
+		}
+	}
+}
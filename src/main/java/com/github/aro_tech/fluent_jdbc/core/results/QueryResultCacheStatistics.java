@@ -0,0 +1,92 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of a QueryResultCache
+ * 
+ * @author aro_tech
+ *
+ */
+public class QueryResultCacheStatistics {
+	private final LongAdder hits = new LongAdder();
+	private final LongAdder misses = new LongAdder();
+	private final LongAdder evictions = new LongAdder();
+	private final LongAdder expirations = new LongAdder();
+	private final LongAdder invalidations = new LongAdder();
+
+	void hit() {
+		hits.increment();
+	}
+
+	void miss() {
+		misses.increment();
+	}
+
+	void evicted() {
+		evictions.increment();
+	}
+
+	void expired() {
+		expirations.increment();
+	}
+
+	void invalidated(int count) {
+		invalidations.add(count);
+	}
+
+	/**
+	 * @return number of requests answered from the cache
+	 */
+	public long getHitCount() {
+		return hits.sum();
+	}
+
+	/**
+	 * @return number of requests sent to the database
+	 */
+	public long getMissCount() {
+		return misses.sum();
+	}
+
+	/**
+	 * @return number of results removed to make room for others
+	 */
+	public long getEvictionCount() {
+		return evictions.sum();
+	}
+
+	/**
+	 * @return number of results removed because they were too old
+	 */
+	public long getExpirationCount() {
+		return expirations.sum();
+	}
+
+	/**
+	 * @return number of results removed by invalidation of their tables
+	 */
+	public long getInvalidationCount() {
+		return invalidations.sum();
+	}
+
+	/**
+	 * @return hits / (hits + misses), or 0 if nothing was requested yet
+	 */
+	public double getHitRatio() {
+		final long hitCount = getHitCount();
+		final long total = hitCount + getMissCount();
+		return total > 0 ? (double) hitCount / total : 0d;
+	}
+
+	@Override
+	public String toString() {
+		return "QueryResultCacheStatistics [hits=" + getHitCount()
+				+ ", misses=" + getMissCount() + ", evictions="
+				+ getEvictionCount() + ", expirations=" + getExpirationCount()
+				+ ", invalidations=" + getInvalidationCount() + "]";
+	}
+}
@@ -0,0 +1,28 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Functional interface to convert the current row of a JDBC ResultSet using a
+ * lambda (the caller moves the cursor)
+ * 
+ * @author aro_tech
+ *
+ */
+@FunctionalInterface
+public interface RowMapper<T> {
+
+	/**
+	 * Convert the current row of a JDBC ResultSet to an object of some
+	 * template type T
+	 * 
+	 * @param rs
+	 *            results positioned on the row to convert
+	 * @return object built from the row
+	 */
+	public T mapRow(ResultSet rs) throws SQLException;
+}
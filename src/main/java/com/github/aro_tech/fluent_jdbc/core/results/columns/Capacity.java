@@ -0,0 +1,37 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+/**
+ * Growth policy of the arrays of the column builders
+ * 
+ * @author aro_tech
+ *
+ */
+final class Capacity {
+	/**
+	 * Capacity of a new column
+	 */
+	static final int INITIAL = 64;
+
+	private static final int MAX = Integer.MAX_VALUE - 8;
+
+	private Capacity() {
+	}
+
+	/**
+	 * @param current
+	 *            current capacity (full)
+	 * @return next capacity: 50% more, so that the copies stay proportional
+	 *         to the number of rows
+	 */
+	static int grow(int current) {
+		if (current >= MAX) {
+			throw new OutOfMemoryError("Too many rows for a column: "
+					+ current);
+		}
+		return (int) Math.min(MAX,
+				Math.max(INITIAL, current + (long) (current >> 1)));
+	}
+}
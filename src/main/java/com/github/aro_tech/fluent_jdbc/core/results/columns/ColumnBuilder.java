@@ -0,0 +1,31 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Appends the values of one column as the rows of a result set are read
+ * 
+ * @author aro_tech
+ *
+ */
+interface ColumnBuilder {
+	/**
+	 * Append the value of the current row
+	 * 
+	 * @param rs
+	 *            result set on a row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @throws SQLException
+	 */
+	void add(ResultSet rs, int column) throws SQLException;
+
+	/**
+	 * @return column of the values appended so far
+	 */
+	Object build();
+}
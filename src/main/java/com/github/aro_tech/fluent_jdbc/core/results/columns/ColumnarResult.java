@@ -0,0 +1,306 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Query result stored column by column, in one primitive array per column,
+ * for aggregation and reporting queries which scan many rows and few
+ * columns:
+ * 
+ * <pre>
+ * ColumnarResult result = RequestBuilder.returningColumnar()
+ * 		.withConnectionProvider(connectionProvider)
+ * 		.withSQL("SELECT customer_id, amount, status FROM payment").execute();
+ * double[] amounts = result.getDoubleColumn("amount").values();
+ * </pre>
+ * 
+ * The type of each column is chosen from the ResultSetMetaData:
+ * <ul>
+ * <li>BIGINT, and NUMERIC or DECIMAL without decimals and with up to 18
+ * digits: LongColumn</li>
+ * <li>DATE and TIMESTAMP: LongColumn of milliseconds since the epoch</li>
+ * <li>INTEGER, SMALLINT and TINYINT: IntColumn</li>
+ * <li>BOOLEAN and BIT: IntColumn of 1 (true) and 0 (false)</li>
+ * <li>NUMERIC and DECIMAL without a precision (PostgreSQL numeric) or
+ * without decimals and with more than 18 digits: DecimalColumn</li>
+ * <li>other NUMERIC and DECIMAL, REAL, FLOAT and DOUBLE: DoubleColumn</li>
+ * <li>any other type, read with getString(): dictionary-encoded StringColumn</li>
+ * </ul>
+ * 
+ * NULLs are marked in a null bitmap per column and the arrays grow by 50%
+ * when full, so a row costs 4 or 8 bytes per primitive column instead of a
+ * boxed value per field, and scanning a column reads contiguous memory.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class ColumnarResult {
+	/**
+	 * Largest NUMERIC precision stored in a long
+	 */
+	private static final int MAX_LONG_PRECISION = 18;
+
+	private final String[] labels;
+	private final Object[] columns;
+	private final int rowCount;
+
+	private ColumnarResult(String[] labels, Object[] columns, int rowCount) {
+		super();
+		this.labels = labels;
+		this.columns = columns;
+		this.rowCount = rowCount;
+	}
+
+	/**
+	 * Read all the remaining rows of a result set
+	 * 
+	 * @param rs
+	 *            result set positioned before its first row
+	 * @return columns of the result
+	 * @throws SQLException
+	 */
+	public static ColumnarResult read(ResultSet rs) throws SQLException {
+		final ResultSetMetaData metaData = rs.getMetaData();
+		final int columnCount = metaData.getColumnCount();
+		final String[] labels = new String[columnCount];
+		final ColumnBuilder[] builders = new ColumnBuilder[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			labels[i] = metaData.getColumnLabel(i + 1);
+			builders[i] = builderFor(metaData, i + 1);
+		}
+		int rowCount = 0;
+		while (rs.next()) {
+			for (int i = 0; i < columnCount; i++) {
+				builders[i].add(rs, i + 1);
+			}
+			rowCount++;
+		}
+		final Object[] columns = new Object[columnCount];
+		for (int i = 0; i < columnCount; i++) {
+			columns[i] = builders[i].build();
+		}
+		return new ColumnarResult(labels, columns, rowCount);
+	}
+
+	private static ColumnBuilder builderFor(ResultSetMetaData metaData,
+			int column) throws SQLException {
+		switch (metaData.getColumnType(column)) {
+		case Types.BIGINT:
+			return new LongColumn.Builder();
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			return new IntColumn.Builder();
+		case Types.BOOLEAN:
+		case Types.BIT:
+			return new IntColumn.BooleanBuilder();
+		case Types.DATE:
+		case Types.TIMESTAMP:
+		case Types.TIMESTAMP_WITH_TIMEZONE:
+			return new LongColumn.EpochMillisBuilder();
+		case Types.NUMERIC:
+		case Types.DECIMAL:
+			final int precision = metaData.getPrecision(column);
+			if (precision <= 0) {
+				return new DecimalColumn.Builder();
+			}
+			if (0 == metaData.getScale(column)) {
+				return precision <= MAX_LONG_PRECISION ? new LongColumn.Builder()
+						: new DecimalColumn.Builder();
+			}
+			return new DoubleColumn.Builder();
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return new DoubleColumn.Builder();
+		default:
+			return new StringColumn.Builder();
+		}
+	}
+
+	/**
+	 * @return number of rows
+	 */
+	public int getRowCount() {
+		return rowCount;
+	}
+
+	/**
+	 * @return number of columns
+	 */
+	public int getColumnCount() {
+		return columns.length;
+	}
+
+	/**
+	 * @return labels of the columns, in the order of the query
+	 */
+	public List<String> getColumnLabels() {
+		return Arrays.asList(labels.clone());
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return column index (starting at 1)
+	 * @throws IllegalArgumentException
+	 *             if there is no such column
+	 */
+	public int getColumnIndex(String label) {
+		for (int i = 0; i < labels.length; i++) {
+			if (labels[i].equalsIgnoreCase(label)) {
+				return i + 1;
+			}
+		}
+		throw new IllegalArgumentException("No column " + label + " in "
+				+ Arrays.toString(labels));
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column: LongColumn, IntColumn, DoubleColumn, DecimalColumn
+	 *         or StringColumn
+	 */
+	public Object getColumn(int column) {
+		if (column < 1 || column > columns.length) {
+			throw new IndexOutOfBoundsException("Column " + column + " of "
+					+ columns.length);
+		}
+		return columns[column - 1];
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a long column
+	 */
+	public LongColumn getLongColumn(int column) {
+		return typed(column, LongColumn.class);
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a long column
+	 */
+	public LongColumn getLongColumn(String label) {
+		return getLongColumn(getColumnIndex(label));
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as an int column
+	 */
+	public IntColumn getIntColumn(int column) {
+		return typed(column, IntColumn.class);
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as an int column
+	 */
+	public IntColumn getIntColumn(String label) {
+		return getIntColumn(getColumnIndex(label));
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a double column
+	 */
+	public DoubleColumn getDoubleColumn(int column) {
+		return typed(column, DoubleColumn.class);
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a double column
+	 */
+	public DoubleColumn getDoubleColumn(String label) {
+		return getDoubleColumn(getColumnIndex(label));
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a decimal column
+	 */
+	public DecimalColumn getDecimalColumn(int column) {
+		return typed(column, DecimalColumn.class);
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a decimal column
+	 */
+	public DecimalColumn getDecimalColumn(String label) {
+		return getDecimalColumn(getColumnIndex(label));
+	}
+
+	/**
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a text column
+	 */
+	public StringColumn getStringColumn(int column) {
+		return typed(column, StringColumn.class);
+	}
+
+	/**
+	 * @param label
+	 *            column label (case-insensitive)
+	 * @return the column
+	 * @throws IllegalArgumentException
+	 *             if it was not read as a text column
+	 */
+	public StringColumn getStringColumn(String label) {
+		return getStringColumn(getColumnIndex(label));
+	}
+
+	private <C> C typed(int column, Class<C> type) {
+		final Object found = getColumn(column);
+		if (!type.isInstance(found)) {
+			throw new IllegalArgumentException("Column " + labels[column - 1]
+					+ " is a " + found.getClass().getSimpleName() + ", not a "
+					+ type.getSimpleName());
+		}
+		return type.cast(found);
+	}
+
+	@Override
+	public String toString() {
+		return "ColumnarResult [rows=" + rowCount + ", columns="
+				+ Arrays.toString(labels) + "]";
+	}
+}
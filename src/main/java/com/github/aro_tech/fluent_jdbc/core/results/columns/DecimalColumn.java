@@ -0,0 +1,143 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.Stream;
+
+/**
+ * Values of a NUMERIC column of a query result which does not fit in a long
+ * or a double without rounding (e.g. a PostgreSQL numeric without precision),
+ * stored as BigDecimals. SQL NULLs are stored as null and marked in a null
+ * bitmap.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class DecimalColumn {
+	private final BigDecimal[] values;
+	private final int size;
+	private final BitSet nulls;
+
+	DecimalColumn(BigDecimal[] values, int size, BitSet nulls) {
+		super();
+		this.values = values;
+		this.size = size;
+		this.nulls = nulls;
+	}
+
+	/**
+	 * Read a column of all the remaining rows of a result set
+	 * 
+	 * @param rs
+	 *            result set positioned before its first row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return column values
+	 * @throws SQLException
+	 */
+	public static DecimalColumn read(ResultSet rs, int column)
+			throws SQLException {
+		final Builder builder = new Builder();
+		while (rs.next()) {
+			builder.add(rs, column);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return value of the row (null if NULL)
+	 */
+	public BigDecimal get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+		return values[row];
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return true if the value of the row is NULL
+	 */
+	public boolean isNull(int row) {
+		return null != nulls && nulls.get(row);
+	}
+
+	/**
+	 * @return true if at least one value is NULL
+	 */
+	public boolean hasNulls() {
+		return null != nulls;
+	}
+
+	/**
+	 * @return copy of the null bitmap: bit i is set if row i is NULL
+	 */
+	public BitSet getNulls() {
+		return null != nulls ? (BitSet) nulls.clone() : new BitSet();
+	}
+
+	/**
+	 * @return copy of the values, NULLs stored as null
+	 */
+	public BigDecimal[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * @return stream of the values, NULLs as null
+	 */
+	public Stream<BigDecimal> stream() {
+		return Arrays.stream(values, 0, size);
+	}
+
+	@Override
+	public String toString() {
+		return "DecimalColumn [size=" + size + ", nulls="
+				+ (null != nulls ? nulls.cardinality() : 0) + "]";
+	}
+
+	/**
+	 * Appends the values of the rows as they are read
+	 */
+	static final class Builder implements ColumnBuilder {
+		private BigDecimal[] values = new BigDecimal[Capacity.INITIAL];
+		private int size = 0;
+		private BitSet nulls = null;
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			final BigDecimal value = rs.getBigDecimal(column);
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Capacity.grow(size));
+			}
+			if (null == value) {
+				if (null == nulls) {
+					nulls = new BitSet();
+				}
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		public DecimalColumn build() {
+			return new DecimalColumn(values, size, nulls);
+		}
+	}
+}
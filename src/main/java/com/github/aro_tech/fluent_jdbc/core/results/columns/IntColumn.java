@@ -0,0 +1,189 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.IntStream;
+
+/**
+ * Values of an int column of a query result, stored in an int array without
+ * boxing. SQL NULLs are stored as 0 and marked in a null bitmap.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class IntColumn {
+	private final int[] values;
+	private final int size;
+	private final BitSet nulls;
+
+	IntColumn(int[] values, int size, BitSet nulls) {
+		super();
+		this.values = values;
+		this.size = size;
+		this.nulls = nulls;
+	}
+
+	/**
+	 * Read a column of all the remaining rows of a result set
+	 * 
+	 * @param rs
+	 *            result set positioned before its first row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return column values
+	 * @throws SQLException
+	 */
+	public static IntColumn read(ResultSet rs, int column) throws SQLException {
+		final Builder builder = new Builder();
+		while (rs.next()) {
+			builder.add(rs, column);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return value of the row (0 if NULL)
+	 */
+	public int get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+		return values[row];
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return true if the value of the row is NULL
+	 */
+	public boolean isNull(int row) {
+		return null != nulls && nulls.get(row);
+	}
+
+	/**
+	 * @return true if at least one value is NULL
+	 */
+	public boolean hasNulls() {
+		return null != nulls;
+	}
+
+	/**
+	 * @return copy of the null bitmap: bit i is set if row i is NULL
+	 */
+	public BitSet getNulls() {
+		return null != nulls ? (BitSet) nulls.clone() : new BitSet();
+	}
+
+	/**
+	 * Direct access to the values, for loops the JIT can vectorise. The array
+	 * may be longer than size() and must not be modified.
+	 * 
+	 * @return backing array, NULLs stored as 0
+	 */
+	public int[] values() {
+		return values;
+	}
+
+	/**
+	 * @return copy of the values, NULLs stored as 0
+	 */
+	public int[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * @param nullValue
+	 *            sentinel stored for NULLs
+	 * @return copy of the values
+	 */
+	public int[] toArray(int nullValue) {
+		final int[] copy = Arrays.copyOf(values, size);
+		if (null != nulls) {
+			for (int i = nulls.nextSetBit(0); i >= 0; i = nulls
+					.nextSetBit(i + 1)) {
+				copy[i] = nullValue;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * @return stream of the values, NULLs as 0
+	 */
+	public IntStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+
+	@Override
+	public String toString() {
+		return "IntColumn [size=" + size + ", nulls="
+				+ (null != nulls ? nulls.cardinality() : 0) + "]";
+	}
+
+	/**
+	 * Appends the values of the rows as they are read
+	 */
+	static final class Builder implements ColumnBuilder {
+		private int[] values = new int[Capacity.INITIAL];
+		private int size = 0;
+		private BitSet nulls = null;
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			append(rs.getInt(column), rs);
+		}
+
+		/**
+		 * Append the value read from the current row
+		 */
+		void append(int value, ResultSet rs) throws SQLException {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Capacity.grow(size));
+			}
+			// getInt() returns 0 for NULL: other values need no wasNull() call
+			if (0 == value && rs.wasNull()) {
+				if (null == nulls) {
+					nulls = new BitSet();
+				}
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		public IntColumn build() {
+			return new IntColumn(values, size, nulls);
+		}
+	}
+
+	/**
+	 * Appends the values of a BOOLEAN column as 1 (true) or 0 (false)
+	 */
+	static final class BooleanBuilder implements ColumnBuilder {
+		private final Builder ints = new Builder();
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			ints.append(rs.getBoolean(column) ? 1 : 0, rs);
+		}
+
+		@Override
+		public IntColumn build() {
+			return ints.build();
+		}
+	}
+}
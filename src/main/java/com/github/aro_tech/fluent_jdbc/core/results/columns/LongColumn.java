@@ -0,0 +1,192 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.stream.LongStream;
+
+/**
+ * Values of a long column of a query result, stored in a long array without
+ * boxing. SQL NULLs are stored as 0L and marked in a null bitmap.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class LongColumn {
+	private final long[] values;
+	private final int size;
+	private final BitSet nulls;
+
+	LongColumn(long[] values, int size, BitSet nulls) {
+		super();
+		this.values = values;
+		this.size = size;
+		this.nulls = nulls;
+	}
+
+	/**
+	 * Read a column of all the remaining rows of a result set
+	 * 
+	 * @param rs
+	 *            result set positioned before its first row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return column values
+	 * @throws SQLException
+	 */
+	public static LongColumn read(ResultSet rs, int column) throws SQLException {
+		final Builder builder = new Builder();
+		while (rs.next()) {
+			builder.add(rs, column);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return value of the row (0L if NULL)
+	 */
+	public long get(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+		return values[row];
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return true if the value of the row is NULL
+	 */
+	public boolean isNull(int row) {
+		return null != nulls && nulls.get(row);
+	}
+
+	/**
+	 * @return true if at least one value is NULL
+	 */
+	public boolean hasNulls() {
+		return null != nulls;
+	}
+
+	/**
+	 * @return copy of the null bitmap: bit i is set if row i is NULL
+	 */
+	public BitSet getNulls() {
+		return null != nulls ? (BitSet) nulls.clone() : new BitSet();
+	}
+
+	/**
+	 * Direct access to the values, for loops the JIT can vectorise. The array
+	 * may be longer than size() and must not be modified.
+	 * 
+	 * @return backing array, NULLs stored as 0L
+	 */
+	public long[] values() {
+		return values;
+	}
+
+	/**
+	 * @return copy of the values, NULLs stored as 0L
+	 */
+	public long[] toArray() {
+		return Arrays.copyOf(values, size);
+	}
+
+	/**
+	 * @param nullValue
+	 *            sentinel stored for NULLs
+	 * @return copy of the values
+	 */
+	public long[] toArray(long nullValue) {
+		final long[] copy = Arrays.copyOf(values, size);
+		if (null != nulls) {
+			for (int i = nulls.nextSetBit(0); i >= 0; i = nulls
+					.nextSetBit(i + 1)) {
+				copy[i] = nullValue;
+			}
+		}
+		return copy;
+	}
+
+	/**
+	 * @return stream of the values, NULLs as 0L
+	 */
+	public LongStream stream() {
+		return Arrays.stream(values, 0, size);
+	}
+
+	@Override
+	public String toString() {
+		return "LongColumn [size=" + size + ", nulls="
+				+ (null != nulls ? nulls.cardinality() : 0) + "]";
+	}
+
+	/**
+	 * Appends the values of the rows as they are read
+	 */
+	static final class Builder implements ColumnBuilder {
+		private long[] values = new long[Capacity.INITIAL];
+		private int size = 0;
+		private BitSet nulls = null;
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			append(rs.getLong(column), rs);
+		}
+
+		/**
+		 * Append the value read from the current row
+		 */
+		void append(long value, ResultSet rs) throws SQLException {
+			if (size == values.length) {
+				values = Arrays.copyOf(values, Capacity.grow(size));
+			}
+			// getLong() returns 0L for NULL: other values need no wasNull() call
+			if (0L == value && rs.wasNull()) {
+				if (null == nulls) {
+					nulls = new BitSet();
+				}
+				nulls.set(size);
+			}
+			values[size++] = value;
+		}
+
+		@Override
+		public LongColumn build() {
+			return new LongColumn(values, size, nulls);
+		}
+	}
+
+	/**
+	 * Appends the values of a DATE or TIMESTAMP column as milliseconds since
+	 * the epoch
+	 */
+	static final class EpochMillisBuilder implements ColumnBuilder {
+		private final Builder longs = new Builder();
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			final Timestamp value = rs.getTimestamp(column);
+			longs.append(null != value ? value.getTime() : 0L, rs);
+		}
+
+		@Override
+		public LongColumn build() {
+			return longs.build();
+		}
+	}
+}
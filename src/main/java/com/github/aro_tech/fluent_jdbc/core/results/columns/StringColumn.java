@@ -0,0 +1,249 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.columns;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * Values of a text column of a query result, dictionary-encoded: each
+ * distinct value is stored once and the rows hold its code in an int array.
+ * SQL NULLs have the code -1 and are marked in a null bitmap.
+ * 
+ * Columns with few distinct values (status, country, category...) take about
+ * 4 bytes per row, and rows can be grouped or filtered on the codes without
+ * comparing strings.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class StringColumn {
+	/**
+	 * Code of the NULL values
+	 */
+	public static final int NULL_CODE = -1;
+
+	private final int[] codes;
+	private final int size;
+	private final String[] dictionary;
+	private final int dictionarySize;
+	private final BitSet nulls;
+
+	StringColumn(int[] codes, int size, String[] dictionary,
+			int dictionarySize, BitSet nulls) {
+		super();
+		this.codes = codes;
+		this.size = size;
+		this.dictionary = dictionary;
+		this.dictionarySize = dictionarySize;
+		this.nulls = nulls;
+	}
+
+	/**
+	 * Read a column of all the remaining rows of a result set
+	 * 
+	 * @param rs
+	 *            result set positioned before its first row
+	 * @param column
+	 *            column index (starting at 1)
+	 * @return column values
+	 * @throws SQLException
+	 */
+	public static StringColumn read(ResultSet rs, int column)
+			throws SQLException {
+		final Builder builder = new Builder();
+		while (rs.next()) {
+			builder.add(rs, column);
+		}
+		return builder.build();
+	}
+
+	/**
+	 * @return number of rows
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return value of the row (null if NULL)
+	 */
+	public String get(int row) {
+		final int code = code(row);
+		return NULL_CODE == code ? null : dictionary[code];
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return dictionary code of the value of the row (NULL_CODE if NULL)
+	 */
+	public int code(int row) {
+		if (row < 0 || row >= size) {
+			throw new IndexOutOfBoundsException("Row " + row + " of " + size);
+		}
+		return codes[row];
+	}
+
+	/**
+	 * @param value
+	 *            a value
+	 * @return its dictionary code (NULL_CODE if null or absent from the
+	 *         column)
+	 */
+	public int codeOf(String value) {
+		if (null != value) {
+			for (int i = 0; i < dictionarySize; i++) {
+				if (value.equals(dictionary[i])) {
+					return i;
+				}
+			}
+		}
+		return NULL_CODE;
+	}
+
+	/**
+	 * @param code
+	 *            dictionary code
+	 * @return the value it stands for
+	 */
+	public String decode(int code) {
+		if (code < 0 || code >= dictionarySize) {
+			throw new IndexOutOfBoundsException("Code " + code + " of "
+					+ dictionarySize);
+		}
+		return dictionary[code];
+	}
+
+	/**
+	 * @return number of distinct non-NULL values
+	 */
+	public int getDictionarySize() {
+		return dictionarySize;
+	}
+
+	/**
+	 * @return distinct non-NULL values, indexed by their code
+	 */
+	public String[] getDictionary() {
+		return Arrays.copyOf(dictionary, dictionarySize);
+	}
+
+	/**
+	 * @param row
+	 *            row index (starting at 0)
+	 * @return true if the value of the row is NULL
+	 */
+	public boolean isNull(int row) {
+		return null != nulls && nulls.get(row);
+	}
+
+	/**
+	 * @return true if at least one value is NULL
+	 */
+	public boolean hasNulls() {
+		return null != nulls;
+	}
+
+	/**
+	 * @return copy of the null bitmap: bit i is set if row i is NULL
+	 */
+	public BitSet getNulls() {
+		return null != nulls ? (BitSet) nulls.clone() : new BitSet();
+	}
+
+	/**
+	 * Direct access to the codes, for loops the JIT can vectorise. The array
+	 * may be longer than size() and must not be modified.
+	 * 
+	 * @return backing array of the dictionary codes, NULLs as NULL_CODE
+	 */
+	public int[] codes() {
+		return codes;
+	}
+
+	/**
+	 * @return stream of the dictionary codes, NULLs as NULL_CODE
+	 */
+	public IntStream codeStream() {
+		return Arrays.stream(codes, 0, size);
+	}
+
+	/**
+	 * @return decoded values (null for NULLs)
+	 */
+	public String[] toArray() {
+		final String[] values = new String[size];
+		for (int i = 0; i < size; i++) {
+			values[i] = NULL_CODE == codes[i] ? null : dictionary[codes[i]];
+		}
+		return values;
+	}
+
+	/**
+	 * @return stream of the decoded values (null for NULLs)
+	 */
+	public Stream<String> stream() {
+		return codeStream().mapToObj(
+				code -> NULL_CODE == code ? null : dictionary[code]);
+	}
+
+	@Override
+	public String toString() {
+		return "StringColumn [size=" + size + ", distinct=" + dictionarySize
+				+ ", nulls=" + (null != nulls ? nulls.cardinality() : 0) + "]";
+	}
+
+	/**
+	 * Appends the values of the rows as they are read, assigning a code to
+	 * each new value
+	 */
+	static final class Builder implements ColumnBuilder {
+		private int[] codes = new int[Capacity.INITIAL];
+		private int size = 0;
+		private String[] dictionary = new String[Capacity.INITIAL];
+		private final Map<String, Integer> codesByValue = new HashMap<String, Integer>();
+		private BitSet nulls = null;
+
+		@Override
+		public void add(ResultSet rs, int column) throws SQLException {
+			final String value = rs.getString(column);
+			if (size == codes.length) {
+				codes = Arrays.copyOf(codes, Capacity.grow(size));
+			}
+			if (null == value) {
+				if (null == nulls) {
+					nulls = new BitSet();
+				}
+				nulls.set(size);
+				codes[size++] = NULL_CODE;
+				return;
+			}
+			Integer code = codesByValue.get(value);
+			if (null == code) {
+				code = codesByValue.size();
+				if (code == dictionary.length) {
+					dictionary = Arrays.copyOf(dictionary, Capacity.grow(code));
+				}
+				dictionary[code] = value;
+				codesByValue.put(value, code);
+			}
+			codes[size++] = code;
+		}
+
+		@Override
+		public StringColumn build() {
+			return new StringColumn(codes, size, dictionary,
+					codesByValue.size(), nulls);
+		}
+	}
+}
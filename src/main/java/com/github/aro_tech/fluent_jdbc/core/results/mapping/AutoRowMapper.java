@@ -0,0 +1,211 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.mapping;
+
+import java.lang.ref.WeakReference;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.github.aro_tech.fluent_jdbc.core.results.ResultSetReader;
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
+
+/**
+ * RowMapper which converts rows to objects of a given class automatically:
+ * simple values, records, beans, or classes with a constructor taking one
+ * argument per column.
+ * 
+ * The mapping plan is built once per class and set of column labels, and
+ * shared by all mappers. Mapping a row costs about the same as hand-written
+ * rs.getXxx(index) calls: there is no reflection or name lookup per row.
+ * 
+ * @author aro_tech
+ *
+ */
+public final class AutoRowMapper<T> implements RowMapper<T> {
+	private static final ConcurrentMap<PlanKey, MappingPlan<?>> PLANS = new ConcurrentHashMap<PlanKey, MappingPlan<?>>();
+	/**
+	 * One reader per class, so that requests reading the same class have the
+	 * same reader (e.g. in their QueryResultCache keys)
+	 */
+	private static final ClassValue<ResultSetReader<?>> LIST_READERS = new ClassValue<ResultSetReader<?>>() {
+		@Override
+		protected ResultSetReader<?> computeValue(Class<?> type) {
+			return newListReader(type);
+		}
+	};
+	private static final ClassValue<ResultSetReader<?>> SET_READERS = new ClassValue<ResultSetReader<?>>() {
+		@Override
+		protected ResultSetReader<?> computeValue(Class<?> type) {
+			return newSetReader(type);
+		}
+	};
+
+	private final Class<T> type;
+	private volatile ResolvedPlan<T> lastResolved;
+
+	private AutoRowMapper(Class<T> type) {
+		super();
+		this.type = type;
+	}
+
+	/**
+	 * Static factory
+	 * 
+	 * @param type
+	 *            class of the objects to build
+	 * @return mapper
+	 */
+	public static <T> AutoRowMapper<T> of(Class<T> type) {
+		return new AutoRowMapper<T>(type);
+	}
+
+	/**
+	 * @param type
+	 *            class of the list elements
+	 * @return reader converting all rows to a list
+	 */
+	@SuppressWarnings("unchecked")
+	public static <U> ResultSetReader<List<U>> listReader(final Class<U> type) {
+		return (ResultSetReader<List<U>>) LIST_READERS.get(type);
+	}
+
+	private static <U> ResultSetReader<List<U>> newListReader(
+			final Class<U> type) {
+		return rs -> {
+			final MappingPlan<U> plan = planFor(type, rs);
+			List<U> results = new ArrayList<U>();
+			while (rs.next()) {
+				results.add(plan.map(rs));
+			}
+			return results;
+		};
+	}
+
+	/**
+	 * @param type
+	 *            class of the set elements
+	 * @return reader converting all rows to a set
+	 */
+	@SuppressWarnings("unchecked")
+	public static <U> ResultSetReader<Set<U>> setReader(final Class<U> type) {
+		return (ResultSetReader<Set<U>>) SET_READERS.get(type);
+	}
+
+	private static <U> ResultSetReader<Set<U>> newSetReader(final Class<U> type) {
+		return rs -> {
+			final MappingPlan<U> plan = planFor(type, rs);
+			Set<U> results = new HashSet<U>();
+			while (rs.next()) {
+				results.add(plan.map(rs));
+			}
+			return results;
+		};
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * 
+	 * @see
+	 * com.github.aro_tech.fluent_jdbc.core.results.RowMapper#mapRow(java.sql
+	 * .ResultSet)
+	 */
+	@Override
+	public T mapRow(ResultSet rs) throws SQLException {
+		ResolvedPlan<T> resolved = lastResolved;
+		if (null == resolved || resolved.resultSet.get() != rs) {
+			resolved = new ResolvedPlan<T>(rs, planFor(type, rs));
+			lastResolved = resolved;
+		}
+		return resolved.plan.map(rs);
+	}
+
+	@SuppressWarnings("unchecked")
+	static <U> MappingPlan<U> planFor(Class<U> type, ResultSet rs)
+			throws SQLException {
+		final ResultSetMetaData metaData = rs.getMetaData();
+		final PlanKey key = new PlanKey(type, columnLabels(metaData),
+				columnTypes(metaData));
+		MappingPlan<U> plan = (MappingPlan<U>) PLANS.get(key);
+		if (null == plan) {
+			plan = MappingPlan.build(type, key.labels, key.sqlTypes);
+			MappingPlan<U> concurrent = (MappingPlan<U>) PLANS.putIfAbsent(
+					key, plan);
+			if (null != concurrent) {
+				plan = concurrent;
+			}
+		}
+		return plan;
+	}
+
+	private static String[] columnLabels(ResultSetMetaData metaData)
+			throws SQLException {
+		final String[] labels = new String[metaData.getColumnCount()];
+		for (int i = 0; i < labels.length; i++) {
+			labels[i] = metaData.getColumnLabel(i + 1);
+		}
+		return labels;
+	}
+
+	private static int[] columnTypes(ResultSetMetaData metaData)
+			throws SQLException {
+		final int[] sqlTypes = new int[metaData.getColumnCount()];
+		for (int i = 0; i < sqlTypes.length; i++) {
+			sqlTypes[i] = metaData.getColumnType(i + 1);
+		}
+		return sqlTypes;
+	}
+
+	/**
+	 * Plan used for the rows of the last ResultSet seen, so the metadata is
+	 * only read once per query (the ResultSet is not kept from being
+	 * collected)
+	 */
+	private static final class ResolvedPlan<T> {
+		private final WeakReference<ResultSet> resultSet;
+		private final MappingPlan<T> plan;
+
+		ResolvedPlan(ResultSet resultSet, MappingPlan<T> plan) {
+			this.resultSet = new WeakReference<ResultSet>(resultSet);
+			this.plan = plan;
+		}
+	}
+
+	private static final class PlanKey {
+		private final Class<?> type;
+		private final String[] labels;
+		private final int[] sqlTypes;
+		private final int hash;
+
+		PlanKey(Class<?> type, String[] labels, int[] sqlTypes) {
+			this.type = type;
+			this.labels = labels;
+			this.sqlTypes = sqlTypes;
+			this.hash = 31 * (31 * type.hashCode() + Arrays.hashCode(labels))
+					+ Arrays.hashCode(sqlTypes);
+		}
+
+		@Override
+		public int hashCode() {
+			return hash;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof PlanKey)) {
+				return false;
+			}
+			PlanKey other = (PlanKey) obj;
+			return type == other.type && Arrays.equals(labels, other.labels)
+					&& Arrays.equals(sqlTypes, other.sqlTypes);
+		}
+	}
+}
@@ -0,0 +1,261 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Method handles reading one column of the current row as a given Java type,
+ * with the column index bound in: (ResultSet)type
+ * 
+ * @author aro_tech
+ *
+ */
+final class ColumnGetters {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final Map<Class<?>, MethodHandle> GETTERS = new HashMap<Class<?>, MethodHandle>();
+
+	static {
+		try {
+			addResultSetGetter(long.class, "getLong");
+			addResultSetGetter(int.class, "getInt");
+			addResultSetGetter(short.class, "getShort");
+			addResultSetGetter(byte.class, "getByte");
+			addResultSetGetter(double.class, "getDouble");
+			addResultSetGetter(float.class, "getFloat");
+			addResultSetGetter(boolean.class, "getBoolean");
+			addResultSetGetter(String.class, "getString");
+			addResultSetGetter(BigDecimal.class, "getBigDecimal");
+			addResultSetGetter(byte[].class, "getBytes");
+			addResultSetGetter(Timestamp.class, "getTimestamp");
+			addResultSetGetter(Date.class, "getDate");
+			addResultSetGetter(Time.class, "getTime");
+			addNullableGetter(Long.class, "getNullableLong");
+			addNullableGetter(Integer.class, "getNullableInt");
+			addNullableGetter(Short.class, "getNullableShort");
+			addNullableGetter(Byte.class, "getNullableByte");
+			addNullableGetter(Double.class, "getNullableDouble");
+			addNullableGetter(Float.class, "getNullableFloat");
+			addNullableGetter(Boolean.class, "getNullableBoolean");
+			addNullableGetter(LocalDateTime.class, "getLocalDateTime");
+			addNullableGetter(LocalDate.class, "getLocalDate");
+			addNullableGetter(Instant.class, "getInstant");
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private static final Set<Class<?>> INTEGERS = types(long.class,
+			Long.class, int.class, Integer.class, short.class, Short.class,
+			byte.class, Byte.class);
+	private static final Set<Class<?>> DECIMALS = types(BigDecimal.class,
+			double.class, Double.class, float.class, Float.class);
+	private static final Set<Class<?>> TEXTS = types(String.class);
+	private static final Set<Class<?>> BOOLEANS = types(boolean.class,
+			Boolean.class);
+	private static final Set<Class<?>> DATES = types(Date.class,
+			LocalDate.class);
+	private static final Set<Class<?>> TIMESTAMPS = types(Timestamp.class,
+			LocalDateTime.class, Instant.class);
+	private static final Set<Class<?>> TIMES = types(Time.class);
+	private static final Set<Class<?>> BINARIES = types(byte[].class);
+
+	private ColumnGetters() {
+	}
+
+	private static Set<Class<?>> types(Class<?>... types) {
+		return new HashSet<Class<?>>(Arrays.asList(types));
+	}
+
+	/**
+	 * @param type
+	 *            Java type to read
+	 * @param sqlType
+	 *            type of the column (java.sql.Types)
+	 * @return true if the column is of a kind usually read as this type (e.g.
+	 *         an INTEGER column as int or Long, not as String), to choose
+	 *         between constructors taking the same number of arguments
+	 */
+	static boolean accepts(Class<?> type, int sqlType) {
+		if (Object.class == type || !isSupportedScalar(type)) {
+			// read with getObject(): any column may convert
+			return true;
+		}
+		switch (sqlType) {
+		case Types.BIGINT:
+		case Types.INTEGER:
+		case Types.SMALLINT:
+		case Types.TINYINT:
+			return INTEGERS.contains(type) || BigDecimal.class == type;
+		case Types.NUMERIC:
+		case Types.DECIMAL:
+			return DECIMALS.contains(type) || INTEGERS.contains(type);
+		case Types.REAL:
+		case Types.FLOAT:
+		case Types.DOUBLE:
+			return DECIMALS.contains(type);
+		case Types.CHAR:
+		case Types.VARCHAR:
+		case Types.LONGVARCHAR:
+		case Types.NCHAR:
+		case Types.NVARCHAR:
+		case Types.LONGNVARCHAR:
+		case Types.CLOB:
+			return TEXTS.contains(type) || type.isEnum();
+		case Types.BOOLEAN:
+		case Types.BIT:
+			return BOOLEANS.contains(type);
+		case Types.DATE:
+			return DATES.contains(type);
+		case Types.TIMESTAMP:
+		case Types.TIMESTAMP_WITH_TIMEZONE:
+			return TIMESTAMPS.contains(type);
+		case Types.TIME:
+			return TIMES.contains(type);
+		case Types.BINARY:
+		case Types.VARBINARY:
+		case Types.LONGVARBINARY:
+			return BINARIES.contains(type);
+		default:
+			// unknown kinds (e.g. OTHER for json or enums) do not decide
+			return true;
+		}
+	}
+
+	private static void addResultSetGetter(Class<?> type, String name)
+			throws ReflectiveOperationException {
+		GETTERS.put(type, LOOKUP.findVirtual(ResultSet.class, name,
+				MethodType.methodType(type, int.class)));
+	}
+
+	private static void addNullableGetter(Class<?> type, String name)
+			throws ReflectiveOperationException {
+		GETTERS.put(type, LOOKUP.findStatic(ColumnGetters.class, name,
+				MethodType.methodType(type, ResultSet.class, int.class)));
+	}
+
+	/**
+	 * @param type
+	 *            Java type to read
+	 * @return true if a column can be converted directly to this type
+	 */
+	static boolean isSupportedScalar(Class<?> type) {
+		return GETTERS.containsKey(type) || type.isEnum();
+	}
+
+	/**
+	 * @param type
+	 *            Java type to read
+	 * @param column
+	 *            1-based column index
+	 * @return handle of type (ResultSet)type reading the column
+	 * @throws ReflectiveOperationException
+	 */
+	static MethodHandle forType(Class<?> type, int column)
+			throws ReflectiveOperationException {
+		MethodHandle getter = GETTERS.get(type);
+		if (null == getter) {
+			if (type.isEnum()) {
+				getter = MethodHandles.insertArguments(LOOKUP.findStatic(
+						ColumnGetters.class, "getEnum", MethodType.methodType(
+								Enum.class, ResultSet.class, int.class,
+								Class.class)), 2, type);
+			} else {
+				getter = MethodHandles.insertArguments(LOOKUP.findStatic(
+						ColumnGetters.class, "getObject", MethodType.methodType(
+								Object.class, ResultSet.class, int.class,
+								Class.class)), 2, type);
+			}
+			getter = getter.asType(MethodType.methodType(type,
+					ResultSet.class, int.class));
+		}
+		return MethodHandles.insertArguments(getter, 1, column);
+	}
+
+	static Long getNullableLong(ResultSet rs, int column) throws SQLException {
+		final long value = rs.getLong(column);
+		return rs.wasNull() ? null : Long.valueOf(value);
+	}
+
+	static Integer getNullableInt(ResultSet rs, int column)
+			throws SQLException {
+		final int value = rs.getInt(column);
+		return rs.wasNull() ? null : Integer.valueOf(value);
+	}
+
+	static Short getNullableShort(ResultSet rs, int column)
+			throws SQLException {
+		final short value = rs.getShort(column);
+		return rs.wasNull() ? null : Short.valueOf(value);
+	}
+
+	static Byte getNullableByte(ResultSet rs, int column) throws SQLException {
+		final byte value = rs.getByte(column);
+		return rs.wasNull() ? null : Byte.valueOf(value);
+	}
+
+	static Double getNullableDouble(ResultSet rs, int column)
+			throws SQLException {
+		final double value = rs.getDouble(column);
+		return rs.wasNull() ? null : Double.valueOf(value);
+	}
+
+	static Float getNullableFloat(ResultSet rs, int column)
+			throws SQLException {
+		final float value = rs.getFloat(column);
+		return rs.wasNull() ? null : Float.valueOf(value);
+	}
+
+	static Boolean getNullableBoolean(ResultSet rs, int column)
+			throws SQLException {
+		final boolean value = rs.getBoolean(column);
+		return rs.wasNull() ? null : Boolean.valueOf(value);
+	}
+
+	static LocalDateTime getLocalDateTime(ResultSet rs, int column)
+			throws SQLException {
+		final Timestamp value = rs.getTimestamp(column);
+		return null == value ? null : value.toLocalDateTime();
+	}
+
+	static LocalDate getLocalDate(ResultSet rs, int column)
+			throws SQLException {
+		final Date value = rs.getDate(column);
+		return null == value ? null : value.toLocalDate();
+	}
+
+	static Instant getInstant(ResultSet rs, int column) throws SQLException {
+		final Timestamp value = rs.getTimestamp(column);
+		return null == value ? null : value.toInstant();
+	}
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	static Enum<?> getEnum(ResultSet rs, int column, Class<?> enumType)
+			throws SQLException {
+		final String value = rs.getString(column);
+		return null == value ? null : Enum.valueOf((Class) enumType, value);
+	}
+
+	static Object getObject(ResultSet rs, int column, Class<?> type)
+			throws SQLException {
+		return type.cast(rs.getObject(column));
+	}
+}
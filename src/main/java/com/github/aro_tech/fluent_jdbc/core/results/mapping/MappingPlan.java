@@ -0,0 +1,370 @@
+/**
+ * 
+ */
+package com.github.aro_tech.fluent_jdbc.core.results.mapping;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.AccessibleObject;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Pre-computed conversion of rows with a given set of column labels into
+ * objects of a given class. All reflection and name matching happens when the
+ * plan is built; mapping a row only invokes method handles with the column
+ * indexes bound in.
+ * 
+ * @author aro_tech
+ *
+ */
+final class MappingPlan<T> {
+	private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+	private static final MethodType ROW_TO_OBJECT = MethodType.methodType(
+			Object.class, ResultSet.class);
+	private static final MethodType WRITE_COLUMN = MethodType.methodType(
+			void.class, Object.class, ResultSet.class);
+	private static final Method IS_RECORD = findClassMethod("isRecord");
+	private static final Method GET_RECORD_COMPONENTS = findClassMethod("getRecordComponents");
+
+	private final Class<T> type;
+	/** (ResultSet)Object, for objects built from the whole row at once */
+	private final MethodHandle rowConstructor;
+	/** ()Object, for beans */
+	private final MethodHandle noArgConstructor;
+	/** (Object, ResultSet)void, one per mapped column of a bean */
+	private final MethodHandle[] columnWriters;
+
+	private MappingPlan(Class<T> type, MethodHandle rowConstructor,
+			MethodHandle noArgConstructor, MethodHandle[] columnWriters) {
+		super();
+		this.type = type;
+		this.rowConstructor = rowConstructor;
+		this.noArgConstructor = noArgConstructor;
+		this.columnWriters = columnWriters;
+	}
+
+	/**
+	 * Convert the current row
+	 * 
+	 * @param rs
+	 *            results positioned on a row
+	 * @return new object
+	 * @throws SQLException
+	 */
+	@SuppressWarnings("unchecked")
+	T map(ResultSet rs) throws SQLException {
+		try {
+			if (null != rowConstructor) {
+				return (T) (Object) rowConstructor.invokeExact(rs);
+			}
+			final Object target = (Object) noArgConstructor.invokeExact();
+			for (MethodHandle writer : columnWriters) {
+				writer.invokeExact(target, rs);
+			}
+			return (T) target;
+		} catch (SQLException | RuntimeException | Error e) {
+			throw e;
+		} catch (Throwable t) {
+			throw new SQLException("Failed to map row to " + type.getName(),
+					t);
+		}
+	}
+
+	/**
+	 * Build the plan for a class and a set of columns. Supported targets, in
+	 * order of precedence: simple values (first column), records, beans
+	 * (no-argument constructor plus setters or fields named like the
+	 * columns), and classes with a constructor taking one argument per
+	 * column (matched by name if compiled with -parameters, by position
+	 * otherwise). Column labels match property names ignoring case and
+	 * underscores (e.g. user_id matches userId). When several constructors
+	 * take one argument per column, the only one whose parameter types suit
+	 * the column types is used, whatever the order in which the JVM lists
+	 * them.
+	 * 
+	 * @param type
+	 *            target class
+	 * @param labels
+	 *            column labels, in column order
+	 * @param sqlTypes
+	 *            column types (java.sql.Types), in column order
+	 * @return plan
+	 * @throws SQLException
+	 *             if the class cannot be built from these columns, or if the
+	 *             constructor to use is ambiguous
+	 */
+	static <T> MappingPlan<T> build(Class<T> type, String[] labels,
+			int[] sqlTypes) throws SQLException {
+		try {
+			if (ColumnGetters.isSupportedScalar(type)) {
+				return new MappingPlan<T>(type, ColumnGetters.forType(type, 1)
+						.asType(ROW_TO_OBJECT), null, null);
+			}
+			if (isRecord(type)) {
+				return forRecord(type, labels);
+			}
+			Constructor<?> noArg = findNoArgConstructor(type);
+			if (null != noArg) {
+				return forBean(type, noArg, labels);
+			}
+			return forConstructor(type, labels, sqlTypes);
+		} catch (ReflectiveOperationException e) {
+			throw new SQLException("Cannot map rows to " + type.getName(), e);
+		}
+	}
+
+	private static <T> MappingPlan<T> forRecord(Class<T> type, String[] labels)
+			throws ReflectiveOperationException, SQLException {
+		Object[] components = (Object[]) GET_RECORD_COMPONENTS.invoke(type);
+		Class<?>[] parameterTypes = new Class<?>[components.length];
+		int[] columns = new int[components.length];
+		for (int i = 0; i < components.length; i++) {
+			String name = (String) components[i].getClass()
+					.getMethod("getName").invoke(components[i]);
+			parameterTypes[i] = (Class<?>) components[i].getClass()
+					.getMethod("getType").invoke(components[i]);
+			columns[i] = columnOf(name, labels);
+			if (columns[i] < 1) {
+				throw new SQLException("No column for record component "
+						+ name + " of " + type.getName());
+			}
+		}
+		return forConstructor(type,
+				type.getDeclaredConstructor(parameterTypes), columns);
+	}
+
+	private static <T> MappingPlan<T> forConstructor(Class<T> type,
+			String[] labels, int[] sqlTypes)
+			throws ReflectiveOperationException, SQLException {
+		int[] inOrder = new int[labels.length];
+		for (int i = 0; i < inOrder.length; i++) {
+			inOrder[i] = i + 1;
+		}
+		List<Constructor<?>> byName = new ArrayList<Constructor<?>>();
+		List<int[]> byNameColumns = new ArrayList<int[]>();
+		List<Constructor<?>> positional = new ArrayList<Constructor<?>>();
+		for (Constructor<?> candidate : type.getDeclaredConstructors()) {
+			if (candidate.getParameterCount() != labels.length) {
+				continue;
+			}
+			int[] columns = columnsByParameterName(candidate, labels);
+			if (null != columns) {
+				byName.add(candidate);
+				byNameColumns.add(columns);
+			} else {
+				positional.add(candidate);
+			}
+		}
+		if (!byName.isEmpty()) {
+			int chosen = choose(type, byName, byNameColumns, labels, sqlTypes);
+			return forConstructor(type, byName.get(chosen),
+					byNameColumns.get(chosen));
+		}
+		if (positional.isEmpty()) {
+			throw new SQLException("No constructor of " + type.getName()
+					+ " takes " + labels.length + " arguments");
+		}
+		int chosen = choose(type, positional,
+				Collections.nCopies(positional.size(), inOrder), labels,
+				sqlTypes);
+		return forConstructor(type, positional.get(chosen), inOrder);
+	}
+
+	/**
+	 * @return index of the only candidate, or of the only one whose
+	 *         parameter types suit the types of the columns they are read from
+	 */
+	private static int choose(Class<?> type, List<Constructor<?>> candidates,
+			List<int[]> columns, String[] labels, int[] sqlTypes)
+			throws SQLException {
+		if (candidates.size() == 1) {
+			return 0;
+		}
+		int chosen = -1;
+		for (int i = 0; i < candidates.size(); i++) {
+			if (suits(candidates.get(i), columns.get(i), sqlTypes)) {
+				if (chosen >= 0) {
+					chosen = -1;
+					break;
+				}
+				chosen = i;
+			}
+		}
+		if (chosen < 0) {
+			throw new SQLException("Cannot choose between the "
+					+ candidates.size() + " constructors of " + type.getName()
+					+ " taking " + labels.length + " arguments for columns "
+					+ Arrays.toString(labels)
+					+ ": none or several of them suit the column types");
+		}
+		return chosen;
+	}
+
+	private static boolean suits(Constructor<?> candidate, int[] columns,
+			int[] sqlTypes) {
+		Class<?>[] parameterTypes = candidate.getParameterTypes();
+		for (int i = 0; i < parameterTypes.length; i++) {
+			if (!ColumnGetters.accepts(parameterTypes[i],
+					sqlTypes[columns[i] - 1])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static int[] columnsByParameterName(Constructor<?> candidate,
+			String[] labels) {
+		Parameter[] parameters = candidate.getParameters();
+		int[] columns = new int[parameters.length];
+		for (int i = 0; i < parameters.length; i++) {
+			if (!parameters[i].isNamePresent()) {
+				return null;
+			}
+			columns[i] = columnOf(parameters[i].getName(), labels);
+			if (columns[i] < 1) {
+				return null;
+			}
+		}
+		return columns;
+	}
+
+	private static <T> MappingPlan<T> forConstructor(Class<T> type,
+			Constructor<?> constructor, int[] columns)
+			throws ReflectiveOperationException {
+		Class<?>[] parameterTypes = constructor.getParameterTypes();
+		MethodHandle handle = LOOKUP.unreflectConstructor(accessible(constructor));
+		MethodHandle[] getters = new MethodHandle[parameterTypes.length];
+		for (int i = 0; i < getters.length; i++) {
+			getters[i] = ColumnGetters.forType(parameterTypes[i], columns[i]);
+		}
+		handle = MethodHandles.filterArguments(handle, 0, getters);
+		// every argument is read from the same ResultSet
+		handle = MethodHandles.permuteArguments(handle,
+				MethodType.methodType(type, ResultSet.class),
+				new int[getters.length]);
+		return new MappingPlan<T>(type, handle.asType(ROW_TO_OBJECT), null,
+				null);
+	}
+
+	private static <T> MappingPlan<T> forBean(Class<T> type,
+			Constructor<?> noArg, String[] labels)
+			throws ReflectiveOperationException, SQLException {
+		Map<String, MethodHandle> setters = findPropertySetters(type);
+		List<MethodHandle> writers = new ArrayList<MethodHandle>();
+		for (int i = 0; i < labels.length; i++) {
+			MethodHandle setter = setters.get(normalize(labels[i]));
+			if (null != setter) {
+				MethodHandle getter = ColumnGetters.forType(setter.type()
+						.parameterType(1), i + 1);
+				writers.add(MethodHandles.filterArguments(setter, 1, getter)
+						.asType(WRITE_COLUMN));
+			}
+		}
+		if (writers.isEmpty()) {
+			throw new SQLException("No column matches a property of "
+					+ type.getName());
+		}
+		return new MappingPlan<T>(type, null, LOOKUP.unreflectConstructor(
+				accessible(noArg)).asType(MethodType.methodType(Object.class)),
+				writers.toArray(new MethodHandle[writers.size()]));
+	}
+
+	/**
+	 * @return handles of type (bean, value)void by normalized property name
+	 *         (setters take precedence over fields)
+	 */
+	private static Map<String, MethodHandle> findPropertySetters(
+			Class<?> type) throws IllegalAccessException {
+		Map<String, MethodHandle> setters = new HashMap<String, MethodHandle>();
+		for (Class<?> c = type; null != c && c != Object.class; c = c
+				.getSuperclass()) {
+			for (Field f : c.getDeclaredFields()) {
+				final int modifiers = f.getModifiers();
+				if (!Modifier.isStatic(modifiers)
+						&& !Modifier.isFinal(modifiers)) {
+					setters.putIfAbsent(normalize(f.getName()), LOOKUP
+							.unreflectSetter(accessible(f)));
+				}
+			}
+		}
+		for (Method m : type.getMethods()) {
+			if (m.getName().length() > 3 && m.getName().startsWith("set")
+					&& m.getParameterCount() == 1
+					&& !Modifier.isStatic(m.getModifiers())) {
+				MethodHandle setter = LOOKUP.unreflect(accessible(m));
+				setters.put(normalize(m.getName().substring(3)), setter
+						.asType(MethodType.methodType(void.class,
+								m.getDeclaringClass(), m.getParameterTypes()[0])));
+			}
+		}
+		return setters;
+	}
+
+	private static Constructor<?> findNoArgConstructor(Class<?> type) {
+		for (Constructor<?> c : type.getDeclaredConstructors()) {
+			if (c.getParameterCount() == 0) {
+				return c;
+			}
+		}
+		return null;
+	}
+
+	private static int columnOf(String propertyName, String[] labels) {
+		final String normalized = normalize(propertyName);
+		for (int i = 0; i < labels.length; i++) {
+			if (normalized.equals(normalize(labels[i]))) {
+				return i + 1;
+			}
+		}
+		return 0;
+	}
+
+	private static String normalize(String name) {
+		return name.replace("_", "").toLowerCase(Locale.ROOT);
+	}
+
+	/**
+	 * Non-public members of classes in modules closed to this library stay
+	 * inaccessible: unreflecting them then fails with an
+	 * IllegalAccessException
+	 */
+	private static <A extends AccessibleObject> A accessible(A member) {
+		try {
+			member.setAccessible(true);
+		} catch (RuntimeException e) {
+			// InaccessibleObjectException (Java 9+) or SecurityException
+		}
+		return member;
+	}
+
+	private static boolean isRecord(Class<?> type)
+			throws ReflectiveOperationException {
+		return null != IS_RECORD
+				&& Boolean.TRUE.equals(IS_RECORD.invoke(type));
+	}
+
+	/**
+	 * Records only exist from Java 16 on, while this library targets Java 8
+	 */
+	private static Method findClassMethod(String name) {
+		try {
+			return Class.class.getMethod(name);
+		} catch (NoSuchMethodException e) {
+			return null;
+		}
+	}
+}
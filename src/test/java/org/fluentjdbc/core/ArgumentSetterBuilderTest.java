@@ -8,13 +8,15 @@ import java.time.LocalDateTime;
 import org.junit.AfterClass;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 import com.github.aro_tech.extended_mockito.ExtendedMockito;
 import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
 import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
 import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
 
-public class ArgumentSetterBuilderTest implements ExtendedMockito {
+public class ArgumentSetterBuilderTest implements ExtendedMockito, AssertJ {
 
 	@AfterClass
 	public static void tearDownAfterClass() throws Exception {
@@ -27,6 +29,7 @@ public class ArgumentSetterBuilderTest implements ExtendedMockito {
 	@Test
 	public void should_build_with_some_nulls() throws SQLException {
 		ILogger logger = mock(ILogger.class);
+		when(logger.isDebugEnabled()).thenReturn(true);
 		String nullStr = null;
 		LocalDateTime nullDate = null;
 		final LocalDateTime now = LocalDateTime.now();
@@ -38,13 +41,13 @@ public class ArgumentSetterBuilderTest implements ExtendedMockito {
 		PreparedStatement stmnt = mock(PreparedStatement.class);
 		setter.setArguments(stmnt);
 
-		verify(logger)
-				.debug("Setting SQL parameters: {}",
-						"1) (int) 47 2) (String) null 3) (LocalDateTime) null "
-								+ "4) (LocalDateTime) "
-								+ now.toString()
-								+ " "
-								+ "5) (double) 1.12 6) (long) 111 7) (String) 'Hello' ");
+		ArgumentCaptor<Object> logged = ArgumentCaptor.forClass(Object.class);
+		verify(logger).debug(eq("Setting SQL parameters: {}"),
+				logged.capture());
+		assertThat(logged.getValue().toString()).isEqualTo(
+				"1) (int) 47 2) (String) null 3) (LocalDateTime) null "
+						+ "4) (LocalDateTime) " + now.toString() + " "
+						+ "5) (double) 1.12 6) (long) 111 7) (String) 'Hello' ");
 
 		verify(stmnt).setInt(1, 47);
 		verify(stmnt).setString(2, null);
@@ -56,4 +59,19 @@ public class ArgumentSetterBuilderTest implements ExtendedMockito {
 		verify(stmnt).setString(7, "Hello");
 	}
 
+	@Test
+	public void should_not_log_parameters_when_debug_is_disabled()
+			throws SQLException {
+		ILogger logger = mock(ILogger.class);
+		JDBCArgumentSetter setter = ArgumentSetterBuilder.withLogging(logger)
+				.add(47).add("Hello").build();
+
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		setter.setArguments(stmnt);
+
+		verify(logger, never()).debug(anyString(), any());
+		verify(stmnt).setInt(1, 47);
+		verify(stmnt).setString(2, "Hello");
+	}
+
 }
@@ -0,0 +1,86 @@
+package org.fluentjdbc.core;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class ArrayParameterTest implements ExtendedMockito, AssertJ {
+	private ILogger logger;
+	private IJDBCConnectionProvider provider;
+	private Connection connection;
+	private PreparedStatement stmnt;
+
+	@Before
+	public void setUp() throws Exception {
+		logger = mock(ILogger.class);
+		provider = mock(IJDBCConnectionProvider.class);
+		connection = mock(Connection.class);
+		stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.getConnection()).thenReturn(connection);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(mock(ResultSet.class));
+	}
+
+	private RequestBuilder<String> query(String sql) {
+		return RequestBuilder.returningString().withLogger(logger)
+				.withConnectionProvider(provider).withSQL(sql)
+				.withResultReader(rs -> "ok");
+	}
+
+	@Test
+	public void should_bind_collection_as_sql_array_for_any()
+			throws SQLException {
+		Array array = mock(Array.class);
+		when(connection.createArrayOf("bigint", new Object[] { 4L, 2L }))
+				.thenReturn(array);
+
+		query("SELECT name FROM t WHERE id = ANY(?)").addParam(
+				new long[] { 4L, 2L }).execute();
+
+		verify(connection).prepareStatement(
+				"SELECT name FROM t WHERE id = ANY(?)");
+		verify(stmnt).setArray(1, array);
+	}
+
+	@Test
+	public void should_expand_in_list_to_power_of_two_placeholders()
+			throws SQLException {
+		query("SELECT name FROM t WHERE id IN (?) AND kind = ?")
+				.addParam(Arrays.asList(1L, 2L, 3L)).addParam("x").execute();
+
+		verify(connection).prepareStatement(
+				"SELECT name FROM t WHERE id IN (?, ?, ?, ?) AND kind = ?");
+		verify(stmnt).setObject(1, 1L);
+		verify(stmnt).setObject(2, 2L);
+		verify(stmnt).setObject(3, 3L);
+		verify(stmnt).setObject(4, 3L);
+		verify(stmnt).setString(5, "x");
+	}
+
+	@Test
+	public void should_expand_empty_in_list_to_null() throws SQLException {
+		query("SELECT name FROM t WHERE id in(?)").addParam(
+				Collections.emptyList()).execute();
+
+		verify(connection).prepareStatement("SELECT name FROM t WHERE id in(?)");
+		verify(stmnt).setNull(1, Types.NULL);
+		verify(connection, never()).createArrayOf(anyString(),
+				any(Object[].class));
+	}
+}
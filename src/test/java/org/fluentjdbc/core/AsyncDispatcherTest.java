@@ -0,0 +1,101 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.impl.AsyncDispatcher;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class AsyncDispatcherTest implements ExtendedMockito, AssertJ {
+	private ExecutorService executor;
+
+	@Before
+	public void setUp() throws Exception {
+		executor = Executors.newFixedThreadPool(8);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		executor.shutdownNow();
+	}
+
+	@Test
+	public void should_not_run_more_tasks_than_the_limit_at_once()
+			throws Exception {
+		AsyncDispatcher dispatcher = new AsyncDispatcher(2);
+		AtomicInteger running = new AtomicInteger();
+		AtomicInteger maxRunning = new AtomicInteger();
+		CountDownLatch started = new CountDownLatch(2);
+		CountDownLatch release = new CountDownLatch(1);
+		List<CompletableFuture<Integer>> futures = new ArrayList<CompletableFuture<Integer>>();
+		for (int i = 0; i < 6; i++) {
+			final int value = i;
+			futures.add(dispatcher.submit(executor, () -> {
+				maxRunning.accumulateAndGet(running.incrementAndGet(),
+						Math::max);
+				started.countDown();
+				try {
+					release.await(5, TimeUnit.SECONDS);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				running.decrementAndGet();
+				return value;
+			}));
+		}
+		assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+		assertThat(dispatcher.getQueuedCount()).isEqualTo(4);
+		release.countDown();
+
+		for (int i = 0; i < 6; i++) {
+			assertThat(futures.get(i).get(5, TimeUnit.SECONDS)).isEqualTo(i);
+		}
+		assertThat(maxRunning.get()).isEqualTo(2);
+		assertThat(dispatcher.getActiveCount()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_complete_async_request_exceptionally_on_sql_error()
+			throws Exception {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		SQLException failure = new SQLException("boom");
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenThrow(failure);
+		List<SQLException> collected = new ArrayList<SQLException>();
+
+		CompletableFuture<Long> future = RequestBuilder.returningLong()
+				.withLogger(mock(ILogger.class))
+				.withConnectionProvider(provider).withExecutor(executor)
+				.withErrorCollector(collected).withSQL("SELECT 1")
+				.executeAsync();
+
+		try {
+			future.get(5, TimeUnit.SECONDS);
+			fail("Expected the future to fail");
+		} catch (ExecutionException e) {
+			assertThat(e.getCause()).isSameAs(failure);
+		}
+		assertThat(collected).containsExactly(failure);
+	}
+}
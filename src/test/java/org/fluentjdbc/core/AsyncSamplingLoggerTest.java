@@ -0,0 +1,100 @@
+package org.fluentjdbc.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.aro_tech.fluent_jdbc.core.logging.AsyncLoggingConfiguration;
+import com.github.aro_tech.fluent_jdbc.core.logging.AsyncSamplingLogger;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class AsyncSamplingLoggerTest implements AssertJ {
+	private static final String TEMPLATE = "About to execute SQL request: \n{}";
+
+	private final List<String> written = Collections
+			.synchronizedList(new ArrayList<String>());
+	private final List<String> writerThreads = Collections
+			.synchronizedList(new ArrayList<String>());
+
+	private ILogger recordingLogger() {
+		return new ILogger() {
+			@Override
+			public void info(String template, Object... parameters) {
+				written.add(String.valueOf(parameters[parameters.length - 1]));
+				writerThreads.add(Thread.currentThread().getName());
+			}
+
+			@Override
+			public void debug(String template, Object... parameters) {
+			}
+
+			@Override
+			public void warn(String template, Object... parameters) {
+			}
+
+			@Override
+			public void warn(String message, Throwable throwable) {
+			}
+
+			@Override
+			public void error(String message, Throwable throwable) {
+			}
+
+			@Override
+			public void error(String template, Object... parameters) {
+			}
+		};
+	}
+
+	@Test
+	public void should_write_snapshot_of_parameters_on_background_thread() {
+		StringBuilder mutable = new StringBuilder("before");
+		try (AsyncSamplingLogger logger = new AsyncSamplingLogger(
+				recordingLogger())) {
+			logger.info("Parameters: {}", mutable);
+			mutable.setLength(0);
+			mutable.append("after");
+		}
+
+		assertThat(written).containsExactly("before");
+		assertThat(writerThreads).doesNotContain(
+				Thread.currentThread().getName());
+	}
+
+	@Test
+	public void should_keep_one_message_in_n() {
+		try (AsyncSamplingLogger logger = new AsyncSamplingLogger(
+				recordingLogger(), AsyncLoggingConfiguration.defaults()
+						.withSampleRate(3).withMaxRepeatsPerSecond(0))) {
+			for (int i = 0; i < 9; i++) {
+				logger.info(TEMPLATE, "SELECT " + i);
+			}
+		}
+
+		assertThat(written).containsExactly("SELECT 0", "SELECT 3",
+				"SELECT 6");
+	}
+
+	@Test
+	public void should_limit_repeats_of_the_same_sql() {
+		final long suppressed;
+		try (AsyncSamplingLogger logger = new AsyncSamplingLogger(
+				recordingLogger(), AsyncLoggingConfiguration.defaults()
+						.withMaxRepeatsPerSecond(2))) {
+			for (int i = 0; i < 20; i++) {
+				logger.info(TEMPLATE, "SELECT 1");
+			}
+			logger.info(TEMPLATE, "SELECT 2");
+			suppressed = logger.getSuppressedCount();
+		}
+
+		// a new second may start during the loop, letting a few more through
+		assertThat(suppressed).isGreaterThanOrEqualTo(14);
+		assertThat(written).contains("SELECT 2");
+		assertThat(written.stream().filter(sql -> "SELECT 1".equals(sql))
+				.count()).isEqualTo(20 - suppressed);
+	}
+}
@@ -0,0 +1,155 @@
+package org.fluentjdbc.core;
+
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.results.mapping.AutoRowMapper;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class AutoRowMapperTest implements ExtendedMockito, AssertJ {
+
+	public static class PersonBean {
+		private long id;
+		private String firstName;
+		private Integer age;
+
+		public void setFirstName(String firstName) {
+			this.firstName = "set:" + firstName;
+		}
+	}
+
+	public static class Point {
+		private final int x;
+		private final int y;
+
+		public Point(int x, int y) {
+			this.x = x;
+			this.y = y;
+		}
+	}
+
+	public static class Tag {
+		private final long id;
+		private final String name;
+
+		public Tag(long id, String name) {
+			this.id = id;
+			this.name = name;
+		}
+
+		public Tag(String name, long id) {
+			this(id, "swapped:" + name);
+		}
+	}
+
+	public static class AmbiguousTag {
+		public AmbiguousTag(long id, String name) {
+		}
+
+		public AmbiguousTag(Long id, String name) {
+		}
+	}
+
+	private ResultSet rs;
+	private ResultSetMetaData metaData;
+
+	@Before
+	public void setUp() throws Exception {
+		rs = mock(ResultSet.class);
+		metaData = mock(ResultSetMetaData.class);
+		when(rs.getMetaData()).thenReturn(metaData);
+	}
+
+	private void givenColumns(String... labels) throws SQLException {
+		when(metaData.getColumnCount()).thenReturn(labels.length);
+		for (int i = 0; i < labels.length; i++) {
+			when(metaData.getColumnLabel(i + 1)).thenReturn(labels[i]);
+		}
+	}
+
+	@Test
+	public void should_map_columns_to_bean_setters_and_fields()
+			throws SQLException {
+		givenColumns("ID", "first_name", "age", "unknown");
+		when(rs.next()).thenReturn(true, true, false);
+		when(rs.getLong(1)).thenReturn(1L, 2L);
+		when(rs.getString(2)).thenReturn("Ann", "Bob");
+		when(rs.getInt(3)).thenReturn(30, 0);
+		when(rs.wasNull()).thenReturn(false, true);
+
+		List<PersonBean> people = AutoRowMapper.listReader(PersonBean.class)
+				.handleResults(rs);
+
+		assertThat(people).hasSize(2);
+		assertThat(people.get(0).id).isEqualTo(1L);
+		assertThat(people.get(0).firstName).isEqualTo("set:Ann");
+		assertThat(people.get(0).age).isEqualTo(30);
+		assertThat(people.get(1).id).isEqualTo(2L);
+		assertThat(people.get(1).age).isNull();
+		verify(rs, never()).getObject(4);
+	}
+
+	@Test
+	public void should_map_columns_to_constructor_arguments()
+			throws SQLException {
+		givenColumns("a", "b");
+		when(rs.getInt(1)).thenReturn(3);
+		when(rs.getInt(2)).thenReturn(4);
+
+		Point p = AutoRowMapper.of(Point.class).mapRow(rs);
+
+		assertThat(p.x).isEqualTo(3);
+		assertThat(p.y).isEqualTo(4);
+	}
+
+	@Test
+	public void should_choose_constructor_matching_column_types()
+			throws SQLException {
+		givenColumns("a", "b");
+		when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+		when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+		when(rs.getLong(1)).thenReturn(9L);
+		when(rs.getString(2)).thenReturn("jdbc");
+
+		Tag tag = AutoRowMapper.of(Tag.class).mapRow(rs);
+
+		assertThat(tag.id).isEqualTo(9L);
+		assertThat(tag.name).isEqualTo("jdbc");
+	}
+
+	@Test
+	public void should_fail_when_several_constructors_match_column_types()
+			throws SQLException {
+		givenColumns("a", "b");
+		when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+		when(metaData.getColumnType(2)).thenReturn(Types.VARCHAR);
+
+		assertThatThrownBy(() -> AutoRowMapper.of(AmbiguousTag.class).mapRow(rs))
+				.isInstanceOf(SQLException.class).hasMessageContaining(
+						"Cannot choose between the 2 constructors");
+	}
+
+	@Test
+	public void should_read_metadata_once_per_result_set() throws SQLException {
+		givenColumns("n");
+		when(rs.getLong(1)).thenReturn(5L, 6L);
+		AutoRowMapper<Long> mapper = AutoRowMapper.of(Long.class);
+
+		assertThat(mapper.mapRow(rs)).isEqualTo(5L);
+		assertThat(mapper.mapRow(rs)).isEqualTo(6L);
+		verify(rs, times(1)).getMetaData();
+	}
+
+	@Test(expected = SQLException.class)
+	public void should_fail_when_no_column_matches() throws SQLException {
+		givenColumns("other");
+		AutoRowMapper.of(PersonBean.class).mapRow(rs);
+	}
+}
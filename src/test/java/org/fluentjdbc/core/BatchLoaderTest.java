@@ -0,0 +1,74 @@
+package org.fluentjdbc.core;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.results.BatchLoader;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class BatchLoaderTest implements ExtendedMockito, AssertJ {
+	private static final String SQL = "SELECT person_id, street FROM address WHERE person_id = ANY(?)";
+
+	private Connection connection;
+	private PreparedStatement stmnt;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = mock(Connection.class);
+		stmnt = mock(PreparedStatement.class);
+		when(connection.prepareStatement(SQL)).thenReturn(stmnt);
+		when(connection.createArrayOf(anyString(), any(Object[].class)))
+				.thenAnswer(invocation -> mock(Array.class));
+	}
+
+	@Test
+	public void should_load_children_of_all_keys_in_chunks() throws SQLException {
+		ResultSet first = mock(ResultSet.class);
+		when(first.next()).thenReturn(true, true, true, false);
+		when(first.getLong(1)).thenReturn(1L, 2L, 1L);
+		when(first.getString(2)).thenReturn("a", "b", "c");
+		ResultSet second = mock(ResultSet.class);
+		when(second.next()).thenReturn(false);
+		when(stmnt.executeQuery()).thenReturn(first, second);
+		BatchLoader<Long, String> loader = BatchLoader.of(SQL, "bigint",
+				rs -> rs.getLong(1), rs -> rs.getString(2), 2);
+
+		loader.register(1L).register(2L).register(1L).register(3L);
+		Map<Long, List<String>> streetsByPerson = loader.load(connection);
+
+		assertThat(streetsByPerson.keySet()).containsExactly(1L, 2L, 3L);
+		assertThat(streetsByPerson.get(1L)).containsExactly("a", "c");
+		assertThat(streetsByPerson.get(2L)).containsExactly("b");
+		assertThat(streetsByPerson.get(3L)).isEmpty();
+		verify(connection).createArrayOf("bigint", new Object[] { 1L, 2L });
+		verify(connection).createArrayOf("bigint", new Object[] { 3L });
+		verify(connection, times(1)).prepareStatement(SQL);
+		verify(stmnt, times(2)).executeQuery();
+		verify(stmnt).close();
+		assertThat(loader.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_deduce_array_type_and_skip_query_without_keys()
+			throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(stmnt.executeQuery()).thenReturn(rs);
+		BatchLoader<String, String> loader = BatchLoader.of(SQL,
+				r -> r.getString(1), r -> r.getString(2));
+
+		assertThat(loader.load(connection)).isEmpty();
+		verify(connection, never()).prepareStatement(anyString());
+
+		loader.register("x").load(connection);
+		verify(connection).createArrayOf("text", new Object[] { "x" });
+	}
+}
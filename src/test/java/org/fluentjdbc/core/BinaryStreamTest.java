@@ -0,0 +1,86 @@
+package org.fluentjdbc.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.sql.Blob;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.results.BinaryColumnWriter;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class BinaryStreamTest implements ExtendedMockito, AssertJ {
+
+	private static byte[] data(int length, int seed) {
+		byte[] data = new byte[length];
+		for (int i = 0; i < length; i++) {
+			data[i] = (byte) (i * 31 + seed);
+		}
+		return data;
+	}
+
+	@Test
+	public void should_bind_streams_without_reading_them() throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		InputStream bytea = new ByteArrayInputStream(data(10, 1));
+		InputStream blob = new ByteArrayInputStream(data(20, 2));
+
+		ParameterBuffer buffer = new ParameterBuffer(null)
+				.addBinaryStream(bytea, 10).addBlob(blob, -1)
+				.addBinaryStream(null, 0);
+		buffer.setArguments(stmnt);
+
+		verify(stmnt).setBinaryStream(1, bytea, 10L);
+		verify(stmnt).setBlob(2, blob);
+		verify(stmnt).setNull(3, Types.BINARY);
+		assertThat(buffer.toString()).contains("(InputStream) 10 bytes");
+	}
+
+	@Test
+	public void should_copy_binary_column_of_all_rows_to_a_channel()
+			throws SQLException {
+		byte[] first = data(100000, 3);
+		byte[] second = data(2500, 4);
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.next()).thenReturn(true, true, true, false);
+		when(rs.getBinaryStream(2)).thenReturn(new ByteArrayInputStream(first),
+				null, new ByteArrayInputStream(second));
+		ByteArrayOutputStream received = new ByteArrayOutputStream();
+		WritableByteChannel out = Channels.newChannel(received);
+
+		long copied = new BinaryColumnWriter(1000).reader(2, out)
+				.handleResults(rs);
+
+		assertThat(copied).isEqualTo(102500L);
+		byte[] expected = Arrays.copyOf(first, 102500);
+		System.arraycopy(second, 0, expected, 100000, 2500);
+		assertThat(received.toByteArray()).isEqualTo(expected);
+	}
+
+	@Test
+	public void should_stream_and_free_blobs() throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		Blob blob = mock(Blob.class);
+		when(rs.getBlob(1)).thenReturn(blob);
+		when(blob.getBinaryStream()).thenReturn(
+				new ByteArrayInputStream(data(5000, 5)));
+		ByteArrayOutputStream received = new ByteArrayOutputStream();
+
+		long copied = new BinaryColumnWriter(512).copyBlob(rs, 1,
+				Channels.newChannel(received));
+
+		assertThat(copied).isEqualTo(5000L);
+		assertThat(received.toByteArray()).isEqualTo(data(5000, 5));
+		verify(blob).free();
+	}
+}
@@ -0,0 +1,190 @@
+package org.fluentjdbc.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Test;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.postgresql.copy.CopyOut;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.bulk.BinaryCopyEncoder;
+import com.github.aro_tech.fluent_jdbc.core.bulk.BulkCopy;
+import com.github.aro_tech.fluent_jdbc.core.bulk.CopyFormat;
+import com.github.aro_tech.fluent_jdbc.core.bulk.CopyRowReader;
+import com.github.aro_tech.fluent_jdbc.core.bulk.TextCopyEncoder;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class BulkCopyTest implements ExtendedMockito, AssertJ {
+
+	@Test
+	public void should_encode_text_format_with_escapes_and_nulls()
+			throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		TextCopyEncoder encoder = new TextCopyEncoder(out, 64);
+
+		encoder.writeLong(-42).writeString("a\tb\\c\nd \u00e9").writeNull()
+				.writeBoolean(true)
+				.writeTimestamp(LocalDateTime.of(2016, 3, 4, 5, 6, 7, 8000))
+				.writeBytes(new byte[] { 1, (byte) 0xAB }).endRow();
+		encoder.finish();
+
+		assertThat(new String(out.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo(
+						"-42\ta\\tb\\\\c\\nd \u00e9\t\\N\tt\t2016-03-04 05:06:07.000008\t\\\\x01ab\n");
+		assertThat(encoder.getRowCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_encode_binary_format() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		BinaryCopyEncoder encoder = new BinaryCopyEncoder(out, 3, 64);
+
+		encoder.writeInt(7).writeString("h\u00e9").writeNull().endRow();
+		encoder.finish();
+
+		ByteBuffer bytes = ByteBuffer.wrap(out.toByteArray());
+		byte[] signature = new byte[11];
+		bytes.get(signature);
+		assertThat(signature).isEqualTo(
+				"PGCOPY\n\377\r\n\0".getBytes(StandardCharsets.ISO_8859_1));
+		assertThat(bytes.getInt()).isEqualTo(0);
+		assertThat(bytes.getInt()).isEqualTo(0);
+		assertThat(bytes.getShort()).isEqualTo((short) 3);
+		assertThat(bytes.getInt()).isEqualTo(4);
+		assertThat(bytes.getInt()).isEqualTo(7);
+		assertThat(bytes.getInt()).isEqualTo(3);
+		byte[] text = new byte[3];
+		bytes.get(text);
+		assertThat(new String(text, StandardCharsets.UTF_8)).isEqualTo("h\u00e9");
+		assertThat(bytes.getInt()).isEqualTo(-1);
+		assertThat(bytes.getShort()).isEqualTo((short) -1);
+		assertThat(bytes.hasRemaining()).isFalse();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_refuse_binary_row_with_missing_fields()
+			throws IOException {
+		new BinaryCopyEncoder(new ByteArrayOutputStream(), 2, 64).writeInt(1)
+				.endRow();
+	}
+
+	@Test
+	public void should_read_back_encoded_text_rows() throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		// small buffer, so rows are split across several writes
+		TextCopyEncoder encoder = new TextCopyEncoder(out, 64);
+		for (int i = 0; i < 100; i++) {
+			encoder.writeInt(i).writeString(i % 2 == 0 ? "x\ty" : null)
+					.writeDouble(i + 0.5).endRow();
+		}
+		encoder.finish();
+
+		CopyRowReader reader = new CopyRowReader(new ByteArrayInputStream(
+				out.toByteArray()), 16);
+		int count = 0;
+		while (reader.next()) {
+			assertThat(reader.getFieldCount()).isEqualTo(3);
+			assertThat(reader.getInt(1)).isEqualTo(count);
+			if (count % 2 == 0) {
+				assertThat(reader.getString(2)).isEqualTo("x\ty");
+			} else {
+				assertThat(reader.isNull(2)).isTrue();
+			}
+			assertThat(reader.getDouble(3)).isEqualTo(count + 0.5);
+			count++;
+		}
+		assertThat(count).isEqualTo(100);
+	}
+
+	@Test
+	public void should_load_rows_through_copy_manager() throws Exception {
+		Connection connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		CopyManager copyManager = mock(CopyManager.class);
+		CopyIn copyIn = mock(CopyIn.class);
+		ByteArrayOutputStream sent = new ByteArrayOutputStream();
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+		when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+		when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+		doAnswer(invocation -> {
+			Object[] args = invocation.getArguments();
+			sent.write((byte[]) args[0], (Integer) args[1], (Integer) args[2]);
+			return null;
+		}).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+		when(copyIn.endCopy()).thenReturn(2L);
+		List<String> names = Arrays.asList("ann", "bob");
+
+		long loaded = BulkCopy.withConnection(connection)
+				.withLogger(mock(ILogger.class)).withFormat(CopyFormat.TEXT)
+				.load("person", new String[] { "id", "name" }, names,
+						(name, row) -> row.writeInt(name.length())
+								.writeString(name));
+
+		assertThat(loaded).isEqualTo(2L);
+		verify(copyManager).copyIn("COPY person (id, name) FROM STDIN");
+		assertThat(new String(sent.toByteArray(), StandardCharsets.UTF_8))
+				.isEqualTo("3\tann\n3\tbob\n");
+		verify(connection, never()).close();
+	}
+
+	@Test
+	public void should_cancel_copy_and_report_error_when_encoding_fails()
+			throws Exception {
+		Connection connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		CopyManager copyManager = mock(CopyManager.class);
+		CopyIn copyIn = mock(CopyIn.class);
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+		when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+		when(copyManager.copyIn(anyString())).thenReturn(copyIn);
+		when(copyIn.isActive()).thenReturn(true);
+		List<SQLException> errors = new ArrayList<SQLException>();
+
+		long loaded = BulkCopy.withConnection(connection)
+				.withLogger(mock(ILogger.class)).withErrorCollector(errors)
+				.load("person", new String[] { "id" }, Arrays.asList(1),
+						(id, row) -> {
+							throw new IOException("bad row");
+						});
+
+		assertThat(loaded).isEqualTo(-1L);
+		verify(copyIn).cancelCopy();
+		assertThat(errors).hasSize(1);
+	}
+
+	@Test
+	public void should_wrap_any_query_but_table_names_in_parentheses()
+			throws Exception {
+		Connection connection = mock(Connection.class);
+		PGConnection pgConnection = mock(PGConnection.class);
+		CopyManager copyManager = mock(CopyManager.class);
+		when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+		when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+		when(copyManager.copyOut(anyString())).thenReturn(mock(CopyOut.class));
+		BulkCopy copy = BulkCopy.withConnection(connection).withLogger(
+				mock(ILogger.class));
+
+		copy.unload(" public.\"Person\" ", row -> row.getString(1));
+		copy.unload("WITH p AS (SELECT name FROM person) SELECT * FROM p",
+				row -> row.getString(1));
+		copy.unload("values (1)", row -> row.getString(1));
+
+		verify(copyManager).copyOut("COPY public.\"Person\" TO STDOUT");
+		verify(copyManager).copyOut(
+				"COPY (WITH p AS (SELECT name FROM person) SELECT * FROM p) TO STDOUT");
+		verify(copyManager).copyOut("COPY (values (1)) TO STDOUT");
+	}
+}
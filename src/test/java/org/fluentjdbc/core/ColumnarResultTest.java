@@ -0,0 +1,121 @@
+package org.fluentjdbc.core;
+
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.ColumnarResult;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.DecimalColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.LongColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.StringColumn;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class ColumnarResultTest implements ExtendedMockito, AssertJ {
+	private static final String[] STATUSES = { "PAID", "PENDING", "PAID",
+			null, "REFUNDED" };
+
+	/**
+	 * Payments: id BIGINT, amount NUMERIC(10,2), quantity INTEGER, status
+	 * VARCHAR
+	 */
+	private ResultSet payments(int rowCount) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(rs.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(4);
+		when(metaData.getColumnLabel(1)).thenReturn("id");
+		when(metaData.getColumnLabel(2)).thenReturn("amount");
+		when(metaData.getColumnLabel(3)).thenReturn("quantity");
+		when(metaData.getColumnLabel(4)).thenReturn("status");
+		when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+		when(metaData.getColumnType(2)).thenReturn(Types.NUMERIC);
+		when(metaData.getPrecision(2)).thenReturn(10);
+		when(metaData.getScale(2)).thenReturn(2);
+		when(metaData.getColumnType(3)).thenReturn(Types.INTEGER);
+		when(metaData.getColumnType(4)).thenReturn(Types.VARCHAR);
+
+		AtomicInteger row = new AtomicInteger(0);
+		when(rs.next()).thenAnswer(
+				invocation -> row.incrementAndGet() <= rowCount);
+		when(rs.getLong(1)).thenAnswer(invocation -> (long) row.get());
+		when(rs.getDouble(2)).thenAnswer(invocation -> row.get() * 1.5);
+		when(rs.getInt(3)).thenAnswer(invocation -> row.get() % 3);
+		when(rs.getString(4)).thenAnswer(
+				invocation -> STATUSES[(row.get() - 1) % STATUSES.length]);
+		when(rs.wasNull()).thenReturn(false);
+		return rs;
+	}
+
+	@Test
+	public void should_read_one_typed_column_per_result_column()
+			throws SQLException {
+		ColumnarResult result = ColumnarResult.read(payments(100));
+
+		assertThat(result.getRowCount()).isEqualTo(100);
+		assertThat(result.getColumnLabels()).containsExactly("id", "amount",
+				"quantity", "status");
+		assertThat(result.getLongColumn("ID").stream().sum()).isEqualTo(5050L);
+		assertThat(result.getDoubleColumn(2).get(99)).isEqualTo(150.0);
+		assertThat(result.getIntColumn("quantity").toArray()).startsWith(1,
+				2, 0);
+		assertThatThrownBy(() -> result.getLongColumn("amount")).isInstanceOf(
+				IllegalArgumentException.class);
+	}
+
+	@Test
+	public void should_encode_text_columns_with_a_dictionary()
+			throws SQLException {
+		StringColumn status = ColumnarResult.read(payments(10))
+				.getStringColumn("status");
+
+		assertThat(status.size()).isEqualTo(10);
+		assertThat(status.getDictionary()).containsExactly("PAID", "PENDING",
+				"REFUNDED");
+		assertThat(status.codeStream().toArray()).containsExactly(0, 1, 0,
+				StringColumn.NULL_CODE, 2, 0, 1, 0, StringColumn.NULL_CODE, 2);
+		assertThat(status.get(4)).isEqualTo("REFUNDED");
+		assertThat(status.isNull(8)).isTrue();
+		assertThat(status.codeOf("PENDING")).isEqualTo(1);
+	}
+
+	@Test
+	public void should_read_booleans_timestamps_and_unconstrained_numerics()
+			throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(rs.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(3);
+		when(metaData.getColumnLabel(1)).thenReturn("active");
+		when(metaData.getColumnLabel(2)).thenReturn("created");
+		when(metaData.getColumnLabel(3)).thenReturn("balance");
+		when(metaData.getColumnType(1)).thenReturn(Types.BOOLEAN);
+		when(metaData.getColumnType(2)).thenReturn(Types.TIMESTAMP);
+		when(metaData.getColumnType(3)).thenReturn(Types.NUMERIC);
+		when(metaData.getPrecision(3)).thenReturn(0);
+		when(rs.next()).thenReturn(true, true, false);
+		when(rs.getBoolean(1)).thenReturn(true, false);
+		when(rs.getTimestamp(2)).thenReturn(new Timestamp(1500000000123L),
+				null);
+		BigDecimal exact = new BigDecimal("12345678901234567890.000000000001");
+		when(rs.getBigDecimal(3)).thenReturn(exact, null);
+		when(rs.wasNull()).thenReturn(false, true);
+
+		ColumnarResult result = ColumnarResult.read(rs);
+
+		assertThat(result.getIntColumn("active").toArray()).containsExactly(1,
+				0);
+		LongColumn created = result.getLongColumn("created");
+		assertThat(created.get(0)).isEqualTo(1500000000123L);
+		assertThat(created.isNull(1)).isTrue();
+		DecimalColumn balance = result.getDecimalColumn("balance");
+		assertThat(balance.get(0)).isSameAs(exact);
+		assertThat(balance.isNull(1)).isTrue();
+	}
+}
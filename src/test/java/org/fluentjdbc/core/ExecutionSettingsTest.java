@@ -0,0 +1,101 @@
+package org.fluentjdbc.core;
+
+import java.sql.ResultSet;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+import org.junit.Test;
+
+import com.github.aro_tech.fluent_jdbc.core.impl.ExecutionSettings;
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionListener;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
+import com.github.aro_tech.fluent_jdbc.core.results.QueryResultCache;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class ExecutionSettingsTest implements AssertJ {
+
+	/**
+	 * @return every field of the settings, by getter name
+	 */
+	private static Map<String, Object> fields(ExecutionSettings settings) {
+		Map<String, Object> fields = new LinkedHashMap<String, Object>();
+		fields.put("batchSize", settings.getBatchSize());
+		fields.put("fetchSize", settings.getFetchSize());
+		fields.put("executor", settings.getExecutor());
+		fields.put("parallelism", settings.getParallelism());
+		fields.put("maxRowsPerInsert", settings.getMaxRowsPerInsert());
+		fields.put("resultCache", settings.getResultCache());
+		fields.put("tableTags", Arrays.asList(settings.getTableTags()));
+		fields.put("listener", settings.getListener());
+		fields.put("slowQueryDetector", settings.getSlowQueryDetector());
+		fields.put("maxRows", settings.getMaxRows());
+		fields.put("resultSetType", settings.getResultSetType());
+		fields.put("resultSetConcurrency", settings.getResultSetConcurrency());
+		return fields;
+	}
+
+	private void assertOnlyChanged(ExecutionSettings before,
+			UnaryOperator<ExecutionSettings> with, String... changed) {
+		Map<String, Object> expected = fields(before);
+		Map<String, Object> actual = fields(with.apply(before));
+		for (String field : changed) {
+			assertThat(actual.get(field)).as(field).isNotEqualTo(
+					expected.get(field));
+			expected.remove(field);
+			actual.remove(field);
+		}
+		assertThat(actual).isEqualTo(expected);
+	}
+
+	@Test
+	public void should_keep_max_rows_and_rows_per_insert_apart() {
+		ExecutionSettings settings = ExecutionSettings.defaults()
+				.withMaxRows(10).withMultiRowInserts(4);
+
+		assertThat(settings.getMaxRows()).isEqualTo(10);
+		assertThat(settings.getMaxRowsPerInsert()).isEqualTo(4);
+		assertThat(settings.withMultiRowInserts(0).getMaxRows()).isEqualTo(10);
+	}
+
+	@Test
+	public void should_change_only_the_given_option() {
+		Executor executor = Runnable::run;
+		QueryResultCache cache = new QueryResultCache(10, 1, TimeUnit.MINUTES);
+		ExecutionListener listener = (sql, phase, nanos, failed) -> {
+		};
+		SlowQueryDetector detector = new SlowQueryDetector(1,
+				TimeUnit.SECONDS);
+		// every field set, to a value no other field has
+		ExecutionSettings all = ExecutionSettings.defaults().withBatchSize(2)
+				.withFetchSize(3).withExecutor(Runnable::run)
+				.withParallelism(4).withMultiRowInserts(5)
+				.withResultCache(new QueryResultCache(1, 1, TimeUnit.MINUTES))
+				.withTableTags("a").withListener((sql, phase, nanos, failed) -> {
+				}).withSlowQueryDetector(new SlowQueryDetector(2,
+						TimeUnit.SECONDS)).withMaxRows(6)
+				.withResultSetType(ResultSet.TYPE_SCROLL_SENSITIVE,
+						ResultSet.CONCUR_READ_ONLY);
+		Map<String, Object> initial = fields(all);
+
+		assertOnlyChanged(all, s -> s.withBatchSize(7), "batchSize");
+		assertOnlyChanged(all, s -> s.withFetchSize(50), "fetchSize");
+		assertOnlyChanged(all, s -> s.withExecutor(executor), "executor");
+		assertOnlyChanged(all, s -> s.withParallelism(8), "parallelism");
+		assertOnlyChanged(all, s -> s.withMultiRowInserts(9),
+				"maxRowsPerInsert");
+		assertOnlyChanged(all, s -> s.withResultCache(cache), "resultCache");
+		assertOnlyChanged(all, s -> s.withTableTags("person"), "tableTags");
+		assertOnlyChanged(all, s -> s.withListener(listener), "listener");
+		assertOnlyChanged(all, s -> s.withSlowQueryDetector(detector),
+				"slowQueryDetector");
+		assertOnlyChanged(all, s -> s.withMaxRows(20), "maxRows");
+		assertOnlyChanged(all, s -> s.withResultSetType(
+				ResultSet.TYPE_SCROLL_INSENSITIVE, ResultSet.CONCUR_UPDATABLE),
+				"resultSetType", "resultSetConcurrency");
+		assertThat(fields(all)).isEqualTo(initial);
+	}
+}
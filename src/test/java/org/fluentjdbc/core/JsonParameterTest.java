@@ -0,0 +1,93 @@
+package org.fluentjdbc.core;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.postgresql.util.PGobject;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.arguments.JsonParameter;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.results.JsonColumns;
+import com.github.aro_tech.fluent_jdbc.core.results.RowMapper;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class JsonParameterTest implements ExtendedMockito, AssertJ {
+	private static final String DOCUMENT = "{\"type\": \"order\", \"total\": 12.5}";
+
+	@Test
+	public void should_bind_json_and_jsonb_from_bytes_and_readers()
+			throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		List<Object> boundObjects = new ArrayList<Object>();
+		List<String> bound = new ArrayList<String>();
+		doAnswer(invocation -> {
+			PGobject pg = (PGobject) invocation.getArguments()[1];
+			boundObjects.add(pg);
+			bound.add(invocation.getArguments()[0] + " " + pg.getType() + " "
+					+ pg.getValue());
+			return null;
+		}).when(stmnt).setObject(anyInt(), any());
+		ByteBuffer buffer = ByteBuffer.wrap(("xx" + DOCUMENT)
+				.getBytes(StandardCharsets.UTF_8));
+		buffer.position(2);
+
+		new ParameterBuffer(null)
+				.addPGjson(DOCUMENT)
+				.addPGjson(
+						JsonParameter.jsonb(DOCUMENT
+								.getBytes(StandardCharsets.UTF_8)))
+				.addPGjson(JsonParameter.json(buffer))
+				.addPGjson(JsonParameter.jsonb(new StringReader(DOCUMENT)))
+				.setArguments(stmnt);
+
+		assertThat(bound).containsExactly("1 json " + DOCUMENT, "2 jsonb "
+				+ DOCUMENT, "3 json " + DOCUMENT, "4 jsonb " + DOCUMENT);
+		assertThat(boundObjects.get(0)).isSameAs(boundObjects.get(3));
+		assertThat(((PGobject) boundObjects.get(0)).getValue()).isNull();
+		assertThat(buffer.position()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_bind_null_json_as_null() throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+
+		ParameterBuffer buffer = new ParameterBuffer(null)
+				.addPGjson(JsonParameter.jsonb((byte[]) null));
+		buffer.setArguments(stmnt);
+
+		verify(stmnt).setNull(1, Types.JAVA_OBJECT);
+		assertThat(
+				new ParameterBuffer(null).addPGjson(
+						JsonParameter.jsonb(new byte[3])).toString()).contains(
+				"(jsonb) 3 bytes");
+	}
+
+	@Test
+	public void should_parse_json_columns_from_their_bytes()
+			throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		when(rs.getBytes(2)).thenReturn(
+				DOCUMENT.getBytes(StandardCharsets.UTF_8), (byte[]) null);
+		RowMapper<Integer> lengthOfDocument = JsonColumns.mapper(2, in -> {
+			ByteArrayOutputStream copy = new ByteArrayOutputStream();
+			int b;
+			while ((b = in.read()) >= 0) {
+				copy.write(b);
+			}
+			return copy.size();
+		});
+
+		assertThat(lengthOfDocument.mapRow(rs)).isEqualTo(DOCUMENT.length());
+		assertThat(lengthOfDocument.mapRow(rs)).isNull();
+	}
+}
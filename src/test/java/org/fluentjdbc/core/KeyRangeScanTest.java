@@ -0,0 +1,151 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.results.KeyRangeScan;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class KeyRangeScanTest implements ExtendedMockito, AssertJ {
+	private static final List<Long> KEYS = LongStream.rangeClosed(1, 10)
+			.boxed().collect(Collectors.toList());
+
+	private IJDBCConnectionProvider provider;
+	private final AtomicInteger pageCount = new AtomicInteger();
+	private int keyType = Types.BIGINT;
+
+	@Before
+	public void setUp() throws Exception {
+		provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenAnswer(
+				invocation -> {
+					String sql = (String) invocation.getArguments()[0];
+					if (sql.endsWith("LIMIT 0")) {
+						return keyTypeStatement();
+					}
+					return sql.startsWith("SELECT MIN(") ? minMaxStatement()
+							: pageStatement(sql);
+				});
+	}
+
+	private PreparedStatement keyTypeStatement() throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(stmnt.executeQuery()).thenReturn(rs);
+		when(rs.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnType(1)).thenReturn(keyType);
+		when(metaData.getScale(1)).thenReturn(Types.NUMERIC == keyType ? 2 : 0);
+		when(metaData.getPrecision(1)).thenReturn(10);
+		when(metaData.getColumnTypeName(1)).thenReturn(
+				Types.NUMERIC == keyType ? "numeric" : "int8");
+		return stmnt;
+	}
+
+	private PreparedStatement minMaxStatement() throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(stmnt.executeQuery()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getLong(1)).thenReturn(1L);
+		when(rs.getLong(2)).thenReturn(10L);
+		return stmnt;
+	}
+
+	/**
+	 * Statement selecting the keys between its parameters, as the database
+	 * would
+	 */
+	private PreparedStatement pageStatement(String sql) throws SQLException {
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		long[] parameters = new long[3];
+		doAnswer(invocation -> {
+			parameters[(Integer) invocation.getArguments()[0]] = (Long) invocation
+					.getArguments()[1];
+			return null;
+		}).when(stmnt).setLong(anyInt(), anyLong());
+		final boolean includeLow = sql.contains(">= ?");
+		final int limit = Integer.parseInt(sql.substring(sql
+				.lastIndexOf("LIMIT ") + 6));
+		when(stmnt.executeQuery()).thenAnswer(invocation -> {
+			pageCount.incrementAndGet();
+			return resultSetOf(KEYS.stream().filter(
+					k -> (includeLow ? k >= parameters[1] : k > parameters[1])
+							&& k <= parameters[2]).limit(limit)
+					.collect(Collectors.toList()));
+		});
+		return stmnt;
+	}
+
+	private ResultSet resultSetOf(List<Long> keys) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		AtomicInteger row = new AtomicInteger(-1);
+		when(rs.findColumn("id")).thenReturn(1);
+		when(rs.next()).thenAnswer(
+				invocation -> row.incrementAndGet() < keys.size());
+		when(rs.getLong(1)).thenAnswer(invocation -> keys.get(row.get()));
+		return rs;
+	}
+
+	@Test
+	public void should_read_ranges_in_key_order_with_keyset_pages()
+			throws SQLException {
+		KeyRangeScan<Long> scan = KeyRangeScan
+				.ofTable("person", "id", rs -> rs.getLong(1))
+				.withLogger(mock(ILogger.class)).withRangeCount(2)
+				.withPageSize(3);
+
+		List<Long> keys = StreamSupport.stream(scan.spliterator(provider),
+				false).collect(Collectors.toList());
+
+		assertThat(keys).isEqualTo(KEYS);
+		// [1, 5] in pages of 3 + 2 rows, then ]5, 10] in 3 + 2 rows
+		assertThat(pageCount.get()).isEqualTo(4);
+		assertThat(scan.getCaughtErrors()).isEmpty();
+	}
+
+	@Test
+	public void should_read_all_rows_once_with_parallel_stream()
+			throws SQLException {
+		KeyRangeScan<Long> scan = KeyRangeScan
+				.ofQuery("SELECT id FROM person WHERE active", "id",
+						rs -> rs.getLong(1)).withLogger(mock(ILogger.class))
+				.withRangeCount(4).withPageSize(2);
+
+		List<Long> keys;
+		try (Stream<Long> rows = scan.stream(provider)) {
+			keys = rows.collect(Collectors.toList());
+		}
+
+		assertThat(keys).isEqualTo(KEYS);
+	}
+
+	@Test
+	public void should_refuse_key_column_with_decimals() {
+		keyType = Types.NUMERIC;
+		KeyRangeScan<Long> scan = KeyRangeScan.ofTable("payment", "amount",
+				rs -> rs.getLong(1)).withLogger(mock(ILogger.class));
+
+		assertThatThrownBy(() -> scan.spliterator(provider)).isInstanceOf(
+				SQLException.class).hasMessageContaining("integer type");
+		assertThat(pageCount.get()).isEqualTo(0);
+	}
+}
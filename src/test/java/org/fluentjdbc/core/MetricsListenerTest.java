@@ -0,0 +1,99 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.metrics.ExecutionPhase;
+import com.github.aro_tech.fluent_jdbc.core.metrics.LatencyHistogram;
+import com.github.aro_tech.fluent_jdbc.core.metrics.LatencySnapshot;
+import com.github.aro_tech.fluent_jdbc.core.metrics.MetricsListener;
+import com.github.aro_tech.fluent_jdbc.core.metrics.StatementMetrics;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class MetricsListenerTest implements ExtendedMockito, AssertJ {
+	private static final String SQL = "SELECT name FROM person";
+
+	@Test
+	public void should_compute_percentiles_within_bucket_precision() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (long micros = 1; micros <= 1000; micros++) {
+			histogram.record(micros * 1000);
+		}
+
+		LatencySnapshot snapshot = histogram.snapshot();
+		histogram.record(5_000_000);
+
+		assertThat(snapshot.getCount()).isEqualTo(1000);
+		assertThat(snapshot.getMax()).isEqualTo(1_000_000);
+		assertThat(snapshot.getMean()).isEqualTo(500_500.0);
+		assertThat(snapshot.getPercentile(50)).isBetween(500_000L, 562_500L);
+		assertThat(snapshot.getPercentile(99)).isBetween(990_000L, 1_000_000L);
+		assertThat(snapshot.getPercentile(100)).isEqualTo(1_000_000);
+		assertThat(histogram.snapshot().getCount()).isEqualTo(1001);
+	}
+
+	@Test
+	public void should_record_phases_and_rows_per_statement()
+			throws SQLException {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(SQL)).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, true, true, false);
+		when(rs.getString(1)).thenReturn("a", "b", "c");
+		MetricsListener metrics = new MetricsListener();
+
+		List<String> names = RequestBuilder.returningListOf(String.class)
+				.withLogger(mock(ILogger.class))
+				.withConnectionProvider(provider).withSQL(SQL)
+				.withExecutionListener(metrics).withResultReader(r -> {
+					List<String> list = new ArrayList<String>();
+					while (r.next()) {
+						list.add(r.getString(1));
+					}
+					return list;
+				}).execute();
+
+		assertThat(names).containsExactly("a", "b", "c");
+		StatementMetrics statement = metrics.getMetrics(SQL);
+		assertThat(statement.getExecutionCount()).isEqualTo(1);
+		assertThat(statement.getRowCount()).isEqualTo(3);
+		assertThat(statement.getErrorCount()).isEqualTo(0);
+		for (ExecutionPhase phase : ExecutionPhase.values()) {
+			assertThat(statement.getLatencies(phase).getCount()).as(
+					phase.name()).isEqualTo(1);
+		}
+		verify(rs).close();
+	}
+
+	@Test
+	public void should_group_statements_beyond_the_limit() {
+		MetricsListener metrics = new MetricsListener(1);
+
+		metrics.phaseCompleted("SELECT 1", ExecutionPhase.EXECUTE, 10, false);
+		metrics.phaseCompleted("SELECT 2", ExecutionPhase.EXECUTE, 20, true);
+
+		assertThat(metrics.getMetrics("SELECT 1").getExecutionCount())
+				.isEqualTo(1);
+		assertThat(metrics.getMetrics("SELECT 2")).isNull();
+		StatementMetrics other = metrics
+				.getMetrics(MetricsListener.OTHER_STATEMENTS);
+		assertThat(other.getExecutionCount()).isEqualTo(1);
+		assertThat(other.getErrorCount()).isEqualTo(1);
+		assertThat(metrics.getAllMetrics()).hasSize(2);
+	}
+}
@@ -0,0 +1,61 @@
+package org.fluentjdbc.core;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ParameterBuffer;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class ParameterBufferTest implements ExtendedMockito, AssertJ {
+
+	@Test
+	public void should_bind_values_in_order_and_grow_as_needed()
+			throws SQLException {
+		ParameterBuffer buffer = new ParameterBuffer(null, 1).addInt(1)
+				.addLong(2L).addDouble(3.5).addFloat(4.5f).addBoolean(true)
+				.addString("x").addObject(null, Types.DATE);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+
+		buffer.setArguments(stmnt);
+
+		verify(stmnt).setInt(1, 1);
+		verify(stmnt).setLong(2, 2L);
+		verify(stmnt).setDouble(3, 3.5);
+		verify(stmnt).setFloat(4, 4.5f);
+		verify(stmnt).setBoolean(5, true);
+		verify(stmnt).setString(6, "x");
+		verify(stmnt).setNull(7, Types.DATE);
+	}
+
+	@Test
+	public void should_be_reusable_after_reset() throws SQLException {
+		ILogger logger = mock(ILogger.class);
+		ParameterBuffer buffer = ParameterBuffer.forCurrentThread(logger)
+				.addLong(1L).addString("a");
+
+		ParameterBuffer reused = ParameterBuffer.forCurrentThread(logger)
+				.addLong(2L);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		reused.setArguments(stmnt);
+
+		assertThat(reused).isSameAs(buffer);
+		assertThat(reused.size()).isEqualTo(1);
+		assertThat(reused.toString()).isEqualTo("1) (long) 2 ");
+		verify(stmnt).setLong(1, 2L);
+		verify(stmnt, never()).setString(2, "a");
+	}
+
+	@Test
+	public void should_keep_copy_independent_of_reset() throws SQLException {
+		ParameterBuffer buffer = new ParameterBuffer(null).addInt(5);
+		ParameterBuffer copy = buffer.copy();
+		buffer.reset().addInt(6);
+
+		assertThat(copy.toString()).isEqualTo("1) (int) 5 ");
+	}
+}
@@ -0,0 +1,157 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.PoolConfiguration;
+import com.github.aro_tech.fluent_jdbc.core.connection.PoolStatistics;
+import com.github.aro_tech.fluent_jdbc.core.connection.PooledConnectionProvider;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class PooledConnectionProviderTest implements ExtendedMockito, AssertJ {
+
+	private IJDBCConnectionProvider physicalProvider;
+	private Connection physical1;
+	private Connection physical2;
+	private PooledConnectionProvider pool;
+
+	@Before
+	public void setUp() throws Exception {
+		physicalProvider = mock(IJDBCConnectionProvider.class);
+		physical1 = mock(Connection.class);
+		physical2 = mock(Connection.class);
+		when(physical1.getAutoCommit()).thenReturn(true);
+		when(physical2.getAutoCommit()).thenReturn(true);
+		when(physicalProvider.getConnection()).thenReturn(physical1,
+				physical2);
+	}
+
+	@After
+	public void tearDown() throws Exception {
+		if (null != pool) {
+			pool.close();
+		}
+	}
+
+	@Test
+	public void should_reuse_physical_connection_after_close()
+			throws SQLException {
+		pool = new PooledConnectionProvider(physicalProvider);
+
+		try (Connection c = pool.getConnection()) {
+			c.createStatement();
+		}
+		try (Connection c = pool.getConnection()) {
+			c.createStatement();
+		}
+
+		verify(physicalProvider, times(1)).getConnection();
+		verify(physical1, times(2)).createStatement();
+		verify(physical1, never()).close();
+		PoolStatistics stats = pool.getStatistics();
+		assertThat(stats.getBorrowCount()).isEqualTo(2);
+		assertThat(stats.getCreatedCount()).isEqualTo(1);
+		assertThat(stats.getIdleConnections()).isEqualTo(1);
+		assertThat(stats.getActiveConnections()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_not_allow_use_after_return() throws SQLException {
+		pool = new PooledConnectionProvider(physicalProvider);
+		Connection c = pool.getConnection();
+		c.close();
+
+		assertThat(c.isClosed()).isTrue();
+		assertThatThrownBy(() -> c.createStatement()).isInstanceOf(
+				SQLException.class);
+	}
+
+	@Test
+	public void should_return_connection_once_when_closed_concurrently()
+			throws Exception {
+		pool = new PooledConnectionProvider(physicalProvider);
+		Connection c = pool.getConnection();
+		CountDownLatch start = new CountDownLatch(1);
+		ExecutorService threads = Executors.newFixedThreadPool(8);
+		try {
+			for (int i = 0; i < 8; i++) {
+				threads.execute(() -> {
+					try {
+						start.await();
+						c.close();
+					} catch (InterruptedException | SQLException e) {
+						throw new IllegalStateException(e);
+					}
+				});
+			}
+			start.countDown();
+			threads.shutdown();
+			assertThat(threads.awaitTermination(5, TimeUnit.SECONDS))
+					.isTrue();
+		} finally {
+			threads.shutdownNow();
+		}
+
+		PoolStatistics stats = pool.getStatistics();
+		assertThat(stats.getIdleConnections()).isEqualTo(1);
+		assertThat(stats.getActiveConnections()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_time_out_when_pool_is_exhausted() throws SQLException {
+		pool = new PooledConnectionProvider(physicalProvider,
+				PoolConfiguration.defaults().withMaxSize(1)
+						.withMaxWaitMillis(20));
+		Connection borrowed = pool.getConnection();
+
+		assertThatThrownBy(() -> pool.getConnection()).isInstanceOf(
+				SQLException.class);
+		assertThat(pool.getStatistics().getTimeoutCount()).isEqualTo(1);
+
+		borrowed.close();
+		pool.getConnection().close();
+		assertThat(pool.getStatistics().getBorrowCount()).isEqualTo(2);
+	}
+
+	@Test
+	public void should_replace_connection_which_fails_validation()
+			throws SQLException {
+		pool = new PooledConnectionProvider(physicalProvider,
+				PoolConfiguration.defaults().withValidationOnBorrow(true, 1,
+						0));
+		when(physical1.isValid(1)).thenReturn(false);
+		pool.getConnection().close();
+
+		try (Connection c = pool.getConnection()) {
+			c.commit();
+		}
+
+		verify(physical1).close();
+		verify(physical2).commit();
+		assertThat(pool.getStatistics().getValidationFailureCount())
+				.isEqualTo(1);
+	}
+
+	@Test
+	public void should_restore_auto_commit_when_connection_is_returned()
+			throws SQLException {
+		when(physical1.getAutoCommit()).thenReturn(true, false);
+		pool = new PooledConnectionProvider(physicalProvider);
+		Connection c = pool.getConnection();
+		c.setAutoCommit(false);
+		c.close();
+
+		verify(physical1).rollback();
+		verify(physical1).setAutoCommit(true);
+	}
+}
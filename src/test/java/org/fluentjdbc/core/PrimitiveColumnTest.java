@@ -0,0 +1,82 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.DoubleColumn;
+import com.github.aro_tech.fluent_jdbc.core.results.columns.LongColumn;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class PrimitiveColumnTest implements ExtendedMockito, AssertJ {
+
+	/**
+	 * Result set of 1 column and the given number of rows, where every tenth
+	 * row is NULL and the others hold their row number
+	 */
+	private ResultSet rowsWithNulls(int rowCount) throws SQLException {
+		ResultSet rs = mock(ResultSet.class);
+		AtomicInteger row = new AtomicInteger(0);
+		when(rs.next()).thenAnswer(
+				invocation -> row.incrementAndGet() <= rowCount);
+		when(rs.getLong(1)).thenAnswer(
+				invocation -> row.get() % 10 == 0 ? 0L : (long) row.get());
+		when(rs.getDouble(1)).thenAnswer(
+				invocation -> row.get() % 10 == 0 ? 0.0 : row.get() / 2.0);
+		when(rs.wasNull()).thenAnswer(invocation -> row.get() % 10 == 0);
+		return rs;
+	}
+
+	@Test
+	public void should_read_long_column_with_null_bitmap() throws SQLException {
+		LongColumn column = LongColumn.read(rowsWithNulls(100), 1);
+
+		assertThat(column.size()).isEqualTo(100);
+		assertThat(column.get(0)).isEqualTo(1L);
+		assertThat(column.isNull(8)).isFalse();
+		assertThat(column.isNull(9)).isTrue();
+		assertThat(column.get(9)).isEqualTo(0L);
+		assertThat(column.getNulls().cardinality()).isEqualTo(10);
+		assertThat(column.toArray(-1L)).hasSize(100).contains(-1L, 99L);
+		assertThat(column.stream().sum()).isEqualTo(5050L - 550L);
+		assertThat(column.values().length).isGreaterThanOrEqualTo(100);
+	}
+
+	@Test
+	public void should_read_double_column_without_nulls() throws SQLException {
+		DoubleColumn column = DoubleColumn.read(rowsWithNulls(9), 1);
+
+		assertThat(column.hasNulls()).isFalse();
+		assertThat(column.toArray()).containsExactly(0.5, 1.0, 1.5, 2.0, 2.5,
+				3.0, 3.5, 4.0, 4.5);
+	}
+
+	@Test
+	public void should_return_first_column_as_primitive_array()
+			throws SQLException {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		ResultSet rs = rowsWithNulls(12);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(rs);
+
+		long[] ids = RequestBuilder.returningLongArray(-1L)
+				.withLogger(mock(ILogger.class))
+				.withConnectionProvider(provider)
+				.withSQL("SELECT id FROM person").execute();
+
+		assertThat(ids).containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L,
+				-1L, 11L, 12L);
+	}
+}
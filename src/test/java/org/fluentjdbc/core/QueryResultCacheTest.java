@@ -0,0 +1,194 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Types;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.RequestTemplate;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.results.QueryResultCache;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class QueryResultCacheTest implements ExtendedMockito, AssertJ {
+	private final ILogger logger = mock(ILogger.class);
+
+	private QueryResultCache.Key key(String sql, int param) {
+		JDBCArgumentSetter setter = ArgumentSetterBuilder.withLogging(logger)
+				.add(param).build();
+		return QueryResultCache.keyFor(sql, Collections.singletonList(setter));
+	}
+
+	@Test
+	public void should_evict_least_recently_used_result_when_full() {
+		QueryResultCache cache = new QueryResultCache(2, 0, TimeUnit.SECONDS);
+		cache.put(key("SELECT a", 1), "a1");
+		cache.put(key("SELECT a", 2), "a2");
+		assertThat(cache.get(key("SELECT a", 1)).getValue()).isEqualTo("a1");
+
+		cache.put(key("SELECT a", 3), "a3");
+
+		assertThat(cache.get(key("SELECT a", 2))).isNull();
+		assertThat(cache.get(key("SELECT a", 1)).getValue()).isEqualTo("a1");
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(cache.getStatistics().getEvictionCount()).isEqualTo(1);
+		assertThat(cache.getStatistics().getHitCount()).isEqualTo(2);
+		assertThat(cache.getStatistics().getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_not_return_expired_result() throws InterruptedException {
+		QueryResultCache cache = new QueryResultCache(10, 1,
+				TimeUnit.MILLISECONDS);
+		cache.put(key("SELECT a", 1), "a1");
+		Thread.sleep(5);
+
+		assertThat(cache.get(key("SELECT a", 1))).isNull();
+		assertThat(cache.getStatistics().getExpirationCount()).isEqualTo(1);
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_invalidate_results_by_tag_and_skip_stale_load() {
+		QueryResultCache cache = new QueryResultCache(10, 0, TimeUnit.SECONDS);
+		cache.put(key("SELECT a", 1), "a1", "A");
+		cache.put(key("SELECT b", 1), "b1", "b");
+		QueryResultCache.Key loading = key("SELECT a", 2);
+		assertThat(cache.get(loading)).isNull();
+
+		cache.invalidate("a");
+		cache.put(loading, "read before the write", "a");
+
+		assertThat(cache.get(key("SELECT a", 1))).isNull();
+		assertThat(cache.get(loading)).isNull();
+		assertThat(cache.get(key("SELECT b", 1)).getValue()).isEqualTo("b1");
+		assertThat(cache.getStatistics().getInvalidationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_answer_repeated_query_from_cache_until_write_on_same_table()
+			throws Exception {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true, false, true);
+		when(stmnt.getResultSet()).thenReturn(mock(ResultSet.class));
+		QueryResultCache cache = new QueryResultCache(10, 1, TimeUnit.MINUTES);
+		RequestBuilder<String> query = RequestBuilder
+				.returning(String.class).withLogger(logger)
+				.withConnectionProvider(provider)
+				.withSQL("SELECT value FROM setting WHERE id=?").addParam(7)
+				.withResultReader(rs -> "on").withResultCache(cache)
+				.withTableTags("setting");
+
+		assertThat(query.execute()).isEqualTo("on");
+		assertThat(query.execute()).isEqualTo("on");
+		verify(stmnt, times(1)).execute();
+
+		RequestBuilder.returningVoid().withLogger(logger)
+				.withConnectionProvider(provider)
+				.withSQL("UPDATE setting SET value='off' WHERE id=?")
+				.addParam(7).withResultCache(cache).withTableTags("setting")
+				.execute();
+		assertThat(query.execute()).isEqualTo("on");
+
+		verify(stmnt, times(3)).execute();
+		assertThat(cache.getStatistics().getHitCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_cache_template_reads_and_invalidate_on_template_writes()
+			throws Exception {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true, false, true);
+		when(stmnt.getResultSet()).thenReturn(mock(ResultSet.class));
+		QueryResultCache cache = new QueryResultCache(10, 1, TimeUnit.MINUTES);
+		RequestTemplate<String> read = RequestBuilder.returning(String.class)
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL("SELECT value FROM setting WHERE id=?")
+				.withResultReader(rs -> "on").withResultCache(cache)
+				.withTableTags("setting").compile(int.class);
+		RequestTemplate<Void> write = RequestBuilder.returningVoid()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL("UPDATE setting SET value='off' WHERE id=?")
+				.withResultCache(cache).withTableTags("setting")
+				.compile(int.class);
+
+		assertThat(read.execute(7)).isEqualTo("on");
+		assertThat(read.execute(7)).isEqualTo("on");
+		verify(stmnt, times(1)).execute();
+
+		write.execute(7);
+		assertThat(read.execute(7)).isEqualTo("on");
+
+		verify(stmnt, times(3)).execute();
+		assertThat(cache.getStatistics().getHitCount()).isEqualTo(1);
+		assertThat(cache.getStatistics().getInvalidationCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_separate_results_by_provider_and_reader_and_copy_lists()
+			throws Exception {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		IJDBCConnectionProvider otherProvider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		ResultSet rs = mock(ResultSet.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(otherProvider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, false, true, false, true, false,
+				true, false);
+		when(rs.getLong(1)).thenReturn(42L);
+		when(rs.getObject(1)).thenReturn(42L);
+		ResultSetMetaData metaData = mock(ResultSetMetaData.class);
+		when(rs.getMetaData()).thenReturn(metaData);
+		when(metaData.getColumnCount()).thenReturn(1);
+		when(metaData.getColumnLabel(1)).thenReturn("count");
+		when(metaData.getColumnType(1)).thenReturn(Types.BIGINT);
+		QueryResultCache cache = new QueryResultCache(10, 1, TimeUnit.MINUTES);
+		String sql = "SELECT count(*) FROM person";
+		RequestBuilder<long[]> asArray = RequestBuilder.returningLongArray()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(sql).withResultCache(cache);
+		RequestBuilder<List<Long>> asList = RequestBuilder
+				.returningListOf(Long.class).withLogger(logger)
+				.withConnectionProvider(provider).withSQL(sql)
+				.withResultCache(cache);
+
+		assertThat(asArray.execute()).containsExactly(42L);
+		assertThat(asList.execute()).containsExactly(42L);
+		List<Long> cachedList = RequestBuilder.returningListOf(Long.class)
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(sql).withResultCache(cache).execute();
+		assertThat(cachedList).containsExactly(42L);
+		assertThatThrownBy(() -> cachedList.add(1L)).isInstanceOf(
+				UnsupportedOperationException.class);
+		asArray.withConnectionProvider(otherProvider).execute();
+		assertThat(RequestBuilder.returningLongStream().withLogger(logger)
+				.withConnectionProvider(provider).withSQL(sql)
+				.withResultCache(cache).execute().sum()).isEqualTo(42L);
+
+		verify(stmnt, times(4)).execute();
+		assertThat(cache.getStatistics().getHitCount()).isEqualTo(1);
+	}
+}
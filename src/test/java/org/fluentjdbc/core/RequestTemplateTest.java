@@ -0,0 +1,134 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.RequestTemplate;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class RequestTemplateTest implements ExtendedMockito, AssertJ {
+	private static final String SQL = "SELECT count(*) FROM t WHERE a=? AND b=?";
+
+	private ILogger logger;
+	private IJDBCConnectionProvider provider;
+	private Connection connection;
+	private PreparedStatement stmnt;
+	private ResultSet rs;
+
+	@Before
+	public void setUp() throws Exception {
+		logger = mock(ILogger.class);
+		provider = mock(IJDBCConnectionProvider.class);
+		connection = mock(Connection.class);
+		stmnt = mock(PreparedStatement.class);
+		rs = mock(ResultSet.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(rs);
+		when(rs.next()).thenReturn(true);
+		when(rs.getLong(1)).thenReturn(7L);
+	}
+
+	@Test
+	public void should_bind_values_passed_to_each_execution()
+			throws SQLException {
+		RequestTemplate<Long> template = RequestBuilder.returningLong()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(SQL).compile(long.class, String.class);
+
+		assertThat(template.execute(1L, "x")).isEqualTo(7L);
+		assertThat(template.execute(2L, null)).isEqualTo(7L);
+
+		verify(stmnt).setLong(1, 1L);
+		verify(stmnt).setString(2, "x");
+		verify(stmnt).setLong(1, 2L);
+		verify(stmnt).setString(2, null);
+		verify(stmnt, times(2)).execute();
+	}
+
+	@Test
+	public void should_bind_null_with_sql_type_for_boxed_primitives()
+			throws SQLException {
+		RequestBuilder.returningLong().withLogger(logger)
+				.withConnectionProvider(provider).withSQL(SQL)
+				.compile(Integer.class, String.class).execute(null, "y");
+
+		verify(stmnt).setNull(1, Types.INTEGER);
+	}
+
+	@Test
+	public void should_not_execute_with_wrong_parameters() throws SQLException {
+		RequestTemplate<Long> template = RequestBuilder.returningLong()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(SQL).compile(long.class, String.class);
+
+		assertThat(template.execute(1L)).isNull();
+		assertThat(template.execute("1", "x")).isNull();
+		verify(provider, never()).getConnection();
+	}
+
+	@Test
+	public void should_execute_parameter_sets_on_one_connection()
+			throws SQLException {
+		RequestTemplate<Long> template = RequestBuilder.returningLong()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(SQL).compile(long.class, String.class);
+
+		List<Long> results = template.executeMultiple(Arrays.asList(
+				new Object[] { 1L, "x" }, new Object[] { 2L, "y" },
+				new Object[] { 3L, "z" }));
+
+		assertThat(results).containsExactly(7L, 7L, 7L);
+		verify(provider, times(1)).getConnection();
+		verify(connection, times(1)).prepareStatement(SQL);
+		verify(stmnt).setLong(1, 1L);
+		verify(stmnt).setString(2, "y");
+		verify(stmnt).setLong(1, 3L);
+		verify(stmnt, times(3)).execute();
+	}
+
+	@Test
+	public void should_collect_errors_of_parameter_sets() throws SQLException {
+		SQLException failure = new SQLException("no such table");
+		when(connection.prepareStatement(anyString())).thenThrow(failure);
+		RequestTemplate<Long> template = RequestBuilder.returningLong()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(SQL).compile(long.class, String.class);
+		List<SQLException> errors = new ArrayList<SQLException>();
+
+		template.executeMultipleWithErrorCollector(errors,
+				Arrays.<Object[]> asList(new Object[] { 1L, "x" }));
+
+		assertThat(errors).containsExactly(failure);
+	}
+
+	@Test
+	public void should_not_change_builder_when_executed() throws SQLException {
+		RequestBuilder<Long> builder = RequestBuilder.returningLong()
+				.withLogger(logger).withConnectionProvider(provider)
+				.withSQL(SQL).addParam(1L).addParam("x");
+
+		assertThat(builder.execute()).isEqualTo(7L);
+		assertThat(builder.execute()).isEqualTo(7L);
+		verify(stmnt, times(2)).execute();
+	}
+
+	@Test(expected = IllegalStateException.class)
+	public void should_refuse_to_compile_without_connection() {
+		RequestBuilder.returningLong().withSQL(SQL).compile(long.class);
+	}
+}
@@ -0,0 +1,367 @@
+package org.fluentjdbc.core;
+
+import java.sql.BatchUpdateException;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.JDBCArgumentSetter;
+import com.github.aro_tech.fluent_jdbc.core.connection.CachingConnection;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCache;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCacheStatistics;
+import com.github.aro_tech.fluent_jdbc.core.impl.ExecutionSettings;
+import com.github.aro_tech.fluent_jdbc.core.impl.SQLExecutor;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQuery;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class SQLExecutorTest implements ExtendedMockito, AssertJ {
+	private static final String INSERT_SQL = "INSERT INTO t (id) VALUES (?)";
+
+	private ILogger logger;
+	private IJDBCConnectionProvider provider;
+	private Connection connection;
+	private PreparedStatement stmnt;
+
+	@Before
+	public void setUp() throws Exception {
+		logger = mock(ILogger.class);
+		provider = mock(IJDBCConnectionProvider.class);
+		connection = mock(Connection.class);
+		stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+	}
+
+	private JDBCArgumentSetter[] idSetters(int count) {
+		JDBCArgumentSetter[] setters = new JDBCArgumentSetter[count];
+		for (int i = 0; i < count; i++) {
+			setters[i] = ArgumentSetterBuilder.withLogging(logger).add(i)
+					.build();
+		}
+		return setters;
+	}
+
+	@Test
+	public void should_send_batches_in_chunks_and_aggregate_update_counts()
+			throws SQLException {
+		when(stmnt.executeBatch()).thenReturn(new int[] { 1, 1 },
+				new int[] { 1, 1 }, new int[] { 1 });
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withBatchSize(2));
+
+		int[] counts = exec.executeBatch(provider, INSERT_SQL, idSetters(5));
+
+		assertThat(counts).containsExactly(1, 1, 1, 1, 1);
+		verify(stmnt, times(5)).addBatch();
+		verify(stmnt, times(3)).executeBatch();
+		verify(stmnt).close();
+		verify(connection).close();
+		assertThat(exec.getCaughtErrors()).isEmpty();
+	}
+
+	@Test
+	public void should_report_failed_chunk_and_continue_with_next_chunks()
+			throws SQLException {
+		BatchUpdateException failure = new BatchUpdateException("duplicate",
+				new int[] { 1, Statement.EXECUTE_FAILED });
+		when(stmnt.executeBatch()).thenReturn(new int[] { 1, 1 })
+				.thenThrow(failure).thenReturn(new int[] { 1 });
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withBatchSize(2));
+
+		int[] counts = exec.executeBatch(provider, INSERT_SQL, idSetters(5));
+
+		assertThat(counts).containsExactly(1, 1, 1, Statement.EXECUTE_FAILED,
+				1);
+		assertThat(exec.getCaughtErrors()).containsExactly(failure);
+	}
+
+	@Test
+	public void should_keep_batch_error_and_close_statement_when_clear_batch_fails()
+			throws SQLException {
+		SQLException failure = new SQLException("connection lost");
+		when(stmnt.executeBatch()).thenThrow(failure);
+		doThrow(new SQLException("connection closed")).when(stmnt)
+				.clearBatch();
+		AtomicBoolean closed = new AtomicBoolean(false);
+		doAnswer(invocation -> {
+			closed.set(true);
+			return null;
+		}).when(stmnt).close();
+		when(stmnt.isClosed()).thenAnswer(invocation -> closed.get());
+		StatementCache cache = new StatementCache(connection, 4,
+				new StatementCacheStatistics());
+		Connection cachingConnection = new CachingConnection(connection,
+				cache);
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults());
+
+		assertThatThrownBy(
+				() -> exec.executeBatch(INSERT_SQL, cachingConnection,
+						idSetters(2))).isSameAs(failure);
+
+		assertThat(closed.get()).isTrue();
+		assertThat(cache.size()).isEqualTo(0);
+	}
+
+	@Test
+	public void should_stream_rows_with_cursor_and_release_resources()
+			throws SQLException {
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+		when(connection.getMetaData()).thenReturn(metaData);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(
+				connection.prepareStatement(anyString(),
+						eq(ResultSet.TYPE_FORWARD_ONLY),
+						eq(ResultSet.CONCUR_READ_ONLY))).thenReturn(stmnt);
+		ResultSet rs = mock(ResultSet.class);
+		when(stmnt.executeQuery()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, true, true, false);
+		when(rs.getLong(1)).thenReturn(1L, 2L, 3L);
+		SQLExecutor<Long> exec = new SQLExecutor<Long>(logger,
+				ExecutionSettings.defaults().withFetchSize(50));
+
+		List<Long> ids;
+		try (Stream<Long> rows = exec.stream(provider, "SELECT id FROM t",
+				null, r -> r.getLong(1))) {
+			ids = rows.collect(Collectors.toList());
+		}
+
+		assertThat(ids).containsExactly(1L, 2L, 3L);
+		verify(stmnt).setFetchSize(50);
+		verify(connection).setAutoCommit(false);
+		verify(connection).setAutoCommit(true);
+		verify(rs).close();
+		verify(stmnt).close();
+		verify(connection).close();
+	}
+
+	@Test
+	public void should_roll_back_cursor_stream_when_reading_fails()
+			throws SQLException {
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+		when(connection.getMetaData()).thenReturn(metaData);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(
+				connection.prepareStatement(anyString(),
+						eq(ResultSet.TYPE_FORWARD_ONLY),
+						eq(ResultSet.CONCUR_READ_ONLY))).thenReturn(stmnt);
+		ResultSet rs = mock(ResultSet.class);
+		when(stmnt.executeQuery()).thenReturn(rs);
+		SQLException failure = new SQLException("connection lost");
+		when(rs.next()).thenReturn(true).thenThrow(failure);
+		when(rs.getLong(1)).thenReturn(1L);
+		SQLExecutor<Long> exec = new SQLExecutor<Long>(logger,
+				ExecutionSettings.defaults().withFetchSize(50));
+
+		List<Long> ids;
+		try (Stream<Long> rows = exec.stream(provider, "SELECT id FROM t",
+				null, r -> r.getLong(1))) {
+			ids = rows.collect(Collectors.toList());
+		}
+
+		assertThat(ids).containsExactly(1L);
+		assertThat(exec.getCaughtErrors()).containsExactly(failure);
+		verify(connection).rollback();
+		verify(connection, never()).commit();
+		verify(connection).setAutoCommit(true);
+		verify(connection).close();
+	}
+
+	@Test
+	public void should_run_parameter_sets_on_several_connections_and_keep_order()
+			throws SQLException {
+		when(provider.getConnection()).thenAnswer(invocation -> {
+			Connection c = mock(Connection.class);
+			PreparedStatement s = mock(PreparedStatement.class);
+			when(c.prepareStatement(anyString())).thenReturn(s);
+			when(s.execute()).thenReturn(true);
+			when(s.getResultSet()).thenReturn(mock(ResultSet.class));
+			return c;
+		});
+		final ThreadLocal<Integer> boundId = new ThreadLocal<Integer>();
+		JDBCArgumentSetter[] setters = new JDBCArgumentSetter[10];
+		for (int i = 0; i < setters.length; i++) {
+			final int id = i;
+			setters[i] = s -> boundId.set(id);
+		}
+		SQLExecutor<Integer> exec = new SQLExecutor<Integer>(logger,
+				ExecutionSettings.defaults().withParallelism(3));
+
+		List<Integer> results = exec.executeMultiple(provider,
+				"SELECT * FROM t WHERE id=?", rs -> boundId.get(), setters);
+
+		assertThat(results).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+		verify(provider, times(3)).getConnection();
+		assertThat(exec.getCaughtErrors()).isEmpty();
+	}
+
+	@Test
+	public void should_run_parallel_chunks_without_deadlock_on_busy_executor()
+			throws Exception {
+		when(provider.getConnection()).thenAnswer(invocation -> {
+			Connection c = mock(Connection.class);
+			when(c.prepareStatement(anyString())).thenReturn(
+					mock(PreparedStatement.class));
+			return c;
+		});
+		ExecutorService pool = Executors.newSingleThreadExecutor();
+		try {
+			SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+					ExecutionSettings.defaults().withParallelism(3)
+							.withExecutor(pool));
+
+			// the only thread of the pool runs executeMultiple() itself
+			pool.submit(
+					() -> exec.executeMultiple(provider, INSERT_SQL, null,
+							idSetters(6))).get(10, TimeUnit.SECONDS);
+
+			verify(provider, times(3)).getConnection();
+			assertThat(exec.getCaughtErrors()).isEmpty();
+		} finally {
+			pool.shutdownNow();
+		}
+	}
+
+	@Test
+	public void should_insert_parameter_sets_with_multi_row_statements()
+			throws SQLException {
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withMultiRowInserts(4));
+
+		exec.executeMultiple(provider, INSERT_SQL, null, idSetters(5));
+
+		verify(connection).prepareStatement(
+				"INSERT INTO t (id) VALUES (?), (?), (?), (?)");
+		verify(connection).prepareStatement(INSERT_SQL);
+		verify(stmnt, times(2)).executeUpdate();
+		verify(stmnt).setInt(4, 3);
+		verify(stmnt).setInt(1, 0);
+		verify(stmnt).setInt(1, 4);
+		verify(connection, times(1)).close();
+		assertThat(exec.getCaughtErrors()).isEmpty();
+	}
+
+	@Test
+	public void should_stop_multi_row_inserts_at_first_failure()
+			throws SQLException {
+		SQLException failure = new SQLException("duplicate key");
+		when(stmnt.executeUpdate()).thenThrow(failure);
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withMultiRowInserts(2));
+
+		exec.executeMultiple(provider, INSERT_SQL, null, idSetters(5));
+
+		verify(stmnt, times(1)).executeUpdate();
+		verify(stmnt).close();
+		verify(connection).close();
+		assertThat(exec.getCaughtErrors()).containsExactly(failure);
+	}
+
+	@Test
+	public void should_report_slow_batches_and_multi_row_inserts()
+			throws SQLException {
+		when(stmnt.executeBatch()).thenReturn(new int[] { 1, 1 },
+				new int[] { 1 });
+		try (SlowQueryDetector detector = new SlowQueryDetector(0,
+				TimeUnit.MILLISECONDS)) {
+			ExecutionSettings settings = ExecutionSettings.defaults()
+					.withSlowQueryDetector(detector);
+
+			new SQLExecutor<Void>(logger, settings.withBatchSize(2))
+					.executeBatch(provider, INSERT_SQL, idSetters(3));
+			new SQLExecutor<Void>(logger, settings.withMultiRowInserts(4))
+					.executeMultiple(provider, INSERT_SQL, null, idSetters(5));
+
+			assertThat(detector.getSlowQueries()).extracting(SlowQuery::getSql)
+					.containsExactly(INSERT_SQL, INSERT_SQL,
+							"INSERT INTO t (id) VALUES (?), (?), (?), (?)",
+							INSERT_SQL);
+			assertThat(detector.getSlowQueries().get(2).getParameters())
+					.isEqualTo("1) (int) 0 2) (int) 1 3) (int) 2 4) (int) 3 ");
+		}
+	}
+
+	@Test
+	public void should_shift_parameter_indexes_of_plain_argument_setters()
+			throws SQLException {
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withMultiRowInserts(8));
+
+		exec.executeMultiple(provider, "INSERT INTO t (id, name) VALUES (?, ?)",
+				null, s -> s.setString(2, "a"), s -> s.setString(2, "b"));
+
+		verify(connection).prepareStatement(
+				"INSERT INTO t (id, name) VALUES (?, ?), (?, ?)");
+		verify(stmnt).setString(2, "a");
+		verify(stmnt).setString(4, "b");
+	}
+
+	@Test
+	public void should_not_rewrite_inserts_returning_rows() throws SQLException {
+		SQLExecutor<Void> exec = new SQLExecutor<Void>(logger,
+				ExecutionSettings.defaults().withMultiRowInserts(8));
+
+		exec.executeMultiple(provider, INSERT_SQL + " RETURNING id", null,
+				idSetters(3));
+
+		verify(connection, times(1)).prepareStatement(
+				INSERT_SQL + " RETURNING id");
+		verify(stmnt, times(3)).execute();
+		verify(stmnt, never()).executeUpdate();
+	}
+
+	@Test
+	public void should_fetch_query_rows_in_chunks_and_reset_cached_statement()
+			throws SQLException {
+		DatabaseMetaData metaData = mock(DatabaseMetaData.class);
+		when(metaData.getDatabaseProductName()).thenReturn("PostgreSQL");
+		when(connection.getMetaData()).thenReturn(metaData);
+		when(connection.getAutoCommit()).thenReturn(true);
+		ResultSet rs = mock(ResultSet.class);
+		when(stmnt.execute()).thenReturn(true);
+		when(stmnt.getResultSet()).thenReturn(rs);
+		when(rs.next()).thenReturn(true, false);
+		when(rs.getLong(1)).thenReturn(7L);
+		Connection cachingConnection = new CachingConnection(connection,
+				new StatementCache(connection, 4,
+						new StatementCacheStatistics()));
+		SQLExecutor<Long> exec = new SQLExecutor<Long>(logger,
+				ExecutionSettings.defaults().withFetchSize(100)
+						.withMaxRows(10));
+
+		Long id = exec.execute("SELECT id FROM t", null,
+				r -> r.next() ? r.getLong(1) : null, cachingConnection);
+
+		assertThat(id).isEqualTo(7L);
+		verify(connection).setAutoCommit(false);
+		verify(stmnt).setFetchSize(100);
+		verify(stmnt).setMaxRows(10);
+		verify(stmnt).execute();
+		verify(stmnt).setFetchSize(0);
+		verify(stmnt).setMaxRows(0);
+		verify(connection).commit();
+		verify(connection).setAutoCommit(true);
+		verify(stmnt, never()).close();
+	}
+}
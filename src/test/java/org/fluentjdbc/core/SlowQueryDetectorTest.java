@@ -0,0 +1,151 @@
+package org.fluentjdbc.core;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.arguments.ArgumentSetterBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.fluent_jdbc.core.metrics.QueryPlan;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQuery;
+import com.github.aro_tech.fluent_jdbc.core.metrics.SlowQueryDetector;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class SlowQueryDetectorTest implements ExtendedMockito, AssertJ {
+	private static final String SQL = "SELECT name FROM person WHERE id = ?";
+	private static final String PLAN = "[{\"Plan\": {\"Node Type\": \"Seq Scan\"}}]";
+
+	@Test
+	public void should_keep_last_slow_executions_only() {
+		SlowQueryDetector detector = new SlowQueryDetector(10,
+				TimeUnit.MILLISECONDS, 2, null, 0);
+
+		detector.executed("fast", null, TimeUnit.MILLISECONDS.toNanos(9),
+				false);
+		for (int i = 1; i <= 3; i++) {
+			detector.executed(SQL, ArgumentSetterBuilder.withLogging(null)
+					.add(i).build(), TimeUnit.MILLISECONDS.toNanos(10 * i),
+					3 == i);
+		}
+
+		assertThat(detector.getSlowQueryCount()).isEqualTo(3);
+		assertThat(detector.getSlowQueries()).extracting(
+				q -> q.getElapsed(TimeUnit.MILLISECONDS)).containsExactly(20L,
+				30L);
+		SlowQuery last = detector.getSlowQueries().get(1);
+		assertThat(last.getSql()).isEqualTo(SQL);
+		assertThat(last.getParameters()).isEqualTo("1) (int) 3 ");
+		assertThat(last.isFailed()).isTrue();
+		assertThat(detector.getPlans()).isEmpty();
+	}
+
+	@Test
+	public void should_explain_slow_statement_once_per_interval()
+			throws SQLException, InterruptedException {
+		IJDBCConnectionProvider provider = mock(IJDBCConnectionProvider.class);
+		Connection connection = mock(Connection.class);
+		PreparedStatement stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.prepareStatement(SQL)).thenReturn(stmnt);
+		when(stmnt.execute()).thenReturn(false);
+		IJDBCConnectionProvider explainProvider = mock(IJDBCConnectionProvider.class);
+		Connection explainConnection = mock(Connection.class);
+		PreparedStatement explainStmnt = mock(PreparedStatement.class);
+		ResultSet plan = mock(ResultSet.class);
+		when(explainProvider.getConnection()).thenReturn(explainConnection);
+		when(explainConnection.prepareStatement("EXPLAIN (FORMAT JSON) " + SQL))
+				.thenReturn(explainStmnt);
+		when(explainStmnt.executeQuery()).thenReturn(plan);
+		when(plan.next()).thenReturn(true, false);
+		when(plan.getString(1)).thenReturn(PLAN);
+
+		try (SlowQueryDetector detector = new SlowQueryDetector(0,
+				TimeUnit.MILLISECONDS, 10, explainProvider, 60000)) {
+			RequestBuilder<String> request = RequestBuilder
+					.returning(String.class).withLogger(mock(ILogger.class))
+					.withConnectionProvider(provider).withSQL(SQL)
+					.withSlowQueryDetector(detector)
+					.withResultReader(rs -> null);
+			request.addParam(42L).execute();
+			QueryPlan captured = null;
+			for (int i = 0; i < 500 && null == captured; i++) {
+				Thread.sleep(10);
+				captured = detector.getPlan(SQL);
+			}
+			request.execute();
+
+			assertThat(captured).isNotNull();
+			assertThat(captured.getPlan()).isEqualTo(PLAN);
+			assertThat(captured.getParameters()).isEqualTo("1) (long) 42 ");
+			assertThat(detector.getSlowQueries()).hasSize(2);
+			verify(explainStmnt).setLong(1, 42L);
+			verify(explainProvider, times(1)).getConnection();
+		}
+	}
+
+	@Test
+	public void should_only_explain_replayable_parameter_buffers()
+			throws Exception {
+		IJDBCConnectionProvider explainProvider = mock(IJDBCConnectionProvider.class);
+		Connection explainConnection = mock(Connection.class);
+		PreparedStatement explainStmnt = mock(PreparedStatement.class);
+		ResultSet plan = mock(ResultSet.class);
+		when(explainProvider.getConnection()).thenReturn(explainConnection);
+		when(explainConnection.prepareStatement("EXPLAIN (FORMAT JSON) " + SQL))
+				.thenReturn(explainStmnt);
+		when(explainStmnt.executeQuery()).thenReturn(plan);
+		when(plan.next()).thenReturn(true, false);
+		when(plan.getString(1)).thenReturn(PLAN);
+		InputStream stream = new ByteArrayInputStream(new byte[] { 1, 2, 3 });
+		AtomicInteger lambdaCalls = new AtomicInteger();
+
+		try (SlowQueryDetector detector = new SlowQueryDetector(0,
+				TimeUnit.MILLISECONDS, 10, explainProvider, 60000)) {
+			detector.executed(SQL, ArgumentSetterBuilder.withLogging(null)
+					.add(stream, 3L).build(), 1L, false);
+			detector.executed(SQL, s -> lambdaCalls.incrementAndGet(), 1L,
+					false);
+			detector.executed(SQL, ArgumentSetterBuilder.withLogging(null)
+					.add(7L).build(), 1L, false);
+			QueryPlan captured = null;
+			for (int i = 0; i < 500 && null == captured; i++) {
+				Thread.sleep(10);
+				captured = detector.getPlan(SQL);
+			}
+
+			assertThat(captured).isNotNull();
+			assertThat(captured.getParameters()).isEqualTo("1) (long) 7 ");
+			assertThat(detector.getSlowQueries()).hasSize(3);
+			assertThat(stream.available()).isEqualTo(3);
+			assertThat(lambdaCalls.get()).isEqualTo(0);
+			verify(explainProvider, times(1)).getConnection();
+		}
+	}
+
+	@Test
+	public void should_log_plan_failures_to_given_logger() throws Exception {
+		IJDBCConnectionProvider explainProvider = mock(IJDBCConnectionProvider.class);
+		SQLException failure = new SQLException("no EXPLAIN here");
+		when(explainProvider.getConnection()).thenThrow(failure);
+		ILogger logger = mock(ILogger.class);
+
+		try (SlowQueryDetector detector = new SlowQueryDetector(0,
+				TimeUnit.MILLISECONDS, 10, explainProvider, 60000, logger)) {
+			detector.executed(SQL, null, 1L, false);
+
+			verify(logger, timeout(5000)).warn(
+					"Failed to capture the plan of SQL request: " + SQL,
+					failure);
+		}
+	}
+}
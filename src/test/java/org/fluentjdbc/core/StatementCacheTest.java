@@ -0,0 +1,70 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCache;
+import com.github.aro_tech.fluent_jdbc.core.connection.StatementCacheStatistics;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class StatementCacheTest implements ExtendedMockito, AssertJ {
+
+	private Connection connection;
+	private StatementCacheStatistics stats;
+	private StatementCache cache;
+
+	@Before
+	public void setUp() throws Exception {
+		connection = mock(Connection.class);
+		when(connection.prepareStatement(anyString())).thenAnswer(
+				invocation -> mock(PreparedStatement.class));
+		stats = new StatementCacheStatistics();
+		cache = new StatementCache(connection, 2, stats);
+	}
+
+	@Test
+	public void should_reuse_statement_for_same_sql() throws SQLException {
+		PreparedStatement first = cache.borrow("SELECT 1");
+		cache.giveBack("SELECT 1", first);
+
+		assertThat(cache.borrow("SELECT 1")).isSameAs(first);
+		verify(connection, times(1)).prepareStatement("SELECT 1");
+		assertThat(stats.getHitCount()).isEqualTo(1);
+		assertThat(stats.getMissCount()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_prepare_another_statement_for_nested_use_of_same_sql()
+			throws SQLException {
+		PreparedStatement outer = cache.borrow("SELECT 1");
+		PreparedStatement nested = cache.borrow("SELECT 1");
+
+		assertThat(nested).isNotSameAs(outer);
+		cache.giveBack("SELECT 1", nested);
+		cache.giveBack("SELECT 1", outer);
+		verify(nested).close();
+		assertThat(cache.size()).isEqualTo(1);
+	}
+
+	@Test
+	public void should_close_least_recently_used_statement_when_full()
+			throws SQLException {
+		PreparedStatement a = cache.borrow("A");
+		cache.giveBack("A", a);
+		PreparedStatement b = cache.borrow("B");
+		cache.giveBack("B", b);
+		cache.giveBack("A", cache.borrow("A"));
+		PreparedStatement c = cache.borrow("C");
+		cache.giveBack("C", c);
+
+		verify(b).close();
+		verify(a, never()).close();
+		assertThat(cache.size()).isEqualTo(2);
+		assertThat(stats.getEvictionCount()).isEqualTo(1);
+	}
+}
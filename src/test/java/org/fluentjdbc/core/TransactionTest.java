@@ -0,0 +1,118 @@
+package org.fluentjdbc.core;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.aro_tech.extended_mockito.ExtendedMockito;
+import com.github.aro_tech.fluent_jdbc.core.RequestBuilder;
+import com.github.aro_tech.fluent_jdbc.core.connection.IJDBCConnectionProvider;
+import com.github.aro_tech.fluent_jdbc.core.connection.Transaction;
+import com.github.aro_tech.fluent_jdbc.core.connection.TransactionSettings;
+import com.github.aro_tech.fluent_jdbc.core.logging.ILogger;
+import com.github.aro_tech.tdd_mixins.AssertJ;
+
+public class TransactionTest implements ExtendedMockito, AssertJ {
+	private ILogger logger;
+	private IJDBCConnectionProvider provider;
+	private Connection connection;
+	private PreparedStatement stmnt;
+
+	@Before
+	public void setUp() throws Exception {
+		logger = mock(ILogger.class);
+		provider = mock(IJDBCConnectionProvider.class);
+		connection = mock(Connection.class);
+		stmnt = mock(PreparedStatement.class);
+		when(provider.getConnection()).thenReturn(connection);
+		when(connection.getAutoCommit()).thenReturn(true);
+		when(connection.getTransactionIsolation()).thenReturn(
+				Connection.TRANSACTION_READ_COMMITTED);
+		when(connection.prepareStatement(anyString())).thenReturn(stmnt);
+	}
+
+	private void update(String sql) {
+		RequestBuilder.returningVoid().withLogger(logger)
+				.withConnectionProvider(provider).withSQL(sql).execute();
+	}
+
+	@Test
+	public void should_run_requests_on_one_connection_and_commit()
+			throws SQLException {
+		try (Transaction tx = Transaction.begin(provider)) {
+			update("UPDATE a SET x=1");
+			update("UPDATE a SET x=1");
+			tx.commit();
+		}
+
+		verify(provider, times(1)).getConnection();
+		verify(connection).setAutoCommit(false);
+		verify(connection, times(1)).prepareStatement("UPDATE a SET x=1");
+		verify(stmnt, times(2)).execute();
+		verify(connection).commit();
+		verify(connection, never()).rollback();
+		verify(connection).setAutoCommit(true);
+		verify(connection).close();
+	}
+
+	@Test
+	public void should_roll_back_when_work_throws() throws SQLException {
+		SQLException failure = new SQLException("business rule");
+
+		assertThatThrownBy(() -> Transaction.inTransaction(provider, tx -> {
+			update("DELETE FROM a");
+			throw failure;
+		})).isSameAs(failure);
+
+		verify(connection, never()).commit();
+		verify(connection).rollback();
+		verify(connection).close();
+		assertThat(Transaction.current(provider)).isNull();
+	}
+
+	@Test
+	public void should_apply_and_restore_isolation_and_read_only()
+			throws SQLException {
+		String result = Transaction.inTransaction(provider, TransactionSettings
+				.defaults().withIsolation(Connection.TRANSACTION_SERIALIZABLE)
+				.withReadOnly(true), tx -> "done");
+
+		assertThat(result).isEqualTo("done");
+		verify(connection).setTransactionIsolation(
+				Connection.TRANSACTION_SERIALIZABLE);
+		verify(connection).setReadOnly(true);
+		verify(connection).setReadOnly(false);
+		verify(connection).setTransactionIsolation(
+				Connection.TRANSACTION_READ_COMMITTED);
+	}
+
+	@Test
+	public void should_roll_back_to_savepoint() throws SQLException {
+		Savepoint savepoint = mock(Savepoint.class);
+		when(connection.setSavepoint("step")).thenReturn(savepoint);
+
+		try (Transaction tx = Transaction.begin(provider)) {
+			Savepoint step = tx.setSavepoint("step");
+			tx.rollback(step);
+			tx.commit();
+		}
+
+		verify(connection).rollback(savepoint);
+		verify(connection).commit();
+	}
+
+	@Test
+	public void should_refuse_nested_transaction_on_same_provider()
+			throws SQLException {
+		try (Transaction tx = Transaction.begin(provider)) {
+			assertThatThrownBy(() -> Transaction.begin(provider)).isInstanceOf(
+					SQLException.class);
+			assertThat(Transaction.current(provider)).isSameAs(tx);
+		}
+		verify(provider, times(1)).getConnection();
+	}
+}